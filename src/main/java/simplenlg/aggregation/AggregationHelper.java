@@ -24,9 +24,9 @@ import java.util.List;
 
 import simplenlg.features.DiscourseFunction;
 import simplenlg.features.InternalFeature;
+import simplenlg.framework.ChildVisitor;
 import simplenlg.framework.ElementCategory;
 import simplenlg.framework.LexicalCategory;
-import simplenlg.framework.ListElement;
 import simplenlg.framework.NLGElement;
 import simplenlg.framework.PhraseCategory;
 
@@ -78,19 +78,20 @@ public class AggregationHelper {
 	}
 
 	private static List<NLGElement> getAllChildren(NLGElement element) {
-		List<NLGElement> children = new ArrayList<NLGElement>();
-		List<NLGElement> components = element instanceof ListElement ? element
-				.getFeatureAsElementList(InternalFeature.COMPONENTS) : element
-				.getChildren();
+		final List<NLGElement> children = new ArrayList<NLGElement>();
 
-		for (NLGElement child : components) {
-			children.add(child);
+		// the children of verb phrases are added after them
+		element.visitChildren(new ChildVisitor() {
+			public boolean visit(NLGElement child) {
+				children.add(child);
 
-			if (child.getCategory() == PhraseCategory.VERB_PHRASE
-					|| child.getFeature(InternalFeature.DISCOURSE_FUNCTION) == DiscourseFunction.VERB_PHRASE) {
-				children.addAll(getAllChildren(child));
+				if (child.getCategory() == PhraseCategory.VERB_PHRASE
+						|| child.getFeature(InternalFeature.DISCOURSE_FUNCTION) == DiscourseFunction.VERB_PHRASE) {
+					child.visitChildren(this, false);
+				}
+				return true;
 			}
-		}
+		}, false);
 
 		return children;
 	}
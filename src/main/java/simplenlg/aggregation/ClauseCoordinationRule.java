@@ -167,8 +167,8 @@ public class ClauseCoordinationRule extends AggregationRule {
 					// test for coordinated phrase added by vaudrypl
 					Lexicon lexicon = subj.getLexicon();
 					if (subj instanceof CoordinatedPhraseElement
-							&& ((CoordinatedPhraseElement)subj).getConjunction()
-								.equals(lexicon.getAdditionCoordConjunction()) ) {
+							&& lexicon.getAdditionCoordConjunction().isSameEntry(
+								((CoordinatedPhraseElement)subj).getConjunction()) ) {
 						for (NLGElement subjCoordinate : ((CoordinatedPhraseElement)subj).getChildren() ) {
 							subjects.addCoordinate(subjCoordinate);
 						}
@@ -18,7 +18,9 @@
  */
 package simplenlg.format.english;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import simplenlg.framework.DocumentCategory;
@@ -54,99 +56,266 @@ public class TextFormatter extends NLGModule {
 
 	@Override
 	public NLGElement realise(NLGElement element) {
-		NLGElement realisedComponent = null;
-		StringBuffer realisation = new StringBuffer();
+		StringBuilder realisation = new StringBuilder();
+		try {
+			format(element, realisation);
+		} catch (IOException e) {
+			// a StringBuilder never throws it
+			throw new IllegalStateException(e);
+		}
+		return new StringElement(realisation.toString());
+	}
+
+	/**
+	 * Formats an element and writes the text to an output, in the same way
+	 * as realise(NLGElement), but each component is written straight to the
+	 * output instead of being copied into the realisation of its parent.
+	 * 
+	 * @param element
+	 *            the element, after orthography
+	 * @param output
+	 *            where the text is written
+	 * @throws IOException
+	 *             if the output can't be written
+	 */
+	public void format(NLGElement element, Appendable output) throws IOException {
+		format(element, new Output(output));
+	}
+
+	/**
+	 * Formats an element and writes the text to an output.
+	 * 
+	 * @param element
+	 *            the element, after orthography
+	 * @param output
+	 *            where the text is written
+	 * @throws IOException
+	 *             if the output can't be written
+	 */
+	public void format(NLGElement element, Output output) throws IOException {
+		//NB: The order of the if-statements below is important!
 		
-		if (element != null) {
-			ElementCategory category = element.getCategory();
-			List<NLGElement> components = element.getChildren();
+		// check if this is a canned text first
+		if (element instanceof StringElement
+				|| element != null && element.getCategory() == DocumentCategory.SENTENCE) {
+			output.startElement();
+			output.append(element.getRealisation());
+			output.endElement();
+		} else {
+			startElement(element, output);
+			if (hasFormattedComponents(element)) {
+				List<NLGElement> components = element.getChildren();
+				for (int index = 0; index < components.size(); index++) {
+					startComponent(element, index, output);
+					format(components.get(index), output);
+					endComponent(element, output);
+				}
+			}
+			endElement(element, output);
+		}
+	}
 
-			//NB: The order of the if-statements below is important!
-			
-			// check if this is a canned text first
-			if (element instanceof StringElement) {
-				realisation.append(element.getRealisation());
+	/**
+	 * @param element
+	 * @return true if the components of the element are formatted, false
+	 *         if the element is canned text, a sentence, or has no text of
+	 *         its own
+	 */
+	private static boolean hasFormattedComponents(NLGElement element) {
+		if (element == null || element instanceof StringElement) return false;
+		ElementCategory category = element.getCategory();
+		if (category instanceof DocumentCategory) {
+			return category != DocumentCategory.SENTENCE;
+		}
+		// also need to check if element is a listelement (items can
+		// have embedded lists post-orthography)
+		return element instanceof ListElement;
+	}
+
+	/**
+	 * Starts the text of an element whose components are formatted
+	 * separately (a document, section, list, paragraph or list item) : the
+	 * title or the list item mark.
+	 * 
+	 * @param element
+	 * @param output
+	 * @throws IOException
+	 */
+	public void startElement(NLGElement element, Output output) throws IOException {
+		output.startElement();
+		if (element == null) return;
+		ElementCategory category = element.getCategory();
+		if (category instanceof DocumentCategory) {
+			switch ((DocumentCategory) category) {
 
-			} else if (category instanceof DocumentCategory) {
+			case DOCUMENT:
+			case SECTION:
+			case LIST:
 				// && element instanceof DocumentElement
 				String title = element instanceof DocumentElement ? ((DocumentElement) element)
 						.getTitle()
 						: null;
-				// String title = ((DocumentElement) element).getTitle();
-
-				switch ((DocumentCategory) category) {
-
-				case DOCUMENT:
-				case SECTION:
-				case LIST:
-					if (title != null) {
-						realisation.append(title).append('\n');
-					}
-					for (NLGElement eachComponent : components) {
-						realisedComponent = realise(eachComponent);
-						if (realisedComponent != null) {
-							realisation.append(realisedComponent
-									.getRealisation());
-						}
-					}
-					break;
-
-				case PARAGRAPH:
-					if (null != components && 0 < components.size()) {
-						realisedComponent = realise(components.get(0));
-						if (realisedComponent != null) {
-							realisation.append(realisedComponent
-									.getRealisation());
-						}
-						for (int i = 1; i < components.size(); i++) {
-							if (realisedComponent != null) {
-								realisation.append(' ');
-							}
-							realisedComponent = realise(components.get(i));
-							if (realisedComponent != null) {
-								realisation.append(realisedComponent
-										.getRealisation());
-							}
-						}
-					}
-					realisation.append("\n\n");
-					break;
-
-				case SENTENCE:
-					realisation.append(element.getRealisation());
-					break;
-
-				case LIST_ITEM:
-					// cch fix
-					//realisation.append(" * ").append(element.getRealisation()); //$NON-NLS-1$
-					realisation.append(" * "); //$NON-NLS-1$
-
-					for (NLGElement eachComponent : components) {
-						realisedComponent = realise(eachComponent);
-						if (realisedComponent != null) {
-							realisation.append(realisedComponent
-									.getRealisation()).append(' ');							
-						}
-					}
-					//finally, append newline
-					realisation.append("\n");
-					break;
+				if (title != null) {
+					output.append(title);
+					output.append("\n");
 				}
+				break;
 
-				// also need to check if element is a listelement (items can
-				// have embedded lists post-orthography)
-			} else if (element instanceof ListElement) {
-				for (NLGElement eachComponent : components) {
-					realisedComponent = realise(eachComponent);
-					if (realisedComponent != null) {
-						realisation.append(realisedComponent.getRealisation()).append(' ');
-					}
-				}
+			case LIST_ITEM:
+				// cch fix
+				//realisation.append(" * ").append(element.getRealisation()); //$NON-NLS-1$
+				output.append(" * "); //$NON-NLS-1$
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Writes the separator before a component of an element.
+	 * 
+	 * @param element
+	 * @param index
+	 *            index of the component among the components formatted
+	 * @param output
+	 * @throws IOException
+	 */
+	public void startComponent(NLGElement element, int index, Output output)
+			throws IOException {
+		if (index > 0 && element.getCategory() == DocumentCategory.PARAGRAPH) {
+			output.append(" ");
+		}
+	}
+
+	/**
+	 * Writes the separator after a component of an element.
+	 * 
+	 * @param element
+	 * @param output
+	 * @throws IOException
+	 */
+	public void endComponent(NLGElement element, Output output) throws IOException {
+		ElementCategory category = element.getCategory();
+		if (category == DocumentCategory.LIST_ITEM
+				|| !(category instanceof DocumentCategory) && element instanceof ListElement) {
+			output.append(" ");
+		}
+	}
 
+	/**
+	 * Ends the text of an element whose components are formatted separately.
+	 * 
+	 * @param element
+	 * @param output
+	 * @throws IOException
+	 */
+	public void endElement(NLGElement element, Output output) throws IOException {
+		if (element != null) {
+			ElementCategory category = element.getCategory();
+			if (category == DocumentCategory.PARAGRAPH) {
+				output.append("\n\n");
+			} else if (category == DocumentCategory.LIST_ITEM) {
+				//finally, append newline
+				output.append("\n");
 			}
 		}
-		
-		return new StringElement(realisation.toString());
+		output.endElement();
+	}
+
+	/**
+	 * The output of the text formatted. As the realisation of a component is
+	 * trimmed before being added to its parent (see
+	 * NLGElement.getRealisation), the spaces at the start and the end of the
+	 * text of each element aren't written : they are only written before the
+	 * next character which isn't a space.
+	 */
+	public static final class Output {
+		private final Appendable output;
+
+		// spaces not written yet
+		private int spaces = 0;
+
+		// number of strings written
+		private int texts = 0;
+
+		// spaces before the outermost element being formatted which has no
+		// text yet, -1 if they all have text
+		private int leadingSpaces = -1;
+
+		// for each element being formatted : the spaces and the number of
+		// strings written before it, and whether it is the outermost one
+		// without text
+		private int[] startSpaces = new int[16];
+		private int[] startTexts = new int[16];
+		private boolean[] outermost = new boolean[16];
+		private int depth = 0;
+
+		/**
+		 * @param output
+		 *            where the text is written
+		 */
+		public Output(Appendable output) {
+			this.output = output;
+		}
+
+		/**
+		 * Starts the text of an element.
+		 */
+		private void startElement() {
+			if (this.depth == this.startSpaces.length) {
+				this.startSpaces = Arrays.copyOf(this.startSpaces, 2 * this.depth);
+				this.startTexts = Arrays.copyOf(this.startTexts, 2 * this.depth);
+				this.outermost = Arrays.copyOf(this.outermost, 2 * this.depth);
+			}
+			this.startSpaces[this.depth] = this.spaces;
+			this.startTexts[this.depth] = this.texts;
+			this.outermost[this.depth] = this.leadingSpaces < 0;
+			if (this.leadingSpaces < 0) this.leadingSpaces = this.spaces;
+			this.depth++;
+		}
+
+		/**
+		 * Ends the text of an element, leaving out its spaces at the end.
+		 */
+		private void endElement() {
+			this.depth--;
+			if (this.texts > this.startTexts[this.depth]) {
+				this.spaces = 0;
+			} else {
+				this.spaces = this.startSpaces[this.depth];
+				if (this.outermost[this.depth]) this.leadingSpaces = -1;
+			}
+		}
+
+		/**
+		 * Adds a string to the text of the element being formatted.
+		 * 
+		 * @param string
+		 * @throws IOException
+		 */
+		private void append(String string) throws IOException {
+			int start = 0;
+			int end = string.length();
+			while (start < end && string.charAt(start) == ' ') start++;
+			if (start == end) {
+				this.spaces += end;
+				return;
+			}
+			while (string.charAt(end - 1) == ' ') end--;
+
+			this.spaces += start;
+			if (this.leadingSpaces >= 0) {
+				// leave out the spaces at the start of the elements which
+				// had no text yet
+				this.spaces = Math.min(this.spaces, this.leadingSpaces);
+				this.leadingSpaces = -1;
+			}
+			for (; this.spaces > 0; this.spaces--) {
+				this.output.append(' ');
+			}
+			this.output.append(string, start, end);
+			this.spaces = string.length() - end;
+			this.texts++;
+		}
 	}
 
 	@Override
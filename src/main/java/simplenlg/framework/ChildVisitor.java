@@ -0,0 +1,37 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+/**
+ * A visitor of the children of an element, which
+ * <code>NLGElement.visitChildren</code> calls for each child in turn,
+ * without making a list of them as <code>getChildren</code> does.
+ */
+public interface ChildVisitor {
+
+	/**
+	 * Visits a child.
+	 * 
+	 * @param child
+	 *            the child, never <code>null</code>.
+	 * @return <code>true</code> to go on with the next child,
+	 *         <code>false</code> to stop.
+	 */
+	boolean visit(NLGElement child);
+}
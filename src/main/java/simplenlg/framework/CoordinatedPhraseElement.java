@@ -19,10 +19,7 @@
 
 package simplenlg.framework;
 
-import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 
 import simplenlg.features.Feature;
 import simplenlg.features.Gender;
@@ -58,9 +55,6 @@ import simplenlg.framework.LexicalCategory;
  */
 public class CoordinatedPhraseElement extends NLGElement {
 
-	// added by vaudrypl
-	private static Map<Language, AbstractCoordinatedPhraseHelper> coordinatedPhraseHelpers = null; 
-	
 	// not used anymore, commented out by vaudrypl
 //	/** Coordinators which make the coordinate plural (eg, "and" but not "or")*/
 //	@SuppressWarnings("nls")
@@ -162,7 +156,7 @@ public class CoordinatedPhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the coordinated phrase helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language.
 	 * 
 	 * @param language
 	 * @return the coordinated phrase helper to be used to do the syntax of this language
@@ -170,26 +164,7 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 */
 	public static AbstractCoordinatedPhraseHelper getCoordinatedPhraseHelper(Language language)
 	{
-		if (coordinatedPhraseHelpers == null) {
-			coordinatedPhraseHelpers =
-				new EnumMap<Language,AbstractCoordinatedPhraseHelper>(Language.class); 
-		}
-		AbstractCoordinatedPhraseHelper coordinatedPhraseHelper =
-			coordinatedPhraseHelpers.get(language);
-		if (coordinatedPhraseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				coordinatedPhraseHelper =
-					new simplenlg.syntax.english.nonstatic.CoordinatedPhraseHelper();
-				break;
-			case FRENCH:
-				coordinatedPhraseHelper =
-					new simplenlg.syntax.french.CoordinatedPhraseHelper();
-				break;
-			}
-			coordinatedPhraseHelpers.put(language, coordinatedPhraseHelper);
-		}
-		return coordinatedPhraseHelper;
+		return LanguageHelpers.get(language).getCoordinatedPhraseHelper();
 	}
 
 	/**
@@ -205,21 +180,18 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 *            the new coordinate to be added.
 	 */
 	public void addCoordinate(Object newCoordinate) {
-		List<NLGElement> coordinates = getFeatureAsElementList(InternalFeature.COORDINATES);
-		if (coordinates == null) {
-			coordinates = new ArrayList<NLGElement>();
-			setFeature(InternalFeature.COORDINATES, coordinates);
-		} else if (coordinates.size() == 0) {
-			setFeature(InternalFeature.COORDINATES, coordinates);
-		}
+		// the coordinates are added without copying them
+		ElementList coordinates = ElementList.of(getFeature(InternalFeature.COORDINATES));
 		if (newCoordinate instanceof NLGElement) {
+			newCoordinate = WordElement.overlayIfFrozen((NLGElement) newCoordinate);
 			if (((NLGElement) newCoordinate).isA(PhraseCategory.CLAUSE)
 					&& coordinates.size() > 0) {
 
 				((NLGElement) newCoordinate).setFeature(
 						Feature.SUPRESSED_COMPLEMENTISER, true);
 			}
-			coordinates.add((NLGElement) newCoordinate);
+			coordinates = coordinates.append((NLGElement) newCoordinate);
+			setFeature(InternalFeature.COORDINATES, coordinates);
 			
 			// added by vaudrypl
 			((NLGElement)newCoordinate).setParent(this);
@@ -229,7 +201,7 @@ public class CoordinatedPhraseElement extends NLGElement {
 		} else if (newCoordinate instanceof String) {
 			NLGElement coordElement = new StringElement((String) newCoordinate);
 			coordElement.setFeature(Feature.SUPRESSED_COMPLEMENTISER, true);
-			coordinates.add(coordElement);
+			coordinates = coordinates.append(coordElement);
 			//added by vaudrypl
 			coordElement.setParent(this);
 		}
@@ -315,6 +287,27 @@ public class CoordinatedPhraseElement extends NLGElement {
 		return this.getFeatureAsElementList(InternalFeature.COORDINATES);
 	}
 
+	@Override
+	public boolean visitChildren(ChildVisitor visitor, boolean reverse) {
+		return visitFeatureElements(InternalFeature.COORDINATES, visitor, reverse);
+	}
+
+	/**
+	 * Sets a feature of this coordination. The frozen words of the lexicon
+	 * set as coordinates, modifiers or complements are replaced by overlays,
+	 * as in PhraseElement.setFeature.
+	 */
+	@Override
+	public void setFeature(String featureName, Object featureValue) {
+		if (InternalFeature.COORDINATES.equals(featureName)
+				|| InternalFeature.PREMODIFIERS.equals(featureName)
+				|| InternalFeature.POSTMODIFIERS.equals(featureName)
+				|| InternalFeature.COMPLEMENTS.equals(featureName)) {
+			featureValue = WordElement.overlayFrozenChildren(featureValue);
+		}
+		super.setFeature(featureName, featureValue);
+	}
+
 	/**
 	 * Clears the existing coordinates in this coordination. It performs exactly
 	 * the same as <code>removeFeature(Feature.COORDINATES)</code>.
@@ -335,12 +328,8 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 *            the new pre-modifier as an <code>NLGElement</code>.
 	 */
 	public void addPreModifier(NLGElement newPreModifier) {
-		List<NLGElement> preModifiers = getFeatureAsElementList(InternalFeature.PREMODIFIERS);
-		if (preModifiers == null) {
-			preModifiers = new ArrayList<NLGElement>();
-		}
-		preModifiers.add(newPreModifier);
-		setFeature(InternalFeature.PREMODIFIERS, preModifiers);
+		newPreModifier = WordElement.overlayIfFrozen(newPreModifier);
+		addFeatureElement(InternalFeature.PREMODIFIERS, newPreModifier);
 		//added by vaudrypl
 		newPreModifier.setParent(this);
 	}
@@ -354,16 +343,11 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 *            create a <code>StringElement</code>.
 	 */
 	public void addPreModifier(String newPreModifier) {
-		List<NLGElement> preModifiers = getFeatureAsElementList(InternalFeature.PREMODIFIERS);
-		if (preModifiers == null) {
-			preModifiers = new ArrayList<NLGElement>();
-		}
 		//added by vaudrypl
 		StringElement stringElemPreModifier = new StringElement(newPreModifier);
 		stringElemPreModifier.setParent(this);
 
-		preModifiers.add(stringElemPreModifier);
-		setFeature(InternalFeature.PREMODIFIERS, preModifiers);
+		addFeatureElement(InternalFeature.PREMODIFIERS, stringElemPreModifier);
 	}
 
 	/**
@@ -394,12 +378,8 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 *            the new post-modifier as an <code>NLGElement</code>.
 	 */
 	public void addPostModifier(NLGElement newPostModifier) {
-		List<NLGElement> postModifiers = getFeatureAsElementList(InternalFeature.POSTMODIFIERS);
-		if (postModifiers == null) {
-			postModifiers = new ArrayList<NLGElement>();
-		}
-		postModifiers.add(newPostModifier);
-		setFeature(InternalFeature.POSTMODIFIERS, postModifiers);
+		newPostModifier = WordElement.overlayIfFrozen(newPostModifier);
+		addFeatureElement(InternalFeature.POSTMODIFIERS, newPostModifier);
 		//added by vaudrypl
 		newPostModifier.setParent(this);
 	}
@@ -413,16 +393,11 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 *            create a <code>StringElement</code>.
 	 */
 	public void addPostModifier(String newPostModifier) {
-		List<NLGElement> postModifiers = getFeatureAsElementList(InternalFeature.POSTMODIFIERS);
-		if (postModifiers == null) {
-			postModifiers = new ArrayList<NLGElement>();
-		}
 		//added by vaudrypl
 		StringElement stringElemPostModifier = new StringElement(newPostModifier);
 		stringElemPostModifier.setParent(this);
 
-		postModifiers.add(stringElemPostModifier);
-		setFeature(InternalFeature.POSTMODIFIERS, postModifiers);
+		addFeatureElement(InternalFeature.POSTMODIFIERS, stringElemPostModifier);
 	}
 
 	/**
@@ -471,12 +446,8 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 *            the new complement as an <code>NLGElement</code>.
 	 */
 	public void addComplement(NLGElement newComplement) {
-		List<NLGElement> complements = getFeatureAsElementList(InternalFeature.COMPLEMENTS);
-		if (complements == null) {
-			complements = new ArrayList<NLGElement>();
-		}
-		complements.add(newComplement);
-		setFeature(InternalFeature.COMPLEMENTS, complements);
+		newComplement = WordElement.overlayIfFrozen(newComplement);
+		addFeatureElement(InternalFeature.COMPLEMENTS, newComplement);
 		// added by vaudrypl
 		newComplement.setParent(this);
 	}
@@ -492,16 +463,11 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 *            create a <code>StringElement</code>.
 	 */
 	public void addComplement(String newComplement) {
-		List<NLGElement> complements = getFeatureAsElementList(InternalFeature.COMPLEMENTS);
-		if (complements == null) {
-			complements = new ArrayList<NLGElement>();
-		}
 		// added by vaudrypl
 		StringElement stringElemComplement = new StringElement(newComplement);
 		stringElemComplement.setParent(this);
 
-		complements.add(stringElemComplement);
-		setFeature(InternalFeature.COMPLEMENTS, complements);
+		addFeatureElement(InternalFeature.COMPLEMENTS, stringElemComplement);
 	}
 
 	/**
@@ -642,14 +608,14 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 * @author vaudrypl
 	 */
 	public int countWords() {
-		int wordCount = 0;
+		WordCounter counter = new WordCounter();
 		
-		wordCount += countWords(getChildren());
-		wordCount += countWords(getComplements());
-		wordCount += countWords(getPreModifiers());
-		wordCount += countWords(getPostModifiers());
+		visitFeatureElements(InternalFeature.COORDINATES, counter, false);
+		visitFeatureElements(InternalFeature.COMPLEMENTS, counter, false);
+		visitFeatureElements(InternalFeature.PREMODIFIERS, counter, false);
+		visitFeatureElements(InternalFeature.POSTMODIFIERS, counter, false);
 		
-		return wordCount;
+		return counter.count;
 	}
 
 	/**
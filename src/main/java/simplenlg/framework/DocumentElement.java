@@ -161,6 +161,7 @@ public class DocumentElement extends NLGElement {
 	 */
 	public void addComponent(NLGElement element) {
 		if (element != null) {
+			element = WordElement.overlayIfFrozen(element);
 			ElementCategory thisCategory = this.getCategory();
 			ElementCategory category = element.getCategory();
 			if (category != null && thisCategory instanceof DocumentCategory) {
@@ -184,10 +185,8 @@ public class DocumentElement extends NLGElement {
 	 * @param element
 	 */
 	private void addElementToComponents(NLGElement element) {
-		List<NLGElement> components = getComponents();
-		components.add(element);
+		addFeatureElement(FEATURE_COMPONENTS, element);
 		element.setParent(this);
-		setComponents(components);
 	}
 	
 
@@ -242,26 +241,22 @@ public class DocumentElement extends NLGElement {
 
 			for (Object eachElement : textComponents) {
 				if (eachElement instanceof NLGElement) {
-					category = ((NLGElement) eachElement).getCategory();
+					NLGElement element = WordElement.overlayIfFrozen((NLGElement) eachElement);
+					category = element.getCategory();
 					if (category != null
 							&& thisCategory instanceof DocumentCategory) {
 						if (((DocumentCategory) thisCategory)
 								.hasSubPart(category)) {
-							elementsToAdd.add((NLGElement) eachElement);
-							((NLGElement) eachElement).setParent(this);
+							elementsToAdd.add(element);
+							element.setParent(this);
 						}
 					}
 				}
 			}
 			if (elementsToAdd.size() > 0) {
-				List<NLGElement> components = getComponents();
-				if (components == null) {
-					components = new ArrayList<NLGElement>();
-				}
-				components.addAll(elementsToAdd);
-				this.setFeature(FEATURE_COMPONENTS, components);
+				addFeatureElements(FEATURE_COMPONENTS, elementsToAdd);
 				// added by vaudrypl
-				for (NLGElement component : components) {
+				for (NLGElement component : getComponents()) {
 					component.setParent(this);
 				}
 			}
@@ -321,6 +316,11 @@ public class DocumentElement extends NLGElement {
 		return getComponents();
 	}
 
+	@Override
+	public boolean visitChildren(ChildVisitor visitor, boolean reverse) {
+		return visitFeatureElements(FEATURE_COMPONENTS, visitor, reverse);
+	}
+
 	/**
 	 * Replaces the existing components with the supplied list of components.
 	 * This is identical to calling:<br>
@@ -332,6 +332,7 @@ public class DocumentElement extends NLGElement {
 	 * @param components
 	 */
 	public void setComponents(List<NLGElement> components) {
+		components = WordElement.overlayFrozenWords(components);
 		this.setFeature(FEATURE_COMPONENTS, components);
 		// added by vaudrypl
 		for (NLGElement component : components) {
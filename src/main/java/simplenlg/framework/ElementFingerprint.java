@@ -0,0 +1,249 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A canonical description of the structure of an element, used as the key
+ * of a realisation cache : two elements have equal fingerprints if they have
+ * the same class, category, features (in any order), realisation and
+ * factory, if their words have the same base form, ID, lexicon and features,
+ * and if the same holds for their parents and for the elements in their
+ * features (their children, and the words they are based on...),
+ * recursively. The parent is described since the syntax helpers look at it
+ * (for agreement, for instance) : an element placed in another phrase
+ * doesn't have the same fingerprint. The parent of a word isn't described :
+ * the same word is given by the lexicon to all the phrases which use it, so
+ * its parent is only the last of them, and the helpers look at the parent
+ * of the inflected word built from it during realisation instead.
+ * 
+ * The inflectional and spelling variants of a word (its default variant and
+ * the forms of each variant) are features, so they are described with the
+ * other features, including those read through an overlay from the word of
+ * the lexicon. Whether a word is an overlay, and of which word, doesn't
+ * change its realisation, so it isn't described.
+ * 
+ * Strings, numbers, booleans and enums are compared by value. Lexicons,
+ * factories and other objects in features are compared by identity. An
+ * element found twice in the tree is only described once, so that elements
+ * shared in the same way have equal fingerprints.
+ */
+public final class ElementFingerprint {
+
+	/**
+	 * Tells which elements are excluded from fingerprinting, for instance
+	 * because their realisation isn't always the same (their content is
+	 * random, or depends on the time).
+	 */
+	public interface Exclusion {
+		/**
+		 * @param element
+		 * @return true if the element, and so the tree which contains it,
+		 *         has no fingerprint
+		 */
+		boolean isExcluded(NLGElement element);
+	}
+
+	private final String description;
+	private final Object[] references;
+	private final int hash;
+
+	private ElementFingerprint(String description, Object[] references) {
+		this.description = description;
+		this.references = references;
+		int hash = description.hashCode();
+		for (Object reference : references) {
+			hash = 31 * hash + System.identityHashCode(reference);
+		}
+		this.hash = hash;
+	}
+
+	/**
+	 * @param element
+	 * @return the fingerprint of the element
+	 */
+	public static ElementFingerprint of(NLGElement element) {
+		return of(element, null);
+	}
+
+	/**
+	 * @param element
+	 * @param exclusion
+	 *            the elements excluded, or null if none
+	 * @return the fingerprint of the element, or null if it contains an
+	 *         element excluded
+	 */
+	public static ElementFingerprint of(NLGElement element, Exclusion exclusion) {
+		Builder builder = new Builder(exclusion);
+		if (!builder.appendElement(element)) return null;
+		return new ElementFingerprint(builder.description.toString(),
+				builder.references.toArray());
+	}
+
+	/**
+	 * @return the length of the description of the element
+	 */
+	public int length() {
+		return this.description.length();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof ElementFingerprint)) return false;
+		ElementFingerprint other = (ElementFingerprint) o;
+		if (this.hash != other.hash
+				|| this.references.length != other.references.length
+				|| !this.description.equals(other.description)) {
+			return false;
+		}
+		for (int index = 0; index < this.references.length; index++) {
+			if (this.references[index] != other.references[index]) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	@Override
+	public String toString() {
+		return this.description;
+	}
+
+	/**
+	 * Builds the description of an element.
+	 */
+	private static final class Builder {
+		private final Exclusion exclusion;
+		private final StringBuilder description = new StringBuilder();
+		private final List<Object> references = new ArrayList<Object>();
+		// index of each element and object referenced already described
+		private final Map<Object, Integer> elements = new IdentityHashMap<Object, Integer>();
+		private final Map<Object, Integer> referenceIndexes =
+			new IdentityHashMap<Object, Integer>();
+
+		Builder(Exclusion exclusion) {
+			this.exclusion = exclusion;
+		}
+
+		/**
+		 * @param element
+		 * @return false if the element contains an element excluded
+		 */
+		boolean appendElement(NLGElement element) {
+			Integer index = this.elements.get(element);
+			if (index != null) {
+				this.description.append('#').append(index).append(';');
+				return true;
+			}
+			if (this.exclusion != null && this.exclusion.isExcluded(element)) {
+				return false;
+			}
+			this.elements.put(element, this.elements.size());
+
+			this.description.append('(').append(element.getClass().getName()).append(';');
+			appendValue(element.getCategory());
+			appendValue(element.getRealisation());
+			appendReference(element.getFactory());
+			if (element instanceof WordElement) {
+				WordElement word = (WordElement) element;
+				appendValue(word.baseForm);
+				appendValue(word.id);
+				appendReference(word.getLexicon());
+			} else if (!appendValue(element.getParent())) {
+				return false;
+			}
+
+			Map<String, Object> features = element.getAllFeatures();
+			List<String> names = new ArrayList<String>(features.keySet());
+			Collections.sort(names);
+			this.description.append('{');
+			for (String name : names) {
+				appendValue(name);
+				if (!appendValue(features.get(name))) return false;
+			}
+			this.description.append("})");
+			return true;
+		}
+
+		/**
+		 * @param value
+		 * @return false if the value contains an element excluded
+		 */
+		private boolean appendValue(Object value) {
+			if (value == null) {
+				this.description.append('n');
+			} else if (value instanceof String) {
+				String string = (String) value;
+				this.description.append('s').append(string.length()).append(':')
+					.append(string);
+			} else if (value instanceof Boolean) {
+				this.description.append(((Boolean) value).booleanValue() ? "b1" : "b0");
+			} else if (value instanceof Enum<?>) {
+				Enum<?> constant = (Enum<?>) value;
+				this.description.append('e').append(constant.getDeclaringClass().getName())
+					.append('.').append(constant.name()).append(';');
+			} else if (value instanceof Number || value instanceof Character) {
+				this.description.append('v').append(value.getClass().getName())
+					.append(':').append(value).append(';');
+			} else if (value instanceof NLGElement) {
+				return appendElement((NLGElement) value);
+			} else if (value instanceof List<?>) {
+				this.description.append('[');
+				for (Object each : (List<?>) value) {
+					if (!appendValue(each)) return false;
+				}
+				this.description.append(']');
+			} else if (value instanceof Object[]) {
+				return appendValue(Arrays.asList((Object[]) value));
+			} else {
+				appendReference(value);
+			}
+			return true;
+		}
+
+		/**
+		 * Appends an object compared by identity.
+		 * 
+		 * @param object
+		 */
+		private void appendReference(Object object) {
+			if (object == null) {
+				this.description.append('n');
+				return;
+			}
+			Integer index = this.referenceIndexes.get(object);
+			if (index == null) {
+				index = this.references.size();
+				this.referenceIndexes.put(object, index);
+				this.references.add(object);
+			}
+			this.description.append('@').append(index).append(';');
+		}
+	}
+}
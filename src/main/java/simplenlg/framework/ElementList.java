@@ -0,0 +1,206 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of elements, used as the value of the features
+ * holding the children of an element (components, coordinates, complements,
+ * modifiers), to which an element can be added in amortised constant time.
+ * 
+ * Adding an element doesn't change the list : it returns a new list sharing
+ * the array of this one, with the element written after the last one. Only
+ * the first list to add an element after the same last one can share the
+ * array, the others copy it. The list kept by an element before an addition
+ * and the lists of other elements sharing the array don't change.
+ * 
+ * NLGElement.getFeatureAsElementList returns a copy of the list which
+ * shares its array until it is changed.
+ */
+final class ElementList extends AbstractList<NLGElement> implements RandomAccess {
+
+	private static final ElementList EMPTY = new ElementList(new Buffer(0), 0);
+
+	// array shared by the lists, with the number of elements written in it
+	private static final class Buffer {
+		final NLGElement[] elements;
+		int used = 0;
+
+		Buffer(int capacity) {
+			this.elements = new NLGElement[capacity];
+		}
+	}
+
+	private final Buffer buffer;
+	private final int size;
+
+	private ElementList(Buffer buffer, int size) {
+		this.buffer = buffer;
+		this.size = size;
+	}
+
+	/**
+	 * @param value
+	 *            the value of a feature
+	 * @return the value if it is an ElementList, or a new one with the
+	 *         elements of the value (itself or those in it if it is a
+	 *         collection)
+	 */
+	static ElementList of(Object value) {
+		if (value instanceof ElementList) return (ElementList) value;
+		if (value instanceof NLGElement) return EMPTY.append((NLGElement) value);
+		if (value instanceof Collection<?>) return EMPTY.appendAll((Collection<?>) value);
+		return EMPTY;
+	}
+
+	/**
+	 * @param element
+	 *            ignored if null
+	 * @return a list with the elements of this one and the element
+	 */
+	ElementList append(NLGElement element) {
+		if (element == null) return this;
+		Buffer target = reserve(1);
+		target.elements[this.size] = element;
+		return new ElementList(target, this.size + 1);
+	}
+
+	/**
+	 * @param collection
+	 * @return a list with the elements of this one and those of the
+	 *         collection (ignoring the objects which aren't elements)
+	 */
+	ElementList appendAll(Collection<?> collection) {
+		Buffer target = reserve(collection.size());
+		int newSize = this.size;
+		for (Object item : collection) {
+			if (item instanceof NLGElement) {
+				target.elements[newSize++] = (NLGElement) item;
+			}
+		}
+		if (newSize == this.size) return this;
+		synchronized (target) {
+			target.used = newSize;
+		}
+		return new ElementList(target, newSize);
+	}
+
+	/**
+	 * Reserves room for elements after the last one.
+	 * 
+	 * @param count
+	 *            the number of elements to add
+	 * @return the array of this list if elements can be written after the
+	 *         last one, or a larger copy
+	 */
+	private Buffer reserve(int count) {
+		synchronized (this.buffer) {
+			if (this.buffer.used == this.size
+					&& this.buffer.elements.length - this.size >= count) {
+				this.buffer.used = this.size + count;
+				return this.buffer;
+			}
+		}
+		Buffer copy = new Buffer(Math.max(8, Math.max(this.size * 2, this.size + count)));
+		System.arraycopy(this.buffer.elements, 0, copy.elements, 0, this.size);
+		copy.used = this.size + count;
+		return copy;
+	}
+
+	@Override
+	public NLGElement get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		return this.buffer.elements[index];
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return a modifiable list with the elements of this one, which shares
+	 *         them until it is changed
+	 */
+	List<NLGElement> copy() {
+		return new Copy(this);
+	}
+
+	/**
+	 * A list reading the elements of an ElementList until it is changed,
+	 * when it copies them.
+	 */
+	private static final class Copy extends AbstractList<NLGElement> implements RandomAccess {
+		private ElementList shared;
+		private ArrayList<NLGElement> copy = null;
+
+		Copy(ElementList shared) {
+			this.shared = shared;
+		}
+
+		private ArrayList<NLGElement> copied() {
+			if (this.copy == null) {
+				this.copy = new ArrayList<NLGElement>(this.shared);
+				this.shared = null;
+			}
+			return this.copy;
+		}
+
+		@Override
+		public NLGElement get(int index) {
+			return this.copy == null ? this.shared.get(index) : this.copy.get(index);
+		}
+
+		@Override
+		public int size() {
+			return this.copy == null ? this.shared.size() : this.copy.size();
+		}
+
+		@Override
+		public NLGElement set(int index, NLGElement element) {
+			return copied().set(index, element);
+		}
+
+		@Override
+		public void add(int index, NLGElement element) {
+			copied().add(index, element);
+			this.modCount++;
+		}
+
+		@Override
+		public NLGElement remove(int index) {
+			NLGElement removed = copied().remove(index);
+			this.modCount++;
+			return removed;
+		}
+
+		@Override
+		public void clear() {
+			copied().clear();
+			this.modCount++;
+		}
+	}
+}
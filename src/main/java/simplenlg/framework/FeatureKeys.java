@@ -0,0 +1,115 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.french.FrenchFeature;
+import simplenlg.features.french.FrenchInternalFeature;
+import simplenlg.features.french.FrenchLexicalFeature;
+
+/**
+ * The registry of the known feature names : those of <code>Feature</code>,
+ * <code>LexicalFeature</code>, <code>InternalFeature</code> and their French
+ * versions. Each known name has a dense integer slot, which
+ * <code>FeatureTable</code> uses to store the features compactly. Other
+ * names have no slot.
+ *
+ * The registry is made once and never changes, so it can be read by any
+ * thread.
+ */
+final class FeatureKeys {
+
+	/** the classes whose String constants are the known feature names */
+	private static final Class<?>[] FEATURE_CLASSES = { Feature.class, LexicalFeature.class,
+			InternalFeature.class, FrenchFeature.class, FrenchLexicalFeature.class,
+			FrenchInternalFeature.class };
+
+	/** the known names, by slot */
+	private static final String[] NAMES;
+
+	// open-addressed table of the names (the table of the slots is parallel)
+	private static final String[] TABLE;
+	private static final int[] TABLE_SLOTS;
+
+	static {
+		List<String> names = new ArrayList<String>();
+		for (Class<?> featureClass : FEATURE_CLASSES) {
+			for (Field field : featureClass.getFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)
+						&& field.getType() == String.class) {
+					try {
+						String name = (String) field.get(null);
+						if (name != null && !names.contains(name)) names.add(name);
+					} catch (IllegalAccessException e) {
+						// public fields can be read
+					}
+				}
+			}
+		}
+		NAMES = names.toArray(new String[names.size()]);
+
+		int capacity = Integer.highestOneBit(NAMES.length * 4);
+		TABLE = new String[capacity];
+		TABLE_SLOTS = new int[capacity];
+		for (int slot = 0; slot < NAMES.length; slot++) {
+			int index = NAMES[slot].hashCode() & (capacity - 1);
+			while (TABLE[index] != null) {
+				index = (index + 1) & (capacity - 1);
+			}
+			TABLE[index] = NAMES[slot];
+			TABLE_SLOTS[index] = slot;
+		}
+	}
+
+	private FeatureKeys() {
+	}
+
+	/**
+	 * @param name
+	 *            a feature name
+	 * @return the slot of the name, or -1 if it isn't a known feature name
+	 */
+	static int slot(String name) {
+		int mask = TABLE.length - 1;
+		int index = name.hashCode() & mask;
+		String known;
+		while ((known = TABLE[index]) != null) {
+			// the names are usually the constants themselves
+			if (known == name || known.equals(name)) return TABLE_SLOTS[index];
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param slot
+	 * @return the name of the slot
+	 */
+	static String name(int slot) {
+		return NAMES[slot];
+	}
+}
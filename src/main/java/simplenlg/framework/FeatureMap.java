@@ -0,0 +1,299 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The feature map of an <code>NLGElement</code>. It behaves like a
+ * <code>HashMap</code>, but an element created from another one (an
+ * <code>InflectedWordElement</code> from its <code>WordElement</code>, a
+ * <code>ListElement</code> from its phrase) doesn't copy the features of the
+ * other element : it reads through to a snapshot of them, and only keeps
+ * the features it sets or removes itself.
+ *
+ * The snapshot is made once and shared until the features of the other
+ * element change, so the element created sees the features the other had
+ * when it was created, as it did when they were copied.
+ *
+ * The features are kept in <code>FeatureTable</code>s, which store the
+ * features of known names by slot.
+ */
+final class FeatureMap extends AbstractMap<String, Object> {
+
+	// features inherited, never modified (shared between maps)
+	private FeatureTable base = FeatureTable.EMPTY;
+
+	// features set by this map, which may override inherited ones
+	private FeatureTable own = null;
+
+	// inherited features removed by this map (never in own)
+	private HashSet<String> hidden = null;
+
+	// number of features of own which override inherited ones
+	private int overridden = 0;
+
+	// snapshot of all the features, null if it must be made again
+	// (volatile, as it can be made by threads realising the same element
+	// without changing it, see RealisationOverlay)
+	private volatile FeatureTable snapshot = null;
+
+	private Set<Map.Entry<String, Object>> entrySet = null;
+
+	/**
+	 * Creates an empty map.
+	 */
+	FeatureMap() {
+	}
+
+	/**
+	 * Creates a map reading through to a snapshot of the features of
+	 * another map.
+	 *
+	 * @param inherited
+	 */
+	FeatureMap(FeatureMap inherited) {
+		this.base = inherited.share();
+	}
+
+	/**
+	 * @return a snapshot of the features, shared until they change, which
+	 *         must never be modified
+	 */
+	FeatureTable share() {
+		FeatureTable shared = this.snapshot;
+		if (shared == null) {
+			if (this.own == null && this.hidden == null) {
+				shared = this.base;
+			} else {
+				shared = new FeatureTable(this);
+			}
+			this.snapshot = shared;
+		}
+		return shared;
+	}
+
+	/**
+	 * @return the features inherited (a snapshot shared with other maps)
+	 */
+	Map<String, Object> inherited() {
+		return this.base;
+	}
+
+	/**
+	 * @return the features set by this map, which may override inherited
+	 *         ones, or null if some inherited features were removed
+	 */
+	Map<String, Object> own() {
+		if (this.hidden != null && !this.hidden.isEmpty()) return null;
+		if (this.own == null) return Collections.emptyMap();
+		return Collections.unmodifiableMap(this.own);
+	}
+
+	@Override
+	public Object get(Object key) {
+		// the slot of the key is found once for both tables
+		int slot = FeatureTable.slotOf(key);
+		if (this.own != null) {
+			Object value = this.own.find(slot, key);
+			if (value != FeatureTable.ABSENT) return value;
+		}
+		if (this.hidden != null && this.hidden.contains(key)) return null;
+		Object value = this.base.find(slot, key);
+		return value != FeatureTable.ABSENT ? value : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		int slot = FeatureTable.slotOf(key);
+		if (this.own != null && this.own.find(slot, key) != FeatureTable.ABSENT) return true;
+		if (this.hidden != null && this.hidden.contains(key)) return false;
+		return this.base.find(slot, key) != FeatureTable.ABSENT;
+	}
+
+	@Override
+	public int size() {
+		return (this.own == null ? 0 : this.own.size()) + this.base.size()
+			- (this.hidden == null ? 0 : this.hidden.size()) - this.overridden;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		dropSnapshot();
+		if (this.own == null) this.own = new FeatureTable();
+		// the slot of the key is found once for both tables
+		int slot = FeatureTable.slotOf(key);
+		Object oldValue = this.own.put(slot, key, value);
+		if (oldValue != FeatureTable.ABSENT) return oldValue;
+		// the feature is new in own : it overrides the inherited one if any
+		oldValue = this.base.find(slot, key);
+		if (oldValue == FeatureTable.ABSENT) return null;
+		this.overridden++;
+		if (this.hidden != null && this.hidden.remove(key)) return null;
+		return oldValue;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		Object oldValue = get(key);
+		if (this.own != null && this.own.containsKey(key)) {
+			dropSnapshot();
+			this.own.remove(key);
+			if (this.base.containsKey(key)) {
+				this.overridden--;
+				hide((String) key);
+			}
+		} else if (this.base.containsKey(key)
+				&& (this.hidden == null || !this.hidden.contains(key))) {
+			dropSnapshot();
+			hide((String) key);
+		}
+		return oldValue;
+	}
+
+	/**
+	 * Drops the snapshot after a change (only writing the volatile field
+	 * if there is one).
+	 */
+	private void dropSnapshot() {
+		if (this.snapshot != null) this.snapshot = null;
+	}
+
+	private void hide(String key) {
+		if (this.hidden == null) this.hidden = new HashSet<String>();
+		this.hidden.add(key);
+	}
+
+	@Override
+	public void clear() {
+		dropSnapshot();
+		this.base = FeatureTable.EMPTY;
+		this.own = null;
+		this.hidden = null;
+		this.overridden = 0;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		if (this.entrySet == null) {
+			this.entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					return new EntryIterator();
+				}
+
+				@Override
+				public int size() {
+					return FeatureMap.this.size();
+				}
+			};
+		}
+		return this.entrySet;
+	}
+
+	/**
+	 * Iterates over the features of own, then over the inherited features
+	 * which are neither overridden nor removed.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+		private final Iterator<Map.Entry<String, Object>> ownIterator =
+			own == null ? null : own.entrySet().iterator();
+		private final Iterator<Map.Entry<String, Object>> baseIterator =
+			base.entrySet().iterator();
+		// next inherited feature, found in advance
+		private Map.Entry<String, Object> next = null;
+		private Map.Entry<String, Object> last = null;
+		private boolean lastIsOwn = false;
+
+		public boolean hasNext() {
+			if (this.ownIterator != null && this.ownIterator.hasNext()) return true;
+			if (this.next != null) return true;
+			while (this.baseIterator.hasNext()) {
+				Map.Entry<String, Object> entry = this.baseIterator.next();
+				String key = entry.getKey();
+				if ((own == null || !own.containsKey(key))
+						&& (hidden == null || !hidden.contains(key))) {
+					this.next = entry;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public Map.Entry<String, Object> next() {
+			if (this.ownIterator != null && this.ownIterator.hasNext()) {
+				// the value is set through the map, so that the snapshot is dropped
+				this.last = new OwnEntry(this.ownIterator.next());
+				this.lastIsOwn = true;
+			} else {
+				if (!hasNext()) throw new NoSuchElementException();
+				// the inherited features can't be changed through their entries
+				this.last = new AbstractMap.SimpleImmutableEntry<String, Object>(this.next);
+				this.lastIsOwn = false;
+				this.next = null;
+			}
+			return this.last;
+		}
+
+		public void remove() {
+			if (this.last == null) throw new IllegalStateException();
+			dropSnapshot();
+			String key = this.last.getKey();
+			if (this.lastIsOwn) {
+				this.ownIterator.remove();
+				if (base.containsKey(key)) {
+					overridden--;
+					hide(key);
+				}
+			} else {
+				hide(key);
+			}
+			this.last = null;
+		}
+	}
+
+	/**
+	 * A feature of own, whose value is set through the map.
+	 */
+	private class OwnEntry extends AbstractMap.SimpleEntry<String, Object> {
+		private static final long serialVersionUID = 1L;
+
+		OwnEntry(Map.Entry<String, Object> entry) {
+			super(entry);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+}
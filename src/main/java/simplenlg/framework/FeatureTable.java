@@ -0,0 +1,294 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact map of features. The features with a known name (see
+ * <code>FeatureKeys</code>) are kept in two small arrays, of their slots in
+ * increasing order and of their values, instead of a <code>HashMap</code>
+ * entry each. The features with other names are kept in a
+ * <code>HashMap</code>, made only if there are some.
+ *
+ * The features of known names are iterated in the order of their slots,
+ * then the others.
+ */
+final class FeatureTable extends AbstractMap<String, Object> {
+
+	/** returned by find for the features which aren't in the table */
+	static final Object ABSENT = new Object();
+
+	private static final int[] NO_SLOTS = new int[0];
+	private static final Object[] NO_VALUES = new Object[0];
+
+	/** an empty table, which must never be changed */
+	static final FeatureTable EMPTY = new FeatureTable();
+
+	// slots of the known features, in increasing order, and their values
+	private int[] slots = NO_SLOTS;
+	private Object[] values = NO_VALUES;
+	private int count = 0;
+
+	// features whose names have no slot, null if there are none
+	private HashMap<String, Object> others = null;
+
+	private Set<Map.Entry<String, Object>> entrySet = null;
+
+	/**
+	 * Creates an empty table.
+	 */
+	FeatureTable() {
+	}
+
+	/**
+	 * Creates a table with the features of a map.
+	 * 
+	 * @param features
+	 */
+	FeatureTable(Map<String, Object> features) {
+		this.slots = new int[features.size()];
+		this.values = new Object[features.size()];
+		for (Map.Entry<String, Object> feature : features.entrySet()) {
+			put(feature.getKey(), feature.getValue());
+		}
+	}
+
+	/**
+	 * @param key
+	 * @return the slot of a key, or -1 if it has none
+	 */
+	static int slotOf(Object key) {
+		return key instanceof String ? FeatureKeys.slot((String) key) : -1;
+	}
+
+	/**
+	 * @param slot
+	 * @return the index of the slot, or (-(insertion point) - 1) if it isn't
+	 *         in the table
+	 */
+	private int indexOf(int slot) {
+		int low = 0;
+		int high = this.count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleSlot = this.slots[middle];
+			if (middleSlot < slot) low = middle + 1;
+			else if (middleSlot > slot) high = middle - 1;
+			else return middle;
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Finds a feature with a single search, whether its value is null or
+	 * not.
+	 * 
+	 * @param slot
+	 *            the slot of the key (see slotOf)
+	 * @param key
+	 * @return the value of the feature, or ABSENT if it isn't in the table
+	 */
+	Object find(int slot, Object key) {
+		if (slot >= 0) {
+			int index = indexOf(slot);
+			return index >= 0 ? this.values[index] : ABSENT;
+		}
+		if (this.others == null) return ABSENT;
+		Object value = this.others.get(key);
+		return value != null || this.others.containsKey(key) ? value : ABSENT;
+	}
+
+	@Override
+	public Object get(Object key) {
+		Object value = find(slotOf(key), key);
+		return value != ABSENT ? value : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return find(slotOf(key), key) != ABSENT;
+	}
+
+	@Override
+	public int size() {
+		return this.count + (this.others != null ? this.others.size() : 0);
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		Object oldValue = put(slotOf(key), key, value);
+		return oldValue != ABSENT ? oldValue : null;
+	}
+
+	/**
+	 * Sets a feature with a single search, telling whether it was already
+	 * in the table.
+	 * 
+	 * @param slot
+	 *            the slot of the key (see slotOf)
+	 * @param key
+	 * @param value
+	 * @return the previous value of the feature, or ABSENT if it wasn't in
+	 *         the table
+	 */
+	Object put(int slot, String key, Object value) {
+		if (slot < 0) {
+			if (this.others == null) this.others = new HashMap<String, Object>();
+			int sizeBefore = this.others.size();
+			Object oldValue = this.others.put(key, value);
+			return oldValue != null || this.others.size() == sizeBefore ? oldValue : ABSENT;
+		}
+		int index = indexOf(slot);
+		if (index >= 0) {
+			Object oldValue = this.values[index];
+			this.values[index] = value;
+			return oldValue;
+		}
+		index = -index - 1;
+		if (this.count == this.slots.length) {
+			int capacity = Math.max(4, this.count + (this.count >> 1));
+			this.slots = Arrays.copyOf(this.slots, capacity);
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+		System.arraycopy(this.slots, index, this.slots, index + 1, this.count - index);
+		System.arraycopy(this.values, index, this.values, index + 1, this.count - index);
+		this.slots[index] = slot;
+		this.values[index] = value;
+		this.count++;
+		return ABSENT;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			return this.others != null ? this.others.remove(key) : null;
+		}
+		int index = indexOf(slot);
+		if (index < 0) return null;
+		Object oldValue = this.values[index];
+		removeAt(index);
+		return oldValue;
+	}
+
+	private void removeAt(int index) {
+		this.count--;
+		System.arraycopy(this.slots, index + 1, this.slots, index, this.count - index);
+		System.arraycopy(this.values, index + 1, this.values, index, this.count - index);
+		this.values[this.count] = null;
+	}
+
+	@Override
+	public void clear() {
+		this.slots = NO_SLOTS;
+		this.values = NO_VALUES;
+		this.count = 0;
+		this.others = null;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		if (this.entrySet == null) {
+			this.entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					return new EntryIterator();
+				}
+
+				@Override
+				public int size() {
+					return FeatureTable.this.size();
+				}
+
+				@Override
+				public void clear() {
+					FeatureTable.this.clear();
+				}
+			};
+		}
+		return this.entrySet;
+	}
+
+	/**
+	 * Iterates over the known features, then over the others.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+		// index of the next known feature
+		private int next = 0;
+		// index of the last known feature returned, -1 if there is none
+		private int last = -1;
+		private Iterator<Map.Entry<String, Object>> othersIterator = null;
+
+		public boolean hasNext() {
+			if (this.next < count) return true;
+			if (this.othersIterator == null) {
+				if (others == null) return false;
+				this.othersIterator = others.entrySet().iterator();
+			}
+			return this.othersIterator.hasNext();
+		}
+
+		public Map.Entry<String, Object> next() {
+			if (this.next < count) {
+				this.last = this.next++;
+				return new Entry(FeatureKeys.name(slots[this.last]), values[this.last]);
+			}
+			if (!hasNext()) throw new NoSuchElementException();
+			this.last = -1;
+			return this.othersIterator.next();
+		}
+
+		public void remove() {
+			if (this.last >= 0) {
+				removeAt(this.last);
+				this.next = this.last;
+				this.last = -1;
+			} else if (this.othersIterator != null) {
+				this.othersIterator.remove();
+			} else {
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	/**
+	 * A known feature, whose value can be set in the table.
+	 */
+	private class Entry extends AbstractMap.SimpleEntry<String, Object> {
+		private static final long serialVersionUID = 1L;
+
+		Entry(String key, Object value) {
+			super(key, value);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+}
@@ -19,7 +19,6 @@
 
 package simplenlg.framework;
 
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +26,7 @@ import simplenlg.features.Feature;
 import simplenlg.features.InternalFeature;
 import simplenlg.features.LexicalFeature;
 import simplenlg.lexicon.Lexicon;
+import simplenlg.morphology.InflectionCache;
 import simplenlg.morphology.MorphologyRulesInterface;
 
 /**
@@ -44,10 +44,6 @@ import simplenlg.morphology.MorphologyRulesInterface;
  */
 public class InflectedWordElement extends NLGElement {
 	
-	// Morphology rule sets used by realiseMorphology() to inflect the word
-	// instantiated by getMorphologyRuleSet(Language language)
-	private static Map<Language, MorphologyRulesInterface> morphologyRuleSets = null; 
-
 	/**
 	 * Constructs a new inflected word using the giving word as the base form.
 	 * Constructing the word also requires a lexical category (such as noun,
@@ -76,9 +72,7 @@ public class InflectedWordElement extends NLGElement {
 		if (word != null) {
 			//the inflected word inherits all features from the base word
 			// (moved from WordElement.realiseSyntax())
-			for(String feature : word.getAllFeatureNames()) {
-				setFeature(feature, word.getFeature(feature));
-			}
+			inheritFeatures(word);
 			
 			setFeature(InternalFeature.BASE_WORD, word);
 			// AG: changed to use the default spelling variant
@@ -126,7 +120,7 @@ public class InflectedWordElement extends NLGElement {
 	
 	/**
 	 * This static method returns the morphology rule set corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language.
 	 * 
 	 * @param language
 	 * @return the morphology rule set to be used for this language
@@ -134,23 +128,7 @@ public class InflectedWordElement extends NLGElement {
 	 */
 	public static MorphologyRulesInterface getMorphologyRuleSet(Language language)
 	{
-		if (morphologyRuleSets == null) {
-			morphologyRuleSets =
-				new EnumMap<Language,MorphologyRulesInterface>(Language.class); 
-		}
-		MorphologyRulesInterface ruleSet = morphologyRuleSets.get(language);
-		if (ruleSet == null) {
-			switch (language) {
-			case ENGLISH:
-				ruleSet = new simplenlg.morphology.english.NonStaticMorphologyRules();
-				break;
-			case FRENCH:
-				ruleSet = new simplenlg.morphology.french.MorphologyRules();
-				break;
-			}
-			morphologyRuleSets.put(language, ruleSet);
-		}
-		return ruleSet;
+		return LanguageHelpers.get(language).getMorphologyRuleSet();
 	}
 
 	/**
@@ -275,6 +253,22 @@ public class InflectedWordElement extends NLGElement {
 			ElementCategory category = getCategory();
 			if (category instanceof LexicalCategory) {
 				MorphologyRulesInterface ruleSet = getMorphologyRuleSet();
+
+				// form computed before for the same word and features
+				InflectionCache cache = lexicon != null ? lexicon.getInflectionCache() : null;
+				InflectionCache.Key key = null;
+				if (cache != null && category != LexicalCategory.PRONOUN
+						&& category != LexicalCategory.DETERMINER) {
+					key = getInflectionKey(ruleSet, (WordElement) baseWord);
+					String form = cache.get(key);
+					if (form != null) {
+						realisedElement = new StringElement(form, this);
+						realisedElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
+								getFeature(InternalFeature.DISCOURSE_FUNCTION));
+						return realisedElement;
+					}
+				}
+
 				switch ((LexicalCategory) category) {
 				case PRONOUN:
 					realisedElement = ruleSet.doPronounMorphology(this);
@@ -312,11 +306,43 @@ public class InflectedWordElement extends NLGElement {
 									InternalFeature.DISCOURSE_FUNCTION,
 									getFeature(InternalFeature.DISCOURSE_FUNCTION));
 				}
+
+				if (key != null && realisedElement instanceof StringElement) {
+					cache.put(key, realisedElement.getRealisation());
+				}
 			}
 		}
 		return realisedElement;
 	}
 
+	/**
+	 * Makes the key of this word in an InflectionCache, from its base word,
+	 * its category, its features and the context given by the rule set.
+	 * 
+	 * @param ruleSet
+	 * @param baseWord
+	 * @return the key, or null if the form of this word can't be cached
+	 */
+	private InflectionCache.Key getInflectionKey(MorphologyRulesInterface ruleSet,
+			WordElement baseWord) {
+		Map<String, Object> own = this.features.own();
+		if (own == null) return null;
+		Object context = ruleSet.getInflectionContext(this, baseWord);
+		if (baseWord != null && baseWord.getLexiconEntry() != baseWord) {
+			// the overlays made for each use of a word of the lexicon share
+			// the forms of the word (if this word inherits their features)
+			FeatureTable entryFeatures = baseWord.getLexiconEntry().features.share();
+			Map<String, Object> overlayOwn = baseWord.features.own();
+			if (overlayOwn != null && baseWord.features.inherited() == entryFeatures
+					&& this.features.inherited() == baseWord.features.share()) {
+				return InflectionCache.getOverlayKey(baseWord.getLexiconEntry(),
+						getCategory(), entryFeatures, overlayOwn, own, context);
+			}
+		}
+		return InflectionCache.getKey(baseWord, getCategory(), this.features.inherited(),
+				baseWord != null ? baseWord.features.share() : null, own, context);
+	}
+
 	/**
 	 * 
 	 * @return this InflectedWordElement itself
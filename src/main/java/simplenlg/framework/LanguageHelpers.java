@@ -0,0 +1,135 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import simplenlg.morphology.MorphologyRulesInterface;
+import simplenlg.morphophonology.MorphophonologyRulesInterface;
+import simplenlg.orthography.OrthographyHelperInterface;
+import simplenlg.syntax.AbstractClauseHelper;
+import simplenlg.syntax.AbstractCoordinatedPhraseHelper;
+import simplenlg.syntax.AbstractNounPhraseHelper;
+import simplenlg.syntax.AbstractVerbPhraseHelper;
+import simplenlg.syntax.GenericPhraseHelper;
+
+/**
+ * This class holds the syntax helpers, orthography helper and morphology
+ * and morphophonology rule sets of each language. They are all created
+ * when the class is initialised and never change afterwards, so they can be
+ * used by several threads without synchronisation. The helpers and rule sets
+ * have no state of their own : everything they need is in the elements they
+ * realise.
+ * 
+ * The static getters of PhraseElement, CoordinatedPhraseElement, NLGElement,
+ * StringElement and InflectedWordElement return the helpers held here.
+ */
+final class LanguageHelpers {
+
+	private static final Map<Language, LanguageHelpers> helpers;
+
+	static {
+		helpers = new EnumMap<Language, LanguageHelpers>(Language.class);
+		for (Language language : Language.values()) {
+			helpers.put(language, new LanguageHelpers(language));
+		}
+	}
+
+	private final AbstractClauseHelper clauseHelper;
+	private final AbstractNounPhraseHelper nounPhraseHelper;
+	private final GenericPhraseHelper phraseHelper;
+	private final AbstractVerbPhraseHelper verbPhraseHelper;
+	private final AbstractCoordinatedPhraseHelper coordinatedPhraseHelper;
+	private final OrthographyHelperInterface orthographyHelper;
+	private final MorphologyRulesInterface morphologyRuleSet;
+	private final MorphophonologyRulesInterface morphophonologyRuleSet;
+
+	/**
+	 * Creates the helpers and rule sets of a language.
+	 * 
+	 * @param language
+	 */
+	private LanguageHelpers(Language language) {
+		switch (language) {
+		case FRENCH:
+			clauseHelper = new simplenlg.syntax.french.ClauseHelper();
+			nounPhraseHelper = new simplenlg.syntax.french.NounPhraseHelper();
+			phraseHelper = new simplenlg.syntax.french.PhraseHelper();
+			verbPhraseHelper = new simplenlg.syntax.french.VerbPhraseHelper();
+			coordinatedPhraseHelper = new simplenlg.syntax.french.CoordinatedPhraseHelper();
+			orthographyHelper = new simplenlg.orthography.french.OrthographyHelper();
+			morphologyRuleSet = new simplenlg.morphology.french.MorphologyRules();
+			morphophonologyRuleSet = new simplenlg.morphophonology.french.MorphophonologyRules();
+			break;
+		case ENGLISH:
+		default:
+			clauseHelper = new simplenlg.syntax.english.nonstatic.ClauseHelper();
+			nounPhraseHelper = new simplenlg.syntax.english.nonstatic.NounPhraseHelper();
+			phraseHelper = new simplenlg.syntax.english.nonstatic.PhraseHelper();
+			verbPhraseHelper = new simplenlg.syntax.english.nonstatic.VerbPhraseHelper();
+			coordinatedPhraseHelper =
+				new simplenlg.syntax.english.nonstatic.CoordinatedPhraseHelper();
+			orthographyHelper = new simplenlg.orthography.english.OrthographyHelper();
+			morphologyRuleSet = new simplenlg.morphology.english.NonStaticMorphologyRules();
+			morphophonologyRuleSet = new simplenlg.morphophonology.english.MorphophonologyRules();
+			break;
+		}
+	}
+
+	/**
+	 * @param language
+	 * @return the helpers and rule sets of this language
+	 */
+	static LanguageHelpers get(Language language) {
+		return helpers.get(language);
+	}
+
+	AbstractClauseHelper getClauseHelper() {
+		return clauseHelper;
+	}
+
+	AbstractNounPhraseHelper getNounPhraseHelper() {
+		return nounPhraseHelper;
+	}
+
+	GenericPhraseHelper getPhraseHelper() {
+		return phraseHelper;
+	}
+
+	AbstractVerbPhraseHelper getVerbPhraseHelper() {
+		return verbPhraseHelper;
+	}
+
+	AbstractCoordinatedPhraseHelper getCoordinatedPhraseHelper() {
+		return coordinatedPhraseHelper;
+	}
+
+	OrthographyHelperInterface getOrthographyHelper() {
+		return orthographyHelper;
+	}
+
+	MorphologyRulesInterface getMorphologyRuleSet() {
+		return morphologyRuleSet;
+	}
+
+	MorphophonologyRulesInterface getMorphophonologyRuleSet() {
+		return morphophonologyRuleSet;
+	}
+}
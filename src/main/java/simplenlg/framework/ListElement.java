@@ -18,7 +18,6 @@
  */
 package simplenlg.framework;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import simplenlg.features.Feature;
@@ -68,9 +67,7 @@ public class ListElement extends NLGElement {
 		//the ListElement inherits factory, category and all features from phrase
 		setFactory(phrase.getFactory());
 		setCategory(phrase.getCategory());
-		for(String feature : phrase.getAllFeatureNames()) {
-			setFeature(feature, phrase.getFeature(feature));
-		}	
+		inheritFeatures(phrase);
 	}
 
 	/**
@@ -93,6 +90,11 @@ public class ListElement extends NLGElement {
 		return getFeatureAsElementList(InternalFeature.COMPONENTS);
 	}
 
+	@Override
+	public boolean visitChildren(ChildVisitor visitor, boolean reverse) {
+		return visitFeatureElements(InternalFeature.COMPONENTS, visitor, reverse);
+	}
+
 //	/**
 //	 * Creates a new list element containing the given component.
 //	 * 
@@ -111,12 +113,8 @@ public class ListElement extends NLGElement {
 	 *            the <code>NLGElement</code> component to be added.
 	 */
 	public void addComponent(NLGElement newComponent) {
-		List<NLGElement> components = getFeatureAsElementList(InternalFeature.COMPONENTS);
-		if (components == null) {
-			components = new ArrayList<NLGElement>();
-		}
-		setFeature(InternalFeature.COMPONENTS, components);
-		components.add(newComponent);
+		newComponent = WordElement.overlayIfFrozen(newComponent);
+		addFeatureElement(InternalFeature.COMPONENTS, newComponent);
 		// added by vaudrypl
 		newComponent.setParent(this);
 	}
@@ -128,12 +126,8 @@ public class ListElement extends NLGElement {
 	 *            a <code>List</code> of <code>NLGElement</code>s to be added.
 	 */
 	public void addComponents(List<NLGElement> newComponents) {
-		List<NLGElement> components = getFeatureAsElementList(InternalFeature.COMPONENTS);
-		if (components == null) {
-			components = new ArrayList<NLGElement>();
-		}
-		setFeature(InternalFeature.COMPONENTS, components);
-		components.addAll(newComponents);
+		newComponents = WordElement.overlayFrozenWords(newComponents);
+		addFeatureElements(InternalFeature.COMPONENTS, newComponents);
 		// added by vaudrypl
 		for (NLGElement component : newComponents) {
 			component.setParent(this);
@@ -148,6 +142,7 @@ public class ListElement extends NLGElement {
 	 *            the components.
 	 */
 	public void setComponents(List<NLGElement> newComponents) {
+		if (newComponents != null) newComponents = WordElement.overlayFrozenWords(newComponents);
 		setFeature(InternalFeature.COMPONENTS, newComponents);
 		// added by vaudrypl
 		if (newComponents != null) {
@@ -0,0 +1,160 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.util.Arrays;
+
+/**
+ * This class does the morphophonology of a tree of elements in one pass
+ * over its StringElements, from left to right, instead of recursing into
+ * each child and looking for the rightmost and leftmost StringElements of
+ * adjacent children at every level.
+ * 
+ * The StringElements are first put in an array, with the depth of the
+ * lowest common ancestor of each one and the previous one. Each pair of
+ * adjacent StringElements is then done in the order the recursion did it :
+ * the pairs inside a child before the pair between it and the previous
+ * child, and that pair before the pairs inside the next child. A pair is
+ * kept on a stack until a pair which isn't deeper in the tree is reached.
+ * Two StringElements aren't a pair when an element without StringElements
+ * is between the children containing them, as in the recursion.
+ */
+final class MorphophonologyPass implements ChildVisitor {
+
+	// StringElements of the tree, from left to right
+	private StringElement[] words = new StringElement[16];
+
+	// depth of the lowest common ancestor of each StringElement and the
+	// previous one
+	private int[] depths = new int[16];
+
+	// true if the StringElement and the previous one are a pair
+	private boolean[] pairs = new boolean[16];
+
+	private int size = 0;
+
+	// shallowest depth at which the walk went on to the next child since
+	// the last StringElement, and the number of times it did at that depth
+	private int moveDepth = Integer.MAX_VALUE;
+	private int moveCount = 0;
+
+	// depth of the element whose children are visited, and whether the
+	// next one is its first child
+	private int depth = 0;
+	private boolean first = true;
+
+	/**
+	 * Does the morphophonology of a tree.
+	 * 
+	 * @param root
+	 */
+	static void realise(NLGElement root) {
+		MorphophonologyPass pass = new MorphophonologyPass();
+		pass.flatten(root, 0);
+		pass.realisePairs();
+	}
+
+	private MorphophonologyPass() {
+	}
+
+	/**
+	 * Adds the StringElements of an element to the array.
+	 * 
+	 * @param element
+	 * @param depth
+	 *            the depth of the element in the tree
+	 */
+	private void flatten(NLGElement element, int depth) {
+		if (element instanceof StringElement) {
+			add((StringElement) element);
+			return;
+		}
+		int parentDepth = this.depth;
+		boolean parentFirst = this.first;
+		this.depth = depth;
+		this.first = true;
+		element.visitChildren(this, false);
+		this.depth = parentDepth;
+		this.first = parentFirst;
+	}
+
+	/**
+	 * Adds the StringElements of the next child of the element being
+	 * flattened.
+	 */
+	public boolean visit(NLGElement child) {
+		if (this.first) {
+			this.first = false;
+		} else if (this.depth < this.moveDepth) {
+			this.moveDepth = this.depth;
+			this.moveCount = 1;
+		} else if (this.depth == this.moveDepth) {
+			this.moveCount++;
+		}
+		flatten(child, this.depth + 1);
+		return true;
+	}
+
+	/**
+	 * @param word
+	 *            the next StringElement
+	 */
+	private void add(StringElement word) {
+		if (this.size == this.words.length) {
+			int length = this.size * 2;
+			this.words = Arrays.copyOf(this.words, length);
+			this.depths = Arrays.copyOf(this.depths, length);
+			this.pairs = Arrays.copyOf(this.pairs, length);
+		}
+		this.words[this.size] = word;
+		this.depths[this.size] = this.moveDepth;
+		// the lowest common ancestor went on to the next child only once
+		this.pairs[this.size] = this.size > 0 && this.moveCount == 1;
+		this.size++;
+		this.moveDepth = Integer.MAX_VALUE;
+		this.moveCount = 0;
+	}
+
+	/**
+	 * Does the morphophonology of each pair, in the order of the recursion.
+	 */
+	private void realisePairs() {
+		// pairs waiting for the end of the child they end, deepest on top
+		int[] stack = new int[this.size];
+		int top = 0;
+		for (int index = 1; index < this.size; index++) {
+			int depth = this.depths[index];
+			while (top > 0 && this.depths[stack[top - 1]] >= depth) {
+				realisePair(stack[--top]);
+			}
+			if (this.pairs[index]) stack[top++] = index;
+		}
+		while (top > 0) {
+			realisePair(stack[--top]);
+		}
+	}
+
+	/**
+	 * @param index
+	 *            index of the right StringElement of the pair
+	 */
+	private void realisePair(int index) {
+		this.words[index - 1].realiseMorphophonology(this.words[index]);
+	}
+}
@@ -20,10 +20,9 @@ package simplenlg.framework;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.Map;
 
@@ -54,20 +53,22 @@ import simplenlg.orthography.OrthographyHelperInterface;
  * 
  * <p>
  * The features are stored in a <code>Map</code> of <code>String</code> (the
- * feature name) and <code>Object</code> (the value of the feature).
+ * feature name) and <code>Object</code> (the value of the feature). The
+ * features whose names are constants of the feature classes are stored in
+ * compact arrays, by slot (see <code>FeatureKeys</code>).
  * </p>
  * 
  * 
  * @author D. Westwater, University of Aberdeen.
  * @version 4.0
  */
-public abstract class NLGElement {
+public abstract class NLGElement implements Cloneable {
 
 	/** The category of this element. */
 	private ElementCategory category;
 
 	/** The features of this element. */
-	protected HashMap<String, Object> features = new HashMap<String, Object>();
+	protected FeatureMap features = new FeatureMap();
 
 	/** The parent of this element. */
 	private NLGElement parent;
@@ -237,15 +238,23 @@ public abstract class NLGElement {
 	 * <p>
 	 * If the feature does not exist then an empty list is returned.
 	 * </p>
+	 * <p>
+	 * The list can be changed without changing the feature. When the feature
+	 * was set by adding elements with <code>addFeatureElement</code>, the
+	 * list shares the elements of the feature until it is changed.
+	 * </p>
 	 * 
 	 * @param featureName
 	 *            the name of the feature.
 	 * @return the <code>List</code> of <code>NLGElement</code>s
 	 */
 	public List<NLGElement> getFeatureAsElementList(String featureName) {
-		List<NLGElement> list = new ArrayList<NLGElement>();
-
 		Object value = this.features.get(featureName);
+		if (value instanceof ElementList) {
+			return ((ElementList) value).copy();
+		}
+
+		List<NLGElement> list = new ArrayList<NLGElement>();
 		if (value instanceof NLGElement) {
 			list.add((NLGElement) value);
 		} else if (value instanceof Collection<?>) {
@@ -261,6 +270,36 @@ public abstract class NLGElement {
 		return list;
 	}
 
+	/**
+	 * Adds an element at the end of the list of elements of a feature. This
+	 * is the same as adding it to the list returned by
+	 * <code>getFeatureAsElementList</code> and setting the feature to that
+	 * list, but the list isn't copied : adding elements one by one takes
+	 * linear time.
+	 * 
+	 * @param featureName
+	 *            the name of the feature.
+	 * @param element
+	 *            the element to add (ignored if <code>null</code>).
+	 */
+	protected void addFeatureElement(String featureName, NLGElement element) {
+		setFeature(featureName, ElementList.of(this.features.get(featureName)).append(element));
+	}
+
+	/**
+	 * Adds elements at the end of the list of elements of a feature, as
+	 * <code>addFeatureElement</code>.
+	 * 
+	 * @param featureName
+	 *            the name of the feature.
+	 * @param elements
+	 *            the elements to add (the objects which aren't elements are
+	 *            ignored).
+	 */
+	protected void addFeatureElements(String featureName, Collection<?> elements) {
+		setFeature(featureName, ElementList.of(this.features.get(featureName)).appendAll(elements));
+	}
+
 	/**
 	 * <p>
 	 * Retrieves the value of the feature as a list of strings. If the feature
@@ -459,6 +498,34 @@ public abstract class NLGElement {
 		return this.features;
 	}
 
+	/**
+	 * Replaces the features of this element by those of another element,
+	 * as if they were copied one by one. The features are not copied : this
+	 * element reads through to a snapshot of the features of the other
+	 * element, and only keeps the features it changes afterwards.
+	 * 
+	 * @param element
+	 *            the <code>NLGElement</code> whose features are inherited.
+	 */
+	protected void inheritFeatures(NLGElement element) {
+		this.features = new FeatureMap(element.features);
+	}
+
+	/**
+	 * Creates a copy of this element with the same fields, sharing its
+	 * feature map. Used by RealisationOverlay, which then gives the copy
+	 * its own features.
+	 * 
+	 * @return the copy
+	 */
+	NLGElement shallowCopy() {
+		try {
+			return (NLGElement) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+
 	/**
 	 * Checks the feature map to see if the named feature is present in the map.
 	 * Modified by vaudrypl to return false if the value of the feature is null.
@@ -591,6 +658,82 @@ public abstract class NLGElement {
 	 */
 	public abstract List<NLGElement> getChildren();
 
+	/**
+	 * Visits the children of this element, in the order of
+	 * <code>getChildren</code> or in reverse order, until the visitor stops.
+	 * The elements which keep their children in features override this
+	 * method to visit them without making a list of them.
+	 * 
+	 * @param visitor
+	 *            the visitor of the children.
+	 * @param reverse
+	 *            <code>true</code> to visit the last child first.
+	 * @return <code>false</code> if the visitor stopped,
+	 *         <code>true</code> otherwise.
+	 */
+	public boolean visitChildren(ChildVisitor visitor, boolean reverse) {
+		return visitElements(getChildren(), visitor, reverse);
+	}
+
+	/**
+	 * Visits the elements of a list, skipping the objects which aren't
+	 * elements.
+	 * 
+	 * @param list
+	 *            the list, nothing is visited if it is <code>null</code>.
+	 * @param visitor
+	 * @param reverse
+	 * @return <code>false</code> if the visitor stopped
+	 */
+	private static boolean visitElements(List<?> list, ChildVisitor visitor, boolean reverse) {
+		if (list == null) return true;
+		int size = list.size();
+		for (int count = 0; count < size; count++) {
+			Object item = list.get(reverse ? size - 1 - count : count);
+			if (item instanceof NLGElement && !visitor.visit((NLGElement) item)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Visits the elements of a feature, as they would be returned by
+	 * <code>getFeatureAsElementList</code>.
+	 * 
+	 * @param featureName
+	 *            the name of the feature.
+	 * @param visitor
+	 * @param reverse
+	 * @return <code>false</code> if the visitor stopped
+	 */
+	protected boolean visitFeatureElements(String featureName, ChildVisitor visitor,
+			boolean reverse) {
+		Object value = this.features.get(featureName);
+		if (value instanceof NLGElement) {
+			return visitor.visit((NLGElement) value);
+		} else if (value instanceof List<?> && value instanceof RandomAccess) {
+			return visitElements((List<?>) value, visitor, reverse);
+		} else if (value instanceof Collection<?>) {
+			return visitElements(getFeatureAsElementList(featureName), visitor, reverse);
+		}
+		return true;
+	}
+
+	/**
+	 * Visits the element of a feature, as it would be returned by
+	 * <code>getFeatureAsElement</code>.
+	 * 
+	 * @param featureName
+	 *            the name of the feature.
+	 * @param visitor
+	 * @return <code>false</code> if the visitor stopped
+	 */
+	protected boolean visitFeatureElement(String featureName, ChildVisitor visitor) {
+		NLGElement element = getFeatureAsElement(featureName);
+		return element == null || visitor.visit(element);
+	}
+
 	/**
 	 * Retrieves the set of features currently contained in the feature map.
 	 * 
@@ -907,24 +1050,26 @@ public abstract class NLGElement {
 	{
 		// Does the morphophonology on each element and on each
 		// pair of adjacent elements, between their rightmost and lefmost
-		// elements.
-		List<NLGElement> childrenList = getChildren();
-		int nbElements = childrenList.size();
-		if (nbElements > 0) {
-			NLGElement current = childrenList.get(0), next;
-			current.realiseMorphophonology();
-			for (int index = 1; index < nbElements; index++) {
-				next = childrenList.get(index);
-				next.realiseMorphophonology();
-				StringElement rightCurrent = current.getRightMostStringElement();
-				if (rightCurrent != null) {
-					rightCurrent.realiseMorphophonology( next.getLeftMostStringElement() );
-				}
-				current = next;
-			}
-		}
+		// elements, in one pass over the StringElements of the tree.
+		MorphophonologyPass.realise(this);
 		return this;
 	}
+
+	/**
+	 * Does the morphophonology between this element and the element which
+	 * follows it, between the rightmost StringElement of this element and
+	 * the leftmost of the next one. Both must have been through the
+	 * morphophonology stage.
+	 * 
+	 * @param nextElement
+	 */
+	public void realiseMorphophonologyBefore(NLGElement nextElement)
+	{
+		StringElement rightCurrent = getRightMostStringElement();
+		if (rightCurrent != null) {
+			rightCurrent.realiseMorphophonology( nextElement.getLeftMostStringElement() );
+		}
+	}
 	
 	/**
 	 * 
@@ -939,16 +1084,8 @@ public abstract class NLGElement {
 	 */
 	public StringElement getLeftMostStringElement()
 	{
-		List<NLGElement> childrenList = getChildren();
-		if (childrenList == null) return null;
-
 		// looking for a StringElement (non null), beginning with leftmost child
-		StringElement leftmost = null;
-		int size = childrenList.size();
-		for (int index = 0; leftmost == null && index < size; index++) {
-			leftmost = childrenList.get(index).getLeftMostStringElement();
-		}
-		return leftmost;
+		return (StringElement) new EdgeFinder(false, false).find(this);
 	}
 
 	/**
@@ -964,15 +1101,8 @@ public abstract class NLGElement {
 	 */
 	public StringElement getRightMostStringElement()
 	{
-		List<NLGElement> childrenList = getChildren();
-		if (childrenList == null) return null;
-
 		// looking for a StringElement (non null), beginning with rightmost child
-		StringElement rightmost = null;
-		for (int index = childrenList.size() - 1; rightmost == null && index >= 0; index--) {
-			rightmost = childrenList.get(index).getRightMostStringElement();
-		}
-		return rightmost;
+		return (StringElement) new EdgeFinder(true, false).find(this);
 	}
 	
 	/**
@@ -989,17 +1119,54 @@ public abstract class NLGElement {
 	 */
 	public NLGElement getRightMostTerminalElement()
 	{
-		List<NLGElement> childrenList = getChildren();
-		if (childrenList == null) return null;
-
 		// looking for a terminal element (non null), beginning with rightmost child
-		NLGElement rightmost = null;
-		for (int index = childrenList.size() - 1; rightmost == null && index >= 0; index--) {
-			rightmost = childrenList.get(index).getRightMostTerminalElement();
+		return new EdgeFinder(true, true).find(this);
+	}
+
+	/**
+	 * Looks for the leftmost or rightmost StringElement, or the rightmost
+	 * terminal element, in the tree of the children of an element, with the
+	 * same visitor for the children of all the elements of the tree.
+	 */
+	private static final class EdgeFinder implements ChildVisitor {
+		private final boolean reverse;
+		private final boolean terminal;
+		private NLGElement found = null;
+
+		/**
+		 * @param reverse
+		 *            true to look for the rightmost element
+		 * @param terminal
+		 *            true to look for a terminal element (InflectedWordElement
+		 *            or StringElement), false for a StringElement
+		 */
+		EdgeFinder(boolean reverse, boolean terminal) {
+			this.reverse = reverse;
+			this.terminal = terminal;
+		}
+
+		/**
+		 * @param element
+		 * @return the element found in the tree of the children of the
+		 *         element, or null
+		 */
+		NLGElement find(NLGElement element) {
+			element.visitChildren(this, this.reverse);
+			return this.found;
+		}
+
+		public boolean visit(NLGElement child) {
+			if (child instanceof StringElement
+					|| (this.terminal && child instanceof InflectedWordElement)) {
+				this.found = child;
+			} else {
+				child.visitChildren(this, this.reverse);
+			}
+			return this.found == null;
 		}
-		return rightmost;
 	}
 	
+
 	/**
 	 * Realisation method for the orthography stage.
 	 * To be overridden by subclasses.
@@ -1035,10 +1202,6 @@ public abstract class NLGElement {
 		return realisedList;
 	}
 
-	// Morphology rule sets used by realiseMorphology() to inflect the word
-	// instantiated by getMorphologyRuleSet(Language language)
-	private static Map<Language, OrthographyHelperInterface> orthographyHelpers = null; 
-
 	/**
 	 * @return the orthography helper to be used for this element
 	 * @author vaudrypl
@@ -1050,7 +1213,7 @@ public abstract class NLGElement {
 	
 	/**
 	 * This static method returns the morphology rule set corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language.
 	 * 
 	 * @param language
 	 * @return the morphology rule set to be used for this language
@@ -1058,23 +1221,7 @@ public abstract class NLGElement {
 	 */
 	public static OrthographyHelperInterface getOrthographyHelper(Language language)
 	{
-		if (orthographyHelpers == null) {
-			orthographyHelpers =
-				new EnumMap<Language,OrthographyHelperInterface>(Language.class); 
-		}
-		OrthographyHelperInterface orthographyHelper = orthographyHelpers.get(language);
-		if (orthographyHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				orthographyHelper = new simplenlg.orthography.english.OrthographyHelper();
-				break;
-			case FRENCH:
-				orthographyHelper = new simplenlg.orthography.french.OrthographyHelper();
-				break;
-			}
-			orthographyHelpers.put(language, orthographyHelper);
-		}
-		return orthographyHelper;
+		return LanguageHelpers.get(language).getOrthographyHelper();
 	}
 
 	/**
@@ -1107,16 +1254,54 @@ public abstract class NLGElement {
 			else if (category == PhraseCategory.CANNED_TEXT) {
 				String realisation = getRealisation();
 				if (realisation != null) {
-					wordCount = realisation.split(" |'").length;
+					wordCount = countTokens(realisation);
 				}
 			} else {
-				wordCount = countWords(getChildren());
+				WordCounter counter = new WordCounter();
+				visitChildren(counter, false);
+				wordCount = counter.count;
 			}
 		}
 		
 		return wordCount;
 	}
 
+	/**
+	 * Counts the tokens of a canned text separated by spaces or apostrophes,
+	 * as realisation.split(" |'").length does, without compiling the
+	 * pattern and making the array each time.
+	 * 
+	 * @param realisation
+	 * @return the number of tokens
+	 */
+	private static int countTokens(String realisation) {
+		// split removes the trailing empty tokens
+		int last = realisation.length() - 1;
+		while (last >= 0 && isTokenSeparator(realisation.charAt(last))) last--;
+		if (last < 0) return realisation.isEmpty() ? 1 : 0;
+		int tokens = 1;
+		for (int index = 0; index < last; index++) {
+			if (isTokenSeparator(realisation.charAt(index))) tokens++;
+		}
+		return tokens;
+	}
+
+	private static boolean isTokenSeparator(char character) {
+		return character == ' ' || character == '\'';
+	}
+
+	/**
+	 * Adds the number of words of the elements it visits.
+	 */
+	static final class WordCounter implements ChildVisitor {
+		int count = 0;
+
+		public boolean visit(NLGElement child) {
+			this.count += child.countWords();
+			return true;
+		}
+	}
+
 	/**
 	 * Checks if this element must provoke a negation, but with only
 	 * the adverb "ne", in French. See overridden versions in subclasses.
@@ -28,6 +28,8 @@ import simplenlg.features.LexicalFeature;
 import simplenlg.features.NumberAgreement;
 import simplenlg.features.Person;
 import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.LexiconRegistry;
+import simplenlg.lexicon.OverlayLexicon;
 import simplenlg.phrasespec.AdjPhraseSpec;
 import simplenlg.phrasespec.AdvPhraseSpec;
 import simplenlg.phrasespec.NPPhraseSpec;
@@ -159,14 +161,16 @@ public class NLGFactory {
 	 * Changed by vaudrypl :
 	 * Passing a parameter of
 	 * <code>null</code> will not remove any existing lexicon from the factory,
-	 * but will put the default lexicon instead.
+	 * but will put the default lexicon instead. The factory then uses a view
+	 * of the shared default English lexicon (see OverlayLexicon), which is
+	 * cheaper to create than a copy of it (see Lexicon.getDefaultLexicon).
 	 * 
 	 * @param newLexicon
 	 *            the new <code>Lexicon</code> to be used.
 	 */
 	public void setLexicon(Lexicon newLexicon) {
 		if (newLexicon == null) {
-			newLexicon = Lexicon.getDefaultLexicon();
+			newLexicon = new OverlayLexicon(LexiconRegistry.getLexicon(Language.ENGLISH));
 		}
 		this.lexicon = newLexicon;
 	}
@@ -194,11 +198,13 @@ public class NLGFactory {
 	 * an <code>NLGElement</code> then that is returned unchanged. If a
 	 * <code>String</code> is passed as the word then the factory will look up
 	 * the <code>Lexicon</code> if one exists and use the details found to
-	 * create a new <code>WordElement</code>.
+	 * create a new <code>WordElement</code>. The words of the lexicon, which
+	 * are frozen, are returned as overlays (see WordElement.createOverlay).
 	 * 
 	 * @param word
 	 *            the base word for the new element. This can be a
-	 *            <code>NLGElement</code>, which is returned unchanged, or a
+	 *            <code>NLGElement</code>, which is returned unchanged (or
+	 *            as an overlay if it is a frozen word), or a
 	 *            <code>String</code>, which is used to construct a new
 	 *            <code>WordElement</code>.
 	 * @param category
@@ -209,7 +215,7 @@ public class NLGFactory {
 	public NLGElement createWord(Object word, LexicalCategory category) {
 		NLGElement wordElement = null;
 		if (word instanceof NLGElement) {
-			wordElement = (NLGElement) word;
+			wordElement = WordElement.overlayIfFrozen((NLGElement) word);
 
 		} else if (word instanceof String && this.lexicon != null) {
 			// AG: change: should create a WordElement, not an InflectedWordElement
@@ -219,7 +225,9 @@ public class NLGFactory {
 			// doLexiconLookUp(category, (String) word, wordElement);
 			// }
 			//wordElement = lexicon.getWord((String) word, category);
-			wordElement = lexicon.lookupWord((String) word, category);
+			// the word of the lexicon is frozen : the phrases change an
+			// overlay of it
+			wordElement = WordElement.overlayIfFrozen(lexicon.lookupWord((String) word, category));
 			// vaudrypl added condition on language
 			if ( getLanguage() == Language.ENGLISH && PRONOUNS.contains(word)) {
 				setPronounFeatures(wordElement, (String) word);
@@ -418,9 +426,10 @@ public class NLGFactory {
 				return (StringElement) element;
 		}
 
-		// other NLGElement - return element
+		// other NLGElement - return element (or an overlay of a word of the
+		// lexicon)
 		else if (element instanceof NLGElement)
-			return (NLGElement) element;
+			return WordElement.overlayIfFrozen((NLGElement) element);
 
 		// String - look up in lexicon if a word, otherwise return StringElement
 		else if (element instanceof String) {
@@ -529,8 +538,8 @@ public class NLGFactory {
 	private void setPhraseHead(PhraseElement phraseElement,
 			NLGElement headElement) {
 		if (headElement != null) {
+			// setHead sets the parent of the head (or of its overlay)
 			phraseElement.setHead(headElement);
-			headElement.setParent(phraseElement);
 		}
 	}
 
@@ -19,7 +19,6 @@
 package simplenlg.framework;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -48,12 +47,6 @@ import simplenlg.syntax.*;
  */
 public class PhraseElement extends NLGElement {
 
-	// added by vaudrypl
-	private static Map<Language, AbstractClauseHelper> clauseHelpers = null; 
-	private static Map<Language, AbstractNounPhraseHelper> nounPhraseHelpers = null; 
-	private static Map<Language, GenericPhraseHelper> phraseHelpers = null; 
-	private static Map<Language, AbstractVerbPhraseHelper> verbPhraseHelpers = null; 
-
 	/**
 	 * Creates a new phrase of the given type.
 	 * 
@@ -78,7 +71,7 @@ public class PhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the clause helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language.
 	 * 
 	 * @param language
 	 * @return the clause helper to be used to do the syntax of this language
@@ -86,23 +79,7 @@ public class PhraseElement extends NLGElement {
 	 */
 	public static AbstractClauseHelper getClauseHelper(Language language)
 	{
-		if (clauseHelpers == null) {
-			clauseHelpers =
-				new EnumMap<Language,AbstractClauseHelper>(Language.class); 
-		}
-		AbstractClauseHelper clauseHelper = clauseHelpers.get(language);
-		if (clauseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				clauseHelper = new simplenlg.syntax.english.nonstatic.ClauseHelper();
-				break;
-			case FRENCH:
-				clauseHelper = new simplenlg.syntax.french.ClauseHelper();
-				break;
-			}
-			clauseHelpers.put(language, clauseHelper);
-		}
-		return clauseHelper;
+		return LanguageHelpers.get(language).getClauseHelper();
 	}
 	
 	/**
@@ -116,7 +93,7 @@ public class PhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the noun phrase helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language.
 	 * 
 	 * @param language
 	 * @return the noun phrase helper to be used to do the syntax of this language
@@ -124,26 +101,7 @@ public class PhraseElement extends NLGElement {
 	 */
 	public static AbstractNounPhraseHelper getNounPhraseHelper(Language language)
 	{
-		if (nounPhraseHelpers == null) {
-			nounPhraseHelpers =
-				new EnumMap<Language,AbstractNounPhraseHelper>(Language.class); 
-		}
-		AbstractNounPhraseHelper nounPhraseHelper =
-			nounPhraseHelpers.get(language);
-		if (nounPhraseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				nounPhraseHelper =
-					new simplenlg.syntax.english.nonstatic.NounPhraseHelper();
-				break;
-			case FRENCH:
-				nounPhraseHelper =
-					new simplenlg.syntax.french.NounPhraseHelper();
-				break;
-			}
-			nounPhraseHelpers.put(language, nounPhraseHelper);
-		}
-		return nounPhraseHelper;
+		return LanguageHelpers.get(language).getNounPhraseHelper();
 	}
 
 	/**
@@ -157,7 +115,7 @@ public class PhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the phrase helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language.
 	 * 
 	 * @param language
 	 * @return the phrase helper to be used to do the syntax of this language
@@ -165,26 +123,7 @@ public class PhraseElement extends NLGElement {
 	 */
 	public static GenericPhraseHelper getPhraseHelper(Language language)
 	{
-		if (phraseHelpers == null) {
-			phraseHelpers =
-				new EnumMap<Language,GenericPhraseHelper>(Language.class); 
-		}
-		GenericPhraseHelper phraseHelper =
-			phraseHelpers.get(language);
-		if (phraseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				phraseHelper =
-					new simplenlg.syntax.english.nonstatic.PhraseHelper();
-				break;
-			case FRENCH:
-				phraseHelper =
-					new simplenlg.syntax.french.PhraseHelper();
-				break;
-			}
-			phraseHelpers.put(language, phraseHelper);
-		}
-		return phraseHelper;
+		return LanguageHelpers.get(language).getPhraseHelper();
 	}
 
 	/**
@@ -198,7 +137,7 @@ public class PhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the verb phrase helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language.
 	 * 
 	 * @param language
 	 * @return the verb phrase helper to be used to do the syntax of this language
@@ -206,26 +145,7 @@ public class PhraseElement extends NLGElement {
 	 */
 	public static AbstractVerbPhraseHelper getVerbPhraseHelper(Language language)
 	{
-		if (verbPhraseHelpers == null) {
-			verbPhraseHelpers =
-				new EnumMap<Language,AbstractVerbPhraseHelper>(Language.class); 
-		}
-		AbstractVerbPhraseHelper verbPhraseHelper =
-			verbPhraseHelpers.get(language);
-		if (verbPhraseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				verbPhraseHelper =
-					new simplenlg.syntax.english.nonstatic.VerbPhraseHelper();
-				break;
-			case FRENCH:
-				verbPhraseHelper =
-					new simplenlg.syntax.french.VerbPhraseHelper();
-				break;
-			}
-			verbPhraseHelpers.put(language, verbPhraseHelper);
-		}
-		return verbPhraseHelper;
+		return LanguageHelpers.get(language).getVerbPhraseHelper();
 	}
 
 	/**
@@ -251,57 +171,65 @@ public class PhraseElement extends NLGElement {
 	 */
 	@Override
 	public List<NLGElement> getChildren() {
-		List<NLGElement> children = new ArrayList<NLGElement>();
-		ElementCategory category = getCategory();
-		NLGElement currentElement = null;
+		final List<NLGElement> children = new ArrayList<NLGElement>();
+		visitChildren(new ChildVisitor() {
+			public boolean visit(NLGElement child) {
+				children.add(child);
+				return true;
+			}
+		}, false);
+		return children;
+	}
+
+	// features holding the children of phrases, in the order of the
+	// children, by category (cue phrase, specifier and head are single
+	// elements, the others are lists)
+	private static final String[] CLAUSE_CHILDREN = { Feature.CUE_PHRASE,
+		InternalFeature.FRONT_MODIFIERS, InternalFeature.PREMODIFIERS,
+		InternalFeature.SUBJECTS, InternalFeature.VERB_PHRASE, InternalFeature.COMPLEMENTS };
+	private static final String[] NOUN_PHRASE_CHILDREN = { InternalFeature.SPECIFIER,
+		InternalFeature.PREMODIFIERS, InternalFeature.HEAD, InternalFeature.COMPLEMENTS,
+		InternalFeature.POSTMODIFIERS };
+	private static final String[] PHRASE_CHILDREN = { InternalFeature.PREMODIFIERS,
+		InternalFeature.HEAD, InternalFeature.COMPLEMENTS, InternalFeature.POSTMODIFIERS };
+	private static final String[] NO_CHILDREN = {};
+	private static final String[] ALL_CHILDREN = { Feature.CUE_PHRASE,
+		InternalFeature.FRONT_MODIFIERS, InternalFeature.SPECIFIER, InternalFeature.PREMODIFIERS,
+		InternalFeature.SUBJECTS, InternalFeature.HEAD, InternalFeature.VERB_PHRASE,
+		InternalFeature.COMPLEMENTS, InternalFeature.POSTMODIFIERS };
+
+	/**
+	 * Sets a feature of this phrase. The frozen words of the lexicon set as
+	 * children of the phrase (alone or in lists) are replaced by overlays,
+	 * which the syntax can change (see WordElement.overlayIfFrozen).
+	 */
+	@Override
+	public void setFeature(String featureName, Object featureValue) {
+		for (String feature : ALL_CHILDREN) {
+			if (feature.equals(featureName)) {
+				featureValue = WordElement.overlayFrozenChildren(featureValue);
+				break;
+			}
+		}
+		super.setFeature(featureName, featureValue);
+	}
 
+	/**
+	 * Visits the children of this phrase, in the order described in
+	 * <code>getChildren</code>, without making a list of them.
+	 */
+	@Override
+	public boolean visitChildren(ChildVisitor visitor, boolean reverse) {
+		String[] features = NO_CHILDREN;
+		ElementCategory category = getCategory();
 		if (category instanceof PhraseCategory) {
 			switch ((PhraseCategory) category) {
 			case CLAUSE:
-				currentElement = getFeatureAsElement(Feature.CUE_PHRASE);
-				if (currentElement != null) {
-					children.add(currentElement);
-				}
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.FRONT_MODIFIERS));
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.PREMODIFIERS));
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.SUBJECTS));
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.VERB_PHRASE));
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.COMPLEMENTS));
+				features = CLAUSE_CHILDREN;
 				break;
 
 			case NOUN_PHRASE:
-				currentElement = getFeatureAsElement(InternalFeature.SPECIFIER);
-				if (currentElement != null) {
-					children.add(currentElement);
-				}
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.PREMODIFIERS));
-				currentElement = getHead();
-				if (currentElement != null) {
-					children.add(currentElement);
-				}
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.COMPLEMENTS));
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.POSTMODIFIERS));
-				break;
-
-			case VERB_PHRASE:
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.PREMODIFIERS));
-				currentElement = getHead();
-				if (currentElement != null) {
-					children.add(currentElement);
-				}
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.COMPLEMENTS));
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.POSTMODIFIERS));
+				features = NOUN_PHRASE_CHILDREN;
 				break;
 
 			case CANNED_TEXT:
@@ -309,20 +237,24 @@ public class PhraseElement extends NLGElement {
 				break;
 
 			default:
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.PREMODIFIERS));
-				currentElement = getHead();
-				if (currentElement != null) {
-					children.add(currentElement);
-				}
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.COMPLEMENTS));
-				children
-						.addAll(getFeatureAsElementList(InternalFeature.POSTMODIFIERS));
+				features = PHRASE_CHILDREN;
 				break;
 			}
 		}
-		return children;
+
+		int length = features.length;
+		for (int count = 0; count < length; count++) {
+			String feature = features[reverse ? length - 1 - count : count];
+			boolean goOn;
+			if (feature == Feature.CUE_PHRASE || feature == InternalFeature.SPECIFIER
+					|| feature == InternalFeature.HEAD) {
+				goOn = visitFeatureElement(feature, visitor);
+			} else {
+				goOn = visitFeatureElements(feature, visitor, reverse);
+			}
+			if (!goOn) return false;
+		}
+		return true;
 	}
 
 	/**
@@ -342,7 +274,7 @@ public class PhraseElement extends NLGElement {
 		}
 		NLGElement headElement;
 		if (newHead instanceof NLGElement)
-			headElement = (NLGElement) newHead;
+			headElement = WordElement.overlayIfFrozen((NLGElement) newHead);
 		else
 			headElement = new StringElement(newHead.toString());
 
@@ -380,12 +312,8 @@ public class PhraseElement extends NLGElement {
 	 *            the new complement as an <code>NLGElement</code>.
 	 */
 	public void addComplement(NLGElement newComplement) {
-		List<NLGElement> complements = getFeatureAsElementList(InternalFeature.COMPLEMENTS);
-		if (complements == null) {
-			complements = new ArrayList<NLGElement>();
-		}
-		complements.add(newComplement);
-		setFeature(InternalFeature.COMPLEMENTS, complements);
+		newComplement = WordElement.overlayIfFrozen(newComplement);
+		addFeatureElement(InternalFeature.COMPLEMENTS, newComplement);
 		if (newComplement.isA(PhraseCategory.CLAUSE)
 				|| newComplement instanceof CoordinatedPhraseElement) {
 			newComplement.setFeature(InternalFeature.CLAUSE_STATUS,
@@ -453,12 +381,7 @@ public class PhraseElement extends NLGElement {
 		// changed by vaudrypl
 		NLGElement newElement = getFactory().createNLGElement(newComplement);
 //		StringElement newElement = new StringElement(newComplement);
-		List<NLGElement> complements = getFeatureAsElementList(InternalFeature.COMPLEMENTS);
-		if (complements == null) {
-			complements = new ArrayList<NLGElement>();
-		}
-		complements.add(newElement);
-		setFeature(InternalFeature.COMPLEMENTS, complements);
+		addFeatureElement(InternalFeature.COMPLEMENTS, newElement);
 		// added by vaudrypl
 		newElement.setParent(this);
 	}
@@ -486,12 +409,8 @@ public class PhraseElement extends NLGElement {
 	 *            the new post-modifier as an <code>NLGElement</code>.
 	 */
 	public void addPostModifier(NLGElement newPostModifier) {
-		List<NLGElement> postModifiers = getFeatureAsElementList(InternalFeature.POSTMODIFIERS);
-		if (postModifiers == null) {
-			postModifiers = new ArrayList<NLGElement>();
-		}
-		postModifiers.add(newPostModifier);
-		setFeature(InternalFeature.POSTMODIFIERS, postModifiers);
+		newPostModifier = WordElement.overlayIfFrozen(newPostModifier);
+		addFeatureElement(InternalFeature.POSTMODIFIERS, newPostModifier);
 		// added by vaudrypl
 		newPostModifier.setParent(this);
 	}
@@ -523,12 +442,8 @@ public class PhraseElement extends NLGElement {
 	 *            the new front modifier as an <code>NLGElement</code>.
 	 */
 	public void addFrontModifier(NLGElement newFrontModifier) {
-		List<NLGElement> frontModifiers = getFeatureAsElementList(InternalFeature.FRONT_MODIFIERS);
-		if (frontModifiers == null) {
-			frontModifiers = new ArrayList<NLGElement>();
-		}
-		frontModifiers.add(newFrontModifier);
-		setFeature(InternalFeature.FRONT_MODIFIERS, frontModifiers);
+		newFrontModifier = WordElement.overlayIfFrozen(newFrontModifier);
+		addFeatureElement(InternalFeature.FRONT_MODIFIERS, newFrontModifier);
 		
 		// added by vaudrypl
 		if (newFrontModifier.isA(PhraseCategory.CLAUSE)
@@ -552,14 +467,8 @@ public class PhraseElement extends NLGElement {
 	 *            create a <code>StringElement</code>.
 	 */
 	public void addFrontModifier(String newFrontModifier) {
-		List<NLGElement> frontModifiers = getFeatureAsElementList(InternalFeature.FRONT_MODIFIERS);
-
-		if (frontModifiers == null) {
-			frontModifiers = new ArrayList<NLGElement>();
-		}
 		StringElement newStringElem = new StringElement(newFrontModifier);
-		frontModifiers.add(newStringElem);
-		setFeature(InternalFeature.FRONT_MODIFIERS, frontModifiers);
+		addFeatureElement(InternalFeature.FRONT_MODIFIERS, newStringElem);
 		// added by vaudrypl
 		newStringElem.setParent(this);
 	}
@@ -571,12 +480,8 @@ public class PhraseElement extends NLGElement {
 	 *            the new pre-modifier as an <code>NLGElement</code>.
 	 */
 	public void addPreModifier(NLGElement newPreModifier) {
-		List<NLGElement> preModifiers = getFeatureAsElementList(InternalFeature.PREMODIFIERS);
-		if (preModifiers == null) {
-			preModifiers = new ArrayList<NLGElement>();
-		}
-		preModifiers.add(newPreModifier);
-		setFeature(InternalFeature.PREMODIFIERS, preModifiers);
+		newPreModifier = WordElement.overlayIfFrozen(newPreModifier);
+		addFeatureElement(InternalFeature.PREMODIFIERS, newPreModifier);
 		// added by vaudrypl
 		newPreModifier.setParent(this);
 	}
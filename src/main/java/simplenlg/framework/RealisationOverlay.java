@@ -0,0 +1,188 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.OverlayLexicon;
+
+/**
+ * This class makes the overlay of an element for a non-destructive
+ * realisation (see Realiser.setNonDestructive). Realisation changes the
+ * features of the elements it realises and of the words of their lexicon.
+ * The overlay is a copy of the element and of all the elements it contains
+ * (through its features), whose lexicon is an OverlayLexicon giving copies
+ * of the words of the original lexicon. So the realisation only changes the
+ * overlay, and the original element and lexicon can be realised again, or
+ * by several threads at the same time.
+ * 
+ * The copies don't copy the features of the originals : they read through
+ * to them (see NLGElement.inheritFeatures), and only keep the features
+ * changed by the realisation, and those referring to other elements, which
+ * refer to their copies.
+ */
+public final class RealisationOverlay {
+
+	// copy of each element, by original element
+	private final Map<NLGElement, NLGElement> copies =
+		new IdentityHashMap<NLGElement, NLGElement>();
+
+	// overlay of each lexicon, by original lexicon
+	private final Map<Lexicon, OverlayLexicon> lexicons =
+		new IdentityHashMap<Lexicon, OverlayLexicon>();
+
+	// factory using the overlay lexicon, by original factory
+	private final Map<NLGFactory, NLGFactory> factories =
+		new IdentityHashMap<NLGFactory, NLGFactory>();
+
+	// element copied instead of each original element, if any
+	private final Map<NLGElement, NLGElement> substitutions;
+
+	private RealisationOverlay(Map<NLGElement, NLGElement> substitutions) {
+		this.substitutions = substitutions;
+	}
+
+	/**
+	 * Makes the overlay of an element, to be realised instead of it.
+	 * 
+	 * @param element
+	 * @return the copy of the element, or null if the element is null
+	 */
+	public static NLGElement overlay(NLGElement element) {
+		return overlay(element, null);
+	}
+
+	/**
+	 * Makes the overlay of an element in which some of the elements it
+	 * contains are replaced by others : the copy of each of these elements
+	 * is the copy of its substitute, whose parent is the copy of the parent
+	 * of the element replaced. Neither the element nor the substitutes are
+	 * changed.
+	 * 
+	 * @param element
+	 * @param substitutions
+	 *            substitute of each element replaced (an IdentityHashMap, as
+	 *            elements are compared by identity), or null if none
+	 * @return the copy of the element, or null if the element is null
+	 */
+	public static NLGElement overlay(NLGElement element,
+			Map<NLGElement, NLGElement> substitutions) {
+		if (element == null) return null;
+
+		RealisationOverlay overlay = new RealisationOverlay(substitutions);
+		NLGElement copy = overlay.copy(element);
+		// the parent of each copy is the copy of its parent, if it has one
+		for (Map.Entry<NLGElement, NLGElement> entry : overlay.copies.entrySet()) {
+			NLGElement parentCopy = overlay.copies.get(entry.getKey().getParent());
+			if (parentCopy != null) entry.getValue().setParent(parentCopy);
+		}
+		return copy;
+	}
+
+	/**
+	 * @param element
+	 * @return the copy of the element, made the first time
+	 */
+	private NLGElement copy(NLGElement element) {
+		NLGElement copy = this.copies.get(element);
+		if (copy != null) return copy;
+
+		NLGElement substitute = this.substitutions != null
+			? this.substitutions.get(element) : null;
+		if (substitute != null && substitute != element) {
+			copy = copy(substitute);
+			this.copies.put(element, copy);
+			return copy;
+		}
+
+		if (element instanceof WordElement) {
+			WordElement word = (WordElement) element;
+			if (word.getLexicon() != null) {
+				return getLexicon(word.getLexicon()).overlay(word);
+			}
+			copy = new WordElement(word, null);
+			copy.setParent(word.getParent());
+			this.copies.put(element, copy);
+			return copy;
+		}
+
+		copy = element.shallowCopy();
+		this.copies.put(element, copy);
+		if (element.getFactory() != null) {
+			copy.setFactory(getFactory(element.getFactory()));
+		}
+		copy.inheritFeatures(element);
+		for (Map.Entry<String, Object> feature : element.features.entrySet()) {
+			Object value = feature.getValue();
+			if (value instanceof NLGElement) {
+				copy.features.put(feature.getKey(), copy((NLGElement) value));
+			} else if (value instanceof List<?>) {
+				copy.features.put(feature.getKey(), copyList((List<?>) value));
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * @param list
+	 * @return a new list with the copies of the elements of the list
+	 */
+	private List<Object> copyList(List<?> list) {
+		List<Object> copy = new ArrayList<Object>(list.size());
+		for (Object item : list) {
+			if (item instanceof NLGElement) {
+				copy.add(copy((NLGElement) item));
+			} else {
+				copy.add(item);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * @param lexicon
+	 * @return the overlay of the lexicon, made the first time
+	 */
+	private OverlayLexicon getLexicon(Lexicon lexicon) {
+		OverlayLexicon overlay = this.lexicons.get(lexicon);
+		if (overlay == null) {
+			overlay = new OverlayLexicon(lexicon, this.copies);
+			this.lexicons.put(lexicon, overlay);
+		}
+		return overlay;
+	}
+
+	/**
+	 * @param factory
+	 * @return the factory using the overlay of the lexicon of the factory,
+	 *         made the first time
+	 */
+	private NLGFactory getFactory(NLGFactory factory) {
+		NLGFactory overlay = this.factories.get(factory);
+		if (overlay == null) {
+			overlay = new NLGFactory(getLexicon(factory.getLexicon()));
+			this.factories.put(factory, overlay);
+		}
+		return overlay;
+	}
+}
@@ -19,7 +19,6 @@
 package simplenlg.framework;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -42,10 +41,6 @@ import simplenlg.morphophonology.MorphophonologyRulesInterface;
  */
 public class StringElement extends NLGElement {
 
-	// Morphology rule sets used by realiseMorphophonology() to inflect the word
-	// instantiated by getMorphophonologyRuleSet(Language language)
-	private static Map<Language, MorphophonologyRulesInterface> morphophonologyRuleSets = null; 
-
 	/**
 	 * Constructs a new string element representing some canned text.
 	 * 
@@ -169,7 +164,7 @@ public class StringElement extends NLGElement {
 	
 	/**
 	 * This static method returns the morphophonology rule set corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language.
 	 * 
 	 * @param language
 	 * @return the morphophonology rule set to be used for this language
@@ -177,23 +172,7 @@ public class StringElement extends NLGElement {
 	 */
 	public static MorphophonologyRulesInterface getMorphophonologyRuleSet(Language language)
 	{
-		if (morphophonologyRuleSets == null) {
-			morphophonologyRuleSets =
-				new EnumMap<Language,MorphophonologyRulesInterface>(Language.class); 
-		}
-		MorphophonologyRulesInterface ruleSet = morphophonologyRuleSets.get(language);
-		if (ruleSet == null) {
-			switch (language) {
-			case ENGLISH:
-				ruleSet = new simplenlg.morphophonology.english.MorphophonologyRules();
-				break;
-			case FRENCH:
-				ruleSet = new simplenlg.morphophonology.french.MorphophonologyRules();
-				break;
-			}
-			morphophonologyRuleSets.put(language, ruleSet);
-		}
-		return ruleSet;
+		return LanguageHelpers.get(language).getMorphophonologyRuleSet();
 	}
 
 	/**
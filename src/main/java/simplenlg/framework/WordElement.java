@@ -19,7 +19,10 @@
 package simplenlg.framework;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -38,6 +41,12 @@ import simplenlg.lexicon.Lexicon;
  * Words also have features (which are retrieved from the Lexicon), these are
  * held in the standard NLGElement feature map
  * 
+ * The words of a shared lexicon are frozen (see Lexicon.freeze), so that
+ * they can be used by several threads and realisations : the phrases put
+ * an overlay of a frozen word in the tree instead of the word itself (see
+ * overlayIfFrozen), and code which needs to change the features of such a
+ * word changes an overlay of it (see createOverlay).
+ * 
  * @author E. Reiter, University of Aberdeen.
  * @version 4.0
  */
@@ -55,6 +64,12 @@ public class WordElement extends NLGElement {
 	// Lexicon from witch this WordElement comes from
 	private final Lexicon lexicon;
 
+	// true if the base form, ID, category and features can't change
+	private boolean frozen = false;
+
+	// word of the lexicon of which this word is an overlay, null if none
+	private WordElement entry = null;
+
 	// LexicalCategory category; // type of word
 
 	/**********************************************************/
@@ -130,6 +145,24 @@ public class WordElement extends NLGElement {
 		this.lexicon = lexicon;
 	}
 
+	/**
+	 * create a copy of a WordElement for another lexicon, with the same
+	 * baseForm, category, ID and features (the features are inherited,
+	 * see NLGElement.inheritFeatures)
+	 * 
+	 * @param word
+	 *            - WordElement to copy
+	 * @param lexicon	lexicon from witch the copy comes from
+	 */
+	public WordElement(WordElement word, Lexicon lexicon) {
+		super();
+		this.baseForm = word.baseForm;
+		setCategory(word.getCategory());
+		this.id = word.id;
+		this.lexicon = lexicon;
+		inheritFeatures(word);
+	}
+
 	/**********************************************************/
 	// getters and setters
 	/**********************************************************/
@@ -172,6 +205,7 @@ public class WordElement extends NLGElement {
 	 *            the baseForm to set
 	 */
 	public void setBaseForm(String baseForm) {
+		checkNotFrozen();
 		this.baseForm = baseForm;
 	}
 
@@ -180,6 +214,7 @@ public class WordElement extends NLGElement {
 	 *            the id to set
 	 */
 	public void setId(String id) {
+		checkNotFrozen();
 		this.id = id;
 	}
 
@@ -265,10 +300,285 @@ public class WordElement extends NLGElement {
 	// this.category = category;
 	// }
 
+	/**********************************************************/
+	// frozen words and overlays
+	/**********************************************************/
+
+	/**
+	 * Freezes this word : its base form, ID, category and features can't be
+	 * changed any more, and trying to change them throws an
+	 * UnsupportedOperationException. A frozen lexicon freezes its words (see
+	 * Lexicon.freeze), so that it can be shared without copying it. A frozen
+	 * word has no parent either : the phrases use overlays of it.
+	 */
+	public void freeze() {
+		this.frozen = true;
+	}
+
+	/**
+	 * @return <code>true</code> if this word is frozen (see freeze)
+	 */
+	public boolean isFrozen() {
+		return this.frozen;
+	}
+
+	/**
+	 * Creates an overlay of this word : a word of the same lexicon, which
+	 * reads through to the features of this word (see inheritFeatures) and
+	 * can be changed without changing this word.
+	 * 
+	 * @return the overlay
+	 */
+	public WordElement createOverlay() {
+		return createOverlay(this.lexicon);
+	}
+
+	/**
+	 * Creates an overlay of this word (see createOverlay()) which belongs to
+	 * another lexicon, such as a view of the lexicon of this word (see
+	 * simplenlg.lexicon.OverlayLexicon).
+	 * 
+	 * @param lexicon	lexicon of the overlay
+	 * @return the overlay
+	 */
+	public WordElement createOverlay(Lexicon lexicon) {
+		WordElement overlay = new WordElement(this, lexicon);
+		overlay.entry = getLexiconEntry();
+		return overlay;
+	}
+
+	/**
+	 * Copies this word into another lexicon, such as a view of its lexicon
+	 * (see simplenlg.lexicon.OverlayLexicon). The copy of an overlay is an
+	 * overlay of the same word of the lexicon, with the features set by this
+	 * overlay : the copies made for each realisation of the word share the
+	 * forms cached for it (see simplenlg.morphology.InflectionCache).
+	 * 
+	 * @param lexicon	lexicon of the copy
+	 * @return the copy
+	 */
+	public WordElement copyTo(Lexicon lexicon) {
+		WordElement copy = new WordElement(this, lexicon);
+		Map<String, Object> own = this.features.own();
+		if (this.entry != null && own != null
+				&& this.features.inherited() == this.entry.features.share()) {
+			copy.features = new FeatureMap(this.entry.features);
+			copy.features.putAll(own);
+			copy.entry = this.entry;
+		}
+		return copy;
+	}
+
+	/**
+	 * @return the word of which this word is an overlay (see
+	 *         createOverlay), or this word itself if it isn't an overlay
+	 */
+	public WordElement getLexiconEntry() {
+		return this.entry != null ? this.entry : this;
+	}
+
+	/**
+	 * Returns an overlay of an element if it is a frozen word, so that the
+	 * phrases can set the features of the word where they use it without
+	 * changing the word of the lexicon.
+	 * 
+	 * @param element
+	 * @return an overlay of the element if it is a frozen word (see
+	 *         createOverlay), otherwise the element itself
+	 */
+	public static NLGElement overlayIfFrozen(NLGElement element) {
+		if (element instanceof WordElement && ((WordElement) element).frozen) {
+			return ((WordElement) element).createOverlay();
+		}
+		return element;
+	}
+
+	/**
+	 * Returns a list of elements with overlays of the frozen words in it
+	 * (see overlayIfFrozen), for the lists of children given as they are to
+	 * the elements.
+	 *
+	 * @param elements
+	 * @return the list itself if there are no frozen words in it, otherwise
+	 *         a copy of it where they are replaced by overlays
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> List<E> overlayFrozenWords(List<E> elements) {
+		List<E> overlaid = null;
+		int index = 0;
+		for (E element : elements) {
+			if (element instanceof WordElement && ((WordElement) element).frozen) {
+				if (overlaid == null) overlaid = new ArrayList<E>(elements);
+				overlaid.set(index, (E) ((WordElement) element).createOverlay());
+			}
+			index++;
+		}
+		return overlaid != null ? overlaid : elements;
+	}
+
+	/**
+	 * Returns the value of a feature holding children of an element, with
+	 * overlays of the frozen words in it.
+	 *
+	 * @param value
+	 *            an element or a list of elements
+	 * @return the value itself if there are no frozen words in it, otherwise
+	 *         an overlay of the word or a copy of the list (see
+	 *         overlayFrozenWords)
+	 */
+	static Object overlayFrozenChildren(Object value) {
+		if (value instanceof NLGElement) return overlayIfFrozen((NLGElement) value);
+		// the lists built by addFeatureElement hold the elements given to
+		// the methods adding children, which overlay them
+		if (value instanceof List<?> && !(value instanceof ElementList)) {
+			return overlayFrozenWords((List<?>) value);
+		}
+		return value;
+	}
+
+	/**
+	 * Checks if an element is the same entry of the lexicon as this word :
+	 * this word, an overlay of it or a copy of it (see
+	 * OverlayLexicon), whose features may have been changed where it is
+	 * used.
+	 * 
+	 * @param element
+	 * @return <code>true</code> iff the element is a word with the same base
+	 *         form, category and ID
+	 */
+	public boolean isSameEntry(NLGElement element) {
+		if (element == this) return true;
+		if (!(element instanceof WordElement)) return false;
+		WordElement word = (WordElement) element;
+		return (this.baseForm == null ? word.baseForm == null
+					: this.baseForm.equals(word.baseForm))
+				&& (this.id == null ? word.id == null : this.id.equals(word.id))
+				&& getCategory() == word.getCategory();
+	}
+
+	/**
+	 * Throws an UnsupportedOperationException if this word is frozen.
+	 */
+	private void checkNotFrozen() {
+		if (this.frozen) {
+			throw new UnsupportedOperationException(toString()
+					+ " is frozen : change an overlay of it (see createOverlay)");
+		}
+	}
+
+	/**
+	 * Sets the parent of this word, which must not be frozen : a frozen word
+	 * is shared by all the phrases which use it.
+	 */
+	@Override
+	public void setParent(NLGElement newParent) {
+		checkNotFrozen();
+		super.setParent(newParent);
+	}
+
+	/**
+	 * Returns the features of this word, which can't be changed through the
+	 * map if the word is frozen.
+	 */
+	@Override
+	public Map<String, Object> getAllFeatures() {
+		return this.frozen ? Collections.unmodifiableMap(this.features)
+				: super.getAllFeatures();
+	}
+
+	@Override
+	public Set<String> getAllFeatureNames() {
+		return this.frozen ? Collections.unmodifiableSet(this.features.keySet())
+				: super.getAllFeatureNames();
+	}
+
 	/**********************************************************/
 	// other methods
 	/**********************************************************/
 
+	/**
+	 * Sets a feature, and tells the lexicon of this word if the value of
+	 * the feature changed (see Lexicon.featuresChanged).
+	 */
+	@Override
+	public void setFeature(String featureName, Object featureValue) {
+		checkNotFrozen();
+		Object oldValue = getFeature(featureName);
+		super.setFeature(featureName, featureValue);
+		if (oldValue == null ? featureValue != null : !oldValue.equals(featureValue)) {
+			featuresChanged();
+		}
+	}
+
+	@Override
+	public void setFeature(String featureName, boolean featureValue) {
+		setFeature(featureName, (Object) Boolean.valueOf(featureValue));
+	}
+
+	@Override
+	public void setFeature(String featureName, int featureValue) {
+		setFeature(featureName, (Object) Integer.valueOf(featureValue));
+	}
+
+	@Override
+	public void setFeature(String featureName, long featureValue) {
+		setFeature(featureName, (Object) Long.valueOf(featureValue));
+	}
+
+	@Override
+	public void setFeature(String featureName, float featureValue) {
+		setFeature(featureName, (Object) Float.valueOf(featureValue));
+	}
+
+	@Override
+	public void setFeature(String featureName, double featureValue) {
+		setFeature(featureName, (Object) Double.valueOf(featureValue));
+	}
+
+	@Override
+	public void removeFeature(String featureName) {
+		checkNotFrozen();
+		if (hasFeature(featureName)) {
+			super.removeFeature(featureName);
+			featuresChanged();
+		}
+	}
+
+	@Override
+	public void clearAllFeatures() {
+		checkNotFrozen();
+		if (!this.features.isEmpty()) {
+			super.clearAllFeatures();
+			featuresChanged();
+		}
+	}
+
+	/**
+	 * Sets the category of this word, and tells its lexicon before and
+	 * after the change (see Lexicon.featuresChanged).
+	 */
+	@Override
+	public void setCategory(ElementCategory newCategory) {
+		checkNotFrozen();
+		if (newCategory != getCategory()) {
+			featuresChanged();
+			super.setCategory(newCategory);
+			featuresChanged();
+		}
+	}
+
+	/**
+	 * Tells the lexicon of this word that its features or its category
+	 * changed (unless it is an overlay, which the lexicon doesn't index, or
+	 * the lexicon is loading its words).
+	 */
+	private void featuresChanged() {
+		// null while the constructor sets the category
+		if (this.lexicon != null && this.entry == null && !this.lexicon.isLoading()) {
+			this.lexicon.featuresChanged(this);
+		}
+	}
+
 	@Override
 	public String toString() {
 		ElementCategory _category = getCategory();
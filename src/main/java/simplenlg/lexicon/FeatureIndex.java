@@ -0,0 +1,194 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import simplenlg.framework.WordElement;
+
+/**
+ * Inverted index of the features of a list of words (the words of one
+ * category in XMLLexicon). For each feature, it keeps a bitset of the
+ * positions of the words having each value, so that the words matching
+ * several features are found by intersecting bitsets instead of comparing
+ * the features of every word.
+ *
+ * The bitsets of a feature are built the first time the feature is asked
+ * for. The index doesn't follow changes to the features of the words :
+ * the lexicon marks it stale when they change (see
+ * Lexicon.featuresChanged), and builds it again when it is next used.
+ */
+final class FeatureIndex {
+
+	// the words indexed, a word's position being its ordinal
+	private final WordElement[] words;
+
+	// bitsets of each feature asked for so far
+	private final ConcurrentMap<String, FeatureBits> featureBits =
+		new ConcurrentHashMap<String, FeatureBits>();
+
+	/**
+	 * Bitsets of the words having a feature.
+	 */
+	private static class FeatureBits {
+		// words having the feature
+		final BitSet present = new BitSet();
+		// words having the feature, by value
+		final Map<Object, BitSet> byValue = new HashMap<Object, BitSet>();
+		// words having the feature with a value which can't be used as a key
+		// (see isIndexable), that must be compared one by one
+		final BitSet notIndexed = new BitSet();
+	}
+
+	// true once the features of the words changed
+	private volatile boolean stale = false;
+
+	/**
+	 * @param words	words to index, in the order they must be returned
+	 */
+	FeatureIndex(List<WordElement> words) {
+		this.words = words.toArray(new WordElement[words.size()]);
+	}
+
+	/**
+	 * Marks this index as not matching the features of its words any more.
+	 */
+	void markStale() {
+		if (!this.stale) this.stale = true;
+	}
+
+	/**
+	 * @return <code>true</code> if the features of the words changed since
+	 *         this index was built
+	 */
+	boolean isStale() {
+		return this.stale;
+	}
+
+	/**
+	 * Looks for the words matching the features provided, with the same
+	 * semantics as Lexicon.hasFeatures() : a feature with a value of null or
+	 * Boolean.FALSE also matches a word who doesn't have this feature at all.
+	 *
+	 * @param features	features and their corresponding values that
+	 *					the words returned must have (they can have others)
+	 * @return			list of the words matching all the features, in
+	 *					the order of the list given to the constructor
+	 */
+	List<WordElement> getWords(Map<String, Object> features) {
+		BitSet matches = new BitSet(words.length);
+		matches.set(0, words.length);
+		boolean mustCompare = false;
+
+		for (Map.Entry<String, Object> entry : features.entrySet()) {
+			FeatureBits bits = getFeatureBits(entry.getKey());
+			Object value = entry.getValue();
+			BitSet featureMatches;
+
+			if (value == null) {
+				// feature values are never null
+				featureMatches = absent(bits);
+			} else if (isIndexable(value)) {
+				BitSet valueBits = bits.byValue.get(value);
+				featureMatches = valueBits == null ? new BitSet() : (BitSet) valueBits.clone();
+				if (value == Boolean.FALSE) featureMatches.or(absent(bits));
+				if (!bits.notIndexed.isEmpty()) {
+					featureMatches.or(bits.notIndexed);
+					mustCompare = true;
+				}
+			} else {
+				// values can only be compared one by one
+				featureMatches = (BitSet) bits.present.clone();
+				mustCompare = true;
+			}
+
+			matches.and(featureMatches);
+			if (matches.isEmpty()) break;
+		}
+
+		List<WordElement> result = new ArrayList<WordElement>(matches.cardinality());
+		for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+			if (!mustCompare || Lexicon.hasFeatures(words[i], features)) {
+				result.add(words[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param bits
+	 * @return bitset of the words who don't have the feature
+	 */
+	private BitSet absent(FeatureBits bits) {
+		BitSet absent = new BitSet(words.length);
+		absent.set(0, words.length);
+		absent.andNot(bits.present);
+		return absent;
+	}
+
+	/**
+	 * @param featureName
+	 * @return the bitsets of this feature, built if necessary
+	 */
+	private FeatureBits getFeatureBits(String featureName) {
+		FeatureBits bits = featureBits.get(featureName);
+		if (bits == null) {
+			bits = new FeatureBits();
+			for (int i = 0; i < words.length; i++) {
+				Object value = words[i].getFeature(featureName);
+				if (value != null) {
+					bits.present.set(i);
+					if (isIndexable(value)) {
+						BitSet valueBits = bits.byValue.get(value);
+						if (valueBits == null) {
+							valueBits = new BitSet();
+							bits.byValue.put(value, valueBits);
+						}
+						valueBits.set(i);
+					} else {
+						bits.notIndexed.set(i);
+					}
+				}
+			}
+			FeatureBits existing = featureBits.putIfAbsent(featureName, bits);
+			if (existing != null) bits = existing;
+		}
+		return bits;
+	}
+
+	/**
+	 * Only immutable values whose hashCode() agrees with equals() can be
+	 * used as keys. Other values (elements, lists) are compared one by one.
+	 *
+	 * @param value
+	 * @return <code>true</code> if the value can be used as a key
+	 */
+	private static boolean isIndexable(Object value) {
+		return value instanceof String || value instanceof Boolean
+			|| value instanceof Enum<?> || value instanceof Integer
+			|| value instanceof Long || value instanceof Double
+			|| value instanceof Float || value instanceof Character;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * This class holds the function words of a lexicon used by the syntax
+ * helpers (conjunctions, prepositions, auxiliaries, etc.), looked up once
+ * when it is built instead of every time a phrase is realised. It is built
+ * by <code>Lexicon.getFunctionWords()</code>, and extended by each language
+ * (see simplenlg.lexicon.english.FunctionWords and
+ * simplenlg.lexicon.french.FunctionWords) with the words its helpers need.
+ *
+ * The words are the words of the lexicon, frozen if it is (see
+ * <code>Lexicon.freeze</code>) : they can be compared with
+ * <code>WordElement.isSameEntry</code>, and must be given to the factory
+ * (or overlaid) before features are set on them.
+ */
+public class FunctionWords {
+
+	// lexicon of the words
+	private final Lexicon lexicon;
+
+	private final WordElement additionCoordConjunction;
+	private final WordElement passivePreposition;
+	private final WordElement defaultComplementiser;
+
+	/**
+	 * Looks up the function words common to all languages. If the lexicon
+	 * uses the same word IDs as the NIH Specialist lexicon and the default
+	 * English XML lexicon, the conjunction and the preposition are looked up
+	 * by ID ("E0008890" and "E0014539"), otherwise by base form.
+	 *
+	 * @param lexicon
+	 *            the lexicon of the words
+	 * @param additionCoordConjunction
+	 *            base form of the coordination conjunction used for addition
+	 * @param passivePreposition
+	 *            base form of the preposition used for passive subjects
+	 * @param defaultComplementiser
+	 *            base form of the default complementiser for clauses
+	 */
+	protected FunctionWords(Lexicon lexicon, String additionCoordConjunction,
+			String passivePreposition, String defaultComplementiser) {
+		this.lexicon = lexicon;
+		this.additionCoordConjunction = lookupWord("E0008890",
+				additionCoordConjunction, LexicalCategory.CONJUNCTION);
+		this.passivePreposition = lookupWord("E0014539",
+				passivePreposition, LexicalCategory.PREPOSITION);
+		this.defaultComplementiser = lookupWord(defaultComplementiser,
+				LexicalCategory.COMPLEMENTISER);
+	}
+
+	/**
+	 * @return the lexicon of the words
+	 */
+	public Lexicon getLexicon() {
+		return this.lexicon;
+	}
+
+	/**
+	 * Looks up a function word, creating it if it is not in the lexicon
+	 * (see Lexicon.lookupWord).
+	 *
+	 * @param baseForm
+	 * @param category
+	 * @return the word
+	 */
+	protected WordElement lookupWord(String baseForm, LexicalCategory category) {
+		return this.lexicon.lookupWord(baseForm, category);
+	}
+
+	/**
+	 * Looks up a function word by ID, or by base form if no word has this ID.
+	 *
+	 * @param id
+	 * @param baseForm
+	 * @param category
+	 * @return the word
+	 */
+	protected WordElement lookupWord(String id, String baseForm,
+			LexicalCategory category) {
+		WordElement word = this.lexicon.findWordByID(id);
+		return word != null ? word : lookupWord(baseForm, category);
+	}
+
+	/**
+	 * @return the coordination conjunction used for addition
+	 *         (normally "and" in English, "et" in French, etc.)
+	 */
+	public WordElement getAdditionCoordConjunction() {
+		return this.additionCoordConjunction;
+	}
+
+	/**
+	 * @return the preposition used for passive subjects
+	 *         (normally "by" in English, "par" in French, etc.)
+	 */
+	public WordElement getPassivePreposition() {
+		return this.passivePreposition;
+	}
+
+	/**
+	 * @return the default complementiser for clauses
+	 *         (normally "that" in English, "que" in French, etc.)
+	 */
+	public WordElement getDefaultComplementiser() {
+		return this.defaultComplementiser;
+	}
+}
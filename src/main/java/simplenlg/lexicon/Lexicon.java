@@ -20,10 +20,14 @@ package simplenlg.lexicon;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import simplenlg.framework.Language;
 import simplenlg.framework.LexicalCategory;
 import simplenlg.framework.WordElement;
+import simplenlg.morphology.InflectionCache;
 
 /**
  * This is the generic abstract class for a Lexicon. In simplenlg V4, a
@@ -79,9 +83,34 @@ import simplenlg.framework.WordElement;
 
 public abstract class Lexicon {
 
+	/**
+	 * maximum number of the words created for unknown base forms which a
+	 * frozen lexicon keeps, so that they are found again by later lookups
+	 * (see XMLLexicon.createWord). Frozen lexicons are shared by the whole
+	 * process (see LexiconRegistry) : the words they create beyond this
+	 * number are not kept, so that they don't grow without bound. A lexicon
+	 * which isn't frozen keeps all the words it creates, and a lookup
+	 * returns the same word every time.
+	 */
+	public static final int MAXIMUM_CREATED_WORDS = 10000;
+
 	// The language of this lexicon.
 	// added by vaudrypl 
 	private final Language language;
+
+	// cache of the forms of the inflected words of this lexicon, null if none
+	private volatile InflectionCache inflectionCache = new InflectionCache();
+
+	// function words used by the syntax helpers, by language, looked up
+	// the first time they are asked for
+	private final ConcurrentMap<Language, FunctionWords> functionWords =
+		new ConcurrentHashMap<Language, FunctionWords>();
+
+	// true once the words of this lexicon are frozen (see freeze)
+	private volatile boolean frozen = false;
+
+	// true while the words are loaded (see setLoading)
+	private volatile boolean loading = false;
 	
 	/****************************************************************************/
 	// constructors and related
@@ -129,7 +158,71 @@ public abstract class Lexicon {
 	}
 
 	/**
-	 * returns the default built-in lexicon
+	 * Freezes the words of this lexicon, and the words it creates from now
+	 * on (see WordElement.freeze), so that it can be shared by threads and by
+	 * realisations : the phrases then use overlays of its words, and the
+	 * words themselves never change. LexiconRegistry freezes the lexicons it
+	 * shares. Lexicons are not frozen by default, so that their words can be
+	 * changed by the code which loaded them.
+	 */
+	public void freeze() {
+		this.frozen = true;
+	}
+
+	/**
+	 * @return <code>true</code> if the words of this lexicon are frozen (see
+	 *         freeze)
+	 */
+	public boolean isFrozen() {
+		return this.frozen;
+	}
+
+	/**
+	 * Tells the lexicon whether its words are being loaded. While they are,
+	 * the words don't tell the lexicon that their features change (see
+	 * featuresChanged), as nothing has been computed from them yet.
+	 * 
+	 * @param loading
+	 */
+	protected void setLoading(boolean loading) {
+		this.loading = loading;
+	}
+
+	/**
+	 * @return <code>true</code> while the words of this lexicon are being
+	 *         loaded (see setLoading)
+	 */
+	public boolean isLoading() {
+		return this.loading;
+	}
+
+	/**
+	 * get the cache of the forms of the words of this lexicon computed by
+	 * the morphology rules
+	 * 
+	 * @return the cache, or null if forms are not cached
+	 */
+	public InflectionCache getInflectionCache() {
+		return this.inflectionCache;
+	}
+
+	/**
+	 * set the cache of the forms of the words of this lexicon computed by
+	 * the morphology rules. By default, forms are kept in an InflectionCache
+	 * with the default maximum size.
+	 * 
+	 * @param inflectionCache
+	 *            - the cache, or null to apply the rules every time
+	 */
+	public void setInflectionCache(InflectionCache inflectionCache) {
+		this.inflectionCache = inflectionCache;
+	}
+
+	/**
+	 * returns the default built-in lexicon, a new English XMLLexicon. The
+	 * XML file is parsed only once (see LexiconRegistry) : the words of the
+	 * lexicon returned are copies of the shared words, which the caller can
+	 * change without changing the words of the other lexicons.
 	 * 
 	 * @return default lexicon
 	 */
@@ -184,14 +277,39 @@ public abstract class Lexicon {
 	 * @return word
 	 */
 	public WordElement lookupWord(String baseForm, LexicalCategory category) {
-		if (hasWord(baseForm, category))
-			return getWord(baseForm, category);
-		else if (hasWordFromVariant(baseForm, category))
-			return getWordFromVariant(baseForm, category);
-		else if (hasWordByID(baseForm))
-			return getWordByID(baseForm);
-		else
-			return createWord(baseForm, category);
+		// each index is probed once, without building lists of words
+		// if the lexicon overrides the findWord methods
+		WordElement word = findWord(baseForm, category);
+		if (word == null)
+			word = findWordFromVariant(baseForm, category);
+		if (word == null)
+			word = findWordByID(baseForm);
+		if (word == null)
+			word = createWord(baseForm, category);
+		return word;
+	}
+
+	/**
+	 * General word lookup method, like lookupWord, which also tells how the
+	 * word was found : tries base form, variant, ID (in this order), and
+	 * creates new word if can't find existing word
+	 * 
+	 * @param baseForm
+	 * @param category
+	 * @return the word and how it was found
+	 */
+	public WordLookup resolveWord(String baseForm, LexicalCategory category) {
+		WordElement word = findWord(baseForm, category);
+		if (word != null)
+			return new WordLookup(word, WordLookup.Source.BASE);
+		word = findWordFromVariant(baseForm, category);
+		if (word != null)
+			return new WordLookup(word, WordLookup.Source.VARIANT);
+		word = findWordByID(baseForm);
+		if (word != null)
+			return new WordLookup(word, WordLookup.Source.ID);
+		return new WordLookup(createWord(baseForm, category),
+				WordLookup.Source.CREATED);
 	}
 
 	/**
@@ -224,6 +342,22 @@ public abstract class Lexicon {
 	abstract public List<WordElement> getWords(String baseForm,
 			LexicalCategory category);
 
+	/**
+	 * returns the first WordElement which has the specified base form and
+	 * category, or null if there is none. Unlike getWord, no word is created.
+	 * Subclasses may override this to avoid building the list of all
+	 * matching words.
+	 * 
+	 * @param baseForm
+	 *            - base form of word, eg "be" or "dog" (not "is" or "dogs")
+	 * @param category
+	 *            - syntactic category of word (ANY for unknown)
+	 * @return the first matching WordElement, or null
+	 */
+	public WordElement findWord(String baseForm, LexicalCategory category) {
+		return first(getWords(baseForm, category));
+	}
+
 	/**
 	 * get a WordElement which has the specified base form and category
 	 * 
@@ -242,13 +376,13 @@ public abstract class Lexicon {
 		// from
 		// other
 		// methods
-		List<WordElement> wordElements = getWords(baseForm, category);
-		if (wordElements.isEmpty())
+		WordElement wordElement = findWord(baseForm, category);
+		if (wordElement == null)
 			return createWord(baseForm, category); // return default WordElement
 		// of this baseForm,
 		// category
 		else
-			return wordElements.get(0); // else return first match
+			return wordElement; // else return first match
 	}
 
 	/**
@@ -268,7 +402,7 @@ public abstract class Lexicon {
 		// other
 		// methods)
 		// {
-		return !getWords(baseForm, category).isEmpty();
+		return findWord(baseForm, category) != null;
 	}
 
 	/**
@@ -296,13 +430,13 @@ public abstract class Lexicon {
 	 */
 	public WordElement getWord(String baseForm) { // convenience method derived
 		// from other methods
-		List<WordElement> wordElements = getWords(baseForm);
+		WordElement wordElement = findWord(baseForm, LexicalCategory.ANY);
 
-		if (wordElements.isEmpty())
+		if (wordElement == null)
 			return createWord(baseForm); // return default WordElement of this
 		// baseForm
 		else
-			return wordElements.get(0); // else return first match
+			return wordElement; // else return first match
 	}
 
 	/**
@@ -315,7 +449,7 @@ public abstract class Lexicon {
 	 */
 	public boolean hasWord(String baseForm) {// convenience method derived from
 		// other methods) {
-		return !getWords(baseForm).isEmpty();
+		return findWord(baseForm, LexicalCategory.ANY) != null;
 	}
 
 	/****************************************************************************/
@@ -339,6 +473,19 @@ public abstract class Lexicon {
 	 */
 	abstract public List<WordElement> getWordsByID(String id);
 
+	/**
+	 * returns the WordElement with the specified ID, or null if there is none.
+	 * Unlike getWordByID, no word is created. Subclasses may override this to
+	 * avoid building a list.
+	 * 
+	 * @param id
+	 *            - internal lexicon ID for a word
+	 * @return the WordElement with this ID, or null
+	 */
+	public WordElement findWordByID(String id) {
+		return first(getWordsByID(id));
+	}
+
 	/**
 	 * get a WordElement with the specified ID
 	 * 
@@ -348,12 +495,12 @@ public abstract class Lexicon {
 	 *         created with the ID as the base form
 	 */
 	public WordElement getWordByID(String id) {
-		List<WordElement> wordElements = getWordsByID(id);
-		if (wordElements.isEmpty())
+		WordElement wordElement = findWordByID(id);
+		if (wordElement == null)
 			return createWord(id); // return WordElement based on ID; may help
 		// in debugging...
 		else
-			return wordElements.get(0); // else return first match
+			return wordElement; // else return first match
 	}
 
 	/**
@@ -366,7 +513,7 @@ public abstract class Lexicon {
 	 */
 	public boolean hasWordByID(String id) {// convenience method derived from
 		// other methods) {
-		return !getWordsByID(id).isEmpty();
+		return findWordByID(id) != null;
 	}
 
 	/****************************************************************************/
@@ -397,6 +544,23 @@ public abstract class Lexicon {
 	abstract public List<WordElement> getWordsFromVariant(String variant,
 			LexicalCategory category);
 
+	/**
+	 * returns the first WordElement which has the specified inflected form
+	 * and/or spelling variant, of the specified category, or null if there
+	 * is none. Unlike getWordFromVariant, no word is created. Subclasses may
+	 * override this to avoid building the list of all matching words.
+	 * 
+	 * @param variant
+	 *            - base form, inflected form, or spelling variant of word
+	 * @param category
+	 *            - syntactic category of word (ANY for unknown)
+	 * @return the first matching WordElement, or null
+	 */
+	public WordElement findWordFromVariant(String variant,
+			LexicalCategory category) {
+		return first(getWordsFromVariant(variant, category));
+	}
+
 	/**
 	 * returns a WordElement which has the specified inflected form and/or
 	 * spelling variant that matches the specified variant, of the specified
@@ -411,13 +575,13 @@ public abstract class Lexicon {
 	 */
 	public WordElement getWordFromVariant(String variant,
 			LexicalCategory category) {
-		List<WordElement> wordElements = getWordsFromVariant(variant, category);
-		if (wordElements.isEmpty())
+		WordElement wordElement = findWordFromVariant(variant, category);
+		if (wordElement == null)
 			return createWord(variant, category); // return default WordElement
 		// using variant as base
 		// form
 		else
-			return wordElements.get(0); // else return first match
+			return wordElement; // else return first match
 
 	}
 
@@ -438,7 +602,7 @@ public abstract class Lexicon {
 		// other
 		// methods)
 		// {
-		return !getWordsFromVariant(variant, category).isEmpty();
+		return findWordFromVariant(variant, category) != null;
 	}
 
 	/**
@@ -466,12 +630,13 @@ public abstract class Lexicon {
 	 *         created using thie variant as the base form
 	 */
 	public WordElement getWordFromVariant(String variant) {
-		List<WordElement> wordElements = getWordsFromVariant(variant);
-		if (wordElements.isEmpty())
+		WordElement wordElement = findWordFromVariant(variant,
+				LexicalCategory.ANY);
+		if (wordElement == null)
 			return createWord(variant); // return default WordElement using
 		// variant as base form
 		else
-			return wordElements.get(0); // else return first match
+			return wordElement; // else return first match
 	}
 
 	/**
@@ -485,7 +650,19 @@ public abstract class Lexicon {
 	public boolean hasWordFromVariant(String variant) {// convenience method
 		// derived from other
 		// methods) {
-		return !getWordsFromVariant(variant).isEmpty();
+		return findWordFromVariant(variant, LexicalCategory.ANY) != null;
+	}
+
+	/**
+	 * @param wordElements
+	 *            - words found, possibly null
+	 * @return the first word, or null if there is none
+	 */
+	private static WordElement first(List<WordElement> wordElements) {
+		if (wordElements == null || wordElements.isEmpty())
+			return null;
+		else
+			return wordElements.get(0);
 	}
 
 	/****************************************************************************/
@@ -500,6 +677,61 @@ public abstract class Lexicon {
 		// default method does nothing
 	}
 
+	/**
+	 * Get the function words of this lexicon used by the syntax helpers.
+	 * They are looked up the first time they are asked for, then kept.
+	 * 
+	 * @return	the function words of this lexicon
+	 */
+	public FunctionWords getFunctionWords() {
+		return getFunctionWords(getLanguage());
+	}
+
+	/**
+	 * Get the function words of a language looked up in this lexicon, for
+	 * the syntax helpers of a language which realise a phrase whose lexicon
+	 * is of another language. They are looked up the first time they are
+	 * asked for, then kept like those of the language of this lexicon.
+	 * 
+	 * @param language
+	 * @return	the function words of this language looked up in this lexicon
+	 */
+	public FunctionWords getFunctionWords(Language language) {
+		FunctionWords words = functionWords.get(language);
+		if (words == null) {
+			words = createFunctionWords(language);
+			FunctionWords previous = functionWords.putIfAbsent(language, words);
+			if (previous != null) words = previous;
+		}
+		return words;
+	}
+
+	/**
+	 * Looks up the function words of a language in this lexicon. This can be
+	 * overridden by subclasses to return a subclass of the FunctionWords of
+	 * the language.
+	 * 
+	 * @param language
+	 * @return	the function words of this language looked up in this lexicon
+	 */
+	protected FunctionWords createFunctionWords(Language language) {
+		switch (language) {
+		case FRENCH :
+			return new simplenlg.lexicon.french.FunctionWords(this);
+		case ENGLISH : default:
+			return new simplenlg.lexicon.english.FunctionWords(this);
+		}
+	}
+
+	/**
+	 * Drops the function words of this lexicon, so that they are looked up
+	 * again the next time they are asked for. Called by subclasses when the
+	 * words found by a lookup change.
+	 */
+	protected void resetFunctionWords() {
+		functionWords.clear();
+	}
+
 	/**
 	 * Get the coordination conjunction used for addition in this lexicon.
 	 * (normally "and" in English, "et" in French, etc.)
@@ -516,22 +748,7 @@ public abstract class Lexicon {
 	 * @author vaudrypl
 	 */
 	public WordElement getAdditionCoordConjunction() {
-		WordElement conjunction;
-		
-		if (hasWordByID("E0008890")) {
-			conjunction = getWordByID("E0008890");
-		} else {
-			switch (getLanguage()) {
-			case FRENCH :
-				conjunction = lookupWord("et", LexicalCategory.CONJUNCTION);
-				break;
-			case ENGLISH : default:
-				conjunction = lookupWord("and", LexicalCategory.CONJUNCTION);
-				break;
-			}
-		}
-		
-		return conjunction;
+		return getFunctionWords().getAdditionCoordConjunction();
 	}
 	
 	/**
@@ -550,22 +767,7 @@ public abstract class Lexicon {
 	 * @author vaudrypl
 	 */
 	public WordElement getPassivePreposition() {
-		WordElement preposition;
-		
-		if (hasWordByID("E0014539")) {
-			preposition = getWordByID("E0014539");
-		} else {
-			switch (getLanguage()) {
-			case FRENCH :
-				preposition = lookupWord("par", LexicalCategory.PREPOSITION); 
-				break;
-			case ENGLISH : default:
-				preposition = lookupWord("by", LexicalCategory.PREPOSITION); 
-				break;
-			}
-		}
-		
-		return preposition;
+		return getFunctionWords().getPassivePreposition();
 	}
 	
 	/**
@@ -578,18 +780,7 @@ public abstract class Lexicon {
 	 * @author vaudrypl
 	 */
 	public WordElement getDefaultComplementiser() {
-		WordElement complementiser;
-		
-		switch (getLanguage()) {
-		case FRENCH :
-			complementiser = lookupWord("que", LexicalCategory.COMPLEMENTISER); 
-			break;
-		case ENGLISH : default:
-			complementiser = lookupWord("that", LexicalCategory.COMPLEMENTISER); 
-			break;
-		}
-		
-		return complementiser;
+		return getFunctionWords().getDefaultComplementiser();
 	}
 	
 	/**
@@ -614,6 +805,51 @@ public abstract class Lexicon {
 		throw new UnsupportedOperationException("Method not implemented.");
 	}
 	
+	/**
+	 * Called by a WordElement of this lexicon when its features or its
+	 * category change after loading, so that the lexicon can drop what it
+	 * computed from them. As it is called for every change, it should only
+	 * mark what must be computed again when it is next needed. Does nothing
+	 * by default.
+	 * 
+	 * @param word	the word which changed
+	 */
+	public void featuresChanged(WordElement word) {
+	}
+
+	/**
+	 * Checks if a word matches the features provided, as required by
+	 * getWords(LexicalCategory, Map). The word must have each feature
+	 * with its corresponding value, except that a feature with a value of
+	 * null or Boolean.FALSE also matches a word who doesn't have this
+	 * feature at all.
+	 * 
+	 * @param word		the word to check
+	 * @param features	features and their corrsponding values that
+	 *					the word must have (it can have others)
+	 * @return			<code>true</code> if the word matches all the features
+	 */
+	protected static boolean hasFeatures(WordElement word,
+			Map<String, Object> features) {
+		Map<String, Object> currentFeaturesMap = word.getAllFeatures();
+		// must convert map to set to use contains()
+		Set<Map.Entry<String, Object>> currentFeaturesSet = currentFeaturesMap.entrySet();
+
+/*		Doesn't match if the following is not true for
+		at least one feature received as argument :
+		The word has this feature and its corresponding value OR
+		The value of this feature is null or Boolean.FALSE and the word
+		doesn't have this feature at all.
+*/		for (Map.Entry<String, Object> entry : features.entrySet()) {
+			if ( !( currentFeaturesSet.contains( entry ) || 
+				((entry.getValue() == null || entry.getValue() == Boolean.FALSE)
+						&& !currentFeaturesMap.containsKey(entry.getKey())) ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	/**
 	 * Looks for a word in the lexicon matching the category and features
 	 * provided. Make sure to override getWordsByCategoryAndFeatures()
@@ -0,0 +1,251 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import simplenlg.framework.Language;
+
+/**
+ * This class keeps one loaded XML lexicon per language and resource URI for
+ * the whole process, so that a lexicon file is parsed only once no matter
+ * how many factories and lexicons are created with it.
+ * {@link Lexicon#getDefaultLexicon()} and the
+ * <code>XMLLexicon(Language)</code> constructors copy the words of the
+ * lexicon kept by this registry instead of parsing the file again, and
+ * factories created without a lexicon use a view of it (see
+ * OverlayLexicon).
+ * 
+ * The indexes of a lexicon kept by the registry are never modified after it
+ * is loaded : words created for unknown base forms are kept apart by the
+ * lexicon that created them (see <code>XMLLexicon.createWord</code>), and
+ * its words are frozen (see <code>Lexicon.freeze</code>). It can therefore
+ * be read by several threads and used by several realisations at once.
+ * 
+ * Lexicons can be loaded in advance with <code>preload</code> (for example
+ * at application startup), and forgotten with <code>release</code>, after
+ * which they will be loaded again if they are asked for. Lexicons already
+ * handed out stay usable after being released.
+ */
+public final class LexiconRegistry {
+
+	// loaded lexicons, by language code and URI
+	private static final ConcurrentMap<String, LexiconHolder> lexicons =
+		new ConcurrentHashMap<String, LexiconHolder>();
+
+	// metrics
+	private static final AtomicLong loadCount = new AtomicLong();
+	private static final AtomicLong avoidedLoadCount = new AtomicLong();
+
+	private LexiconRegistry() {
+	}
+
+	/**
+	 * Holds a lexicon which is loaded the first time it is asked for. Loading
+	 * is done outside of the map so that two lexicons can be loaded at the
+	 * same time, and so that loading one can ask for another.
+	 */
+	private static class LexiconHolder {
+		private final Language language;
+		private final URI uri;
+		private XMLLexicon lexicon = null;
+
+		LexiconHolder(Language language, URI uri) {
+			this.language = language;
+			this.uri = uri;
+		}
+
+		synchronized XMLLexicon getLexicon() {
+			if (lexicon == null) {
+				switch (language) {
+				case FRENCH:
+					lexicon = new simplenlg.lexicon.french.XMLLexicon(uri);
+					break;
+				case ENGLISH: default:
+					lexicon = new simplenlg.lexicon.english.XMLLexicon(uri);
+				}
+				// the function words are looked up while loading rather
+				// than by the first realisation, and frozen with the others
+				lexicon.freeze();
+				lexicon.getFunctionWords();
+				loadCount.incrementAndGet();
+			} else {
+				avoidedLoadCount.incrementAndGet();
+			}
+			return lexicon;
+		}
+	}
+
+	/**
+	 * @param language
+	 * @return the URI of the default XML lexicon of this language,
+	 *         null if the resource can't be found
+	 */
+	public static URI getDefaultLexiconURI(Language language) {
+		String xmlLexiconFilePath;
+		switch (language == null ? Language.DEFAULT_LANGUAGE : language) {
+		case FRENCH :
+			xmlLexiconFilePath = "default-french-lexicon.xml";
+			break;
+		default :
+			xmlLexiconFilePath = "default-lexicon.xml";
+		}
+
+		URI uri = null;
+		URL url = LexiconRegistry.class.getClassLoader().getResource(xmlLexiconFilePath);
+		if (url != null) {
+			try {
+				uri = url.toURI();
+			} catch (URISyntaxException ex) {
+				System.out.println(ex.toString());
+			}
+		} else {
+			System.out.println("Cannot find lexicon resource " + xmlLexiconFilePath);
+		}
+		return uri;
+	}
+
+	/**
+	 * Returns the shared default XML lexicon of a language, loading it if
+	 * necessary.
+	 * 
+	 * @param language
+	 * @return the shared default lexicon of this language
+	 */
+	public static XMLLexicon getLexicon(Language language) {
+		if (language == null) language = Language.DEFAULT_LANGUAGE;
+		return getLexicon(language, getDefaultLexiconURI(language));
+	}
+
+	/**
+	 * Returns the shared XML lexicon of a language loaded from this URI,
+	 * loading it if necessary.
+	 * 
+	 * @param language
+	 * @param lexiconURI
+	 * @return the shared lexicon of this language and URI
+	 */
+	public static XMLLexicon getLexicon(Language language, URI lexiconURI) {
+		if (language == null) language = Language.DEFAULT_LANGUAGE;
+		String key = getKey(language, lexiconURI);
+		LexiconHolder holder = lexicons.get(key);
+		if (holder == null) {
+			LexiconHolder newHolder = new LexiconHolder(language, lexiconURI);
+			holder = lexicons.putIfAbsent(key, newHolder);
+			if (holder == null) holder = newHolder;
+		}
+		return holder.getLexicon();
+	}
+
+	/**
+	 * Loads the default lexicons of these languages if they are not
+	 * already loaded.
+	 * 
+	 * @param languages
+	 */
+	public static void preload(Language... languages) {
+		for (Language language : languages) {
+			getLexicon(language);
+		}
+	}
+
+	/**
+	 * Forgets the default lexicon of a language. It will be loaded again
+	 * the next time it is asked for.
+	 * 
+	 * @param language
+	 * @return <code>true</code> if the lexicon was kept by the registry
+	 */
+	public static boolean release(Language language) {
+		if (language == null) language = Language.DEFAULT_LANGUAGE;
+		return release(language, getDefaultLexiconURI(language));
+	}
+
+	/**
+	 * Forgets the lexicon of a language loaded from this URI. It will be
+	 * loaded again the next time it is asked for.
+	 * 
+	 * @param language
+	 * @param lexiconURI
+	 * @return <code>true</code> if the lexicon was kept by the registry
+	 * @throws IllegalArgumentException
+	 *             if the language is <code>null</code>
+	 */
+	public static boolean release(Language language, URI lexiconURI) {
+		return lexicons.remove(getKey(language, lexiconURI)) != null;
+	}
+
+	/**
+	 * Forgets all the lexicons kept by the registry.
+	 */
+	public static void releaseAll() {
+		lexicons.clear();
+	}
+
+	/**
+	 * @param language
+	 * @param lexiconURI
+	 * @return <code>true</code> if this lexicon is currently kept by the registry
+	 * @throws IllegalArgumentException
+	 *             if the language is <code>null</code>
+	 */
+	public static boolean isLoaded(Language language, URI lexiconURI) {
+		LexiconHolder holder = lexicons.get(getKey(language, lexiconURI));
+		if (holder == null) return false;
+		synchronized (holder) {
+			return holder.lexicon != null;
+		}
+	}
+
+	/**
+	 * @return the number of times a lexicon file was parsed by the registry
+	 */
+	public static long getLoadCount() {
+		return loadCount.get();
+	}
+
+	/**
+	 * @return the number of times a lexicon was asked for and was already
+	 *         loaded, that is the number of times parsing a lexicon file
+	 *         was avoided
+	 */
+	public static long getAvoidedLoadCount() {
+		return avoidedLoadCount.get();
+	}
+
+	/**
+	 * Sets the load metrics back to zero.
+	 */
+	public static void resetMetrics() {
+		loadCount.set(0);
+		avoidedLoadCount.set(0);
+	}
+
+	private static String getKey(Language language, URI lexiconURI) {
+		if (language == null) {
+			throw new IllegalArgumentException("A lexicon of the registry needs a language.");
+		}
+		return language.code + ' ' + lexiconURI;
+	}
+}
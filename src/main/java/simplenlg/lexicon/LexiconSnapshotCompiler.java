@@ -0,0 +1,357 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * This class compiles a loaded XML lexicon into a binary snapshot that can
+ * be memory-mapped by {@link SnapshotLexicon}. The snapshot holds all the
+ * words with their features, and the four indexes built by
+ * {@link XMLLexicon} (by base form, by variant, by ID and by category), so
+ * that no XML parsing nor variant computation is needed when it is loaded.
+ * 
+ * Snapshot layout (all integers are big-endian, all offsets are absolute):
+ * <pre>
+ * header    : magic, version, language code, word count,
+ *             offsets of the word table and of the four indexes
+ * word table: int[word count] offsets of the word records
+ * word      : base, category, id, feature count, features (name, tag, value)
+ * key index : key count, int[key count] offsets of the entries sorted by
+ *             the UTF-8 bytes of their key (see KEY_ORDER),
+ *             entries (key, word count, int[word count] word ordinals)
+ * categories: category count, entries (category, word count, word ordinals)
+ * </pre>
+ * Strings are stored as their UTF-8 byte length followed by the bytes, with
+ * a length of -1 for <code>null</code>.
+ * 
+ * The compiler can also be called from the command line :
+ * <code>LexiconSnapshotCompiler languageCode lexicon.xml lexicon.snapshot</code>
+ */
+public class LexiconSnapshotCompiler {
+
+	// "SNLX"
+	static final int MAGIC = 0x534E4C58;
+	// to be incremented every time the layout changes
+	static final int VERSION = 2;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Order of the keys in the indexes : the order of their code points,
+	 * which is the order of their UTF-8 bytes read as unsigned, so that
+	 * SnapshotLexicon can compare them with the bytes of the snapshot
+	 * without decoding them. (String.compareTo orders the characters outside
+	 * the Basic Multilingual Plane differently.)
+	 */
+	static final Comparator<String> KEY_ORDER = new Comparator<String>() {
+
+		@Override
+		public int compare(String key1, String key2) {
+			int index1 = 0;
+			int index2 = 0;
+			while (index1 < key1.length() && index2 < key2.length()) {
+				int codePoint1 = key1.codePointAt(index1);
+				int codePoint2 = key2.codePointAt(index2);
+				if (codePoint1 != codePoint2) return codePoint1 - codePoint2;
+				index1 += Character.charCount(codePoint1);
+				index2 += Character.charCount(codePoint2);
+			}
+			return (index1 < key1.length() ? 1 : 0) - (index2 < key2.length() ? 1 : 0);
+		}
+	};
+
+	// tags for feature values
+	static final byte TAG_STRING = 'S';
+	static final byte TAG_BOOLEAN = 'B';
+	static final byte TAG_INTEGER = 'I';
+	static final byte TAG_ENUM = 'E';
+	static final byte TAG_STRING_LIST = 'L';
+
+	// position of the section offsets in the header, after magic and version
+	// and the language code
+	static final int HEADER_OFFSET_COUNT = 5;
+
+	private LexiconSnapshotCompiler() {
+	}
+
+	/**
+	 * Compiles an XML lexicon file into a snapshot.
+	 * 
+	 * @param args
+	 *            language code (en or fr), XML lexicon file, snapshot file
+	 */
+	public static void main(String[] args) {
+		if (args.length != 3) {
+			System.out.println("usage: LexiconSnapshotCompiler languageCode lexicon.xml lexicon.snapshot");
+			return;
+		}
+		Language language = Language.convertCodeToLanguage(args[0]);
+		XMLLexicon lexicon;
+		if (language == Language.FRENCH) {
+			lexicon = new simplenlg.lexicon.french.XMLLexicon(args[1]);
+		} else {
+			lexicon = new simplenlg.lexicon.english.XMLLexicon(args[1]);
+		}
+		try {
+			compile(lexicon, new File(args[2]));
+		} catch (IOException ex) {
+			System.out.println("Cannot write lexicon snapshot: " + ex.toString());
+		}
+	}
+
+	/**
+	 * Writes a snapshot of a loaded XML lexicon to a file.
+	 * 
+	 * @param lexicon
+	 *            the loaded lexicon
+	 * @param snapshotFile
+	 *            the file to write
+	 * @throws IOException
+	 *             if the file cannot be written, or if a word has a feature
+	 *             value that cannot be stored in a snapshot
+	 */
+	public static void compile(XMLLexicon lexicon, File snapshotFile)
+			throws IOException {
+		OutputStream out = new FileOutputStream(snapshotFile);
+		try {
+			compile(lexicon, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes a snapshot of a loaded XML lexicon to a stream.
+	 * 
+	 * @param lexicon
+	 *            the loaded lexicon
+	 * @param out
+	 *            the stream to write to (not closed by this method)
+	 * @throws IOException
+	 *             if the stream cannot be written, or if a word has a feature
+	 *             value that cannot be stored in a snapshot
+	 */
+	public static void compile(XMLLexicon lexicon, OutputStream out)
+			throws IOException {
+		// the index by variant may not be complete yet (see VariantIndexMode)
+		lexicon.buildVariantIndex(LexicalCategory.ANY);
+
+		// give each word an ordinal, in category order so that
+		// the ordinals of a category are contiguous
+		List<WordElement> words = new ArrayList<WordElement>();
+		Map<WordElement, Integer> ordinals = new IdentityHashMap<WordElement, Integer>();
+		for (List<WordElement> categoryWords : lexicon.indexByCategory.values()) {
+			for (WordElement word : categoryWords) {
+				addOrdinal(word, words, ordinals);
+			}
+		}
+		for (WordElement word : lexicon.words) {
+			addOrdinal(word, words, ordinals);
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(bytes);
+		int[] sectionOffsets = new int[HEADER_OFFSET_COUNT];
+
+		// header
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		writeString(data, lexicon.getLanguage().code);
+		data.writeInt(words.size());
+		int headerOffsets = data.size();
+		for (int i = 0; i < HEADER_OFFSET_COUNT; i++) {
+			data.writeInt(0);
+		}
+
+		// word table and words
+		sectionOffsets[0] = data.size();
+		int[] wordOffsets = new int[words.size()];
+		for (int i = 0; i < wordOffsets.length; i++) {
+			data.writeInt(0);
+		}
+		for (int i = 0; i < wordOffsets.length; i++) {
+			wordOffsets[i] = data.size();
+			writeWord(data, words.get(i));
+		}
+
+		// indexes
+		sectionOffsets[1] = data.size();
+		int[] baseEntries = writeKeyIndex(data, lexicon.indexByBase, ordinals);
+		sectionOffsets[2] = data.size();
+		int[] variantEntries = writeKeyIndex(data, lexicon.indexByVariant, ordinals);
+		Map<String, List<WordElement>> indexByID = new TreeMap<String, List<WordElement>>();
+		for (Map.Entry<String, WordElement> entry : lexicon.indexByID.entrySet()) {
+			List<WordElement> idWords = new ArrayList<WordElement>(1);
+			idWords.add(entry.getValue());
+			indexByID.put(entry.getKey(), idWords);
+		}
+		sectionOffsets[3] = data.size();
+		int[] idEntries = writeKeyIndex(data, indexByID, ordinals);
+		sectionOffsets[4] = data.size();
+		data.writeInt(lexicon.indexByCategory.size());
+		for (Map.Entry<LexicalCategory, List<WordElement>> entry : lexicon.indexByCategory.entrySet()) {
+			writeString(data, entry.getKey().name());
+			writeOrdinals(data, entry.getValue(), ordinals);
+		}
+		data.flush();
+
+		// now that all positions are known, fill in the offset tables
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		for (int i = 0; i < HEADER_OFFSET_COUNT; i++) {
+			buffer.putInt(headerOffsets + 4 * i, sectionOffsets[i]);
+		}
+		putTable(buffer, sectionOffsets[0], wordOffsets);
+		putTable(buffer, sectionOffsets[1] + 4, baseEntries);
+		putTable(buffer, sectionOffsets[2] + 4, variantEntries);
+		putTable(buffer, sectionOffsets[3] + 4, idEntries);
+
+		out.write(buffer.array());
+		out.flush();
+	}
+
+	private static void addOrdinal(WordElement word, List<WordElement> words,
+			Map<WordElement, Integer> ordinals) {
+		if (!ordinals.containsKey(word)) {
+			ordinals.put(word, words.size());
+			words.add(word);
+		}
+	}
+
+	private static void putTable(ByteBuffer buffer, int offset, int[] table) {
+		for (int i = 0; i < table.length; i++) {
+			buffer.putInt(offset + 4 * i, table[i]);
+		}
+	}
+
+	/**
+	 * Writes an index from String keys to words. Returns the offsets of the
+	 * entries, in key order, which must be written in the table following
+	 * the key count once they are all known.
+	 */
+	private static int[] writeKeyIndex(DataOutputStream data,
+			Map<String, List<WordElement>> index,
+			Map<WordElement, Integer> ordinals) throws IOException {
+		// sorted so that keys can be found by binary search
+		Map<String, List<WordElement>> sortedIndex = new TreeMap<String, List<WordElement>>(KEY_ORDER);
+		for (Map.Entry<String, List<WordElement>> indexEntry : index.entrySet()) {
+			// a null key can't be looked up anyway
+			if (indexEntry.getKey() != null) {
+				sortedIndex.put(indexEntry.getKey(), indexEntry.getValue());
+			}
+		}
+		int[] entryOffsets = new int[sortedIndex.size()];
+		data.writeInt(entryOffsets.length);
+		for (int i = 0; i < entryOffsets.length; i++) {
+			data.writeInt(0);
+		}
+		int entry = 0;
+		for (Map.Entry<String, List<WordElement>> indexEntry : sortedIndex.entrySet()) {
+			entryOffsets[entry++] = data.size();
+			writeString(data, indexEntry.getKey());
+			writeOrdinals(data, indexEntry.getValue(), ordinals);
+		}
+		return entryOffsets;
+	}
+
+	private static void writeOrdinals(DataOutputStream data,
+			List<WordElement> words, Map<WordElement, Integer> ordinals)
+			throws IOException {
+		data.writeInt(words.size());
+		for (WordElement word : words) {
+			data.writeInt(ordinals.get(word));
+		}
+	}
+
+	private static void writeWord(DataOutputStream data, WordElement word)
+			throws IOException {
+		writeString(data, word.getBaseForm());
+		writeString(data, word.getCategory() == null ? null : ((LexicalCategory) word.getCategory()).name());
+		writeString(data, word.getId());
+		Map<String, Object> features = word.getAllFeatures();
+		data.writeInt(features.size());
+		for (Map.Entry<String, Object> feature : features.entrySet()) {
+			writeString(data, feature.getKey());
+			writeValue(data, word, feature.getKey(), feature.getValue());
+		}
+	}
+
+	private static void writeValue(DataOutputStream data, WordElement word,
+			String featureName, Object value) throws IOException {
+		if (value instanceof String) {
+			data.writeByte(TAG_STRING);
+			writeString(data, (String) value);
+		} else if (value instanceof Boolean) {
+			data.writeByte(TAG_BOOLEAN);
+			data.writeBoolean((Boolean) value);
+		} else if (value instanceof Integer) {
+			data.writeByte(TAG_INTEGER);
+			data.writeInt((Integer) value);
+		} else if (value instanceof Enum<?>) {
+			data.writeByte(TAG_ENUM);
+			writeString(data, ((Enum<?>) value).getDeclaringClass().getName());
+			writeString(data, ((Enum<?>) value).name());
+		} else if (value instanceof Collection<?> && onlyStrings((Collection<?>) value)) {
+			data.writeByte(TAG_STRING_LIST);
+			data.writeInt(((Collection<?>) value).size());
+			for (Object string : (Collection<?>) value) {
+				writeString(data, (String) string);
+			}
+		} else {
+			throw new IOException("Cannot store value of feature " + featureName
+					+ " of " + word + " in a lexicon snapshot: " + value);
+		}
+	}
+
+	private static boolean onlyStrings(Collection<?> collection) {
+		for (Object object : collection) {
+			if (!(object instanceof String)) return false;
+		}
+		return true;
+	}
+
+	private static void writeString(DataOutputStream data, String string)
+			throws IOException {
+		if (string == null) {
+			data.writeInt(-1);
+		} else {
+			byte[] stringBytes = string.getBytes(UTF8);
+			data.writeInt(stringBytes.length);
+			data.write(stringBytes);
+		}
+	}
+}
@@ -121,6 +121,7 @@ public class MultipleLexicon extends Lexicon {
 	 */
 	public void addInitialLexicon(Lexicon lex) {
 		lexiconList.add(0, lex);
+		resetFunctionWords();
 	}
 
 	/** add lexicon at end of list (is searched last)
@@ -130,6 +131,17 @@ public class MultipleLexicon extends Lexicon {
 		// corrected by vaudrypl
 		// lexiconList.add(0, lex);
 		lexiconList.add(lex);
+		resetFunctionWords();
+	}
+
+	/**
+	 * Freezes the lexicons of this lexicon, which are searched for its words.
+	 */
+	@Override
+	public void freeze() {
+		super.freeze();
+		for (Lexicon lex : lexiconList)
+			lex.freeze();
 	}
 
 	/**
@@ -201,6 +213,45 @@ public class MultipleLexicon extends Lexicon {
 		return result;
 	}
 
+	/* (non-Javadoc)
+	 * @see simplenlg.lexicon.Lexicon#findWord(java.lang.String, simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public WordElement findWord(String baseForm, LexicalCategory category) {
+		for (Lexicon lex: lexiconList) {
+			WordElement word = lex.findWord(baseForm, category);
+			if (word != null)
+				return word;
+		}
+		return null;
+	}
+
+	/* (non-Javadoc)
+	 * @see simplenlg.lexicon.Lexicon#findWordByID(java.lang.String)
+	 */
+	@Override
+	public WordElement findWordByID(String id) {
+		for (Lexicon lex: lexiconList) {
+			WordElement word = lex.findWordByID(id);
+			if (word != null)
+				return word;
+		}
+		return null;
+	}
+
+	/* (non-Javadoc)
+	 * @see simplenlg.lexicon.Lexicon#findWordFromVariant(java.lang.String, simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public WordElement findWordFromVariant(String variant, LexicalCategory category) {
+		for (Lexicon lex: lexiconList) {
+			WordElement word = lex.findWordFromVariant(variant, category);
+			if (word != null)
+				return word;
+		}
+		return null;
+	}
+
 
 	/**
 	 * Creates a default WordElement with the specified category
@@ -33,6 +33,10 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import simplenlg.features.LexicalFeature;
 import simplenlg.framework.LexicalCategory;
@@ -56,13 +60,28 @@ public class NIHDBLexicon extends Lexicon {
 	private static String DB_HSQL_EXTENSION = ".data"; // filename extension for
 	// HSQL DB
 
+	// default time to wait for a free lexical access object, in milliseconds
+	private static long DEFAULT_MAX_WAIT_MILLIS = 10000;
+
 	// class variables
-	private Connection conn = null; // DB connection
-	private LexAccessApi lexdb = null; // Lexicon access object
+	// pool of lexicon access objects, each with its own DB connection; a
+	// LexAccessApi can only be used by one thread at a time
+	private BlockingQueue<LexAccessApi> lexdbPool = null;
+	private int poolSize = 0; // number of lexicon access objects opened
+	private volatile boolean closed = false;
+
+	// time to wait for a free lexicon access object before giving up
+	private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+
+	// number of queries which gave up waiting for a lexicon access object
+	private AtomicLong waitTimeoutCount = new AtomicLong();
 
 	// if false, don't keep standard inflections in the Word object
 	private boolean keepStandardInflections = false;
 
+	// cache of the words retrieved from the DB, null if none
+	private WordCache cache = new WordCache();
+
 	/****************************************************************************/
 	// constructors
 	/****************************************************************************/
@@ -75,6 +94,20 @@ public class NIHDBLexicon extends Lexicon {
 	 *            of HSQL DB
 	 */
 	public NIHDBLexicon(String filename) {
+		this(filename, 1);
+	}
+
+	/**
+	 * set up lexicon using file which contains downloaded lexAccess HSQL DB and
+	 * default passwords, with a pool of connections so that several threads
+	 * can query the DB at the same time
+	 * 
+	 * @param filename
+	 *            of HSQL DB
+	 * @param poolSize
+	 *            number of connections (and of concurrent queries)
+	 */
+	public NIHDBLexicon(String filename, int poolSize) {
 		super();
 		// get rid of .data at end of filename if necessary
 		String dbfilename = filename;
@@ -83,17 +116,8 @@ public class NIHDBLexicon extends Lexicon {
 					- DB_HSQL_EXTENSION.length());
 
 		// try to open DB and set up lexicon
-		try {
-			Class.forName(DB_HSQL_DRIVER);
-			conn = DriverManager.getConnection(DB_HQSL_JDBC + dbfilename,
-					DB_DEFAULT_USERNAME, DB_DEFAULT_PASSWORD);
-			// now set up lexical access object
-			lexdb = new LexAccessApi(conn);
-
-		} catch (Exception ex) {
-			System.out.println("Cannot open lexical db: " + ex.toString());
-			// probably should thrown an exception
-		}
+		openPool(DB_HSQL_DRIVER, DB_HQSL_JDBC + dbfilename,
+				DB_DEFAULT_USERNAME, DB_DEFAULT_PASSWORD, poolSize);
 	}
 
 	/**
@@ -107,15 +131,45 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	public NIHDBLexicon(String driver, String url, String username,
 			String password) {
+		this(driver, url, username, password, 1);
+	}
 
+	/**
+	 * set up lexicon using general DB parameters, with a pool of connections
+	 * so that several threads can query the DB at the same time; DB must be
+	 * NIH specialist lexicon from lexAccess
+	 * 
+	 * @param driver
+	 * @param url
+	 * @param username
+	 * @param password
+	 * @param poolSize
+	 *            number of connections (and of concurrent queries)
+	 */
+	public NIHDBLexicon(String driver, String url, String username,
+			String password, int poolSize) {
 		super();
 
 		// try to open DB and set up lexicon
+		openPool(driver, url, username, password, poolSize);
+	}
+
+	/**
+	 * open the connections of the pool and set up a lexical access object for
+	 * each
+	 */
+	private void openPool(String driver, String url, String username,
+			String password, int poolSize) {
+		lexdbPool = new ArrayBlockingQueue<LexAccessApi>(Math.max(1, poolSize));
 		try {
 			Class.forName(driver);
-			conn = DriverManager.getConnection(url, username, password);
-			// now set up lexical access object
-			lexdb = new LexAccessApi(conn);
+			for (int i = 0; i < poolSize; i++) {
+				Connection conn = DriverManager.getConnection(url, username,
+						password);
+				// now set up lexical access object
+				lexdbPool.add(new LexAccessApi(conn));
+				this.poolSize++;
+			}
 		} catch (Exception ex) {
 			System.out.println("Cannot open lexical db: " + ex.toString());
 			// probably should thrown an exception
@@ -126,6 +180,45 @@ public class NIHDBLexicon extends Lexicon {
 
 	/***************** methods to set global parameters ****************************/
 
+	/**
+	 * get the number of connections to the DB, which is the number of queries
+	 * that can be made at the same time
+	 * 
+	 * @return the number of connections opened
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * get the time a query waits for a free connection when all are in use
+	 * 
+	 * @return the time in milliseconds
+	 */
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	/**
+	 * set the time a query waits for a free connection when all are in use;
+	 * after this time, the query gives up and returns null
+	 * 
+	 * @param maxWaitMillis
+	 *            - the time in milliseconds
+	 */
+	public void setMaxWaitMillis(long maxWaitMillis) {
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	/**
+	 * get the number of queries which gave up waiting for a free connection
+	 * 
+	 * @return the number of queries
+	 */
+	public long getWaitTimeoutCount() {
+		return waitTimeoutCount.get();
+	}
+
 	/**
 	 * reports whether Words include standard (derivable) inflections
 	 * 
@@ -143,6 +236,40 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	public void setKeepStandardInflections(boolean keepStandardInflections) {
 		this.keepStandardInflections = keepStandardInflections;
+		// cached words were made with the previous setting
+		if (cache != null)
+			cache.clear();
+	}
+
+	/**
+	 * Freezes the words made from now on. The cached words were made before
+	 * the lexicon was frozen, and are dropped.
+	 */
+	@Override
+	public void freeze() {
+		super.freeze();
+		if (cache != null)
+			cache.clear();
+	}
+
+	/**
+	 * get the cache of the words retrieved from the DB
+	 * 
+	 * @return the cache, or null if words are not cached
+	 */
+	public WordCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * set the cache of the words retrieved from the DB. By default, words are
+	 * kept in a WordCache with the default maximum weight.
+	 * 
+	 * @param cache
+	 *            - the cache, or null to query the DB every time
+	 */
+	public void setCache(WordCache cache) {
+		this.cache = cache;
 	}
 
 	/****************************************************************************/
@@ -157,16 +284,7 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	@Override
 	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
-		// get words from DB
-		try {
-			LexAccessApiResult lexResult = lexdb.GetLexRecordsByBase(baseForm,
-					LexAccessApi.B_EXACT);
-			return getWordsFromLexResult(category, lexResult);
-		} catch (SQLException ex) {
-			System.out.println("Lexical DB error: " + ex.toString());
-			// probably should thrown an exception
-		}
-		return null;
+		return getWords(WordCache.QueryKind.BASE, baseForm, category);
 	}
 
 	/*
@@ -176,15 +294,7 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	@Override
 	public List<WordElement> getWordsByID(String id) {
-		// get words from DB
-		try {
-			LexAccessApiResult lexResult = lexdb.GetLexRecords(id);
-			return getWordsFromLexResult(LexicalCategory.ANY, lexResult);
-		} catch (SQLException ex) {
-			System.out.println("Lexical DB error: " + ex.toString());
-			// probably should thrown an exception
-		}
-		return null;
+		return getWords(WordCache.QueryKind.ID, id, LexicalCategory.ANY);
 	}
 
 	/*
@@ -196,17 +306,141 @@ public class NIHDBLexicon extends Lexicon {
 	@Override
 	public List<WordElement> getWordsFromVariant(String variant,
 			LexicalCategory category) {
+		return getWords(WordCache.QueryKind.VARIANT, variant, category);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWord(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public WordElement findWord(String baseForm, LexicalCategory category) {
+		return findWord(WordCache.QueryKind.BASE, baseForm, category);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWordByID(java.lang.String)
+	 */
+	@Override
+	public WordElement findWordByID(String id) {
+		return findWord(WordCache.QueryKind.ID, id, LexicalCategory.ANY);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWordFromVariant(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public WordElement findWordFromVariant(String variant,
+			LexicalCategory category) {
+		return findWord(WordCache.QueryKind.VARIANT, variant, category);
+	}
+
+	/**
+	 * get the words of a query, from the cache or from the DB
+	 * 
+	 * @param kind
+	 *            - kind of query (by base form, ID or variant)
+	 * @param key
+	 *            - base form, ID or variant
+	 * @param category
+	 *            - desired category (eg, NOUN) (this filters list)
+	 * @return the words, or null if the DB can't be queried
+	 */
+	private List<WordElement> getWords(WordCache.QueryKind kind, String key,
+			LexicalCategory category) {
+		WordCache cache = this.cache;
+		if (cache != null) {
+			List<WordElement> words = cache.get(kind, key, category);
+			if (words != null)
+				return words;
+		}
+
 		// get words from DB
+		LexAccessApi lexdb = acquireLexdb();
+		if (lexdb == null)
+			return null;
 		try {
-			LexAccessApiResult lexResult = lexdb.GetLexRecords(variant);
-			return getWordsFromLexResult(category, lexResult);
+			List<WordElement> words = getWordsFromLexResult(category,
+					queryLexdb(lexdb, kind, key));
+			if (cache != null)
+				cache.put(kind, key, category, words);
+			return words;
 		} catch (SQLException ex) {
 			System.out.println("Lexical DB error: " + ex.toString());
 			// probably should thrown an exception
+		} finally {
+			releaseLexdb(lexdb);
+		}
+		return null;
+	}
+
+	/**
+	 * get the first word of a query with a single query of the DB. If words
+	 * are cached, all the words of the query are made and cached (see
+	 * getWords), so that the next lookups find them in the cache; otherwise
+	 * only the first word is made.
+	 * 
+	 * @param kind
+	 *            - kind of query (by base form, ID or variant)
+	 * @param key
+	 *            - base form, ID or variant
+	 * @param category
+	 *            - desired category (eg, NOUN)
+	 * @return the first word, or null if there is none or the DB can't be
+	 *         queried
+	 */
+	private WordElement findWord(WordCache.QueryKind kind, String key,
+			LexicalCategory category) {
+		if (this.cache != null) {
+			List<WordElement> words = getWords(kind, key, category);
+			return words == null || words.isEmpty() ? null : words.get(0);
+		}
+
+		LexAccessApi lexdb = acquireLexdb();
+		if (lexdb == null)
+			return null;
+		try {
+			for (LexRecord record : queryLexdb(lexdb, kind, key).GetJavaObjs()) {
+				if (category == LexicalCategory.ANY
+						|| category == getSimplenlgCategory(record))
+					return makeWord(record);
+			}
+		} catch (SQLException ex) {
+			System.out.println("Lexical DB error: " + ex.toString());
+		} finally {
+			releaseLexdb(lexdb);
 		}
 		return null;
 	}
 
+	/**
+	 * query the DB
+	 * 
+	 * @param lexdb
+	 *            - lexical access object taken from the pool
+	 * @param kind
+	 *            - kind of query (by base form, ID or variant)
+	 * @param key
+	 *            - base form, ID or variant
+	 * @return the result
+	 * @throws SQLException
+	 */
+	private LexAccessApiResult queryLexdb(LexAccessApi lexdb,
+			WordCache.QueryKind kind, String key) throws SQLException {
+		if (kind == WordCache.QueryKind.BASE)
+			return lexdb.GetLexRecordsByBase(key, LexAccessApi.B_EXACT);
+		else
+			// IDs and variants are both looked up by GetLexRecords
+			return lexdb.GetLexRecords(key);
+	}
+
 	/****************************************************************************/
 	// other methods
 	/****************************************************************************/
@@ -218,10 +452,56 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	@Override
 	public void close() {
-		if (lexdb != null)
+		closed = true;
+		// lexical access objects in use are cleaned up when released
+		LexAccessApi lexdb;
+		while ((lexdb = lexdbPool.poll()) != null)
 			lexdb.CleanUp();
 	}
 
+	/**
+	 * take a lexical access object from the pool, waiting at most
+	 * maxWaitMillis for one to be free
+	 * 
+	 * @return the lexical access object, or null if none is free or the DB
+	 *         is not open
+	 */
+	private LexAccessApi acquireLexdb() {
+		if (poolSize == 0 || closed) {
+			System.out.println("Lexical DB error: lexical db is not open");
+			return null;
+		}
+		try {
+			LexAccessApi lexdb = lexdbPool.poll(maxWaitMillis,
+					TimeUnit.MILLISECONDS);
+			if (lexdb == null) {
+				waitTimeoutCount.incrementAndGet();
+				System.out.println("Lexical DB error: no free connection after "
+						+ maxWaitMillis + " ms");
+			}
+			return lexdb;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * give a lexical access object back to the pool
+	 * 
+	 * @param lexdb
+	 */
+	private void releaseLexdb(LexAccessApi lexdb) {
+		if (closed) {
+			lexdb.CleanUp();
+		} else {
+			lexdbPool.add(lexdb);
+			// the lexicon may have been closed in the meantime
+			if (closed && (lexdb = lexdbPool.poll()) != null)
+				lexdb.CleanUp();
+		}
+	}
+
 	/**
 	 * make a WordElement from a lexical record. Currently just specifies basic
 	 * params and inflections Should do more in the future!
@@ -272,6 +552,8 @@ public class NIHDBLexicon extends Lexicon {
 		// now add spelling variants
 		addSpellingVariants(wordElement, record);
 
+		// the word may be kept in the cache and shared
+		if (isFrozen()) wordElement.freeze();
 		return wordElement;
 	}
 
@@ -0,0 +1,209 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.WordElement;
+import simplenlg.morphology.InflectionCache;
+
+/**
+ * This class is a view of another lexicon used during a non-destructive
+ * realisation (see simplenlg.framework.RealisationOverlay). It finds the
+ * same words as the other lexicon, but returns copies of them, so that the
+ * features set on the words while realising don't change the words of the
+ * other lexicon. The copies don't copy the features of the words : they
+ * read through to them, and only keep the features changed afterwards.
+ * 
+ * The same word always gives the same copy, as the other lexicon always
+ * gives the same word. An overlay lexicon is used for a single realisation,
+ * or as the default lexicon of a factory (see NLGFactory.setLexicon) :
+ * the copies are made under a lock, so it can be read by several threads,
+ * but its words must be changed by one thread at a time.
+ */
+public class OverlayLexicon extends Lexicon {
+
+	// lexicon whose words are copied
+	private final Lexicon lexicon;
+
+	// copies of the words (and other elements) of the realisation
+	private final Map<NLGElement, NLGElement> copies;
+
+	/**
+	 * Creates an overlay of a lexicon.
+	 * 
+	 * @param lexicon
+	 *            the lexicon whose words are copied
+	 */
+	public OverlayLexicon(Lexicon lexicon) {
+		this(lexicon, new IdentityHashMap<NLGElement, NLGElement>());
+	}
+
+	/**
+	 * Creates an overlay of a lexicon which keeps its copies with the
+	 * copies of the other elements of a realisation, so that the parent of
+	 * a word copied is the copy of its parent.
+	 * 
+	 * @param lexicon
+	 *            the lexicon whose words are copied
+	 * @param copies
+	 *            copy of each element copied, by original element (compared
+	 *            by identity)
+	 */
+	public OverlayLexicon(Lexicon lexicon, Map<NLGElement, NLGElement> copies) {
+		super(lexicon.getLanguage());
+		this.lexicon = lexicon;
+		this.copies = copies;
+	}
+
+	/**
+	 * @return the lexicon whose words are copied
+	 */
+	public Lexicon getBaseLexicon() {
+		return this.lexicon;
+	}
+
+	/**
+	 * Returns the copy of a word, making it the first time.
+	 * 
+	 * @param word
+	 * @return the copy of the word, or null if the word is null
+	 */
+	public WordElement overlay(WordElement word) {
+		if (word == null || word.getLexicon() == this) return word;
+
+		synchronized (this.copies) {
+			WordElement copy = (WordElement) this.copies.get(word);
+			if (copy == null) {
+				if (word.isFrozen()) {
+					// shares the inflections cached for the word
+					copy = word.createOverlay(this);
+				} else {
+					// (an overlay of a frozen word stays one)
+					copy = word.copyTo(this);
+					NLGElement parent = word.getParent();
+					NLGElement parentCopy = this.copies.get(parent);
+					copy.setParent(parentCopy != null ? parentCopy : parent);
+				}
+				this.copies.put(word, copy);
+			}
+			return copy;
+		}
+	}
+
+	/**
+	 * @param words
+	 * @return a new list of the copies of the words
+	 */
+	private List<WordElement> overlay(List<WordElement> words) {
+		List<WordElement> copies = new ArrayList<WordElement>(words.size());
+		for (WordElement word : words) {
+			copies.add(overlay(word));
+		}
+		return copies;
+	}
+
+	@Override
+	protected WordElement createWord(String baseForm, LexicalCategory category) {
+		return overlay(this.lexicon.createWord(baseForm, category));
+	}
+
+	@Override
+	protected WordElement createWord(String baseForm) {
+		return overlay(this.lexicon.createWord(baseForm));
+	}
+
+	@Override
+	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
+		return overlay(this.lexicon.getWords(baseForm, category));
+	}
+
+	@Override
+	public WordElement findWord(String baseForm, LexicalCategory category) {
+		return overlay(this.lexicon.findWord(baseForm, category));
+	}
+
+	@Override
+	public List<WordElement> getWordsByID(String id) {
+		return overlay(this.lexicon.getWordsByID(id));
+	}
+
+	@Override
+	public WordElement findWordByID(String id) {
+		return overlay(this.lexicon.findWordByID(id));
+	}
+
+	@Override
+	public List<WordElement> getWordsFromVariant(String variant,
+			LexicalCategory category) {
+		return overlay(this.lexicon.getWordsFromVariant(variant, category));
+	}
+
+	@Override
+	public WordElement findWordFromVariant(String variant,
+			LexicalCategory category) {
+		return overlay(this.lexicon.findWordFromVariant(variant, category));
+	}
+
+	@Override
+	public List<WordElement> getWords(LexicalCategory category,
+			Map<String, Object> features) {
+		return overlay(this.lexicon.getWords(category, features));
+	}
+
+	/**
+	 * The function words of the other lexicon are frozen, so they are
+	 * shared rather than copied.
+	 */
+	@Override
+	public FunctionWords getFunctionWords(Language language) {
+		return this.lexicon.getFunctionWords(language);
+	}
+
+	/**
+	 * The forms of the words are cached by the other lexicon, so that the
+	 * realisations through its views (such as the batches of
+	 * Realiser.realiseAll) share them.
+	 */
+	@Override
+	public InflectionCache getInflectionCache() {
+		return this.lexicon.getInflectionCache();
+	}
+
+	@Override
+	public WordElement getAdditionCoordConjunction() {
+		return overlay(this.lexicon.getAdditionCoordConjunction());
+	}
+
+	@Override
+	public WordElement getPassivePreposition() {
+		return overlay(this.lexicon.getPassivePreposition());
+	}
+
+	@Override
+	public WordElement getDefaultComplementiser() {
+		return overlay(this.lexicon.getDefaultComplementiser());
+	}
+}
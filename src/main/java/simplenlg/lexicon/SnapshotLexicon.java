@@ -0,0 +1,549 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * This class loads words from a binary lexicon snapshot written by
+ * {@link LexiconSnapshotCompiler}. The snapshot file is memory-mapped and
+ * its indexes are searched in place, so loading doesn't parse any XML nor
+ * rebuild any index. Words are only decoded the first time they are
+ * returned, and the same <code>WordElement</code> is returned afterwards.
+ * 
+ * Words created by the lexicon for unknown base forms (see
+ * <code>lookupWord</code>) are kept in memory and indexed by base form and
+ * category only.
+ */
+public class SnapshotLexicon extends Lexicon {
+
+	// the mapped snapshot; only absolute get methods are used on it,
+	// so that its position is never changed
+	private final ByteBuffer buffer;
+
+	private final int wordCount;
+	private final int wordTableOffset;
+	private final int baseIndexOffset;
+	private final int variantIndexOffset;
+	private final int idIndexOffset;
+
+	// small enough to be decoded when loading
+	private final Map<LexicalCategory, int[]> indexByCategory;
+
+	// words already decoded, by ordinal
+	private final AtomicReferenceArray<WordElement> decodedWords;
+
+	// words created by this lexicon after loading, by base form
+	private final Map<String, List<WordElement>> createdWords;
+	// number of the words above, guarded by createdWords
+	private int createdWordCount = 0;
+
+	/**********************************************************************/
+	// constructors
+	/**********************************************************************/
+
+	/**
+	 * Load a lexicon snapshot from a named file
+	 * 
+	 * @param filename
+	 * @throws IOException
+	 *             if the file can't be mapped or is not a lexicon snapshot
+	 */
+	public SnapshotLexicon(String filename) throws IOException {
+		this(new File(filename));
+	}
+
+	/**
+	 * Load a lexicon snapshot from a File
+	 * 
+	 * @param file
+	 * @throws IOException
+	 *             if the file can't be mapped or is not a lexicon snapshot
+	 */
+	public SnapshotLexicon(File file) throws IOException {
+		this(map(file));
+	}
+
+	/**
+	 * Load a lexicon snapshot already in memory
+	 * 
+	 * @param snapshot
+	 *            buffer containing the whole snapshot, from position 0
+	 * @throws IOException
+	 *             if the buffer doesn't contain a lexicon snapshot
+	 */
+	public SnapshotLexicon(ByteBuffer snapshot) throws IOException {
+		super(readLanguage(snapshot));
+		this.buffer = snapshot;
+
+		int position = 8;
+		position += 4 + Math.max(0, buffer.getInt(position)); // language code
+		this.wordCount = buffer.getInt(position);
+		position += 4;
+		this.wordTableOffset = buffer.getInt(position);
+		this.baseIndexOffset = buffer.getInt(position + 4);
+		this.variantIndexOffset = buffer.getInt(position + 8);
+		this.idIndexOffset = buffer.getInt(position + 12);
+		int categoryIndexOffset = buffer.getInt(position + 16);
+
+		this.indexByCategory = new EnumMap<LexicalCategory, int[]>(LexicalCategory.class);
+		position = categoryIndexOffset;
+		int categoryCount = buffer.getInt(position);
+		position += 4;
+		for (int i = 0; i < categoryCount; i++) {
+			String category = readString(position);
+			position += 4 + stringLength(position);
+			int[] ordinals = readOrdinals(position);
+			position += 4 + 4 * ordinals.length;
+			indexByCategory.put(LexicalCategory.valueOf(category), ordinals);
+		}
+
+		this.decodedWords = new AtomicReferenceArray<WordElement>(wordCount);
+		this.createdWords = new HashMap<String, List<WordElement>>();
+	}
+
+	/**
+	 * Maps a whole file in memory, read only.
+	 */
+	private static ByteBuffer map(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			// the mapping stays valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Checks the snapshot header and returns the language it contains.
+	 */
+	private static Language readLanguage(ByteBuffer snapshot) throws IOException {
+		if (snapshot.limit() < 12
+				|| snapshot.getInt(0) != LexiconSnapshotCompiler.MAGIC) {
+			throw new IOException("Not a lexicon snapshot");
+		}
+		int version = snapshot.getInt(4);
+		if (version != LexiconSnapshotCompiler.VERSION) {
+			throw new IOException("Unsupported lexicon snapshot version " + version
+					+ " (expected " + LexiconSnapshotCompiler.VERSION + ")");
+		}
+		int length = snapshot.getInt(8);
+		byte[] code = new byte[length];
+		for (int i = 0; i < length; i++) {
+			code[i] = snapshot.get(12 + i);
+		}
+		return Language.convertCodeToLanguage(new String(code, LexiconSnapshotCompiler.UTF8));
+	}
+
+	/**
+	 * @return the number of words in the snapshot
+	 */
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	/******************************************************************************************/
+	// main methods to get data from lexicon
+	/******************************************************************************************/
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getWords(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
+		List<WordElement> result = getWordsFromIndex(baseForm, category, baseIndexOffset);
+		synchronized (createdWords) {
+			List<WordElement> created = createdWords.get(baseForm);
+			if (created != null) {
+				for (WordElement word : created) {
+					if (category == LexicalCategory.ANY || word.getCategory() == category) {
+						result.add(word);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getWordsByID(java.lang.String)
+	 */
+	@Override
+	public List<WordElement> getWordsByID(String id) {
+		return getWordsFromIndex(id, LexicalCategory.ANY, idIndexOffset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getWordsFromVariant(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public List<WordElement> getWordsFromVariant(String variant,
+			LexicalCategory category) {
+		return getWordsFromIndex(variant, category, variantIndexOffset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWord(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public WordElement findWord(String baseForm, LexicalCategory category) {
+		WordElement word = findWordInIndex(baseForm, category, baseIndexOffset);
+		if (word == null) {
+			synchronized (createdWords) {
+				List<WordElement> created = createdWords.get(baseForm);
+				if (created != null) {
+					for (WordElement createdWord : created) {
+						if (category == LexicalCategory.ANY || createdWord.getCategory() == category) {
+							return createdWord;
+						}
+					}
+				}
+			}
+		}
+		return word;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWordByID(java.lang.String)
+	 */
+	@Override
+	public WordElement findWordByID(String id) {
+		return findWordInIndex(id, LexicalCategory.ANY, idIndexOffset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWordFromVariant(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public WordElement findWordFromVariant(String variant,
+			LexicalCategory category) {
+		return findWordInIndex(variant, category, variantIndexOffset);
+	}
+
+	/**
+	 * Looks for all words in the lexicon matching the category and features
+	 * provided, with the same semantics as in XMLLexicon.
+	 * 
+	 * @param category	category of the returned WordElement
+	 * @param features	features and their corrsponding values that
+	 *					the WordElement returned must have (it can have others)
+	 * @return			list of all WordElements found that matches the argument
+	 */
+	@Override
+	public List<WordElement> getWords(LexicalCategory category,
+			Map<String, Object> features) {
+		List<WordElement> result = new ArrayList<WordElement>();
+		if (category == LexicalCategory.ANY) {
+			// use the whole lexicon
+			for (int ordinal = 0; ordinal < wordCount; ordinal++) {
+				WordElement word = getWord(ordinal);
+				if (features == null || hasFeatures(word, features)) result.add(word);
+			}
+		} else if (indexByCategory.containsKey(category)) {
+			for (int ordinal : indexByCategory.get(category)) {
+				WordElement word = getWord(ordinal);
+				if (features == null || hasFeatures(word, features)) result.add(word);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * creates a default WordElement and keeps it in this lexicon
+	 * 
+	 * @param baseForm
+	 *            - base form of word
+	 * @param category
+	 *            - category of word
+	 * @return WordElement entry for specified info
+	 */
+	@Override
+	protected WordElement createWord(String baseForm, LexicalCategory category) {
+		return keepCreatedWord(super.createWord(baseForm, category));
+	}
+
+	/**
+	 * creates a default WordElement and keeps it in this lexicon
+	 * 
+	 * @param baseForm
+	 *            - base form of word
+	 * @return WordElement entry for specified info
+	 */
+	@Override
+	protected WordElement createWord(String baseForm) {
+		return keepCreatedWord(super.createWord(baseForm));
+	}
+
+	/**
+	 * Freezes the words already decoded or created, and the words decoded or
+	 * created from now on.
+	 */
+	@Override
+	public void freeze() {
+		super.freeze();
+		for (int i = 0; i < decodedWords.length(); i++) {
+			WordElement word = decodedWords.get(i);
+			if (word != null) word.freeze();
+		}
+		synchronized (createdWords) {
+			for (List<WordElement> words : createdWords.values())
+				for (WordElement word : words)
+					word.freeze();
+		}
+	}
+
+	/**
+	 * Keeps a word created for an unknown base form, so that it is found by
+	 * later lookups, unless the lexicon is frozen and MAXIMUM_CREATED_WORDS
+	 * words are already kept (see XMLLexicon.keepCreatedWord).
+	 */
+	private WordElement keepCreatedWord(WordElement word) {
+		if (isFrozen()) word.freeze();
+		synchronized (createdWords) {
+			if (isFrozen() && createdWordCount >= MAXIMUM_CREATED_WORDS) return word;
+			createdWordCount++;
+			List<WordElement> words = createdWords.get(word.getBaseForm());
+			if (words == null) {
+				words = new ArrayList<WordElement>(1);
+				createdWords.put(word.getBaseForm(), words);
+			}
+			words.add(word);
+		}
+		return word;
+	}
+
+	/******************************************************************************************/
+	// snapshot decoding
+	/******************************************************************************************/
+
+	/**
+	 * get matching words from one of the key indexes of the snapshot
+	 */
+	private List<WordElement> getWordsFromIndex(String key,
+			LexicalCategory category, int indexOffset) {
+		List<WordElement> result = new ArrayList<WordElement>();
+		int entry = findEntry(key, indexOffset);
+		if (entry >= 0) {
+			int position = entry + 4 + stringLength(entry);
+			int count = buffer.getInt(position);
+			for (int i = 0; i < count; i++) {
+				WordElement word = getWord(buffer.getInt(position + 4 + 4 * i));
+				if (category == LexicalCategory.ANY || word.getCategory() == category) {
+					result.add(word);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * get the first matching word from one of the key indexes of the
+	 * snapshot, or null
+	 */
+	private WordElement findWordInIndex(String key,
+			LexicalCategory category, int indexOffset) {
+		int entry = findEntry(key, indexOffset);
+		if (entry >= 0) {
+			int position = entry + 4 + stringLength(entry);
+			int count = buffer.getInt(position);
+			for (int i = 0; i < count; i++) {
+				WordElement word = getWord(buffer.getInt(position + 4 + 4 * i));
+				if (category == LexicalCategory.ANY || word.getCategory() == category) {
+					return word;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * binary search of a key in one of the key indexes of the snapshot. The
+	 * key is encoded once, and compared with the bytes of the entries where
+	 * they are (the keys are sorted by their UTF-8 bytes, see
+	 * LexiconSnapshotCompiler.KEY_ORDER).
+	 * 
+	 * @return the offset of the entry for the key, -1 if it is not found
+	 */
+	private int findEntry(String key, int indexOffset) {
+		if (key == null) return -1;
+		byte[] keyBytes = key.getBytes(LexiconSnapshotCompiler.UTF8);
+		int low = 0;
+		int high = buffer.getInt(indexOffset) - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int entry = buffer.getInt(indexOffset + 4 + 4 * middle);
+			int comparison = compareString(entry, keyBytes);
+			if (comparison < 0) low = middle + 1;
+			else if (comparison > 0) high = middle - 1;
+			else return entry;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the word with this ordinal, decoding it if it is the first
+	 *         time it is asked for
+	 */
+	private WordElement getWord(int ordinal) {
+		WordElement word = decodedWords.get(ordinal);
+		if (word == null) {
+			word = decodeWord(buffer.getInt(wordTableOffset + 4 * ordinal));
+			// another thread may have decoded the same word in the meantime
+			if (!decodedWords.compareAndSet(ordinal, null, word)) {
+				word = decodedWords.get(ordinal);
+			}
+		}
+		return word;
+	}
+
+	private WordElement decodeWord(int position) {
+		WordElement word = new WordElement(this);
+		word.setBaseForm(readString(position));
+		position += 4 + stringLength(position);
+		String category = readString(position);
+		position += 4 + stringLength(position);
+		if (category != null) word.setCategory(LexicalCategory.valueOf(category));
+		word.setId(readString(position));
+		position += 4 + stringLength(position);
+
+		int featureCount = buffer.getInt(position);
+		position += 4;
+		for (int i = 0; i < featureCount; i++) {
+			String feature = readString(position);
+			position += 4 + stringLength(position);
+			byte tag = buffer.get(position++);
+			switch (tag) {
+			case LexiconSnapshotCompiler.TAG_STRING:
+				word.setFeature(feature, readString(position));
+				position += 4 + stringLength(position);
+				break;
+			case LexiconSnapshotCompiler.TAG_BOOLEAN:
+				word.setFeature(feature, buffer.get(position++) != 0);
+				break;
+			case LexiconSnapshotCompiler.TAG_INTEGER:
+				word.setFeature(feature, buffer.getInt(position));
+				position += 4;
+				break;
+			case LexiconSnapshotCompiler.TAG_ENUM:
+				String enumClass = readString(position);
+				position += 4 + stringLength(position);
+				String constant = readString(position);
+				position += 4 + stringLength(position);
+				word.setFeature(feature, enumValue(enumClass, constant));
+				break;
+			case LexiconSnapshotCompiler.TAG_STRING_LIST:
+				int size = buffer.getInt(position);
+				position += 4;
+				List<String> strings = new ArrayList<String>(size);
+				for (int j = 0; j < size; j++) {
+					strings.add(readString(position));
+					position += 4 + stringLength(position);
+				}
+				word.setFeature(feature, strings);
+				break;
+			default:
+				throw new IllegalStateException("Corrupted lexicon snapshot: unknown value tag "
+						+ tag + " for feature " + feature + " of " + word);
+			}
+		}
+		if (isFrozen()) word.freeze();
+		return word;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object enumValue(String enumClass, String constant) {
+		try {
+			return Enum.valueOf((Class<? extends Enum>) Class.forName(enumClass), constant);
+		} catch (ClassNotFoundException ex) {
+			throw new IllegalStateException("Lexicon snapshot refers to missing class " + enumClass, ex);
+		}
+	}
+
+	private int[] readOrdinals(int position) {
+		int[] ordinals = new int[buffer.getInt(position)];
+		for (int i = 0; i < ordinals.length; i++) {
+			ordinals[i] = buffer.getInt(position + 4 + 4 * i);
+		}
+		return ordinals;
+	}
+
+	/**
+	 * @return the number of bytes of the string stored at this position,
+	 *         without its length prefix
+	 */
+	private int stringLength(int position) {
+		return Math.max(0, buffer.getInt(position));
+	}
+
+	/**
+	 * compares the string stored at this position with UTF-8 bytes, both
+	 * read as unsigned
+	 */
+	private int compareString(int position, byte[] bytes) {
+		int length = stringLength(position);
+		int common = Math.min(length, bytes.length);
+		for (int i = 0; i < common; i++) {
+			int comparison = (buffer.get(position + 4 + i) & 0xff) - (bytes[i] & 0xff);
+			if (comparison != 0) return comparison;
+		}
+		return length - bytes.length;
+	}
+
+	private String readString(int position) {
+		int length = buffer.getInt(position);
+		if (length < 0) return null;
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(position + 4 + i);
+		}
+		return new String(bytes, LexiconSnapshotCompiler.UTF8);
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+/**
+ * This enumeration lists the ways an XMLLexicon can build its index by
+ * variant. Computing the variants of a word can be expensive (the French
+ * lexicon inflects every verb in every tense, person and number), so the
+ * index can be built in parallel or only when it is needed. The index is
+ * the same in every mode.
+ */
+public enum VariantIndexMode {
+
+	/**
+	 * The variants of each word are indexed as the word is loaded. This is
+	 * the default.
+	 */
+	EAGER,
+
+	/**
+	 * The variants of all the words are computed in parallel once the
+	 * lexicon file has been read.
+	 */
+	PARALLEL,
+
+	/**
+	 * The variants of the words of a category are only computed the first
+	 * time words of this category are looked up by variant.
+	 */
+	LAZY;
+}
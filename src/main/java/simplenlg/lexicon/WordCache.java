@@ -0,0 +1,405 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * This class is a bounded cache of the words returned by a lexicon whose
+ * lookups are expensive (such as NIHDBLexicon, which queries a database and
+ * builds new WordElements every time). The words are kept by kind of query,
+ * key (base form, ID or variant) and category.
+ *
+ * The least recently used entries are evicted when the total weight of the
+ * entries goes over the maximum weight. An entry weighs 1 by default, or the
+ * number of words it contains if the cache weighs by words. Entries can also
+ * expire some time after they were added. Empty results (misses) are kept as
+ * negative entries unless this is turned off.
+ *
+ * The cache counts its hits, misses, evictions and expirations, so that it
+ * can be sized for a given load. All methods are thread-safe.
+ */
+public class WordCache {
+
+	/**
+	 * Kinds of lexicon queries whose results are cached.
+	 */
+	public enum QueryKind {
+		/** words looked up by base form */
+		BASE,
+		/** words looked up by ID */
+		ID,
+		/** words looked up by variant (inflected form or spelling variant) */
+		VARIANT;
+	}
+
+	/**
+	 * Maximum weight of a cache created without one.
+	 */
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 10000;
+
+	// entries, least recently used first
+	private final LinkedHashMap<Key, Entry> entries =
+		new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+	// maximum total weight of the entries
+	private long maximumWeight;
+
+	// total weight of the entries
+	private long weight = 0;
+
+	// if true, an entry weighs the number of words it contains
+	private boolean weighByWords = false;
+
+	// time in milliseconds after which an entry expires, 0 if never
+	private long expiryMillis = 0;
+
+	// if true, empty results are kept
+	private boolean cacheMisses = true;
+
+	// statistics
+	private long hitCount = 0;
+	private long negativeHitCount = 0;
+	private long missCount = 0;
+	private long evictionCount = 0;
+	private long expirationCount = 0;
+
+	/**
+	 * Key of a cached result.
+	 */
+	private static final class Key {
+		final QueryKind kind;
+		final String key;
+		final LexicalCategory category;
+
+		Key(QueryKind kind, String key, LexicalCategory category) {
+			this.kind = kind;
+			this.key = key;
+			this.category = category;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return kind == other.kind && category == other.category
+				&& (key == null ? other.key == null : key.equals(other.key));
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = kind.hashCode();
+			hash = 31 * hash + (key == null ? 0 : key.hashCode());
+			hash = 31 * hash + (category == null ? 0 : category.hashCode());
+			return hash;
+		}
+	}
+
+	/**
+	 * Cached result.
+	 */
+	private static final class Entry {
+		final WordElement[] words;
+		final long weight;
+		final long added;
+
+		Entry(WordElement[] words, long weight, long added) {
+			this.words = words;
+			this.weight = weight;
+			this.added = added;
+		}
+	}
+
+	/**
+	 * Creates a cache with the default maximum weight.
+	 */
+	public WordCache() {
+		this(DEFAULT_MAXIMUM_WEIGHT);
+	}
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param maximumWeight
+	 *            maximum total weight of the entries
+	 */
+	public WordCache(long maximumWeight) {
+		this.maximumWeight = maximumWeight;
+	}
+
+	/***************** methods to set parameters ****************************/
+
+	/**
+	 * @return the maximum total weight of the entries
+	 */
+	public synchronized long getMaximumWeight() {
+		return maximumWeight;
+	}
+
+	/**
+	 * Sets the maximum total weight of the entries, evicting entries if
+	 * necessary.
+	 *
+	 * @param maximumWeight
+	 */
+	public synchronized void setMaximumWeight(long maximumWeight) {
+		this.maximumWeight = maximumWeight;
+		evict();
+	}
+
+	/**
+	 * @return true if an entry weighs the number of words it contains,
+	 *         false if every entry weighs 1
+	 */
+	public synchronized boolean isWeighByWords() {
+		return weighByWords;
+	}
+
+	/**
+	 * Sets whether an entry weighs the number of words it contains (at least
+	 * 1) or if every entry weighs 1. Only affects the entries added after.
+	 *
+	 * @param weighByWords
+	 */
+	public synchronized void setWeighByWords(boolean weighByWords) {
+		this.weighByWords = weighByWords;
+	}
+
+	/**
+	 * @return time in milliseconds after which an entry expires, 0 if never
+	 */
+	public synchronized long getExpiryMillis() {
+		return expiryMillis;
+	}
+
+	/**
+	 * Sets the time after which an entry expires.
+	 *
+	 * @param expiryMillis
+	 *            time in milliseconds, 0 if entries never expire
+	 */
+	public synchronized void setExpiryMillis(long expiryMillis) {
+		this.expiryMillis = expiryMillis;
+	}
+
+	/**
+	 * @return true if empty results are kept
+	 */
+	public synchronized boolean isCacheMisses() {
+		return cacheMisses;
+	}
+
+	/**
+	 * Sets whether empty results are kept as negative entries.
+	 *
+	 * @param cacheMisses
+	 */
+	public synchronized void setCacheMisses(boolean cacheMisses) {
+		this.cacheMisses = cacheMisses;
+	}
+
+	/****************************************************************************/
+	// cache operations
+	/****************************************************************************/
+
+	/**
+	 * Returns the cached result of a query.
+	 *
+	 * @param kind
+	 *            kind of query
+	 * @param key
+	 *            base form, ID or variant looked up
+	 * @param category
+	 *            category looked up
+	 * @return a new list of the words found, empty for a negative entry, or
+	 *         null if the result of the query isn't cached
+	 */
+	public synchronized List<WordElement> get(QueryKind kind, String key,
+			LexicalCategory category) {
+		Key cacheKey = new Key(kind, key, category);
+		Entry entry = entries.get(cacheKey);
+		if (entry != null && isExpired(entry)) {
+			entries.remove(cacheKey);
+			weight -= entry.weight;
+			expirationCount++;
+			entry = null;
+		}
+
+		if (entry == null) {
+			missCount++;
+			return null;
+		} else {
+			hitCount++;
+			if (entry.words.length == 0) negativeHitCount++;
+			List<WordElement> words = new ArrayList<WordElement>(entry.words.length);
+			for (WordElement word : entry.words) {
+				words.add(word);
+			}
+			return words;
+		}
+	}
+
+	/**
+	 * Keeps the result of a query, evicting the least recently used entries
+	 * if the maximum weight is exceeded. An empty result isn't kept if
+	 * misses aren't cached.
+	 *
+	 * @param kind
+	 *            kind of query
+	 * @param key
+	 *            base form, ID or variant looked up
+	 * @param category
+	 *            category looked up
+	 * @param words
+	 *            words found
+	 */
+	public synchronized void put(QueryKind kind, String key,
+			LexicalCategory category, List<WordElement> words) {
+		if (words == null || (words.isEmpty() && !cacheMisses)) return;
+
+		long entryWeight = weighByWords ? Math.max(1, words.size()) : 1;
+		Entry entry = new Entry(words.toArray(new WordElement[words.size()]),
+				entryWeight, System.currentTimeMillis());
+		Entry previous = entries.put(new Key(kind, key, category), entry);
+		if (previous != null) weight -= previous.weight;
+		weight += entryWeight;
+		evict();
+	}
+
+	/**
+	 * Removes all the entries. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the total weight of the entries
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Removes the least recently used entries until the total weight is at
+	 * most the maximum weight.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+		while (weight > maximumWeight && iterator.hasNext()) {
+			Entry entry = iterator.next().getValue();
+			iterator.remove();
+			weight -= entry.weight;
+			if (isExpired(entry)) expirationCount++;
+			else evictionCount++;
+		}
+	}
+
+	/**
+	 * @param entry
+	 * @return true if the entry has expired
+	 */
+	private boolean isExpired(Entry entry) {
+		return expiryMillis > 0
+			&& System.currentTimeMillis() - entry.added >= expiryMillis;
+	}
+
+	/****************************************************************************/
+	// statistics
+	/****************************************************************************/
+
+	/**
+	 * @return the number of queries answered by the cache, including
+	 *         negative entries
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of queries answered by a negative entry
+	 */
+	public synchronized long getNegativeHitCount() {
+		return negativeHitCount;
+	}
+
+	/**
+	 * @return the number of queries not answered by the cache
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the proportion of queries answered by the cache, 0 if none
+	 */
+	public synchronized double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0.0 : (double) hitCount / requests;
+	}
+
+	/**
+	 * @return the number of entries removed because the maximum weight was
+	 *         exceeded
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of entries removed because they expired
+	 */
+	public synchronized long getExpirationCount() {
+		return expirationCount;
+	}
+
+	/**
+	 * Sets all the statistics back to 0.
+	 */
+	public synchronized void resetStats() {
+		hitCount = 0;
+		negativeHitCount = 0;
+		missCount = 0;
+		evictionCount = 0;
+		expirationCount = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "WordCache[size=" + entries.size() + ", weight=" + weight
+			+ "/" + maximumWeight + ", hits=" + hitCount + " (negative "
+			+ negativeHitCount + "), misses=" + missCount + ", evictions="
+			+ evictionCount + ", expirations=" + expirationCount + "]";
+	}
+}
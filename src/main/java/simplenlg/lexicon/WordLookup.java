@@ -0,0 +1,83 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon;
+
+import simplenlg.framework.WordElement;
+
+/**
+ * This class is the result of Lexicon.resolveWord : the word found for a
+ * string, and how it was found (as a base form, a variant or an ID, or
+ * created because the lexicon doesn't have it).
+ */
+public final class WordLookup {
+
+	/**
+	 * The ways a word can be resolved, in the order they are tried.
+	 */
+	public enum Source {
+		/** the string is the base form of the word */
+		BASE,
+		/** the string is an inflected form or spelling variant of the word */
+		VARIANT,
+		/** the string is the ID of the word */
+		ID,
+		/** the word was not in the lexicon and was created */
+		CREATED;
+	}
+
+	private final WordElement word;
+	private final Source source;
+
+	/**
+	 * @param word
+	 *            the word found
+	 * @param source
+	 *            how it was found
+	 */
+	public WordLookup(WordElement word, Source source) {
+		this.word = word;
+		this.source = source;
+	}
+
+	/**
+	 * @return the word found
+	 */
+	public WordElement getWord() {
+		return word;
+	}
+
+	/**
+	 * @return how the word was found
+	 */
+	public Source getSource() {
+		return source;
+	}
+
+	/**
+	 * @return true if the word was in the lexicon, false if it was created
+	 */
+	public boolean isFound() {
+		return source != Source.CREATED;
+	}
+
+	@Override
+	public String toString() {
+		return source + ":" + word;
+	}
+}
@@ -19,24 +19,32 @@
 package simplenlg.lexicon;
 
 import java.io.File;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
@@ -65,9 +73,10 @@ public class XMLLexicon extends Lexicon {
 			"reg", "irreg", "uncount", "inv", "metareg", "glreg", "nonCount", "sing", "groupuncount" });
 
 	// lexicon
-	private Set<WordElement> words; // set of words
-	private Map<String, WordElement> indexByID; // map from ID to word
-	private Map<String, List<WordElement>> indexByBase; // map from base to set
+	// package access so that LexiconSnapshotCompiler can dump the indexes
+	/*private*/ Set<WordElement> words; // set of words
+	/*private*/ Map<String, WordElement> indexByID; // map from ID to word
+	/*private*/ Map<String, List<WordElement>> indexByBase; // map from base to set
 	// of words with this
 	// baseform
 	protected /*private*/ Map<String, List<WordElement>> indexByVariant; // map from variants
@@ -78,6 +87,42 @@ public class XMLLexicon extends Lexicon {
 	// added by vaudrypl
 	protected Map<LexicalCategory, List<WordElement>> indexByCategory; // map from variants
 
+	// how the index by variant is built
+	private VariantIndexMode variantIndexMode = VariantIndexMode.EAGER;
+	// words loaded but whose variants are not indexed yet, in loading order
+	private List<WordElement> unindexedWords = null;
+	// same, by category, for the LAZY mode
+	private Map<LexicalCategory, List<WordElement>> unindexedVariants = null;
+	// loading order of the words, so that the lists of the index by variant
+	// are in the same order whatever the mode
+	private Map<WordElement, Integer> loadingOrder = null;
+	private volatile boolean variantIndexComplete = true;
+	// true while the variants are computed in parallel : the index isn't
+	// changed then, and getVariants() may read it from several threads
+	private volatile boolean variantIndexReadOnly = false;
+
+	// inverted indexes of the features of the words of each category,
+	// built when the category is first looked up by features
+	private final ConcurrentMap<LexicalCategory, FeatureIndex> featureIndexes =
+		new ConcurrentHashMap<LexicalCategory, FeatureIndex>();
+
+	// words created by this lexicon after loading, by base form
+	// kept apart so that the indexes above are never modified after loading
+	// and can be read by several threads (see LexiconRegistry)
+	private final ConcurrentMap<String, List<WordElement>> createdWords =
+		new ConcurrentHashMap<String, List<WordElement>>();
+	// same words, by the category they were created with, so that a
+	// lookup by category and features only compares those of the category
+	private final ConcurrentMap<LexicalCategory, List<WordElement>> createdWordsByCategory =
+		new ConcurrentHashMap<LexicalCategory, List<WordElement>>();
+	// same words, by their variants (see getVariants), so that they are
+	// found by their inflected forms as the words loaded are
+	private final ConcurrentMap<String, List<WordElement>> createdWordsByVariant =
+		new ConcurrentHashMap<String, List<WordElement>>();
+	// number of the words above, at most MAXIMUM_CREATED_WORDS once the
+	// lexicon is frozen
+	private final AtomicInteger createdWordCount = new AtomicInteger();
+
 	
 	/**********************************************************************/
 	// constructors
@@ -119,28 +164,17 @@ public class XMLLexicon extends Lexicon {
 	}
 
 	/**
-	 * Loads the default XML lexicon corresponding to a particular language 
+	 * Loads the default XML lexicon corresponding to a particular language.
+	 * The XML file is only parsed once : the words of the lexicon kept by
+	 * the LexiconRegistry are copied into this lexicon, which is private to
+	 * the caller as if it had been loaded from the file. Its words can be
+	 * changed without changing the shared ones.
 	 * 
 	 * @param language
 	 */
 	public XMLLexicon(Language language) {
 		super(language);
-		if (language == null) language = Language.DEFAULT_LANGUAGE;
-		
-		String xmlLexiconFilePath;
-		switch (language) {
-		case FRENCH :
-			xmlLexiconFilePath = "default-french-lexicon.xml";
-			break;
-		default :
-			xmlLexiconFilePath = "default-lexicon.xml";
-		}
-		
-		try {
-			createLexicon(getClass().getClassLoader().getResource(xmlLexiconFilePath).toURI());
-		} catch (URISyntaxException ex) {
-			System.out.println(ex.toString());
-		}
+		copyIndexes(LexiconRegistry.getLexicon(getLanguage()));
 	}
 	
 	/**
@@ -215,6 +249,23 @@ public class XMLLexicon extends Lexicon {
 		createLexicon(lexiconURI);
 	}
 
+	/**
+	 * Load an XML Lexicon from a URI
+	 * with the associated language, building the index by variant
+	 * as specified
+	 * 
+	 * @param language
+	 *            the associated language
+	 * @param lexiconURI
+	 * @param mode
+	 *            how the index by variant is built
+	 */
+	public XMLLexicon(Language language, URI lexiconURI, VariantIndexMode mode) {
+		super(language);
+		if (mode != null) variantIndexMode = mode;
+		createLexicon(lexiconURI);
+	}
+
 	/**
 	 * Load an XML Lexicon from a URI
 	 * with the ISO 639-1 two letter code of the associated language 
@@ -245,43 +296,134 @@ public class XMLLexicon extends Lexicon {
 		indexByVariant = new HashMap<String, List<WordElement>>();
 		// added by vaudrypl
 		indexByCategory = new EnumMap<LexicalCategory, List<WordElement>>(LexicalCategory.class);
+		if (variantIndexMode != VariantIndexMode.EAGER) {
+			unindexedWords = new ArrayList<WordElement>();
+		}
 
+		// the file is read as a stream : each word is created and indexed
+		// as soon as its node is read, without building a DOM of the whole
+		// lexicon first
+		InputStream input = null;
+		XMLStreamReader reader = null;
+		setLoading(true);
 		try {
-			DocumentBuilderFactory factory = DocumentBuilderFactory
-					.newInstance();
-			DocumentBuilder builder = factory.newDocumentBuilder();
-			Document doc = builder.parse(lexiconURI.toString());
-
-			if (doc != null) {
-				Element lexRoot = doc.getDocumentElement();
-				NodeList wordNodes = lexRoot.getChildNodes();
-				for (int i = 0; i < wordNodes.getLength(); i++) {
-					Node wordNode = wordNodes.item(i);
-					// ignore things that aren't elements
-					if (wordNode.getNodeType() == Node.ELEMENT_NODE) {
-						WordElement word = convertNodeToWord(wordNode);
-						if (word != null) {
-							words.add(word);
-							IndexWord(word);
-						}
+			input = lexiconURI.toURL().openStream();
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+			reader = factory.createXMLStreamReader(lexiconURI.toString(), input);
+
+			// go to the root node
+			while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT);
+
+			while (reader.hasNext()) {
+				int event = reader.next();
+				// ignore things that aren't elements
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					WordElement word = convertStreamToWord(reader);
+					if (word != null) {
+						words.add(word);
+						IndexWord(word);
 					}
 				}
 			}
 		} catch (Exception ex) {
 			System.out.println(ex.toString());
+		} finally {
+			setLoading(false);
+			try {
+				if (reader != null) reader.close();
+				if (input != null) input.close();
+			} catch (Exception ex) {
+				System.out.println(ex.toString());
+			}
+		}
+
+		if (unindexedWords != null) {
+			deferVariantIndex(unindexedWords);
+			unindexedWords = null;
+			if (variantIndexMode == VariantIndexMode.PARALLEL) {
+				buildVariantIndexInParallel();
+			}
+		}
+	}
+
+	/**
+	 * Fills the indexes of this lexicon with copies of the words of another
+	 * lexicon instead of loading them. Copying is much faster than parsing
+	 * the XML file again. The copies read through to the features of the
+	 * words of the other lexicon (see WordElement.inheritFeatures), but are
+	 * words of this lexicon, and can be changed without changing them.
+	 * 
+	 * @param source	lexicon already loaded
+	 */
+	private void copyIndexes(XMLLexicon source) {
+		source.buildVariantIndex(LexicalCategory.ANY);
+		Map<WordElement, WordElement> copies =
+			new IdentityHashMap<WordElement, WordElement>();
+		words = new HashSet<WordElement>();
+		setLoading(true);
+		try {
+			for (WordElement word : source.words) {
+				WordElement copy = new WordElement(word, this);
+				copies.put(word, copy);
+				words.add(copy);
+			}
+		} finally {
+			setLoading(false);
+		}
+
+		indexByID = new HashMap<String, WordElement>();
+		for (Map.Entry<String, WordElement> entry : source.indexByID.entrySet()) {
+			indexByID.put(entry.getKey(), copies.get(entry.getValue()));
+		}
+		indexByBase = copyIndex(source.indexByBase, copies);
+		indexByVariant = copyIndex(source.indexByVariant, copies);
+		indexByCategory = new EnumMap<LexicalCategory, List<WordElement>>(LexicalCategory.class);
+		for (Map.Entry<LexicalCategory, List<WordElement>> entry :
+				source.indexByCategory.entrySet()) {
+			indexByCategory.put(entry.getKey(), copyList(entry.getValue(), copies));
+		}
+	}
+
+	private static Map<String, List<WordElement>> copyIndex(
+			Map<String, List<WordElement>> index,
+			Map<WordElement, WordElement> copies) {
+		Map<String, List<WordElement>> result =
+			new HashMap<String, List<WordElement>>(index.size() * 4 / 3 + 1);
+		for (Map.Entry<String, List<WordElement>> entry : index.entrySet()) {
+			result.put(entry.getKey(), copyList(entry.getValue(), copies));
 		}
+		return result;
+	}
+
+	private static List<WordElement> copyList(List<WordElement> list,
+			Map<WordElement, WordElement> copies) {
+		List<WordElement> result = new ArrayList<WordElement>(list.size());
+		for (WordElement word : list) {
+			result.add(copies.get(word));
+		}
+		return result;
 	}
 
 	/**
 	 * create a simplenlg WordElement from a Word node in a lexicon XML file
 	 * 
+	 * The lexicon is now loaded with convertStreamToWord(XMLStreamReader) :
+	 * this method is kept for code which builds words from a DOM, but it is
+	 * no longer called while loading a lexicon, so overriding it has no
+	 * effect on the words of the lexicon. Both methods use completeWord(),
+	 * which subclasses override to convert the features read.
+	 * 
 	 * @param wordNode
 	 * @return
 	 * @throws XPathUtilException
 	 *
 	 * access level modifier changed by Pierre-Luc Vaudry from private
 	 * to protected to allow overriding in subclass
+	 * @deprecated No longer used during loading; override
+	 *             {@link #completeWord(WordElement, List)} instead
 	 */ 
+	@Deprecated
 	/*private*/ protected WordElement convertNodeToWord(Node wordNode) {
 		// if this isn't a Word node, ignore it
 		if (!wordNode.getNodeName().equalsIgnoreCase(XML_WORD))
@@ -306,37 +448,167 @@ public class XMLLexicon extends Lexicon {
 			if (featureNode.getNodeType() == Node.ELEMENT_NODE) {
 				String feature = featureNode.getNodeName().trim();
 				String value = featureNode.getTextContent();
+				if (!addWordFeature(word, inflections, feature, value))
+					break;
+			}
 
-				if (value != null)
-					value = value.trim();
+		}
+		
+		return completeWord(word, inflections);
+	}
 
-				if (feature == null) {
-					System.out.println("Error in XML lexicon node for "
-							+ word.toString());
-					break;
-				}
+	/**
+	 * create a simplenlg WordElement from a Word node read from a lexicon XML
+	 * stream. The reader must be on the start of the node, and is left on
+	 * its end.
+	 * 
+	 * @param reader
+	 * @return the word, or null if this isn't a Word node
+	 * @throws XMLStreamException
+	 */
+	protected WordElement convertStreamToWord(XMLStreamReader reader)
+			throws XMLStreamException {
+		// if this isn't a Word node, ignore it
+		if (!getNodeName(reader).equalsIgnoreCase(XML_WORD)) {
+			skipNode(reader);
+			return null;
+		}
 
-				if (feature.equalsIgnoreCase(XML_BASE)) {
-					word.setBaseForm(value);
-				} else if (feature.equalsIgnoreCase(XML_CATEGORY))
-					word.setCategory(LexicalCategory.valueOf(value
-							.toUpperCase()));
-				else if (feature.equalsIgnoreCase(XML_ID))
-					word.setId(value);
-				else if (value == null || value.equals("")) {
-					if (INFL_CODES.contains(feature)) {
-						// if this is an infl code, add it to inflections
-						inflections.add(feature);
-					} else {
-						//otherwise assume it's a boolean feature
-						word.setFeature(feature, true);
-					}
-				} else
-					word.setFeature(feature, value);
+		// create word
+		WordElement word = new WordElement(this);
+		List<String> inflections = new ArrayList<String>();
+		boolean valid = true;
+
+		// now copy features
+		while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+			if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+				String feature = getNodeName(reader).trim();
+				String value = readTextContent(reader);
+				if (valid)
+					valid = addWordFeature(word, inflections, feature, value);
 			}
+		}
 
+		return completeWord(word, inflections);
+	}
+
+	/**
+	 * @param reader
+	 * @return the name of the current node, with its prefix if it has one
+	 */
+	private static String getNodeName(XMLStreamReader reader) {
+		String prefix = reader.getPrefix();
+		if (prefix == null || prefix.length() == 0)
+			return reader.getLocalName();
+		else
+			return prefix + ':' + reader.getLocalName();
+	}
+
+	/**
+	 * Reads the text of the current node and of all its descendants, like
+	 * org.w3c.dom.Node.getTextContent(). The reader is left on the end of
+	 * the node.
+	 * 
+	 * @param reader
+	 * @return the text content of the node
+	 * @throws XMLStreamException
+	 */
+	private static String readTextContent(XMLStreamReader reader)
+			throws XMLStreamException {
+		StringBuilder text = new StringBuilder();
+		int depth = 1;
+		while (depth > 0) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				text.append(reader.getTextCharacters(), reader.getTextStart(),
+						reader.getTextLength());
+				break;
+			}
 		}
-		
+		return text.toString();
+	}
+
+	/**
+	 * Skips the current node and all its descendants. The reader is left on
+	 * the end of the node.
+	 * 
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private static void skipNode(XMLStreamReader reader)
+			throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) depth++;
+			else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+		}
+	}
+
+	/**
+	 * sets a feature of a word from a feature node of a lexicon XML file
+	 * 
+	 * @param word
+	 * @param inflections
+	 *            inflectional codes found so far for this word
+	 * @param feature
+	 *            name of the feature node
+	 * @param value
+	 *            text of the feature node
+	 * @return false if the feature node is in error and the following ones
+	 *         must be ignored
+	 */
+	private boolean addWordFeature(WordElement word, List<String> inflections,
+			String feature, String value) {
+		if (value != null)
+			value = value.trim();
+
+		if (feature == null) {
+			System.out.println("Error in XML lexicon node for "
+					+ word.toString());
+			return false;
+		}
+
+		if (feature.equalsIgnoreCase(XML_BASE)) {
+			word.setBaseForm(value);
+		} else if (feature.equalsIgnoreCase(XML_CATEGORY))
+			word.setCategory(LexicalCategory.valueOf(value
+					.toUpperCase()));
+		else if (feature.equalsIgnoreCase(XML_ID))
+			word.setId(value);
+		else if (value == null || value.equals("")) {
+			if (INFL_CODES.contains(feature)) {
+				// if this is an infl code, add it to inflections
+				inflections.add(feature);
+			} else {
+				//otherwise assume it's a boolean feature
+				word.setFeature(feature, true);
+			}
+		} else
+			word.setFeature(feature, value);
+		return true;
+	}
+
+	/**
+	 * finishes a word once all its feature nodes have been read from a
+	 * lexicon XML file, whether from a DOM or from a stream
+	 * 
+	 * Subclasses override this method to convert the features read.
+	 * 
+	 * @param word
+	 * @param inflections
+	 *            inflectional codes read for this word
+	 * @return the word
+	 */
+	protected WordElement completeWord(WordElement word, List<String> inflections) {
 		//if no infl specified, assume regular
 		if(inflections.isEmpty()) {
 			inflections.add("reg");
@@ -374,9 +646,14 @@ public class XMLLexicon extends Lexicon {
 			indexByID.put(id, word);
 		}
 
-		// now index by variant
-		for (String variant : getVariants(word)) {
-			updateIndex(word, variant, indexByVariant);
+		// now index by variant, unless it is done later
+		// (see VariantIndexMode)
+		if (unindexedWords != null) {
+			unindexedWords.add(word);
+		} else {
+			for (String variant : getVariants(word)) {
+				updateIndex(word, variant, indexByVariant);
+			}
 		}
 
 		// added by vaudrypl
@@ -421,7 +698,211 @@ public class XMLLexicon extends Lexicon {
 	}
 
 	/**
-	 * creates a default WordElement and adds it to the lexicon
+	 * Indicates if computing the variants of the words of a category looks
+	 * up other words by variant. Those categories are indexed after all the
+	 * others when the index by variant is not built as the words are loaded,
+	 * so that the words they look up are already indexed.
+	 * 
+	 * @param category
+	 * @return <code>false</code> by default
+	 */
+	protected boolean variantsNeedIndex(LexicalCategory category) {
+		return false;
+	}
+
+	/**
+	 * @return how the index by variant of this lexicon is built
+	 */
+	public VariantIndexMode getVariantIndexMode() {
+		return variantIndexMode;
+	}
+
+	/**
+	 * Keeps the words loaded so that their variants can be indexed later.
+	 * 
+	 * @param loaded	words loaded, in loading order
+	 */
+	private void deferVariantIndex(List<WordElement> loaded) {
+		loadingOrder = new IdentityHashMap<WordElement, Integer>();
+		unindexedVariants = new EnumMap<LexicalCategory, List<WordElement>>(LexicalCategory.class);
+		for (int i = 0; i < loaded.size(); i++) {
+			WordElement word = loaded.get(i);
+			loadingOrder.put(word, i);
+			LexicalCategory category = getVariantCategory(word);
+			List<WordElement> categoryWords = unindexedVariants.get(category);
+			if (categoryWords == null) {
+				categoryWords = new ArrayList<WordElement>();
+				unindexedVariants.put(category, categoryWords);
+			}
+			categoryWords.add(word);
+		}
+		variantIndexComplete = unindexedVariants.isEmpty();
+	}
+
+	/**
+	 * @param word
+	 * @return the category of the word, ANY if it doesn't have a lexical category
+	 */
+	private static LexicalCategory getVariantCategory(WordElement word) {
+		if (word.getCategory() instanceof LexicalCategory)
+			return (LexicalCategory) word.getCategory();
+		else
+			return LexicalCategory.ANY;
+	}
+
+	/**
+	 * Indexes the variants of the words of a category if it hasn't been
+	 * done yet. With the category ANY, the variants of all the words are
+	 * indexed.
+	 * 
+	 * @param category
+	 */
+	protected synchronized void buildVariantIndex(LexicalCategory category) {
+		if (variantIndexComplete) return;
+		if (category == null) category = LexicalCategory.ANY;
+
+		List<LexicalCategory> categories = new ArrayList<LexicalCategory>();
+		if (category == LexicalCategory.ANY || variantsNeedIndex(category)) {
+			for (LexicalCategory current : unindexedVariants.keySet()) {
+				if (!variantsNeedIndex(current)) categories.add(current);
+			}
+		}
+		if (category == LexicalCategory.ANY) {
+			for (LexicalCategory current : unindexedVariants.keySet()) {
+				if (variantsNeedIndex(current)) categories.add(current);
+			}
+		} else if (!categories.contains(category)) {
+			categories.add(category);
+		}
+
+		for (LexicalCategory current : categories) {
+			// removed before indexing in case getVariants() looks up words
+			List<WordElement> categoryWords = unindexedVariants.remove(current);
+			if (categoryWords != null) {
+				for (WordElement word : categoryWords) {
+					for (String variant : getVariants(word)) {
+						insertInLoadingOrder(word, variant);
+					}
+				}
+			}
+		}
+
+		if (unindexedVariants.isEmpty()) {
+			variantIndexComplete = true;
+		}
+	}
+
+	/**
+	 * Computes the variants of all the words in parallel, then indexes them.
+	 * The categories whose variants need the index (see variantsNeedIndex)
+	 * are computed once the others are indexed.
+	 */
+	private void buildVariantIndexInParallel() {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			for (boolean needIndex : new boolean[] {false, true}) {
+				List<WordElement> toIndex = new ArrayList<WordElement>();
+				Iterator<Map.Entry<LexicalCategory, List<WordElement>>> iterator =
+					unindexedVariants.entrySet().iterator();
+				while (iterator.hasNext()) {
+					Map.Entry<LexicalCategory, List<WordElement>> entry = iterator.next();
+					if (variantsNeedIndex(entry.getKey()) == needIndex) {
+						toIndex.addAll(entry.getValue());
+						iterator.remove();
+					}
+				}
+				if (toIndex.isEmpty()) continue;
+
+				// the first word is done here so that the static rule sets
+				// used by getVariants() are created before the other threads
+				// use them
+				List<Set<String>> variants = new ArrayList<Set<String>>(toIndex.size());
+				variants.add(getVariants(toIndex.get(0)));
+				for (int i = 1; i < toIndex.size(); i++) variants.add(null);
+				variantIndexReadOnly = true;
+				try {
+					pool.invoke(new VariantsTask(toIndex, variants, 1, toIndex.size()));
+				} finally {
+					variantIndexReadOnly = false;
+				}
+
+				for (int i = 0; i < toIndex.size(); i++) {
+					for (String variant : variants.get(i)) {
+						insertInLoadingOrder(toIndex.get(i), variant);
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		variantIndexComplete = true;
+	}
+
+	/**
+	 * Computes the variants of a range of words.
+	 */
+	private class VariantsTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int THRESHOLD = 32;
+
+		private final List<WordElement> words;
+		private final List<Set<String>> variants;
+		private final int from, to;
+
+		VariantsTask(List<WordElement> words, List<Set<String>> variants,
+				int from, int to) {
+			this.words = words;
+			this.variants = variants;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= THRESHOLD) {
+				for (int i = from; i < to; i++) {
+					variants.set(i, getVariants(words.get(i)));
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new VariantsTask(words, variants, from, middle),
+						new VariantsTask(words, variants, middle, to));
+			}
+		}
+	}
+
+	/**
+	 * Adds a word to the index by variant, keeping the words of each variant
+	 * in loading order, as if it had been indexed when it was loaded.
+	 * 
+	 * @param word
+	 * @param variant
+	 */
+	private void insertInLoadingOrder(WordElement word, String variant) {
+		List<WordElement> variantWords = indexByVariant.get(variant);
+		if (variantWords == null) {
+			variantWords = new ArrayList<WordElement>();
+			indexByVariant.put(variant, variantWords);
+		}
+		int order = getLoadingOrder(word);
+		int position = variantWords.size();
+		while (position > 0 && getLoadingOrder(variantWords.get(position - 1)) > order) {
+			position--;
+		}
+		variantWords.add(position, word);
+	}
+
+	/**
+	 * @param word
+	 * @return the loading order of the word, words added after loading last
+	 */
+	private int getLoadingOrder(WordElement word) {
+		Integer order = loadingOrder.get(word);
+		return order == null ? Integer.MAX_VALUE : order;
+	}
+
+	/**
+	 * creates a default WordElement and keeps it in this lexicon
 	 * 
 	 * @param baseForm
 	 *            - base form of word
@@ -432,16 +913,11 @@ public class XMLLexicon extends Lexicon {
 	 */
 	@Override
 	protected WordElement createWord(String baseForm, LexicalCategory category) {
-		WordElement newWord = super.createWord(baseForm, category);
-		words.add(newWord);
-		IndexWord(newWord);
-		return newWord; // return default
-		// WordElement of this
-		// baseForm, category
+		return keepCreatedWord(super.createWord(baseForm, category));
 	}
 
 	/**
-	 * creates a default WordElement and adds it to the lexicon
+	 * creates a default WordElement and keeps it in this lexicon
 	 * 
 	 * @param baseForm
 	 *            - base form of word
@@ -450,11 +926,92 @@ public class XMLLexicon extends Lexicon {
 	 */
 	@Override
 	protected WordElement createWord(String baseForm) {
-		WordElement newWord = super.createWord(baseForm);
-		words.add(newWord);
-		IndexWord(newWord);
-		return newWord;  // return default WordElement of this
-		// baseForm
+		return keepCreatedWord(super.createWord(baseForm));
+	}
+
+	/**
+	 * Keeps a word created after loading so that it is found by later
+	 * lookups of its base form or of its variants. The indexes built when
+	 * loading are not modified. The word is frozen if the lexicon is (see
+	 * freeze). A frozen lexicon is shared (see LexiconRegistry), so once it
+	 * keeps MAXIMUM_CREATED_WORDS words the words it creates are not kept
+	 * any more, and it doesn't grow without bound. A lexicon which isn't
+	 * frozen keeps all the words it creates.
+	 * 
+	 * @param word
+	 * @return the word
+	 */
+	private WordElement keepCreatedWord(WordElement word) {
+		if (isFrozen()) word.freeze();
+		String base = word.getBaseForm();
+		if (base != null && reserveCreatedWord()) {
+			addCreatedWord(createdWords, base, word);
+			for (String variant : getVariants(word)) {
+				addCreatedWord(createdWordsByVariant, variant, word);
+			}
+			if (word.getCategory() instanceof LexicalCategory) {
+				addCreatedWord(createdWordsByCategory, (LexicalCategory) word.getCategory(), word);
+			}
+		}
+		return word;
+	}
+
+	/**
+	 * adds a created word to the list of a key in one of the maps of the
+	 * created words
+	 * 
+	 * @param map
+	 * @param key
+	 * @param word
+	 */
+	private static <K> void addCreatedWord(ConcurrentMap<K, List<WordElement>> map,
+			K key, WordElement word) {
+		List<WordElement> created = map.get(key);
+		if (created == null) {
+			List<WordElement> newList = new CopyOnWriteArrayList<WordElement>();
+			created = map.putIfAbsent(key, newList);
+			if (created == null) created = newList;
+		}
+		created.add(word);
+	}
+
+	/**
+	 * @return true if one more created word can be kept, which is always
+	 *         the case if the lexicon isn't frozen
+	 */
+	private boolean reserveCreatedWord() {
+		if (!isFrozen()) {
+			createdWordCount.incrementAndGet();
+			return true;
+		}
+		int count;
+		do {
+			count = createdWordCount.get();
+			if (count >= MAXIMUM_CREATED_WORDS) return false;
+		} while (!createdWordCount.compareAndSet(count, count + 1));
+		return true;
+	}
+
+	/**
+	 * adds the words created after loading with this key as base form or
+	 * variant to a list of words found in the indexes
+	 * 
+	 * @param key
+	 * @param category
+	 * @param createdMap	createdWords or createdWordsByVariant
+	 * @param result	words found in the indexes
+	 * @return the result, or a new list if created words were added
+	 */
+	private static List<WordElement> addCreatedWords(String key, LexicalCategory category,
+			Map<String, List<WordElement>> createdMap, List<WordElement> result) {
+		List<WordElement> created = key == null ? null : createdMap.get(key);
+		if (created != null) {
+			result = new ArrayList<WordElement>(result);
+			for (WordElement word : created)
+				if (category == LexicalCategory.ANY || word.getCategory() == category)
+					result.add(word);
+		}
+		return result;
 	}
 
 	/******************************************************************************************/
@@ -469,7 +1026,8 @@ public class XMLLexicon extends Lexicon {
 	 */
 	@Override
 	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
-		return getWordsFromIndex(baseForm, category, indexByBase);
+		return addCreatedWords(baseForm, category, createdWords,
+				getWordsFromIndex(baseForm, category, indexByBase));
 	}
 
 	/**
@@ -501,6 +1059,59 @@ public class XMLLexicon extends Lexicon {
 		return result;
 	}
 
+	/**
+	 * get the first word of an index map matching a key and category,
+	 * without building a list
+	 * 
+	 * @param indexKey
+	 * @param category
+	 * @param indexMap
+	 * @return the first matching word, or null
+	 */
+	private static WordElement findWordInIndex(String indexKey,
+			LexicalCategory category, Map<String, List<WordElement>> indexMap) {
+		List<WordElement> words = indexMap.get(indexKey);
+		if (words != null) {
+			for (int i = 0; i < words.size(); i++) {
+				WordElement word = words.get(i);
+				if (category == LexicalCategory.ANY || word.getCategory() == category)
+					return word;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * get the first word created after loading with this key as base form
+	 * or variant
+	 * 
+	 * @param key
+	 * @param category
+	 * @param createdMap	createdWords or createdWordsByVariant
+	 * @return the first matching word, or null
+	 */
+	private static WordElement findCreatedWord(String key, LexicalCategory category,
+			Map<String, List<WordElement>> createdMap) {
+		List<WordElement> created = key == null ? null : createdMap.get(key);
+		if (created != null)
+			for (WordElement word : created)
+				if (category == LexicalCategory.ANY || word.getCategory() == category)
+					return word;
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWord(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public WordElement findWord(String baseForm, LexicalCategory category) {
+		WordElement word = findWordInIndex(baseForm, category, indexByBase);
+		return word != null ? word : findCreatedWord(baseForm, category, createdWords);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -514,6 +1125,16 @@ public class XMLLexicon extends Lexicon {
 		return result;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWordByID(java.lang.String)
+	 */
+	@Override
+	public WordElement findWordByID(String id) {
+		return id == null ? null : indexByID.get(id);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -523,7 +1144,40 @@ public class XMLLexicon extends Lexicon {
 	@Override
 	public List<WordElement> getWordsFromVariant(String variant,
 			LexicalCategory category) {
-		return getWordsFromIndex(variant, category, indexByVariant);
+		List<WordElement> result;
+		if (variantIndexComplete || variantIndexReadOnly) {
+			result = getWordsFromIndex(variant, category, indexByVariant);
+		} else {
+			// the index may still change, so it is read while holding the
+			// lock and a copy of the list is returned
+			synchronized (this) {
+				buildVariantIndex(category);
+				result = new ArrayList<WordElement>(
+						getWordsFromIndex(variant, category, indexByVariant));
+			}
+		}
+		return addCreatedWords(variant, category, createdWordsByVariant, result);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#findWordFromVariant(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public WordElement findWordFromVariant(String variant,
+			LexicalCategory category) {
+		WordElement word;
+		if (variantIndexComplete || variantIndexReadOnly) {
+			word = findWordInIndex(variant, category, indexByVariant);
+		} else {
+			synchronized (this) {
+				buildVariantIndex(category);
+				word = findWordInIndex(variant, category, indexByVariant);
+			}
+		}
+		return word != null ? word : findCreatedWord(variant, category, createdWordsByVariant);
 	}
 
 	/**
@@ -560,33 +1214,89 @@ public class XMLLexicon extends Lexicon {
 		if (iterator != null) {
 			if (features == null) {
 				result.addAll(collection);
-			}else {
-				// must convert map to set to use contains()
-				Set<Map.Entry<String, Object>> featuresToCheck = features.entrySet();
+			} else if (category != LexicalCategory.ANY) {
+				// intersect the bitsets of the inverted index of the category
+				result.addAll(getFeatureIndex(category).getWords(features));
+			} else {
 				while (iterator.hasNext()) {
 					WordElement currentWord = iterator.next();
-					Map<String, Object> currentFeaturesMap = currentWord.getAllFeatures();
-					Set<Map.Entry<String, Object>> currentFeaturesSet = currentFeaturesMap.entrySet();
-	
-	/*				Doesn't add a word to the list if the following is not true for
-					at least one feature received as argument :
-					The word has this feature and its corresponding value OR
-					The value of this feature is null or Boolean.FALSE and the word
-					doesn't have this feature at all.
-	*/				boolean addWord = true;
-					for (Map.Entry<String, Object> entry : featuresToCheck) {
-						if ( !( currentFeaturesSet.contains( entry ) || 
-							((entry.getValue() == null || entry.getValue() == Boolean.FALSE)
-									&& !currentFeaturesMap.containsKey(entry.getKey())) ) ) {
-							addWord = false;
-							break;
-						}
-					}
-					if (addWord) result.add(currentWord);
+					if (hasFeatures(currentWord, features)) result.add(currentWord);
+				}
+			}
+		}
+
+		// words created after loading come last, as if they had been
+		// added to the index by category (which, like it, doesn't follow
+		// later changes of their category)
+		Collection<List<WordElement>> createdLists;
+		if (category == LexicalCategory.ANY) {
+			createdLists = createdWords.values();
+		} else {
+			List<WordElement> created = createdWordsByCategory.get(category);
+			createdLists = created == null ? Collections.<List<WordElement>>emptyList()
+				: Collections.singletonList(created);
+		}
+		for (List<WordElement> created : createdLists) {
+			for (WordElement word : created) {
+				if (features == null || hasFeatures(word, features)) {
+					result.add(word);
 				}
 			}
 		}
 
 		return result;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @param category
+	 * @return the inverted index of the features of the words of this
+	 *         category, built if necessary or if it is stale
+	 */
+	private FeatureIndex getFeatureIndex(LexicalCategory category) {
+		FeatureIndex index = featureIndexes.get(category);
+		if (index == null || index.isStale()) {
+			FeatureIndex newIndex = new FeatureIndex(indexByCategory.get(category));
+			if (index == null) {
+				FeatureIndex existing = featureIndexes.putIfAbsent(category, newIndex);
+				index = existing != null ? existing : newIndex;
+			} else {
+				featureIndexes.replace(category, index, newIndex);
+				index = newIndex;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Freezes the words loaded and the words already created, after building
+	 * the variant index, which reads their features.
+	 */
+	@Override
+	public void freeze() {
+		buildVariantIndex(LexicalCategory.ANY);
+		super.freeze();
+		for (WordElement word : words) {
+			word.freeze();
+		}
+		for (List<WordElement> created : createdWords.values()) {
+			for (WordElement word : created) {
+				word.freeze();
+			}
+		}
+	}
+
+	/**
+	 * Marks the inverted index of the features of the category of the word
+	 * as stale, if it was built : it is built again the next time it is
+	 * needed, rather than after each change.
+	 * 
+	 * @param word	the word which changed
+	 */
+	@Override
+	public void featuresChanged(WordElement word) {
+		if (word.getCategory() instanceof LexicalCategory) {
+			FeatureIndex index = featureIndexes.get(word.getCategory());
+			if (index != null) index.markStale();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon.english;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+
+/**
+ * This class holds the function words of an English lexicon, with the
+ * auxiliaries used by the verb phrase helper.
+ */
+public class FunctionWords extends simplenlg.lexicon.FunctionWords {
+
+	private final WordElement have;
+	private final WordElement be;
+	private final WordElement doAuxiliary;
+
+	/**
+	 * Looks up the function words of an English lexicon.
+	 * 
+	 * @param lexicon
+	 */
+	public FunctionWords(Lexicon lexicon) {
+		super(lexicon, "and", "by", "that");
+		this.have = lookupWord("have", LexicalCategory.VERB);
+		this.be = lookupWord("be", LexicalCategory.VERB);
+		this.doAuxiliary = lookupWord("do", LexicalCategory.VERB);
+	}
+
+	/**
+	 * @param lexicon
+	 * @return the English function words of the lexicon, kept by the lexicon
+	 *         even if it is not an English lexicon
+	 *         (see Lexicon.getFunctionWords(Language))
+	 */
+	public static FunctionWords of(Lexicon lexicon) {
+		return (FunctionWords) lexicon.getFunctionWords(Language.ENGLISH);
+	}
+
+	/**
+	 * @return the auxiliary "have"
+	 */
+	public WordElement getHave() {
+		return this.have;
+	}
+
+	/**
+	 * @return the auxiliary "be"
+	 */
+	public WordElement getBe() {
+		return this.be;
+	}
+
+	/**
+	 * @return the auxiliary "do"
+	 */
+	public WordElement getDo() {
+		return this.doAuxiliary;
+	}
+}
@@ -74,8 +74,12 @@ public class XMLLexicon extends simplenlg.lexicon.XMLLexicon {
 		addSpecialCases();
 	}
 
+	/**
+	 * Copies the default English lexicon kept by the LexiconRegistry,
+	 * which already has the special cases.
+	 */
 	public XMLLexicon() {
-		addSpecialCases();
+		super(Language.ENGLISH);
 	}
 
 	/**
@@ -0,0 +1,178 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon.french;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+
+/**
+ * This class holds the function words of a French lexicon, with the
+ * determiners, prepositions, relative pronouns, complementisers and
+ * auxiliaries used by the French syntax helpers.
+ */
+public class FunctionWords extends simplenlg.lexicon.FunctionWords {
+
+	// prepositions
+	private final WordElement de;
+	private final WordElement a;
+
+	// determiners
+	private final WordElement le;
+	private final WordElement du;
+	private final WordElement un;
+
+	// pronouns
+	private final WordElement il;
+	private final WordElement en;
+	private final WordElement qui;
+	private final WordElement que;
+	private final WordElement dont;
+
+	// complementisers
+	private final WordElement queComplementiser;
+	private final WordElement si;
+
+	// auxiliary
+	private final WordElement etre;
+
+	/**
+	 * Looks up the function words of a French lexicon.
+	 * 
+	 * @param lexicon
+	 */
+	public FunctionWords(Lexicon lexicon) {
+		super(lexicon, "et", "par", "que");
+		this.de = lookupWord("de", LexicalCategory.PREPOSITION);
+		this.a = lookupWord("à", LexicalCategory.PREPOSITION);
+		this.le = lookupWord("le", LexicalCategory.DETERMINER);
+		this.du = lookupWord("du", LexicalCategory.DETERMINER);
+		this.un = lookupWord("un", LexicalCategory.DETERMINER);
+		this.il = lookupWord("il", LexicalCategory.PRONOUN);
+		this.en = lookupWord("en", LexicalCategory.PRONOUN);
+		this.qui = lookupWord("qui", LexicalCategory.PRONOUN);
+		this.que = lookupWord("que", LexicalCategory.PRONOUN);
+		this.dont = lookupWord("dont", LexicalCategory.PRONOUN);
+		this.queComplementiser = getDefaultComplementiser();
+		this.si = lookupWord("si", LexicalCategory.COMPLEMENTISER);
+		this.etre = lookupWord("être", LexicalCategory.VERB);
+	}
+
+	/**
+	 * @param lexicon
+	 * @return the French function words of the lexicon, kept by the lexicon
+	 *         even if it is not a French lexicon
+	 *         (see Lexicon.getFunctionWords(Language))
+	 */
+	public static FunctionWords of(Lexicon lexicon) {
+		return (FunctionWords) lexicon.getFunctionWords(Language.FRENCH);
+	}
+
+	/**
+	 * @return the preposition "de"
+	 */
+	public WordElement getDe() {
+		return this.de;
+	}
+
+	/**
+	 * @return the preposition "à"
+	 */
+	public WordElement getA() {
+		return this.a;
+	}
+
+	/**
+	 * @return the definite determiner "le"
+	 */
+	public WordElement getLe() {
+		return this.le;
+	}
+
+	/**
+	 * @return the partitive determiner "du"
+	 */
+	public WordElement getDu() {
+		return this.du;
+	}
+
+	/**
+	 * @return the indefinite determiner "un"
+	 */
+	public WordElement getUn() {
+		return this.un;
+	}
+
+	/**
+	 * @return the personal pronoun "il"
+	 */
+	public WordElement getIl() {
+		return this.il;
+	}
+
+	/**
+	 * @return the pronoun "en"
+	 */
+	public WordElement getEn() {
+		return this.en;
+	}
+
+	/**
+	 * @return the relative pronoun "qui"
+	 */
+	public WordElement getQui() {
+		return this.qui;
+	}
+
+	/**
+	 * @return the relative pronoun "que"
+	 */
+	public WordElement getQue() {
+		return this.que;
+	}
+
+	/**
+	 * @return the relative pronoun "dont"
+	 */
+	public WordElement getDont() {
+		return this.dont;
+	}
+
+	/**
+	 * @return the complementiser "que"
+	 */
+	public WordElement getQueComplementiser() {
+		return this.queComplementiser;
+	}
+
+	/**
+	 * @return the complementiser "si"
+	 */
+	public WordElement getSi() {
+		return this.si;
+	}
+
+	/**
+	 * @return the auxiliary "être"
+	 */
+	public WordElement getEtre() {
+		return this.etre;
+	}
+}
@@ -0,0 +1,341 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.lexicon.french;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.french.FrenchLexicalFeature;
+import simplenlg.features.french.PronounType;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.OverlayLexicon;
+
+/**
+ * This class is a table of the pronouns of a lexicon, giving the pronoun
+ * which has a pronoun type, person, number, gender, discourse function, and
+ * which is reflexive, detached or possessive or not.
+ *
+ * It gives the same pronoun as
+ * <code>lexicon.getWord(LexicalCategory.PRONOUN, features)</code>, where
+ * features would contain these features, but without building a map of
+ * features or searching the lexicon : the pronouns of each type are
+ * compared once for each combination of values asked for, and the pronoun
+ * found is kept under an index computed from the values. Only the
+ * combinations asked for are kept, which are few compared to all the
+ * combinations of the values of the pronouns.
+ *
+ * Each feature of the key can have a value, be <code>null</code> or
+ * Boolean.FALSE (which also match a pronoun who doesn't have the feature),
+ * or be UNSPECIFIED (the feature is not part of the search).
+ *
+ * The table doesn't follow changes to the pronouns of the lexicon. The French
+ * XMLLexicon builds a new one when one of its pronouns changes.
+ */
+public final class PronounParadigm {
+
+	/**
+	 * Value of a feature of the key which is not part of the search.
+	 */
+	public static final Object UNSPECIFIED = new Object() {
+		@Override
+		public String toString() {
+			return "UNSPECIFIED";
+		}
+	};
+
+	// features of the key besides the pronoun type, in this order
+	private static final String[] KEY_FEATURES = {
+		Feature.PERSON,
+		Feature.NUMBER,
+		LexicalFeature.GENDER,
+		InternalFeature.DISCOURSE_FUNCTION,
+		LexicalFeature.REFLEXIVE,
+		FrenchLexicalFeature.DETACHED,
+		Feature.POSSESSIVE };
+
+	// codes of the values of a feature of the key
+	// (the values found in the pronouns have codes from FIRST_VALUE_CODE)
+	private static final int UNSPECIFIED_CODE = 0;
+	private static final int NULL_CODE = 1;
+	private static final int FALSE_CODE = 2;
+	private static final int FIRST_VALUE_CODE = 3;
+
+	// kept for the combinations of values which no pronoun has
+	private static final Object NO_PRONOUN = new Object();
+
+	// lexicon of the pronouns
+	private final Lexicon lexicon;
+
+	// table of the pronouns of each type
+	private final Map<PronounType, Table> tables =
+		new EnumMap<PronounType, Table>(PronounType.class);
+
+	/**
+	 * Table of the pronouns of one type.
+	 */
+	private static class Table {
+		// the pronouns, in lexicon order
+		final WordElement[] pronouns;
+		// codes of the values found in the pronouns, for each feature of the key
+		final List<Map<Object, Integer>> valueCodes =
+			new ArrayList<Map<Object, Integer>>(KEY_FEATURES.length);
+		// distance in the index between two codes of each feature of the key
+		final int[] strides = new int[KEY_FEATURES.length];
+		// first pronoun matching each combination of codes asked for so far,
+		// or NO_PRONOUN, by index
+		final ConcurrentMap<Integer, Object> found =
+			new ConcurrentHashMap<Integer, Object>();
+		// false if a value couldn't be coded (see isCodable)
+		boolean usable = true;
+
+		Table(List<WordElement> pronouns) {
+			this.pronouns = pronouns.toArray(new WordElement[pronouns.size()]);
+		}
+	}
+
+	/**
+	 * Builds the table of the pronouns of a lexicon.
+	 *
+	 * @param lexicon
+	 */
+	public PronounParadigm(Lexicon lexicon) {
+		this.lexicon = lexicon;
+
+		// pronouns of each type, in lexicon order
+		Map<PronounType, List<WordElement>> pronounsByType =
+			new EnumMap<PronounType, List<WordElement>>(PronounType.class);
+		for (WordElement pronoun : lexicon.getWords(LexicalCategory.PRONOUN, null)) {
+			Object type = pronoun.getFeature(FrenchLexicalFeature.PRONOUN_TYPE);
+			if (type instanceof PronounType) {
+				List<WordElement> pronouns = pronounsByType.get(type);
+				if (pronouns == null) {
+					pronouns = new ArrayList<WordElement>();
+					pronounsByType.put((PronounType) type, pronouns);
+				}
+				pronouns.add(pronoun);
+			}
+		}
+
+		for (Map.Entry<PronounType, List<WordElement>> entry : pronounsByType.entrySet()) {
+			tables.put(entry.getKey(), buildTable(entry.getValue()));
+		}
+	}
+
+	/**
+	 * @param pronouns	pronouns of one type, in lexicon order
+	 * @return the table of these pronouns
+	 */
+	private static Table buildTable(List<WordElement> pronouns) {
+		Table table = new Table(pronouns);
+		int size = 1;
+		for (int feature = KEY_FEATURES.length - 1; feature >= 0; feature--) {
+			Map<Object, Integer> codes = new HashMap<Object, Integer>();
+			for (WordElement pronoun : pronouns) {
+				Object value = pronoun.getFeature(KEY_FEATURES[feature]);
+				if (value != null && !codes.containsKey(value)) {
+					if (!isCodable(value)) table.usable = false;
+					codes.put(value, FIRST_VALUE_CODE + codes.size());
+				}
+			}
+			table.valueCodes.add(0, codes);
+			table.strides[feature] = size;
+			size *= FIRST_VALUE_CODE + codes.size();
+		}
+		return table;
+	}
+
+	/**
+	 * @param table
+	 * @param values	values of the features of the key
+	 * @return the first pronoun of the table matching the values, as
+	 *         Lexicon.getWords(LexicalCategory, Map) would, or null if none
+	 *         does
+	 */
+	private static WordElement findPronoun(Table table, Object[] values) {
+		for (WordElement pronoun : table.pronouns) {
+			boolean matches = true;
+			for (int feature = 0; matches && feature < KEY_FEATURES.length; feature++) {
+				Object value = values[feature];
+				if (value == UNSPECIFIED) continue;
+				Object pronounValue = pronoun.getFeature(KEY_FEATURES[feature]);
+				if (pronounValue == null) {
+					// null and FALSE also match a pronoun who doesn't have the feature
+					matches = value == null || value == Boolean.FALSE;
+				} else {
+					matches = pronounValue.equals(value);
+				}
+			}
+			if (matches) return pronoun;
+		}
+		return null;
+	}
+
+	/**
+	 * Only immutable values whose hashCode() agrees with equals() can be
+	 * given a code.
+	 *
+	 * @param value
+	 * @return <code>true</code> if the value can be given a code
+	 */
+	private static boolean isCodable(Object value) {
+		return value instanceof Enum<?> || value instanceof Boolean
+			|| value instanceof String || value instanceof Integer;
+	}
+
+	/**
+	 * Returns the first pronoun of the lexicon with these features, like
+	 * <code>lexicon.getWord(LexicalCategory.PRONOUN, features)</code> with
+	 * features containing the arguments which are not UNSPECIFIED.
+	 *
+	 * @param type			pronoun type
+	 * @param person		value of Feature.PERSON
+	 * @param number		value of Feature.NUMBER
+	 * @param gender		value of LexicalFeature.GENDER
+	 * @param function		value of InternalFeature.DISCOURSE_FUNCTION
+	 * @param reflexive		value of LexicalFeature.REFLEXIVE
+	 * @param detached		value of FrenchLexicalFeature.DETACHED
+	 * @param possessive	value of Feature.POSSESSIVE
+	 * @return the pronoun, or null if none has these features
+	 */
+	public WordElement getPronoun(PronounType type, Object person,
+			Object number, Object gender, Object function, Object reflexive,
+			Object detached, Object possessive) {
+		Table table = tables.get(type);
+		if (table == null) return null;
+		if (!table.usable) {
+			return lexicon.getWord(LexicalCategory.PRONOUN, toFeatures(type,
+					person, number, gender, function, reflexive, detached,
+					possessive));
+		}
+
+		int index = 0;
+		Object[] values = {person, number, gender, function, reflexive,
+				detached, possessive};
+		for (int feature = 0; feature < KEY_FEATURES.length; feature++) {
+			Object value = values[feature];
+			int code;
+			if (value == UNSPECIFIED) code = UNSPECIFIED_CODE;
+			else if (value == null) code = NULL_CODE;
+			else if (value == Boolean.FALSE) code = FALSE_CODE;
+			else {
+				Integer valueCode = table.valueCodes.get(feature).get(value);
+				// no pronoun has this value
+				if (valueCode == null) return null;
+				code = valueCode;
+			}
+			index += code * table.strides[feature];
+		}
+
+		Object pronoun = table.found.get(index);
+		if (pronoun == null) {
+			pronoun = findPronoun(table, values);
+			if (pronoun == null) pronoun = NO_PRONOUN;
+			table.found.putIfAbsent(index, pronoun);
+		}
+		return pronoun == NO_PRONOUN ? null : (WordElement) pronoun;
+	}
+
+	/**
+	 * Returns the first pronoun of the lexicon with these features, like
+	 * <code>lexicon.getWord(LexicalCategory.PRONOUN, features)</code>. The
+	 * table is used if the features are among those of the key, and include
+	 * a pronoun type.
+	 *
+	 * @param features	features and their corresponding values that
+	 *					the pronoun must have (it can have others)
+	 * @return the pronoun, or null if none has these features
+	 */
+	public WordElement getPronoun(Map<String, Object> features) {
+		Object type = features.get(FrenchLexicalFeature.PRONOUN_TYPE);
+		int keyFeatures = 1;
+		Object[] values = new Object[KEY_FEATURES.length];
+		for (int feature = 0; feature < KEY_FEATURES.length; feature++) {
+			if (features.containsKey(KEY_FEATURES[feature])) {
+				values[feature] = features.get(KEY_FEATURES[feature]);
+				keyFeatures++;
+			} else {
+				values[feature] = UNSPECIFIED;
+			}
+		}
+
+		if (type instanceof PronounType && keyFeatures == features.size()) {
+			return getPronoun((PronounType) type, values[0], values[1],
+					values[2], values[3], values[4], values[5], values[6]);
+		} else {
+			return lexicon.getWord(LexicalCategory.PRONOUN, features);
+		}
+	}
+
+	/**
+	 * Returns the first pronoun of a lexicon with these features. If the
+	 * lexicon is a French XMLLexicon, its pronoun paradigm is used (also
+	 * through an OverlayLexicon), otherwise the lexicon is searched.
+	 *
+	 * @param lexicon
+	 * @see #getPronoun(PronounType, Object, Object, Object, Object, Object, Object, Object)
+	 */
+	public static WordElement getPronoun(Lexicon lexicon, PronounType type,
+			Object person, Object number, Object gender, Object function,
+			Object reflexive, Object detached, Object possessive) {
+		if (lexicon instanceof OverlayLexicon) {
+			OverlayLexicon overlay = (OverlayLexicon) lexicon;
+			return overlay.overlay(getPronoun(overlay.getBaseLexicon(), type,
+					person, number, gender, function, reflexive, detached,
+					possessive));
+		} else if (lexicon instanceof XMLLexicon) {
+			return ((XMLLexicon) lexicon).getPronounParadigm().getPronoun(type,
+					person, number, gender, function, reflexive, detached,
+					possessive);
+		} else if (lexicon != null) {
+			return lexicon.getWord(LexicalCategory.PRONOUN, toFeatures(type,
+					person, number, gender, function, reflexive, detached,
+					possessive));
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * @return map of the features which are not UNSPECIFIED
+	 */
+	private static Map<String, Object> toFeatures(PronounType type,
+			Object person, Object number, Object gender, Object function,
+			Object reflexive, Object detached, Object possessive) {
+		Map<String, Object> features = new HashMap<String, Object>();
+		features.put(FrenchLexicalFeature.PRONOUN_TYPE, type);
+		Object[] values = {person, number, gender, function, reflexive,
+				detached, possessive};
+		for (int feature = 0; feature < KEY_FEATURES.length; feature++) {
+			if (values[feature] != UNSPECIFIED) {
+				features.put(KEY_FEATURES[feature], values[feature]);
+			}
+		}
+		return features;
+	}
+}
@@ -22,15 +22,15 @@ package simplenlg.lexicon.french;
 import java.io.File;
 import java.net.URI;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
-import org.w3c.dom.Node;
-
 import simplenlg.framework.ElementCategory;
 import simplenlg.framework.Language;
 import simplenlg.framework.LexicalCategory;
 import simplenlg.framework.WordElement;
 import simplenlg.framework.InflectedWordElement;
+import simplenlg.lexicon.VariantIndexMode;
 
 import simplenlg.features.Form;
 import simplenlg.features.InternalFeature;
@@ -52,6 +52,9 @@ import simplenlg.features.french.PronounType;
  */
 public class XMLLexicon extends simplenlg.lexicon.XMLLexicon {
 
+	// table of the pronouns, built when it is first needed
+	private volatile PronounParadigm pronounParadigm = null;
+
 	/**********************************************************************/
 	// constructors
 	/**********************************************************************/
@@ -83,21 +86,35 @@ public class XMLLexicon extends simplenlg.lexicon.XMLLexicon {
 		super(Language.FRENCH, lexiconURI);
 	}
 
+	/**
+	 * Load an XML Lexicon from a URI, building the index by variant
+	 * as specified
+	 * 
+	 * @param lexiconURI
+	 * @param mode
+	 *            how the index by variant is built
+	 */
+	public XMLLexicon(URI lexiconURI, VariantIndexMode mode) {
+		super(Language.FRENCH, lexiconURI, mode);
+	}
+
 	public XMLLexicon() {
 		super(Language.FRENCH);
 	}
 
 	/**
-	 * create a simplenlg WordElement from a Word node in a lexicon XML file
+	 * finishes a WordElement read from a lexicon XML file
 	 * based on superclass
+	 * (replaces the override of convertNodeToWord(Node), which is
+	 * deprecated and no longer called when the lexicon is read as a stream)
 	 * 
-	 * @param wordNode
-	 * @return
-	 * @throws XPathUtilException
+	 * @param word
+	 * @param inflections
+	 * @return the word
 	 */
 	@Override
-	protected WordElement convertNodeToWord(Node wordNode) {
-		WordElement word = super.convertNodeToWord( wordNode );
+	protected WordElement completeWord(WordElement word, List<String> inflections) {
+		word = super.completeWord(word, inflections);
 		
 		// converts String to Gender value for feature LexicalFeature.GENDER
 		if (word.hasFeature(LexicalFeature.GENDER)) {
@@ -218,6 +235,44 @@ public class XMLLexicon extends simplenlg.lexicon.XMLLexicon {
 		return variants;
 	}
 	
+	/**
+	 * @return the table of the pronouns of this lexicon, built if necessary
+	 */
+	public PronounParadigm getPronounParadigm() {
+		PronounParadigm paradigm = pronounParadigm;
+		if (paradigm == null) {
+			paradigm = new PronounParadigm(this);
+			pronounParadigm = paradigm;
+		}
+		return paradigm;
+	}
+
+	/**
+	 * Also drops the table of the pronouns if the word is a pronoun.
+	 * 
+	 * @param word	the word which changed
+	 */
+	@Override
+	public void featuresChanged(WordElement word) {
+		super.featuresChanged(word);
+		if (word.getCategory() == LexicalCategory.PRONOUN) {
+			pronounParadigm = null;
+		}
+	}
+
+	/**
+	 * The feminine of adjectives ending in "-eur" depends on the existence
+	 * of a present participle in "-ant" (see MorphologyRules), which is
+	 * looked up by variant.
+	 * 
+	 * @param category
+	 * @return <code>true</code> for adjectives
+	 */
+	@Override
+	protected boolean variantsNeedIndex(LexicalCategory category) {
+		return category == LexicalCategory.ADJECTIVE;
+	}
+
 	/**
 	 * Checks if a feature is not empty before adding it to the variants set.
 	 * 
@@ -0,0 +1,366 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.morphology;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import simplenlg.features.InternalFeature;
+import simplenlg.framework.ElementCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * This class is a bounded cache of the forms computed by the morphology
+ * rules, kept by a lexicon (see Lexicon.getInflectionCache). The form of an
+ * inflected word is kept by its base word, its category, its features and
+ * the context of its agreement given by the rule set (see
+ * MorphologyRulesInterface.getInflectionContext), so that a form used again
+ * costs a hash lookup instead of the rules.
+ * 
+ * The base word and the features it had when the inflected word was made
+ * are compared by identity : when the features of a word change, its
+ * inflected words get new keys, and the forms kept before are evicted in
+ * time. An overlay of a word of the lexicon is kept by the word
+ * of the lexicon and the features it sets, compared by value (see
+ * getOverlayKey). The least recently used entries are evicted when there are more
+ * than the maximum size.
+ * 
+ * The cache counts its hits, misses, evictions and the words which couldn't
+ * be cached, so that it can be sized for a given load. All methods are
+ * thread-safe.
+ */
+public class InflectionCache {
+
+	/**
+	 * Maximum size of a cache created without one.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+	/**
+	 * The key of an inflected word. The references are compared by
+	 * identity, the values by equality.
+	 */
+	public static final class Key {
+		private final Object[] references;
+		private final Map<String, Object> features;
+		// features set by an overlay of the base word, empty if none
+		private final Map<String, Object> overlayFeatures;
+		private final Object context;
+		private final int hash;
+
+		private Key(Object[] references, Map<String, Object> features,
+				Map<String, Object> overlayFeatures, Object context) {
+			this.references = references;
+			this.features = features;
+			this.overlayFeatures = overlayFeatures;
+			this.context = context;
+			int hash = (features.hashCode() * 31 + overlayFeatures.hashCode()) * 31
+				+ context.hashCode();
+			for (Object reference : references) {
+				hash = hash * 31 + System.identityHashCode(reference);
+			}
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			if (this.hash != other.hash
+					|| this.references.length != other.references.length) return false;
+			for (int index = 0; index < this.references.length; index++) {
+				if (this.references[index] != other.references[index]) return false;
+			}
+			return this.features.equals(other.features)
+				&& this.overlayFeatures.equals(other.overlayFeatures)
+				&& this.context.equals(other.context);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public String toString() {
+			return "Key[" + this.references[0] + ", " + this.references[1] + ", "
+				+ this.features + ", " + this.context + "]";
+		}
+	}
+
+	// forms, least recently used first
+	private final LinkedHashMap<Key, String> entries =
+		new LinkedHashMap<Key, String>(16, 0.75f, true);
+
+	// maximum number of entries
+	private int maximumSize;
+
+	// statistics
+	private long hitCount = 0;
+	private long missCount = 0;
+	private long uncachedCount = 0;
+	private long evictionCount = 0;
+
+	/**
+	 * Creates a cache with the default maximum size.
+	 */
+	public InflectionCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Creates a cache.
+	 * 
+	 * @param maximumSize
+	 *            maximum number of entries
+	 */
+	public InflectionCache(int maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	/***************** methods to set parameters ****************************/
+
+	/**
+	 * @return the maximum number of entries
+	 */
+	public synchronized int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets the maximum number of entries, evicting entries if necessary.
+	 * 
+	 * @param maximumSize
+	 */
+	public synchronized void setMaximumSize(int maximumSize) {
+		this.maximumSize = maximumSize;
+		evict();
+	}
+
+	/****************************************************************************/
+	// cache operations
+	/****************************************************************************/
+
+	/**
+	 * Makes the key of an inflected word, before it is inflected. Only words
+	 * whose features are strings, numbers, booleans, characters or enums
+	 * (such as the tense, person, number, gender and form) can be cached.
+	 * 
+	 * @param baseWord
+	 *            the base word, or null if there is none
+	 * @param category
+	 *            the category of the inflected word
+	 * @param inherited
+	 *            the features the inflected word inherits from its base word
+	 * @param baseWordFeatures
+	 *            the features of the base word
+	 * @param features
+	 *            the other features of the inflected word
+	 * @param context
+	 *            the context of its agreement, given by the rule set
+	 * @return the key, or null if the word can't be cached
+	 */
+	public static Key getKey(WordElement baseWord, ElementCategory category,
+			Map<String, Object> inherited, Map<String, Object> baseWordFeatures,
+			Map<String, Object> features, Object context) {
+		if (context == null) return null;
+		Map<String, Object> values = getValues(features);
+		if (values == null) return null;
+		return new Key(new Object[] {baseWord, category, inherited, baseWordFeatures},
+				values, Collections.<String, Object>emptyMap(), context);
+	}
+
+	/**
+	 * Makes the key of an inflected word whose base word is an overlay of a
+	 * word of the lexicon (see WordElement.createOverlay), and which
+	 * inherits the features of the overlay. The overlays made for each use
+	 * of the word have the same key if they set the same features.
+	 * 
+	 * @param entry
+	 *            the word of the lexicon
+	 * @param category
+	 *            the category of the inflected word
+	 * @param entryFeatures
+	 *            the features of the word of the lexicon, which the overlay
+	 *            inherits
+	 * @param overlayFeatures
+	 *            the features set by the overlay
+	 * @param features
+	 *            the other features of the inflected word
+	 * @param context
+	 *            the context of its agreement, given by the rule set
+	 * @return the key, or null if the word can't be cached
+	 */
+	public static Key getOverlayKey(WordElement entry, ElementCategory category,
+			Map<String, Object> entryFeatures, Map<String, Object> overlayFeatures,
+			Map<String, Object> features, Object context) {
+		if (context == null) return null;
+		Map<String, Object> values = getValues(features);
+		if (values == null) return null;
+		Map<String, Object> overlayValues = getValues(overlayFeatures);
+		if (overlayValues == null) return null;
+		return new Key(new Object[] {entry, category, entryFeatures, entryFeatures},
+				values, overlayValues, context);
+	}
+
+	/**
+	 * @param features
+	 * @return a copy of the features compared by value, or null if some of
+	 *         them can't be
+	 */
+	private static Map<String, Object> getValues(Map<String, Object> features) {
+		Map<String, Object> values = new HashMap<String, Object>(features.size() * 2);
+		for (Map.Entry<String, Object> feature : features.entrySet()) {
+			String name = feature.getKey();
+			Object value = feature.getValue();
+			// the base word is already a reference of the key
+			if (InternalFeature.BASE_WORD.equals(name)) continue;
+			if (value != null && !(value instanceof String) && !(value instanceof Number)
+					&& !(value instanceof Boolean) && !(value instanceof Character)
+					&& !(value instanceof Enum<?>)) {
+				return null;
+			}
+			values.put(name, value);
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the form of an inflected word.
+	 * 
+	 * @param key
+	 *            the key of the word, or null if it can't be cached (which
+	 *            is counted)
+	 * @return the form, or null if it isn't cached
+	 */
+	public synchronized String get(Key key) {
+		if (key == null) {
+			uncachedCount++;
+			return null;
+		}
+		String form = entries.get(key);
+		if (form == null) missCount++;
+		else hitCount++;
+		return form;
+	}
+
+	/**
+	 * Keeps the form of an inflected word, evicting the least recently used
+	 * entries if the maximum size is exceeded.
+	 * 
+	 * @param key
+	 *            the key of the word
+	 * @param form
+	 */
+	public synchronized void put(Key key, String form) {
+		if (key == null || form == null) return;
+		entries.put(key, form);
+		evict();
+	}
+
+	/**
+	 * Removes all the entries. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes the least recently used entries until there are at most the
+	 * maximum number.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<Key, String>> iterator = entries.entrySet().iterator();
+		while (entries.size() > maximumSize && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	/****************************************************************************/
+	// statistics
+	/****************************************************************************/
+
+	/**
+	 * @return the number of words whose form was found
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of words whose form wasn't found
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the proportion of words whose form was found, among those
+	 *         which could be cached, 0 if none
+	 */
+	public synchronized double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0.0 : (double) hitCount / requests;
+	}
+
+	/**
+	 * @return the number of words which couldn't be cached
+	 */
+	public synchronized long getUncachedCount() {
+		return uncachedCount;
+	}
+
+	/**
+	 * @return the number of entries removed because the maximum size was
+	 *         exceeded
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Sets all the statistics back to 0.
+	 */
+	public synchronized void resetStats() {
+		hitCount = 0;
+		missCount = 0;
+		uncachedCount = 0;
+		evictionCount = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "InflectionCache[size=" + entries.size() + "/" + maximumSize
+			+ ", hits=" + hitCount + ", misses=" + missCount + ", uncached="
+			+ uncachedCount + ", evictions=" + evictionCount + "]";
+	}
+}
@@ -108,4 +108,22 @@ public interface MorphologyRulesInterface {
 	 *            the <code>InflectedWordElement</code>.
 	 */
 	public NLGElement doDeterminerMorphology(InflectedWordElement element);
+
+	/**
+	 * Returns what the inflection of a word depends on, other than its
+	 * features and its base word (such as the gender and number of the
+	 * element it agrees with), so that its form can be kept in an
+	 * InflectionCache. The form must not depend on anything else, and the
+	 * inflection must not change the word.
+	 * 
+	 * @param element
+	 *            the <code>InflectedWordElement</code>.
+	 * @param baseWord
+	 *            the <code>WordElement</code> as created from the lexicon
+	 *            entry.
+	 * @return the context (an empty list if the form only depends on the
+	 *         word), or null if the form can't be cached
+	 */
+	public Object getInflectionContext(InflectedWordElement element,
+			WordElement baseWord);
 }
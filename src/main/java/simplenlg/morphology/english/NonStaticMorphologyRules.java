@@ -18,6 +18,8 @@
  */
 package simplenlg.morphology.english;
 
+import java.util.Collections;
+
 import simplenlg.features.DiscourseFunction;
 import simplenlg.features.Feature;
 import simplenlg.features.Form;
@@ -845,4 +847,28 @@ public class NonStaticMorphologyRules implements MorphologyRulesInterface {
 				.getFeature(InternalFeature.DISCOURSE_FUNCTION));
 		return realisedElement;
 	}
+
+	/**
+	 * Returns what the inflection of a word depends on, other than its
+	 * features and its base word. Nouns, verbs, adjectives and adverbs only
+	 * depend on the word. Pronouns, which depend on their parent, and
+	 * determiners aren't cached.
+	 * 
+	 * @param element
+	 *            the <code>InflectedWordElement</code>.
+	 * @param baseWord
+	 *            the <code>WordElement</code> as created from the lexicon
+	 *            entry.
+	 * @return an empty list, or null if the form can't be cached
+	 */
+	public Object getInflectionContext(InflectedWordElement element,
+			WordElement baseWord) {
+		Object category = element.getCategory();
+		if (category == LexicalCategory.NOUN || category == LexicalCategory.VERB
+				|| category == LexicalCategory.ADJECTIVE
+				|| category == LexicalCategory.ADVERB) {
+			return Collections.emptyList();
+		}
+		return null;
+	}
 }
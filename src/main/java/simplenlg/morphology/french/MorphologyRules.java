@@ -19,9 +19,9 @@
 
 package simplenlg.morphology.french;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import simplenlg.framework.CoordinatedPhraseElement;
 import simplenlg.framework.InflectedWordElement;
@@ -33,6 +33,7 @@ import simplenlg.framework.WordElement;
 import simplenlg.features.*;
 import simplenlg.features.french.*;
 import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.french.PronounParadigm;
 import simplenlg.morphology.MorphologyRulesInterface;
 
 /**
@@ -146,36 +147,8 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 			realised = baseForm;
 		}
 		
-		// Get gender from parent or "grandparent" or self, in that order
-		NLGElement parent = element.getParent();
-		Object function = element.getFeature(InternalFeature.DISCOURSE_FUNCTION);
-		boolean feminine = false;
-		if (parent != null) {
-			if (function == DiscourseFunction.HEAD) {
-				function = parent.getFeature(InternalFeature.DISCOURSE_FUNCTION);
-			}
-
-			if (!parent.hasFeature(LexicalFeature.GENDER) && parent.getParent() != null) {
-				parent = parent.getParent();
-			}
-		} else {
-			parent = element;
-		}
-		// if parent or grandparent is a verb phrase and the adjective is a modifier,
-		// assume it's a direct object attribute if there is one
-		if (parent.isA(PhraseCategory.VERB_PHRASE) && (function == DiscourseFunction.FRONT_MODIFIER
-				|| function == DiscourseFunction.PRE_MODIFIER
-				|| function == DiscourseFunction.POST_MODIFIER)) {
-			List<NLGElement> complements = parent.getFeatureAsElementList(InternalFeature.COMPLEMENTS);
-			NLGElement directObject = null;
-			for (NLGElement complement: complements) {
-				if (complement.getFeature(InternalFeature.DISCOURSE_FUNCTION) == DiscourseFunction.OBJECT) {
-					directObject = complement;
-				}
-			}
-			if (directObject != null) parent = directObject;
-		}
-		feminine = Gender.FEMININE.equals( parent.getFeature(LexicalFeature.GENDER) );
+		NLGElement parent = getAdjectiveAgreement(element);
+		boolean feminine = Gender.FEMININE.equals( parent.getFeature(LexicalFeature.GENDER) );
 
 		// Feminine
 		// The rules used here apply to the most general cases.
@@ -260,6 +233,57 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 		return realisedElement;
 	}
 
+	/**
+	 * Returns the element an adjective agrees with in gender and number :
+	 * its parent or "grandparent" or itself, in that order, or the direct
+	 * object of a verb phrase if the adjective modifies it.
+	 * 
+	 * @param element
+	 *            the adjective
+	 * @return the element it agrees with
+	 */
+	protected NLGElement getAdjectiveAgreement(InflectedWordElement element) {
+		// Get gender from parent or "grandparent" or self, in that order
+		NLGElement parent = element.getParent();
+		Object function = element.getFeature(InternalFeature.DISCOURSE_FUNCTION);
+		if (parent != null) {
+			if (function == DiscourseFunction.HEAD) {
+				function = parent.getFeature(InternalFeature.DISCOURSE_FUNCTION);
+			}
+
+			if (!parent.hasFeature(LexicalFeature.GENDER) && parent.getParent() != null) {
+				parent = parent.getParent();
+			}
+		} else {
+			parent = element;
+		}
+		// if parent or grandparent is a verb phrase and the adjective is a modifier,
+		// assume it's a direct object attribute if there is one
+		if (parent.isA(PhraseCategory.VERB_PHRASE) && (function == DiscourseFunction.FRONT_MODIFIER
+				|| function == DiscourseFunction.PRE_MODIFIER
+				|| function == DiscourseFunction.POST_MODIFIER)) {
+			NLGElement directObject = getDirectObject(parent);
+			if (directObject != null) parent = directObject;
+		}
+		return parent;
+	}
+
+	/**
+	 * @param verbPhrase
+	 * @return the last complement of the verb phrase which is a direct
+	 *         object, null if there is none
+	 */
+	private NLGElement getDirectObject(NLGElement verbPhrase) {
+		List<NLGElement> complements = verbPhrase.getFeatureAsElementList(InternalFeature.COMPLEMENTS);
+		NLGElement directObject = null;
+		for (NLGElement complement: complements) {
+			if (complement.getFeature(InternalFeature.DISCOURSE_FUNCTION) == DiscourseFunction.OBJECT) {
+				directObject = complement;
+			}
+		}
+		return directObject;
+	}
+
 	/**
 	 * Return an empty string if the element doesn't have a particle.
 	 * If it has a non empty one, it returns it prepended by a dash.
@@ -446,46 +470,16 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 		// participles that are not directly in a verb phrase
 		// get their gender and number like adjectives
 		if (formValue == Form.PRESENT_PARTICIPLE || formValue == Form.PAST_PARTICIPLE) {
-			// Get gender and number from parent or "grandparent" or self, in that order
-			NLGElement parent = element.getParent();
-			if ( parent != null) {
-				boolean aggreement = false;
-				Object function = element.getFeature(InternalFeature.DISCOURSE_FUNCTION);
-				// used as epithet or as attribute of the subject
-				if (!parent.isA(PhraseCategory.VERB_PHRASE) || function == DiscourseFunction.OBJECT) {
-					if (!parent.hasFeature(LexicalFeature.GENDER) && parent.getParent() != null) {
-						parent = parent.getParent();
-					}
-					aggreement = true;
-				} else {
-					// used as attribute of the direct object
-					if (function == DiscourseFunction.FRONT_MODIFIER
-							|| function == DiscourseFunction.PRE_MODIFIER
-							|| function == DiscourseFunction.POST_MODIFIER) {
-						List<NLGElement> complements =
-							parent.getFeatureAsElementList(InternalFeature.COMPLEMENTS);
-						NLGElement directObject = null;
-						for (NLGElement complement: complements) {
-							if (complement.getFeature(InternalFeature.DISCOURSE_FUNCTION) ==
-									DiscourseFunction.OBJECT) {
-								directObject = complement;
-							}
-						}
-						if (directObject != null) parent = directObject;
-						aggreement = true;
-					}
+			NLGElement parent = getParticipleAgreement(element);
+			if (parent != null) {
+				Object parentGender = parent.getFeature(LexicalFeature.GENDER);
+				if (parentGender instanceof Gender) {
+					gender = (Gender) parentGender;
 				}
 				
-				if (aggreement) {
-					Object parentGender = parent.getFeature(LexicalFeature.GENDER);
-					if (parentGender instanceof Gender) {
-						gender = (Gender) parentGender;
-					}
-					
-					Object parentNumber = parent.getFeature(Feature.NUMBER);
-					if (parentNumber instanceof NumberAgreement) {
-						number = (NumberAgreement) parentNumber;
-					}
+				Object parentNumber = parent.getFeature(Feature.NUMBER);
+				if (parentNumber instanceof NumberAgreement) {
+					number = (NumberAgreement) parentNumber;
 				}
 			}
 		}
@@ -1187,6 +1181,91 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 		return realised;
 	}
 
+	/**
+	 * Returns the element a participle agrees with in gender and number,
+	 * like an adjective, when it is not directly in a verb phrase : its
+	 * parent or "grandparent", or the direct object of the verb phrase if it
+	 * is an attribute of the direct object.
+	 * 
+	 * @param element
+	 *            the participle
+	 * @return the element it agrees with, null if it has no agreement
+	 */
+	protected NLGElement getParticipleAgreement(InflectedWordElement element) {
+		// Get gender and number from parent or "grandparent" or self, in that order
+		NLGElement parent = element.getParent();
+		if (parent == null) return null;
+		Object function = element.getFeature(InternalFeature.DISCOURSE_FUNCTION);
+		// used as epithet or as attribute of the subject
+		if (!parent.isA(PhraseCategory.VERB_PHRASE) || function == DiscourseFunction.OBJECT) {
+			if (!parent.hasFeature(LexicalFeature.GENDER) && parent.getParent() != null) {
+				parent = parent.getParent();
+			}
+			return parent;
+		}
+		// used as attribute of the direct object
+		if (function == DiscourseFunction.FRONT_MODIFIER
+				|| function == DiscourseFunction.PRE_MODIFIER
+				|| function == DiscourseFunction.POST_MODIFIER) {
+			NLGElement directObject = getDirectObject(parent);
+			if (directObject != null) parent = directObject;
+			return parent;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns what the inflection of a word depends on, other than its
+	 * features and its base word : the gender and number of the element an
+	 * adjective or participle agrees with. Nouns whose gender is opposite
+	 * to their base word (which changes the base word), pronouns and
+	 * determiners aren't cached.
+	 * 
+	 * @param element
+	 *            the <code>InflectedWordElement</code>.
+	 * @param baseWord
+	 *            the <code>WordElement</code> as created from the lexicon
+	 *            entry.
+	 * @return the context, or null if the form can't be cached
+	 */
+	@Override
+	public Object getInflectionContext(InflectedWordElement element,
+			WordElement baseWord) {
+		Object category = element.getCategory();
+		if (category == LexicalCategory.NOUN) {
+			if (baseWord != null) {
+				Object elementGender = element.getFeature(LexicalFeature.GENDER);
+				Object baseWordGender = baseWord.getFeature(LexicalFeature.GENDER);
+				if ((Gender.MASCULINE.equals(baseWordGender) && Gender.FEMININE.equals(elementGender))
+					|| (Gender.FEMININE.equals(baseWordGender) && Gender.MASCULINE.equals(elementGender))) {
+					return null;
+				}
+			}
+			return Collections.emptyList();
+		} else if (category == LexicalCategory.ADJECTIVE) {
+			NLGElement parent = getAdjectiveAgreement(element);
+			return Arrays.asList(
+					Gender.FEMININE.equals(parent.getFeature(LexicalFeature.GENDER)),
+					parent.isPlural());
+		} else if (category == LexicalCategory.VERB) {
+			Object formValue = element.getFeature(Feature.FORM);
+			if (formValue == Form.PRESENT_PARTICIPLE || formValue == Form.PAST_PARTICIPLE) {
+				NLGElement parent = getParticipleAgreement(element);
+				if (parent != null) {
+					Object parentGender = parent.getFeature(LexicalFeature.GENDER);
+					Object parentNumber = parent.getFeature(Feature.NUMBER);
+					return Arrays.asList(
+							parentGender instanceof Gender ? parentGender : null,
+							parentNumber instanceof NumberAgreement ? parentNumber : null);
+				}
+			}
+			return Collections.emptyList();
+		} else if (category == LexicalCategory.ADVERB) {
+			return Collections.emptyList();
+		}
+		return null;
+	}
+
 	/**
 	 * This method performs the morphology for adverbs.
 	 * 
@@ -1244,11 +1323,6 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 			&& element.getFeature(InternalFeature.DISCOURSE_FUNCTION)
 				!= DiscourseFunction.COMPLEMENT) {
 			
-			// this will contain the features we want the pronoun to have
-			Map<String, Object> pronounFeatures = new HashMap<String, Object>();
-	
-			pronounFeatures.put(FrenchLexicalFeature.PRONOUN_TYPE, type);
-			
 			boolean passive = element.getFeatureAsBoolean(Feature.PASSIVE);
 			boolean reflexive = element.getFeatureAsBoolean(LexicalFeature.REFLEXIVE);
 			boolean detached = isDetachedPronoun(element);
@@ -1300,40 +1374,48 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 				reflexive = false;
 			}
 			
-			pronounFeatures.put(Feature.PERSON, person);
+			// the features we want the pronoun to have
+			// (features left UNSPECIFIED are not part of the search)
+			Object pronounNumber = PronounParadigm.UNSPECIFIED;
+			Object pronounGender = PronounParadigm.UNSPECIFIED;
+			Object pronounFunction = PronounParadigm.UNSPECIFIED;
+			Object pronounReflexive = PronounParadigm.UNSPECIFIED;
+			Object pronounDetached = PronounParadigm.UNSPECIFIED;
 			
 			// select wich features to include in search depending on pronoun features,
 			// syntactic function and wether the pronoun is detached from the verb
 			if (person == Person.THIRD) {
-				pronounFeatures.put(LexicalFeature.REFLEXIVE, reflexive);
-				pronounFeatures.put(FrenchLexicalFeature.DETACHED, detached);
+				pronounReflexive = reflexive;
+				pronounDetached = detached;
 				if (!reflexive) {
-					pronounFeatures.put(Feature.NUMBER, number);
+					pronounNumber = number;
 					if (!detached) {
-						pronounFeatures.put(InternalFeature.DISCOURSE_FUNCTION, function);
+						pronounFunction = function;
 						if ((number != NumberAgreement.PLURAL && function != DiscourseFunction.INDIRECT_OBJECT)
 								|| function == DiscourseFunction.SUBJECT) {
-							pronounFeatures.put(LexicalFeature.GENDER, gender);
+							pronounGender = gender;
 						}
 					} else {
-						pronounFeatures.put(LexicalFeature.GENDER, gender);
+						pronounGender = gender;
 					}
 				}
 			} else {
-				pronounFeatures.put(Feature.NUMBER, number);
+				pronounNumber = number;
 				if (!element.isPlural()) {
-					pronounFeatures.put(FrenchLexicalFeature.DETACHED, detached);
+					pronounDetached = detached;
 					if (!detached) {
 						if (function != DiscourseFunction.SUBJECT) function = null;
-						pronounFeatures.put(InternalFeature.DISCOURSE_FUNCTION, function);
+						pronounFunction = function;
 					}
 				}
 			}
 	
 			Lexicon lexicon = element.getLexicon();
-			// search the lexicon for the right pronoun
-			WordElement proElement =
-				lexicon.getWord(LexicalCategory.PRONOUN, pronounFeatures);
+			// look for the right pronoun in the pronoun paradigm of the lexicon
+			WordElement proElement = PronounParadigm.getPronoun(lexicon,
+					PronounType.PERSONAL, person, pronounNumber, pronounGender,
+					pronounFunction, pronounReflexive, pronounDetached,
+					PronounParadigm.UNSPECIFIED);
 			
 			// if the right pronoun is not found in the lexicon,
 			// leave the original pronoun
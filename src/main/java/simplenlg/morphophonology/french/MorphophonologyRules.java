@@ -19,8 +19,12 @@
 
 package simplenlg.morphophonology.french;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import simplenlg.features.*;
 import simplenlg.features.french.FrenchLexicalFeature;
@@ -51,6 +55,71 @@ public class MorphophonologyRules implements MorphophonologyRulesInterface {
 public static final String vowels_regex =
 	"a|A|ä|Ä|à|À|â|Â|e|E|ë|Ë|é|É|è|È|ê|Ê|i|I|ï|Ï|î|Î|o|O|ô|Ô|u|U|û|Û|ü|Ü|ù|Ù|y|Y|ý|Ý|ÿ|Ÿ";
 
+	// letters a word begins with to be considered as beginning with a vowel
+	// (the vowels of vowels_regex and "h"), by character
+	private static final boolean[] VOWELS = new boolean['Ÿ' + 1];
+	static {
+		for (String vowel : vowels_regex.split("\\|")) {
+			VOWELS[vowel.charAt(0)] = true;
+		}
+		VOWELS['h'] = true;
+		VOWELS['H'] = true;
+	}
+
+	/**
+	 * The contractions of a preposition and a determiner or a relative
+	 * pronoun : the preposition, the determiner, the forms beginning with
+	 * the determiner which are contracted and the contracted form of the
+	 * preposition and determiner.
+	 */
+	private static final Contraction[] CONTRACTIONS = {
+		new Contraction("de", "le", "du", "le", "lequel"),
+		new Contraction("de", "les", "des", "les", "lesquels", "lesquelles"),
+		new Contraction("à", "le", "au", "le", "lequel"),
+		new Contraction("à", "les", "aux", "les", "lesquels", "lesquelles") };
+
+	private static class Contraction {
+		final String preposition;
+		final String determiner;
+		final String contracted;
+		final Set<String> forms;
+		// the realisation of the left word is the preposition,
+		// or ends with a space and the preposition
+		final Pattern endsWithPreposition;
+
+		Contraction(String preposition, String determiner, String contracted, String... forms) {
+			this.preposition = preposition;
+			this.determiner = determiner;
+			this.contracted = contracted;
+			this.forms = new HashSet<String>(Arrays.asList(forms));
+			this.endsWithPreposition = Pattern.compile("(.+ |)" + preposition + "\\z");
+		}
+
+		/**
+		 * @param left
+		 *            realisation of the left word
+		 * @param right
+		 *            realisation of the right word
+		 * @return true if the words are contracted
+		 */
+		boolean matches(String left, String right) {
+			return left.endsWith(this.preposition) && this.forms.contains(right)
+				&& this.endsWithPreposition.matcher(left).matches();
+		}
+
+		/**
+		 * @param left
+		 *            realisation of the left word
+		 * @param right
+		 *            realisation of the right word
+		 * @return the new realisation of the left word
+		 */
+		String contract(String left, String right) {
+			return left.substring(0, left.length() - this.preposition.length())
+				+ this.contracted + right.substring(this.determiner.length());
+		}
+	}
+
 	/**
 	 * This method performs the morphophonology on two
 	 * StringElements.
@@ -70,36 +139,13 @@ public static final String vowels_regex =
 					&& (LexicalCategory.DETERMINER.equalTo(rightCategory)
 							|| rightWord.getFeature(FrenchLexicalFeature.PRONOUN_TYPE)
 								== PronounType.RELATIVE)) {
-				// if the preposition is "de" or endswith " de"
-				if (leftRealisation.matches("(.+ |)de\\z")) {
-					// "de" + "le" = "du"
-					if (rightRealisation.matches("le(quel)?")) {
-						String withoutDe = leftRealisation.substring(0,leftRealisation.length()-2);
-						leftWord.setRealisation(withoutDe + "du"
-								+ rightRealisation.substring(2));
-						rightWord.setRealisation(null);
-						// "de" + "les" = "des"
-					} else if (rightRealisation.matches("les(quel(le)?s)?")) {
-						String withoutDe = leftRealisation.substring(0,leftRealisation.length()-2);
-						leftWord.setRealisation(withoutDe + "des"
-								+ rightRealisation.substring(3));
-						rightWord.setRealisation(null);
-					}
-				}
-				// if the preposition is "à" or endswith " à"
-				if (leftRealisation.matches("(.+ |)à\\z")) {
-					// "à" + "le" = "au"
-					if (rightRealisation.matches("le(quel)?")) {
-						String withoutA = leftRealisation.substring(0,leftRealisation.length()-1);
-						leftWord.setRealisation(withoutA + "au"
-								+ rightRealisation.substring(2));
-						rightWord.setRealisation(null);
-						// "à" + "les" = "aux"
-					} else if (rightRealisation.matches("les(quel(le)?s)?")) {
-						String withoutA = leftRealisation.substring(0,leftRealisation.length()-1);
-						leftWord.setRealisation(withoutA + "aux"
-								+ rightRealisation.substring(3));
+				// "de" + "le" = "du", "à" + "les" = "aux", etc.
+				for (Contraction contraction : CONTRACTIONS) {
+					if (contraction.matches(leftRealisation, rightRealisation)) {
+						leftWord.setRealisation(
+								contraction.contract(leftRealisation, rightRealisation));
 						rightWord.setRealisation(null);
+						break;
 					}
 				}
 			}
@@ -150,7 +196,7 @@ public static final String vowels_regex =
 						|| leftRealisation.endsWith(" de") || leftRealisation.endsWith(" que"))
 					&& beginsWithVowel(rightWord))
 				|| ("si".equals(leftRealisation) || leftRealisation.endsWith(" si"))
-					&& rightRealisation.matches("il(s)?") ) {
+					&& ("il".equals(rightRealisation) || "ils".equals(rightRealisation)) ) {
 				
 				// remove last letter (vowel) of left word and append an apostrophe
 				// the orthography processing will later assure that no space is put
@@ -208,8 +254,31 @@ public static final String vowels_regex =
 		// Numerals are also considered to have this trait.
 		// ("le onzième jour", "le huit du mois")
 		String realisation = word.getRealisation();
-		return ( realisation.matches("\\A(" + vowels_regex + "|h|H).*") &&
+		return ( beginsWithVowel(realisation) &&
 					!word.getFeatureAsBoolean(FrenchLexicalFeature.ASPIRED_H)
 					&& !realisation.endsWith("ième"));
 	}
+
+	/**
+	 * Tells if a string begins with a vowel or an "h", on one line.
+	 * 
+	 * @param realisation
+	 * @return true if the string begins with a vowel or an "h"
+	 */
+	private static boolean beginsWithVowel(String realisation)
+	{
+		int length = realisation.length();
+		if (length == 0) return false;
+		char first = realisation.charAt(0);
+		if (first >= VOWELS.length || !VOWELS[first]) return false;
+		// as "." in a regular expression, the rest mustn't contain a line
+		// terminator
+		for (int index = 1; index < length; index++) {
+			switch (realisation.charAt(index)) {
+			case '\n': case '\r': case '\u0085': case '\u2028': case '\u2029':
+				return false;
+			}
+		}
+		return true;
+	}
 }
\ No newline at end of file
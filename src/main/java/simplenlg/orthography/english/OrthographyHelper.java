@@ -23,6 +23,7 @@ import java.util.List;
 import simplenlg.features.DiscourseFunction;
 import simplenlg.features.InternalFeature;
 import simplenlg.features.LexicalFeature;
+import simplenlg.framework.CoordinatedPhraseElement;
 import simplenlg.framework.DocumentElement;
 import simplenlg.framework.ElementCategory;
 import simplenlg.framework.ListElement;
@@ -67,22 +68,8 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 		if (element != null) {
 			ElementCategory category = element.getCategory();
 
-			// AG: changes here: if we have a premodifier, then we ask the
-			// realiseList method to separate with a comma.
 			StringBuffer buffer = new StringBuffer();
-			List<NLGElement> children = element.getChildren();
-			Object function = children.isEmpty() ? null : children.get(0)
-					.getFeature(InternalFeature.DISCOURSE_FUNCTION);
-
-            if (!children.isEmpty()
-                    && DiscourseFunction.PRE_MODIFIER.equals(children.get(0).getFeature(InternalFeature.DISCOURSE_FUNCTION))
-                    && !children.get(0).getFeatureAsBoolean(LexicalFeature.NO_COMMA)) {
-				realiseList(buffer, element.getChildren(), ",");
-			} else {
-				realiseList(buffer, element.getChildren(), "");
-			}
-
-			// realiseList(buffer, element.getChildren(), "");
+			appendListElement(buffer, element);
 			realisedElement = new StringElement(buffer.toString());
 
 			//make the realised element inherit the original category
@@ -93,6 +80,55 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 		return realisedElement;
 	}
 
+	/**
+	 * Appends the orthographic realisation of a ListElement to the on-going
+	 * realisation (the realisation of realiseListElement).
+	 * 
+	 * @param realisation
+	 *            the <code>StringBuffer<code> containing the current 
+	 * 			  realisation.
+	 * @param element ListElement to be realised
+	 */
+	protected void appendListElement(StringBuffer realisation, ListElement element) {
+		// AG: changes here: if we have a premodifier, then we ask the
+		// realiseList method to separate with a comma.
+		List<NLGElement> children = element.getChildren();
+
+		if (!children.isEmpty()
+				&& DiscourseFunction.PRE_MODIFIER.equals(children.get(0).getFeature(InternalFeature.DISCOURSE_FUNCTION))
+				&& !children.get(0).getFeatureAsBoolean(LexicalFeature.NO_COMMA)) {
+			realiseList(realisation, children, ",");
+		} else {
+			realiseList(realisation, children, "");
+		}
+	}
+
+	/**
+	 * Appends the orthographic realisation of an element to the on-going
+	 * realisation. The lists and coordinated phrases realised by this helper
+	 * are appended directly, instead of being realised as a
+	 * <code>StringElement</code> which is then copied.
+	 * 
+	 * @param realisation
+	 *            the <code>StringBuffer<code> containing the current 
+	 * 			  realisation.
+	 * @param element
+	 *            the element to be realised
+	 * @return the number of characters appended
+	 */
+	protected int appendOrthography(StringBuffer realisation, NLGElement element) {
+		int start = realisation.length();
+		if (element instanceof ListElement && element.getOrthographyHelper() == this) {
+			appendListElement(realisation, (ListElement) element);
+		} else if (element instanceof CoordinatedPhraseElement
+				&& element.getOrthographyHelper() == this) {
+			appendCoordinatedPhrase(realisation, element.getChildren());
+		} else {
+			realisation.append(element.realiseOrthography().getRealisation());
+		}
+		return realisation.length() - start;
+	}
+
 	/**
 	 * Performs the realisation on a sentence. This includes adding the
 	 * terminator and capitalising the first letter.
@@ -187,18 +223,13 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 	protected void realiseList(StringBuffer realisation,
 			List<NLGElement> components, String listSeparator) {
 
-		NLGElement realisedChild = null;
+		int start = realisation.length();
 
 		for (int i = 0; i < components.size(); i++) {
 			NLGElement thisElement = components.get(i);
-				realisedChild = thisElement.realiseOrthography();
-				
 				// Test on childRealisation added by vaudrypl to prevent
 				// unwanted spaces and separators when child is elided.
-				String childRealisation = realisedChild.getRealisation();
-				if (childRealisation != null && !childRealisation.isEmpty() ) {
-					
-					realisation.append(childRealisation);
+				if (appendOrthography(realisation, thisElement) > 0) {
 		
 					if (components.size() > 1 && i < components.size() - 1) {
 						realisation.append(listSeparator);
@@ -208,7 +239,7 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 				}
 		}
 		
-		if (realisation.length() > 0) {
+		if (realisation.length() > start) {
 			realisation.setLength(realisation.length() - 1);
 		}
 	}
@@ -227,6 +258,24 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 	@Override
 	public NLGElement realiseCoordinatedPhrase(List<NLGElement> components) {
 		StringBuffer realisation = new StringBuffer();
+		appendCoordinatedPhrase(realisation, components);
+		return new StringElement(realisation.toString()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Appends the realisation of a coordinated phrase to the on-going
+	 * realisation (see realiseCoordinatedPhrase).
+	 * 
+	 * @param realisation
+	 *            the <code>StringBuffer<code> containing the current 
+	 * 			  realisation.
+	 * @param components
+	 *            the <code>List</code> of <code>NLGElement</code>s representing
+	 *            the components that make up the phrase.
+	 */
+	protected void appendCoordinatedPhrase(StringBuffer realisation,
+			List<NLGElement> components) {
+		int start = realisation.length();
 		NLGElement realisedChild = null;
 
 		int length = components.size();
@@ -238,14 +287,43 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 							.getFeature(InternalFeature.DISCOURSE_FUNCTION))) {
 				if (index > 0) realisation.append(", "); //$NON-NLS-1$
 			} else {
-				realisedChild = realisedChild.realiseOrthography();
-				realisation.append(realisedChild.getRealisation()).append(' ');
+				appendOrthography(realisation, realisedChild);
+				realisation.append(' ');
 			}
 		}
 		// modified by vaudrypl
 		// remove extra spaces
-//		realisation.setLength(realisation.length() - 1);
-		String realisationString = realisation.toString().replaceAll(" (?=( |,))", "").trim();
-		return new StringElement(realisationString); //$NON-NLS-1$ //$NON-NLS-2$
+		removeExtraSpaces(realisation, start);
+	}
+
+	/**
+	 * Removes the spaces followed by another space or a comma from the end of
+	 * the on-going realisation, and trims it, in one pass (the same as
+	 * <code>replaceAll(" (?=( |,))", "").trim()</code> on that part of the
+	 * realisation).
+	 * 
+	 * @param realisation
+	 *            the <code>StringBuffer<code> containing the current 
+	 * 			  realisation.
+	 * @param start
+	 *            index of the part of the realisation to clean up
+	 */
+	protected static void removeExtraSpaces(StringBuffer realisation, int start) {
+		int length = realisation.length();
+		int end = start;
+		for (int index = start; index < length; index++) {
+			char character = realisation.charAt(index);
+			if (character == ' ' && index + 1 < length) {
+				char next = realisation.charAt(index + 1);
+				if (next == ' ' || next == ',') continue;
+			}
+			realisation.setCharAt(end++, character);
+		}
+		// trim, as String.trim does
+		while (end > start && realisation.charAt(end - 1) <= ' ') end--;
+		realisation.setLength(end);
+		int first = start;
+		while (first < end && realisation.charAt(first) <= ' ') first++;
+		if (first > start) realisation.delete(start, first);
 	}
 }
@@ -28,7 +28,6 @@ import simplenlg.framework.LexicalCategory;
 import simplenlg.framework.PhraseCategory;
 import simplenlg.framework.ListElement;
 import simplenlg.framework.NLGElement;
-import simplenlg.framework.StringElement;
 import simplenlg.orthography.OrthographyHelperInterface;
 
 /**
@@ -47,14 +46,17 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 	 * save the last two. For example, <em>John and Peter and Simon</em> becomes
 	 * <em>John, Peter and Simon</em>.
 	 * 
+	 * @param realisation
+	 *            the <code>StringBuffer<code> containing the current 
+	 * 			  realisation.
 	 * @param components
 	 *            the <code>List</code> of <code>NLGElement</code>s representing
-	 *            the components that make up the sentence.
-	 * @return the realised element as an <code>NLGElement</code>.
+	 *            the components that make up the phrase.
 	 */
 	@Override
-	public NLGElement realiseCoordinatedPhrase(List<NLGElement> components) {
-		StringBuffer realisation = new StringBuffer();
+	protected void appendCoordinatedPhrase(StringBuffer realisation,
+			List<NLGElement> components) {
+		int start = realisation.length();
 		NLGElement realisedChild = null;
 
 		int length = components.size();
@@ -67,8 +69,7 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 					.getFeatureAsBoolean(FrenchLexicalFeature.REPEATED_CONJUNCTION);
 				if (index == 0) {
 					if (repeated) {
-						realisedChild = realisedChild.realiseOrthography();
-						realisation.append(realisedChild.getRealisation());
+						appendOrthography(realisation, realisedChild);
 						realisation.append(' '); //$NON-NLS-1$
 					}
 				} else if (index < length - 2 && !repeated) {
@@ -78,20 +79,16 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 					if (!realisedChild.getFeatureAsBoolean(LexicalFeature.NO_COMMA)) {
 					realisation.append(", "); //$NON-NLS-1$
 					}
-					realisedChild = realisedChild.realiseOrthography();
-					realisation.append(realisedChild.getRealisation());
+					appendOrthography(realisation, realisedChild);
 					realisation.append(' '); //$NON-NLS-1$
 				}
 			} else {
-				realisedChild = realisedChild.realiseOrthography();
-				realisation.append(realisedChild.getRealisation());
+				appendOrthography(realisation, realisedChild);
 				realisation.append(' '); //$NON-NLS-1$
 			}
 		}
 		// remove extra spaces
-//		String realisationString = realisation.toString().replace(" ,", ",").trim();
-		String realisationString = realisation.toString().replaceAll(" (?=( |,))", "").trim();
-		return new StringElement(realisationString); //$NON-NLS-1$ //$NON-NLS-2$
+		removeExtraSpaces(realisation, start);
 	}
 
 	/**
@@ -112,19 +109,17 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 	protected void realiseList(StringBuffer realisation,
 			List<NLGElement> components, String listSeparator) {
 
-		NLGElement realisedChild = null;
+		int start = realisation.length();
 		boolean imperative = false;
 
 		for (int i = 0; i < components.size(); i++) {
 			NLGElement thisElement = components.get(i);
-			realisedChild = thisElement.realiseOrthography();
 			
 			// Test on childRealisation added by vaudrypl to prevent
 			// unwanted spaces and separators when child is elided.
-			String childRealisation = realisedChild.getRealisation();
-			if (childRealisation != null && !childRealisation.isEmpty() ) {
-				
-				realisation.append(childRealisation);
+			if (appendOrthography(realisation, thisElement) > 0) {
+				// last character of the child realisation
+				char lastChar = realisation.charAt(realisation.length()-1);
 				
 				boolean separatorAdded = false;
 				Object function = thisElement.getFeature(InternalFeature.DISCOURSE_FUNCTION);
@@ -154,7 +149,6 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 				}
 				
 				// put a dash between an imperative verb and its clitic complements
-				char lastChar = childRealisation.charAt(childRealisation.length()-1);
 				boolean dashAdded = false;
 				if (!separatorAdded && i < components.size() - 1) {
 					NLGElement nextElement = components.get(i+1);
@@ -182,35 +176,23 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 			}
 		}
 		
-		if (realisation.length() > 0 && realisation.toString().endsWith(" ")) {
+		if (realisation.length() > start && realisation.charAt(realisation.length() - 1) == ' ') {
 			realisation.setLength(realisation.length() - 1);
 		}
 	}
 	
 	/**
-	 * Realise the orthograph of a ListElement.
-	 * Based on English orthography processor
+	 * Appends the orthographic realisation of a ListElement to the on-going
+	 * realisation. Unlike English, premodifiers aren't separated by commas.
 	 * 
+	 * @param realisation
+	 *            the <code>StringBuffer<code> containing the current 
+	 * 			  realisation.
 	 * @param element ListElement to be realised
-	 * @return orthographically realised form
 	 */
 	@Override
-	public StringElement realiseListElement(ListElement element) {
-		StringElement realisedElement = null;
-
-		if (element != null) {
-			ElementCategory category = element.getCategory();
-
-			StringBuffer buffer = new StringBuffer();
-			realiseList(buffer, element.getChildren(), "");
-			realisedElement = new StringElement(buffer.toString());
-
-			//make the realised element inherit the original category
-			//essential if list items are to be properly formatted later
-			realisedElement.setCategory(category);
-		}
-
-		return realisedElement;
+	protected void appendListElement(StringBuffer realisation, ListElement element) {
+		realiseList(realisation, element.getChildren(), "");
 	}
 
 }
@@ -212,7 +212,9 @@ public class NPPhraseSpec extends PhraseElement {
 	public void setSpecifier(Object specifier) {
 		NLGElement specifierElement;
 		if (specifier instanceof NLGElement) {
-			specifierElement = (NLGElement) specifier;
+			// the discourse function is set on an overlay of a word of the
+			// lexicon
+			specifierElement = WordElement.overlayIfFrozen((NLGElement) specifier);
 		} else {
 			// create specifier as word (assume determiner)
 			specifierElement = getFactory().createWord(specifier,
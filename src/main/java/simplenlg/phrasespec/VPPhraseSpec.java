@@ -149,7 +149,7 @@ public class VPPhraseSpec extends PhraseElement {
 			if (object instanceof PhraseElement || object instanceof CoordinatedPhraseElement
 					// possibility of adding a (participle) verb added by vaudrypl
 					|| (object instanceof WordElement && ((WordElement)object).isA(LexicalCategory.VERB))) {
-				objectPhrase = (NLGElement) object;
+				objectPhrase = WordElement.overlayIfFrozen((NLGElement) object);
 				
 			// added by vaudrypl
 			// If the verb is copular and the word isn't an already known noun or pronoun,
@@ -0,0 +1,251 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.realiser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import simplenlg.framework.NLGElement;
+
+/**
+ * This class realises a batch of elements as sentences, and holds the
+ * results : the realisations, in the order of the elements, the exception
+ * or error thrown by each element which failed, and the time the batch took. The
+ * failure of an element doesn't stop the others from being realised.
+ * 
+ * The elements can be realised by the threads of an executor (a
+ * ThreadPoolExecutor, a ForkJoinPool, an executor starting a thread per
+ * task...) and the calling thread, which take the next element to realise
+ * until there are none left, or one after the other by the calling thread
+ * if there is no executor. Batches are created by Realiser.realiseAll and
+ * simplenlg.realiser.english.Realiser.realiseAll.
+ */
+public final class BatchRealisation {
+
+	/**
+	 * Realises one element of a batch as a sentence. Must be safe to call
+	 * from several threads at the same time.
+	 */
+	public interface SentenceRealiser {
+		/**
+		 * @param element
+		 * @return the realisation of the element as a sentence
+		 */
+		String realiseSentence(NLGElement element);
+	}
+
+	private final String[] realisations;
+	private final Throwable[] errors;
+	private int failureCount = 0;
+	private long elapsedNanos = 0;
+
+	private BatchRealisation(int size) {
+		this.realisations = new String[size];
+		this.errors = new Throwable[size];
+	}
+
+	/**
+	 * Realises a batch of elements.
+	 * 
+	 * @param elements
+	 *            the elements to realise
+	 * @param realiser
+	 *            realises each element
+	 * @param executor
+	 *            executor whose threads realise the elements, or null to
+	 *            realise them in the calling thread
+	 * @return the results of the batch
+	 */
+	public static BatchRealisation realise(final List<? extends NLGElement> elements,
+			final SentenceRealiser realiser, Executor executor) {
+		final BatchRealisation batch = new BatchRealisation(elements.size());
+		long start = System.nanoTime();
+
+		if (executor == null || elements.size() <= 1) {
+			for (int index = 0; index < elements.size(); index++) {
+				batch.realise(index, elements.get(index), realiser);
+			}
+		} else {
+			// each task realises the next element not taken yet, so that the
+			// threads stay busy whatever the time each element takes
+			final AtomicInteger next = new AtomicInteger(0);
+			final CountDownLatch done = new CountDownLatch(elements.size());
+			Runnable task = new Runnable() {
+				public void run() {
+					int index;
+					while ((index = next.getAndIncrement()) < elements.size()) {
+						try {
+							batch.realise(index, elements.get(index), realiser);
+						} finally {
+							done.countDown();
+						}
+					}
+				}
+			};
+			// the calling thread realises elements too, so the batch ends
+			// even if the tasks can't run, such as when the executor is
+			// full or shut down, or when the batch is realised by a thread
+			// of a bounded pool whose other threads wait for batches too
+			int taskCount = Math.min(elements.size(), getParallelism(executor)) - 1;
+			for (int i = 0; i < taskCount; i++) {
+				try {
+					executor.execute(task);
+				} catch (RejectedExecutionException e) {
+					break;
+				}
+			}
+			task.run();
+			// waits for the elements taken by the tasks
+			awaitUninterruptibly(done);
+		}
+
+		batch.elapsedNanos = System.nanoTime() - start;
+		for (Throwable error : batch.errors) {
+			if (error != null) batch.failureCount++;
+		}
+		return batch;
+	}
+
+	/**
+	 * Realises one element, keeping its realisation or the exception or
+	 * error thrown (such as a StackOverflowError for an element nested too
+	 * deeply), which must not stop the thread realising it.
+	 */
+	private void realise(int index, NLGElement element, SentenceRealiser realiser) {
+		try {
+			this.realisations[index] = realiser.realiseSentence(element);
+		} catch (Throwable e) {
+			this.errors[index] = e;
+		}
+	}
+
+	/**
+	 * @param executor
+	 * @return the number of threads the executor can run at the same time,
+	 *         at most the number of processors (a cached thread pool has no
+	 *         maximum, and more threads than processors don't realise more)
+	 */
+	private static int getParallelism(Executor executor) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		if (executor instanceof ForkJoinPool) {
+			return Math.min(processors, ((ForkJoinPool) executor).getParallelism());
+		} else if (executor instanceof ThreadPoolExecutor) {
+			return Math.min(processors, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+		} else {
+			return processors;
+		}
+	}
+
+	/**
+	 * Waits until the latch reaches 0, then interrupts the current thread
+	 * again if it was interrupted while waiting.
+	 */
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				latch.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * @return the number of elements in the batch
+	 */
+	public int size() {
+		return this.realisations.length;
+	}
+
+	/**
+	 * @return the realisations of the elements, in the order of the
+	 *         elements (null for the elements which failed)
+	 */
+	public List<String> getRealisations() {
+		return Collections.unmodifiableList(Arrays.asList(this.realisations));
+	}
+
+	/**
+	 * @param index
+	 * @return the realisation of the element at this index, or null if it
+	 *         failed
+	 */
+	public String getRealisation(int index) {
+		return this.realisations[index];
+	}
+
+	/**
+	 * @param index
+	 * @return the exception or error thrown while realising the element at
+	 *         this index, or null if it didn't fail
+	 */
+	public Throwable getError(int index) {
+		return this.errors[index];
+	}
+
+	/**
+	 * @return the indexes of the elements which failed, in order
+	 */
+	public List<Integer> getFailedIndexes() {
+		List<Integer> failed = new ArrayList<Integer>(this.failureCount);
+		for (int index = 0; index < this.errors.length; index++) {
+			if (this.errors[index] != null) failed.add(index);
+		}
+		return failed;
+	}
+
+	/**
+	 * @return the number of elements which failed
+	 */
+	public int getFailureCount() {
+		return this.failureCount;
+	}
+
+	/**
+	 * @return the time the batch took, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * @return the number of elements realised per second
+	 */
+	public double getThroughput() {
+		return this.elapsedNanos == 0 ? 0.0
+			: size() * 1e9 / this.elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("BatchRealisation[size=%d, failures=%d, %.1f ms, %.1f sentences/s]",
+				size(), this.failureCount, this.elapsedNanos / 1e6, getThroughput());
+	}
+}
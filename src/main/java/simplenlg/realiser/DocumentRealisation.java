@@ -0,0 +1,270 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.realiser;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import simplenlg.features.Feature;
+import simplenlg.format.english.TextFormatter;
+import simplenlg.framework.DocumentCategory;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.ElementCategory;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.RealisationOverlay;
+
+/**
+ * This class realises a document one component at a time, and iterates over
+ * its text. The sections, lists, list items and paragraphs of the document
+ * are visited in order, and each of their other components (sentences...)
+ * goes through the syntax, morphology, morphophonology and orthography
+ * stages, and is formatted, before the next one. So only the intermediate
+ * trees of two components are kept at a time (the morphophonology between
+ * a component and the next one is done before the first one goes through
+ * orthography), whatever the size of the document.
+ * 
+ * Each string returned is the text of a component, with the titles and
+ * separators which come before it. Together, they are the realisation of
+ * the document by Realiser.realise. Documents are realised this way by
+ * Realiser.realiseIncrementally.
+ */
+final class DocumentRealisation implements Iterator<String> {
+
+	private enum StepKind {
+		START, START_COMPONENT, COMPONENT, END_COMPONENT, END
+	}
+
+	/**
+	 * A step of the formatting of the document, waiting for the next
+	 * component to go through morphophonology.
+	 */
+	private static final class Step {
+		final StepKind kind;
+		final NLGElement element;
+		final int index;
+
+		Step(StepKind kind, NLGElement element, int index) {
+			this.kind = kind;
+			this.element = element;
+			this.index = index;
+		}
+	}
+
+	/**
+	 * A section, list, list item or paragraph (or the document) being
+	 * realised.
+	 */
+	private static final class Frame {
+		final NLGElement element;
+		final List<NLGElement> components;
+		// index of the next component to realise
+		int next = 0;
+		// number of components realised
+		int count = 0;
+
+		Frame(NLGElement element) {
+			this.element = element;
+			this.components = element.getChildren();
+		}
+	}
+
+	private final TextFormatter formatter;
+	private final boolean nonDestructive;
+
+	private final StringBuilder text = new StringBuilder();
+	private final TextFormatter.Output output = new TextFormatter.Output(this.text);
+
+	private final List<Frame> frames = new ArrayList<Frame>();
+	private final ArrayDeque<Step> steps = new ArrayDeque<Step>();
+	// number of components in the steps
+	private int components = 0;
+	// the last component which went through morphophonology
+	private NLGElement lastComponent = null;
+
+	private String next = null;
+
+	/**
+	 * @param document
+	 *            a document, section, list or paragraph (see isContainer)
+	 * @param formatter
+	 * @param nonDestructive
+	 *            true if an overlay of each component is realised
+	 */
+	DocumentRealisation(NLGElement document, TextFormatter formatter,
+			boolean nonDestructive) {
+		this.formatter = formatter;
+		this.nonDestructive = nonDestructive;
+		if (!document.getFeatureAsBoolean(Feature.ELIDED)) {
+			this.steps.add(new Step(StepKind.START, document, 0));
+			this.frames.add(new Frame(document));
+		}
+	}
+
+	/**
+	 * @param element
+	 * @return true if the element is a document, section, list or paragraph,
+	 *         whose components can be realised one at a time
+	 */
+	static boolean isContainer(NLGElement element) {
+		if (!(element instanceof DocumentElement)) return false;
+		ElementCategory category = element.getCategory();
+		return category == DocumentCategory.DOCUMENT
+			|| category == DocumentCategory.SECTION
+			|| category == DocumentCategory.LIST
+			|| category == DocumentCategory.PARAGRAPH;
+	}
+
+	/**
+	 * @param element
+	 * @return true if the element is a container (see isContainer) or a list
+	 *         item, whose components are realised one at a time inside a
+	 *         document : the formatter writes the mark of a list item and
+	 *         the new line after it when it starts and ends it. A list item
+	 *         already realised is a ListElement (see
+	 *         DocumentElement.realiseOrthography), which keeps the category.
+	 */
+	private static boolean hasComponents(NLGElement element) {
+		return isContainer(element)
+			|| element.getCategory() == DocumentCategory.LIST_ITEM
+			&& (element instanceof DocumentElement || element instanceof ListElement);
+	}
+
+	public boolean hasNext() {
+		while (this.next == null && !this.steps.isEmpty()) {
+			// the first component is formatted once the next one went
+			// through morphophonology
+			while (this.components < 2 && !this.frames.isEmpty()) {
+				realiseNextComponent();
+			}
+			try {
+				formatSteps();
+			} catch (IOException e) {
+				// a StringBuilder never throws it
+				throw new IllegalStateException(e);
+			}
+			if (this.text.length() > 0) {
+				this.next = this.text.toString();
+				this.text.setLength(0);
+			}
+		}
+		return this.next != null;
+	}
+
+	public String next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		String text = this.next;
+		this.next = null;
+		return text;
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Realises the next component of the innermost section, list or
+	 * paragraph being realised until orthography, or starts or ends a
+	 * section, list or paragraph, adding the steps to format them.
+	 */
+	private void realiseNextComponent() {
+		Frame frame = this.frames.get(this.frames.size() - 1);
+		if (frame.next == frame.components.size()) {
+			this.frames.remove(this.frames.size() - 1);
+			this.steps.add(new Step(StepKind.END, frame.element, 0));
+			if (!this.frames.isEmpty()) {
+				Frame parent = this.frames.get(this.frames.size() - 1);
+				this.steps.add(new Step(StepKind.END_COMPONENT, parent.element, 0));
+			}
+			return;
+		}
+
+		NLGElement component = frame.components.get(frame.next++);
+		if (component == null) return;
+		if (hasComponents(component)) {
+			if (!component.getFeatureAsBoolean(Feature.ELIDED)) {
+				this.steps.add(new Step(StepKind.START_COMPONENT, frame.element, frame.count++));
+				this.steps.add(new Step(StepKind.START, component, 0));
+				this.frames.add(new Frame(component));
+			}
+			return;
+		}
+
+		if (this.nonDestructive) {
+			component = RealisationOverlay.overlay(component);
+		}
+		NLGElement postSyntax = component.realiseSyntax();
+		if (postSyntax == null) return;
+		List<NLGElement> realised = postSyntax instanceof ListElement
+			? postSyntax.getChildren() : Collections.singletonList(postSyntax);
+		for (NLGElement each : realised) {
+			NLGElement postMorphology = each.realiseMorphology();
+			if (postMorphology == null) continue;
+			postMorphology.realiseMorphophonology();
+			if (this.lastComponent != null) {
+				this.lastComponent.realiseMorphophonologyBefore(postMorphology);
+			}
+			this.lastComponent = postMorphology;
+			this.steps.add(new Step(StepKind.START_COMPONENT, frame.element, frame.count++));
+			this.steps.add(new Step(StepKind.COMPONENT, postMorphology, 0));
+			this.steps.add(new Step(StepKind.END_COMPONENT, frame.element, 0));
+			this.components++;
+		}
+	}
+
+	/**
+	 * Formats the steps until the first component (included), or all of
+	 * them once the document is realised.
+	 * 
+	 * @throws IOException
+	 */
+	private void formatSteps() throws IOException {
+		while (!this.steps.isEmpty()) {
+			Step step = this.steps.poll();
+			switch (step.kind) {
+			case START:
+				this.formatter.startElement(step.element, this.output);
+				break;
+			case START_COMPONENT:
+				this.formatter.startComponent(step.element, step.index, this.output);
+				break;
+			case COMPONENT:
+				NLGElement component = step.element;
+				if (component instanceof DocumentElement) {
+					component = component.realiseOrthography();
+				}
+				this.formatter.format(component, this.output);
+				this.components--;
+				if (!this.frames.isEmpty()) return;
+				break;
+			case END_COMPONENT:
+				this.formatter.endComponent(step.element, this.output);
+				break;
+			case END:
+				this.formatter.endElement(step.element, this.output);
+				break;
+			}
+		}
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.realiser;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import simplenlg.framework.ElementFingerprint;
+import simplenlg.framework.NLGElement;
+
+/**
+ * This class is a bounded cache of the realisations of sentences, kept by
+ * the fingerprint of the element realised (see ElementFingerprint). A
+ * realiser with a cache (see Realiser.setCache) realises an element only
+ * if no element with the same structure was realised before, so repeated
+ * specifications cost the time taken to compute their fingerprint.
+ * 
+ * The least recently used entries are evicted when there are more than the
+ * maximum size. Elements for which the exclusion returns true, and the
+ * trees containing them, are never cached. As the realisation depends on
+ * the realiser, a cache should only be used by realisers with the same
+ * formatter.
+ * 
+ * The cache counts its hits, misses, evictions and the elements which
+ * couldn't be cached, so that it can be sized for a given load. All methods
+ * are thread-safe.
+ */
+public class RealisationCache {
+
+	/**
+	 * Maximum size of a cache created without one.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+	// realisations, least recently used first
+	private final LinkedHashMap<ElementFingerprint, String> entries =
+		new LinkedHashMap<ElementFingerprint, String>(16, 0.75f, true);
+
+	// maximum number of entries
+	private int maximumSize;
+
+	// elements which aren't cached, null if none
+	private volatile ElementFingerprint.Exclusion exclusion = null;
+
+	// statistics
+	private long hitCount = 0;
+	private long missCount = 0;
+	private long excludedCount = 0;
+	private long evictionCount = 0;
+
+	/**
+	 * Creates a cache with the default maximum size.
+	 */
+	public RealisationCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Creates a cache.
+	 * 
+	 * @param maximumSize
+	 *            maximum number of entries
+	 */
+	public RealisationCache(int maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	/***************** methods to set parameters ****************************/
+
+	/**
+	 * @return the maximum number of entries
+	 */
+	public synchronized int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets the maximum number of entries, evicting entries if necessary.
+	 * 
+	 * @param maximumSize
+	 */
+	public synchronized void setMaximumSize(int maximumSize) {
+		this.maximumSize = maximumSize;
+		evict();
+	}
+
+	/**
+	 * @return the elements which aren't cached, null if all are
+	 */
+	public ElementFingerprint.Exclusion getExclusion() {
+		return exclusion;
+	}
+
+	/**
+	 * Sets the elements which aren't cached, such as elements with random
+	 * content. An element containing one of them isn't cached either.
+	 * 
+	 * @param exclusion
+	 *            the elements excluded, or null if all elements are cached
+	 */
+	public void setExclusion(ElementFingerprint.Exclusion exclusion) {
+		this.exclusion = exclusion;
+	}
+
+	/****************************************************************************/
+	// cache operations
+	/****************************************************************************/
+
+	/**
+	 * Computes the key of an element, before it is realised.
+	 * 
+	 * @param element
+	 * @return the fingerprint of the element, or null if it can't be cached
+	 */
+	public ElementFingerprint getKey(NLGElement element) {
+		ElementFingerprint key = ElementFingerprint.of(element, exclusion);
+		if (key == null) {
+			synchronized (this) {
+				excludedCount++;
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the cached realisation of an element.
+	 * 
+	 * @param key
+	 *            the fingerprint of the element
+	 * @return the realisation, or null if it isn't cached
+	 */
+	public synchronized String get(ElementFingerprint key) {
+		String realisation = entries.get(key);
+		if (realisation == null) missCount++;
+		else hitCount++;
+		return realisation;
+	}
+
+	/**
+	 * Keeps the realisation of an element, evicting the least recently used
+	 * entries if the maximum size is exceeded.
+	 * 
+	 * @param key
+	 *            the fingerprint of the element
+	 * @param realisation
+	 */
+	public synchronized void put(ElementFingerprint key, String realisation) {
+		if (key == null || realisation == null) return;
+		entries.put(key, realisation);
+		evict();
+	}
+
+	/**
+	 * Removes all the entries. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes the least recently used entries until there are at most the
+	 * maximum number.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<ElementFingerprint, String>> iterator =
+			entries.entrySet().iterator();
+		while (entries.size() > maximumSize && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	/****************************************************************************/
+	// statistics
+	/****************************************************************************/
+
+	/**
+	 * @return the number of elements whose realisation was found
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of elements whose realisation wasn't found
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the proportion of elements whose realisation was found, among
+	 *         those which could be cached, 0 if none
+	 */
+	public synchronized double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0.0 : (double) hitCount / requests;
+	}
+
+	/**
+	 * @return the number of elements which couldn't be cached because they
+	 *         contain an element excluded
+	 */
+	public synchronized long getExcludedCount() {
+		return excludedCount;
+	}
+
+	/**
+	 * @return the number of entries removed because the maximum size was
+	 *         exceeded
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Sets all the statistics back to 0.
+	 */
+	public synchronized void resetStats() {
+		hitCount = 0;
+		missCount = 0;
+		excludedCount = 0;
+		evictionCount = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "RealisationCache[size=" + entries.size() + "/" + maximumSize
+			+ ", hits=" + hitCount + ", misses=" + missCount + ", excluded="
+			+ excludedCount + ", evictions=" + evictionCount + "]";
+	}
+}
@@ -19,10 +19,18 @@
 
 package simplenlg.realiser;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import simplenlg.framework.DocumentCategory;
 import simplenlg.framework.DocumentElement;
+import simplenlg.framework.ElementFingerprint;
 import simplenlg.framework.NLGElement;
 import simplenlg.framework.NLGModule;
+import simplenlg.framework.RealisationOverlay;
 import simplenlg.format.english.TextFormatter;
 
 /**
@@ -40,6 +48,9 @@ public class Realiser {
 
 	private NLGModule formatter = null;
 	private boolean debug = false;
+	private boolean nonDestructive = false;
+	private Executor executor = null;
+	private RealisationCache cache = null;
 	
 	/**
 	 * create a realiser (no lexicon)
@@ -54,7 +65,122 @@ public class Realiser {
 		this.formatter.initialise();
 	}
 
+	/**
+	 * Realises an element through the syntax, morphology, morphophonology
+	 * and orthography stages, then formats it.
+	 *
+	 * Thread safety : a realiser can be shared by several threads, as long
+	 * as its formatter and debug mode aren't changed while it is used. The
+	 * helpers and rule sets of each language are created once and have no
+	 * state of their own. But realisation modifies the element realised, so
+	 * an element must only be realised by one thread at a time. The words of
+	 * a frozen lexicon are never modified (the phrases use overlays of them),
+	 * so threads realising at the same time can share a frozen lexicon, such
+	 * as the lexicons of LexiconRegistry. A lexicon which isn't frozen may
+	 * have its words modified, and must be used by one thread at a time :
+	 * each thread can use its own copy of the default lexicon instead (see
+	 * Lexicon.getDefaultLexicon), which is made without loading it again.
+	 * In non-destructive mode (see setNonDestructive), the element and the
+	 * lexicon aren't modified, so they can be shared by threads which
+	 * realise the element at the same time.
+	 *
+	 * @param element
+	 * @return the realised element
+	 */
 	public NLGElement realise(NLGElement element) {
+		if (this.nonDestructive) {
+			element = RealisationOverlay.overlay(element);
+		}
+		return realiseElement(element);
+	}
+
+	/**
+	 * Realises an element, which is modified.
+	 * 
+	 * @param element
+	 * @return the realised element
+	 */
+	private NLGElement realiseElement(NLGElement element) {
+		NLGElement postOrthography = realiseOrthography(element);
+		NLGElement postFormatter = null;
+		if (this.formatter != null) {
+			postFormatter = this.formatter.realise(postOrthography);
+			if (this.debug) {
+				System.out.println("\nPOST-FORMATTER TREE\n"); //$NON-NLS-1$
+				System.out.println(postFormatter.printTree(null));
+			}
+		} else {
+			postFormatter = postOrthography;
+		}
+		return postFormatter;
+	}
+
+	/**
+	 * Realises an element and writes its text to an output. The element goes
+	 * through the same stages as with realise(NLGElement), but the text
+	 * formatter writes each sentence and separator straight to the output,
+	 * instead of copying them into the realisation of each document element
+	 * containing them, so long documents are written in time linear in the
+	 * length of the text. Other formatters realise the whole text, which is
+	 * then written.
+	 * 
+	 * @param element
+	 * @param output
+	 *            where the text is written (a Writer or a StringBuilder, for
+	 *            instance)
+	 * @throws IOException
+	 *             if the output can't be written
+	 */
+	public void realise(NLGElement element, Appendable output) throws IOException {
+		if (this.nonDestructive) {
+			element = RealisationOverlay.overlay(element);
+		}
+		NLGElement postOrthography = realiseOrthography(element);
+		if (this.formatter instanceof TextFormatter) {
+			((TextFormatter) this.formatter).format(postOrthography, output);
+		} else if (this.formatter != null) {
+			output.append(this.formatter.realise(postOrthography).getRealisation());
+		} else if (postOrthography != null) {
+			output.append(postOrthography.getRealisation());
+		}
+	}
+
+	/**
+	 * Realises a document incrementally : its sentences, list items and
+	 * other components are realised and formatted one at a time, as the
+	 * text is read, instead of each stage being done on the whole document
+	 * before the next one. So the memory used depends on the size of the
+	 * largest component, not on the size of the document. The text is the
+	 * same as the realisation returned by realise(NLGElement), in pieces
+	 * (the text of a component, with the titles and separators before it).
+	 * 
+	 * The element is realised as a whole if it isn't a document, section,
+	 * list or paragraph, or if the formatter isn't a TextFormatter.
+	 * 
+	 * @param element
+	 * @return an iterator over the text of the element
+	 */
+	public Iterator<String> realiseIncrementally(NLGElement element) {
+		if (!(this.formatter instanceof TextFormatter)
+				|| !DocumentRealisation.isContainer(element)) {
+			NLGElement realised = realise(element);
+			String realisation = realised != null ? realised.getRealisation() : null;
+			List<String> text = realisation == null || realisation.isEmpty()
+				? Collections.<String>emptyList() : Collections.singletonList(realisation);
+			return text.iterator();
+		}
+		return new DocumentRealisation(element, (TextFormatter) this.formatter,
+				this.nonDestructive);
+	}
+
+	/**
+	 * Realises an element through the syntax, morphology, morphophonology
+	 * and orthography stages.
+	 * 
+	 * @param element
+	 * @return the element after orthography
+	 */
+	private NLGElement realiseOrthography(NLGElement element) {
 		if (this.debug) {
 			System.out.println("INITIAL TREE\n"); //$NON-NLS-1$
 			System.out.println(element.printTree(null));
@@ -64,6 +190,18 @@ public class Realiser {
 			System.out.println("\nPOST-SYNTAX TREE\n"); //$NON-NLS-1$
 			System.out.println(postSyntax.printTree(null));
 		}
+		return realiseAfterSyntax(postSyntax);
+	}
+
+	/**
+	 * Realises an element through the morphology, morphophonology and
+	 * orthography stages.
+	 * 
+	 * @param postSyntax
+	 *            the element after syntax
+	 * @return the element after orthography
+	 */
+	private NLGElement realiseAfterSyntax(NLGElement postSyntax) {
 		NLGElement postMorphology = postSyntax!=null ? postSyntax.realiseMorphology() : null;
 		if (this.debug) {
 			System.out.println("\nPOST-MORPHOLOGY TREE\n"); //$NON-NLS-1$
@@ -79,38 +217,153 @@ public class Realiser {
 			System.out.println("\nPOST-ORTHOGRAPHY TREE\n"); //$NON-NLS-1$
 			System.out.println(postOrthography.printTree(null));
 		}
-		NLGElement postFormatter = null;
-		if (this.formatter != null) {
-			postFormatter = this.formatter.realise(postOrthography);
-			if (this.debug) {
-				System.out.println("\nPOST-FORMATTER TREE\n"); //$NON-NLS-1$
-				System.out.println(postFormatter.printTree(null));
-			}
-		} else {
-			postFormatter = postOrthography;
-		}
-		return postFormatter;
+		return postOrthography;
 	}
 	
+	/**
+	 * Realises an element after syntax (see SentenceTemplate) through the
+	 * morphology, morphophonology and orthography stages, then formats it.
+	 * 
+	 * @param postSyntax
+	 *            the element after syntax, which isn't changed unless it is
+	 *            a document element
+	 * @return the realisation of the element, null if there is none
+	 */
+	String realiseSyntaxed(NLGElement postSyntax) {
+		NLGElement postOrthography = realiseAfterSyntax(postSyntax);
+		NLGElement realised = postOrthography;
+		if (this.formatter != null && postOrthography != null) {
+			realised = this.formatter.realise(postOrthography);
+		}
+		return realised != null ? realised.getRealisation() : null;
+	}
+
 	/** Convenience class to realise any NLGElement as a sentence
 	 * @param element
 	 * @return String realisation of the NLGElement
 	 */
 	public String realiseSentence(NLGElement element) {
+		return realiseSentence(element, this.nonDestructive);
+	}
+
+	/**
+	 * Realises an element as a sentence.
+	 * 
+	 * @param element
+	 * @param nonDestructive
+	 *            true if an overlay of the element is realised
+	 * @return String realisation of the NLGElement
+	 */
+	private String realiseSentence(NLGElement element, boolean nonDestructive) {
+		// the key is computed before the element is changed by realisation
+		RealisationCache cache = this.cache;
+		ElementFingerprint key = null;
+		if (cache != null) {
+			key = cache.getKey(element);
+			if (key != null) {
+				String cached = cache.get(key);
+				if (cached != null) return cached;
+			}
+		}
+
 		NLGElement realised = null;
+		// the element is copied before being added to the sentence,
+		// which would change its parent
+		if (nonDestructive) {
+			element = RealisationOverlay.overlay(element);
+		}
 		if (element instanceof DocumentElement)
-			realised = realise(element);
+			realised = realiseElement(element);
 		else {
 			DocumentElement sentence
 				= new DocumentElement(DocumentCategory.SENTENCE, null, element.getFactory());
 			sentence.addComponent(element);
-			realised = realise(sentence);
+			realised = realiseElement(sentence);
 		}
 		
 		if (realised == null)
 			return null;
-		else
-			return realised.getRealisation();
+		String realisation = realised.getRealisation();
+		if (key != null) cache.put(key, realisation);
+		return realisation;
+	}
+
+	/**
+	 * Realises a batch of elements as sentences, with the executor of this
+	 * realiser (see setExecutor).
+	 * 
+	 * @param elements
+	 * @return the realisations, in the order of the elements, and the
+	 *         failures and throughput of the batch
+	 * @see #realiseAll(List, Executor)
+	 */
+	public BatchRealisation realiseAll(List<? extends NLGElement> elements) {
+		return realiseAll(elements, this.executor);
+	}
+
+	/**
+	 * Realises a batch of elements as sentences (as realiseSentence does).
+	 * The elements are realised by the threads of the executor, or one
+	 * after the other if it is null, but the realisations are in the order
+	 * of the elements. An element which fails doesn't stop the others.
+	 * 
+	 * As elements realised at the same time can share their lexicon, they
+	 * are always realised without being modified, as in non-destructive
+	 * mode.
+	 * 
+	 * @param elements
+	 * @param executor
+	 *            executor whose threads realise the elements, or null
+	 * @return the realisations, in the order of the elements, and the
+	 *         failures and throughput of the batch
+	 */
+	public BatchRealisation realiseAll(List<? extends NLGElement> elements,
+			Executor executor) {
+		return BatchRealisation.realise(elements,
+				new BatchRealisation.SentenceRealiser() {
+					public String realiseSentence(NLGElement element) {
+						return Realiser.this.realiseSentence(element, true);
+					}
+				}, executor);
+	}
+
+	/**
+	 * @return the executor used by realiseAll(List), null if the elements
+	 *         are realised by the calling thread
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	/**
+	 * Sets the executor used by realiseAll(List). Its threads realise the
+	 * elements of a batch. If it is null (the default), the elements are
+	 * realised by the calling thread.
+	 * 
+	 * @param executor
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @return the cache of the realisations of sentences, null if there is
+	 *         none
+	 */
+	public RealisationCache getCache() {
+		return this.cache;
+	}
+
+	/**
+	 * Sets the cache used by realiseSentence and realiseAll. An element
+	 * with the same structure as an element realised before isn't realised
+	 * (nor changed) : its realisation is taken from the cache. If the cache
+	 * is null (the default), every element is realised.
+	 * 
+	 * @param cache
+	 */
+	public void setCache(RealisationCache cache) {
+		this.cache = cache;
 	}
 
 	public void setFormatter(NLGModule formatter) {
@@ -120,4 +373,24 @@ public class Realiser {
 	public void setDebugMode(boolean debugOn) {
 		this.debug = debugOn;
 	}
+
+	/**
+	 * @return true if the realiser doesn't modify the elements it realises
+	 */
+	public boolean isNonDestructive() {
+		return this.nonDestructive;
+	}
+
+	/**
+	 * Sets whether the realiser modifies the elements it realises and the
+	 * words of their lexicon (the default), or realises an overlay of them
+	 * (see RealisationOverlay). In non-destructive mode, the same element
+	 * can be realised many times, and by several threads at the same time,
+	 * without being copied by the caller.
+	 * 
+	 * @param nonDestructive
+	 */
+	public void setNonDestructive(boolean nonDestructive) {
+		this.nonDestructive = nonDestructive;
+	}
 }
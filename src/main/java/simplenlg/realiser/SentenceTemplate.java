@@ -0,0 +1,430 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.realiser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentCategory;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.PhraseElement;
+import simplenlg.framework.RealisationOverlay;
+
+/**
+ * This class is a prepared sentence : a clause with slots, such as
+ * "&lt;patient&gt; a reçu &lt;dose&gt; de &lt;drug&gt;", realised many
+ * times with different elements in its slots. The syntax of the clause
+ * (the order of its constituents, its auxiliaries, clitics and negation) is
+ * done once, and only the syntax of the elements in the slots, the
+ * morphology, morphophonology, orthography and formatting are done each
+ * time.
+ * 
+ * A slot is an element of the clause (a placeholder, usually a noun phrase)
+ * given a name with addSlot. As the syntax of the clause depends on the
+ * gender, number and person of the elements in its slots, and on whether
+ * they are pronouns, the clause is prepared again for each combination of
+ * these features, which are few. The clause, its placeholders and the
+ * elements in the slots aren't changed (unless the realiser is destructive,
+ * in which case the elements in the slots are realised like other elements).
+ * 
+ * A template is realised by one thread at a time.
+ */
+public class SentenceTemplate {
+
+	// feature marking the element in a slot while the clause is prepared
+	private static final String SLOT = "sentence_template_slot"; //$NON-NLS-1$
+
+	private final Realiser realiser;
+	private final NLGElement clause;
+
+	// placeholder of each slot, by name
+	private final Map<String, NLGElement> slots = new LinkedHashMap<String, NLGElement>();
+
+	// clause after syntax, by signature of the elements in the slots
+	private final Map<List<Object>, PreparedClause> prepared =
+		new HashMap<List<Object>, PreparedClause>();
+
+	// statistics
+	private long realisationCount = 0;
+	private long preparationCount = 0;
+
+	/**
+	 * A place in the clause after syntax where the element in a slot goes.
+	 */
+	private static class Site {
+		// list element containing the element, null if it is the clause
+		ListElement container;
+		int index;
+		// parent of the element in the slot during syntax
+		NLGElement parent;
+		// features given to the element in the slot by the syntax of the clause
+		Map<String, Object> features = new HashMap<String, Object>();
+	}
+
+	/**
+	 * The clause after syntax, with a site for each slot.
+	 */
+	private static class PreparedClause {
+		NLGFactory factory;
+		List<NLGElement> components;
+		// null if the slots can't be filled in the clause after syntax
+		Site[] sites;
+	}
+
+	/**
+	 * Creates a template.
+	 * 
+	 * @param realiser
+	 *            the realiser used for the stages after syntax
+	 * @param clause
+	 *            the clause, containing the placeholders of the slots
+	 */
+	public SentenceTemplate(Realiser realiser, NLGElement clause) {
+		if (realiser == null || clause == null) {
+			throw new IllegalArgumentException("A template needs a realiser and a clause."); //$NON-NLS-1$
+		}
+		this.realiser = realiser;
+		this.clause = clause;
+	}
+
+	/**
+	 * Adds a slot to the template.
+	 * 
+	 * @param name
+	 *            the name of the slot
+	 * @param placeholder
+	 *            the element of the clause replaced by the element in the slot
+	 */
+	public synchronized void addSlot(String name, NLGElement placeholder) {
+		if (name == null || placeholder == null) {
+			throw new IllegalArgumentException("A slot needs a name and a placeholder."); //$NON-NLS-1$
+		}
+		if (this.slots.containsKey(name)) {
+			throw new IllegalArgumentException("The template already has a slot " + name); //$NON-NLS-1$
+		}
+		if (!contains(this.clause, placeholder)) {
+			throw new IllegalArgumentException("The placeholder of the slot " + name //$NON-NLS-1$
+					+ " isn't in the clause."); //$NON-NLS-1$
+		}
+		this.slots.put(name, placeholder);
+		this.prepared.clear();
+	}
+
+	/**
+	 * @return the names of the slots, in the order they were added
+	 */
+	public synchronized List<String> getSlotNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(this.slots.keySet()));
+	}
+
+	/**
+	 * Realises the clause as a sentence with elements in its slots.
+	 * 
+	 * @param elements
+	 *            the element in each slot, by name of the slot
+	 * @return the realisation of the sentence
+	 */
+	public synchronized String realise(Map<String, ? extends NLGElement> elements) {
+		List<NLGElement> fillers = new ArrayList<NLGElement>(this.slots.size());
+		List<Object> signature = new ArrayList<Object>();
+		for (String name : this.slots.keySet()) {
+			NLGElement filler = elements.get(name);
+			if (filler == null) {
+				throw new IllegalArgumentException("No element for the slot " + name); //$NON-NLS-1$
+			}
+			fillers.add(filler);
+			addSignature(signature, filler);
+		}
+		this.realisationCount++;
+
+		PreparedClause prepared = this.prepared.get(signature);
+		if (prepared == null) {
+			// the clause prepared contains these elements already
+			prepared = prepare(fillers);
+			this.prepared.put(signature, prepared);
+			this.preparationCount++;
+		} else if (prepared.sites == null || !fill(prepared, fillers)) {
+			return realiseClause(fillers);
+		}
+		DocumentElement sentence =
+			new DocumentElement(DocumentCategory.SENTENCE, null, prepared.factory);
+		sentence.setComponents(new ArrayList<NLGElement>(prepared.components));
+		return this.realiser.realiseSyntaxed(sentence);
+	}
+
+	/**
+	 * @return the number of sentences realised
+	 */
+	public synchronized long getRealisationCount() {
+		return this.realisationCount;
+	}
+
+	/**
+	 * @return the number of times the syntax of the clause was done
+	 */
+	public synchronized long getPreparationCount() {
+		return this.preparationCount;
+	}
+
+	/**
+	 * Adds to a signature the features of an element on which the syntax of
+	 * the clause depends.
+	 * 
+	 * @param signature
+	 * @param element
+	 */
+	private static void addSignature(List<Object> signature, NLGElement element) {
+		signature.add(element.getClass());
+		signature.add(element.getCategory());
+		signature.add(element.getFeature(LexicalFeature.GENDER));
+		signature.add(element.getFeature(Feature.NUMBER));
+		signature.add(element.getFeature(Feature.PERSON));
+		signature.add(element.getFeature(Feature.PRONOMINAL));
+		signature.add(element.getFeature(Feature.ELIDED));
+		signature.add(element.checkIfNeOnlyNegation());
+		if (element instanceof PhraseElement) {
+			NLGElement head = ((PhraseElement) element).getHead();
+			signature.add(head != null ? head.getCategory() : null);
+		} else if (element instanceof CoordinatedPhraseElement) {
+			signature.add(element.getFeature(Feature.CONJUNCTION));
+			List<NLGElement> coordinates = element.getChildren();
+			signature.add(coordinates.size());
+			for (NLGElement coordinate : coordinates) {
+				addSignature(signature, coordinate);
+			}
+		}
+	}
+
+	/**
+	 * Does the syntax of the clause with elements in its slots, and finds
+	 * where the elements are in the clause after syntax.
+	 * 
+	 * @param fillers
+	 *            the element in each slot
+	 * @return the clause prepared
+	 */
+	private PreparedClause prepare(List<NLGElement> fillers) {
+		// each element is replaced by a marked copy
+		Map<NLGElement, NLGElement> substitutions = new IdentityHashMap<NLGElement, NLGElement>();
+		int index = 0;
+		for (Map.Entry<String, NLGElement> slot : this.slots.entrySet()) {
+			NLGElement copy = place(slot.getValue(), fillers.get(index++));
+			copy.setFeature(SLOT, slot.getKey());
+			substitutions.put(slot.getValue(), copy);
+		}
+		NLGElement clauseCopy = RealisationOverlay.overlay(this.clause, substitutions);
+
+		// the copies of the marked copies, before syntax
+		Map<String, NLGElement> inClause = new HashMap<String, NLGElement>();
+		findMarked(clauseCopy, inClause);
+
+		DocumentElement sentence = new DocumentElement(DocumentCategory.SENTENCE, null,
+				clauseCopy.getFactory());
+		sentence.addComponent(clauseCopy);
+		NLGElement postSyntax = sentence.realiseSyntax();
+
+		PreparedClause prepared = new PreparedClause();
+		prepared.factory = clauseCopy.getFactory();
+		prepared.components = postSyntax != null
+			? postSyntax.getChildren() : new ArrayList<NLGElement>();
+
+		Map<String, Site> sites = new HashMap<String, Site>();
+		findSites(null, prepared.components, sites);
+		if (sites.size() == this.slots.size() && inClause.size() == this.slots.size()) {
+			prepared.sites = new Site[this.slots.size()];
+			index = 0;
+			for (String name : this.slots.keySet()) {
+				Site site = sites.get(name);
+				NLGElement element = inClause.get(name);
+				site.parent = element.getParent();
+				addSyntaxFeatures(site.features, element, fillers.get(index));
+				prepared.sites[index++] = site;
+			}
+		}
+		return prepared;
+	}
+
+	/**
+	 * Makes a copy of an element in a slot, with the discourse function of
+	 * the placeholder (given when it was added to the clause).
+	 * 
+	 * @param placeholder
+	 * @param filler
+	 * @return the copy, which replaces the placeholder in the clause
+	 */
+	private static NLGElement place(NLGElement placeholder, NLGElement filler) {
+		NLGElement copy = RealisationOverlay.overlay(filler);
+		Object function = placeholder.getFeature(InternalFeature.DISCOURSE_FUNCTION);
+		if (function != null) {
+			copy.setFeature(InternalFeature.DISCOURSE_FUNCTION, function);
+		}
+		return copy;
+	}
+
+	/**
+	 * Finds the marked elements of a clause before syntax.
+	 * 
+	 * @param element
+	 * @param found
+	 *            the outermost marked element, by name of slot
+	 */
+	private static void findMarked(NLGElement element, Map<String, NLGElement> found) {
+		Object name = element.getFeature(SLOT);
+		if (name instanceof String) {
+			if (!found.containsKey(name)) found.put((String) name, element);
+			return;
+		}
+		List<NLGElement> children = element.getChildren();
+		if (children != null) {
+			for (NLGElement child : children) {
+				if (child != null) findMarked(child, found);
+			}
+		}
+	}
+
+	/**
+	 * Finds the marked elements of a clause after syntax, and the list
+	 * elements containing them.
+	 * 
+	 * @param container
+	 *            the list element containing the components, null for the
+	 *            components of the sentence
+	 * @param components
+	 * @param found
+	 *            the site of each slot
+	 */
+	private static void findSites(ListElement container, List<NLGElement> components,
+			Map<String, Site> found) {
+		for (int index = 0; index < components.size(); index++) {
+			NLGElement component = components.get(index);
+			if (component == null) continue;
+			Object name = component.getFeature(SLOT);
+			if (name instanceof String) {
+				if (!found.containsKey(name)) {
+					Site site = new Site();
+					site.container = container;
+					site.index = index;
+					found.put((String) name, site);
+				}
+			} else if (component instanceof ListElement) {
+				findSites((ListElement) component, component.getChildren(), found);
+			}
+		}
+	}
+
+	/**
+	 * Keeps the features the syntax of the clause gave to an element in a
+	 * slot (such as its discourse function), other than elements.
+	 * 
+	 * @param features
+	 * @param after
+	 *            the element after the syntax of the clause
+	 * @param before
+	 *            the element given for the slot
+	 */
+	private static void addSyntaxFeatures(Map<String, Object> features, NLGElement after,
+			NLGElement before) {
+		for (String name : after.getAllFeatureNames()) {
+			Object value = after.getFeature(name);
+			if (SLOT.equals(name) || value instanceof NLGElement || value instanceof List<?>) {
+				continue;
+			}
+			Object oldValue = before.getFeature(name);
+			if (value == null ? oldValue != null : !value.equals(oldValue)) {
+				features.put(name, value);
+			}
+		}
+	}
+
+	/**
+	 * Puts the syntax of the elements in the slots in the clause prepared.
+	 * 
+	 * @param prepared
+	 * @param fillers
+	 * @return false if an element has no syntax
+	 */
+	private boolean fill(PreparedClause prepared, List<NLGElement> fillers) {
+		for (int index = 0; index < fillers.size(); index++) {
+			Site site = prepared.sites[index];
+			NLGElement element = fillers.get(index);
+			if (this.realiser.isNonDestructive()) {
+				element = RealisationOverlay.overlay(element);
+			}
+			for (Map.Entry<String, Object> feature : site.features.entrySet()) {
+				element.setFeature(feature.getKey(), feature.getValue());
+			}
+			element.setParent(site.parent);
+			NLGElement postSyntax = element.realiseSyntax();
+			if (postSyntax == null) return false;
+
+			if (site.container == null) {
+				prepared.components.set(site.index, postSyntax);
+			} else {
+				List<NLGElement> components = site.container.getChildren();
+				components.set(site.index, postSyntax);
+				site.container.setComponents(components);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Realises the clause with elements in its slots without the syntax
+	 * prepared.
+	 * 
+	 * @param fillers
+	 * @return the realisation of the sentence
+	 */
+	private String realiseClause(List<NLGElement> fillers) {
+		Map<NLGElement, NLGElement> substitutions = new IdentityHashMap<NLGElement, NLGElement>();
+		int index = 0;
+		for (NLGElement placeholder : this.slots.values()) {
+			substitutions.put(placeholder, place(placeholder, fillers.get(index++)));
+		}
+		return this.realiser.realiseSentence(RealisationOverlay.overlay(this.clause, substitutions));
+	}
+
+	/**
+	 * @param element
+	 * @param descendant
+	 * @return true if the element is or contains the descendant
+	 */
+	private static boolean contains(NLGElement element, NLGElement descendant) {
+		if (element == descendant) return true;
+		List<NLGElement> children = element.getChildren();
+		if (children != null) {
+			for (NLGElement child : children) {
+				if (child != null && contains(child, descendant)) return true;
+			}
+		}
+		return false;
+	}
+}
@@ -20,15 +20,18 @@
 package simplenlg.realiser.english;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import simplenlg.format.english.TextFormatter;
 import simplenlg.framework.DocumentCategory;
 import simplenlg.framework.DocumentElement;
 import simplenlg.framework.NLGElement;
 import simplenlg.framework.NLGModule;
+import simplenlg.framework.RealisationOverlay;
 import simplenlg.lexicon.Lexicon;
 import simplenlg.morphology.english.MorphologyProcessor;
 import simplenlg.orthography.english.OrthographyProcessor;
+import simplenlg.realiser.BatchRealisation;
 import simplenlg.syntax.english.SyntaxProcessor;
 
 /**
@@ -42,6 +45,7 @@ public class Realiser extends NLGModule {
 	private SyntaxProcessor syntax;
 	private NLGModule formatter = null;
 	private boolean debug = false;
+	private Executor executor = null;
 	
 	/**
 	 * create a realiser (no lexicon)
@@ -158,6 +162,65 @@ public class Realiser extends NLGModule {
 			return realised.getRealisation();
 	}
 
+	/**
+	 * Realises a batch of elements as sentences, with the executor of this
+	 * realiser (see setExecutor).
+	 * 
+	 * @param elements
+	 * @return the realisations, in the order of the elements, and the
+	 *         failures and throughput of the batch
+	 * @see #realiseAll(List, Executor)
+	 */
+	public BatchRealisation realiseAll(List<? extends NLGElement> elements) {
+		return realiseAll(elements, this.executor);
+	}
+
+	/**
+	 * Realises a batch of elements as sentences (as realiseSentence does).
+	 * The elements are realised by the threads of the executor, or one
+	 * after the other if it is null, but the realisations are in the order
+	 * of the elements. An element which fails doesn't stop the others.
+	 * 
+	 * Each element is copied before being realised (see
+	 * RealisationOverlay), as elements realised at the same time can share
+	 * their lexicon.
+	 * 
+	 * @param elements
+	 * @param executor
+	 *            executor whose threads realise the elements, or null
+	 * @return the realisations, in the order of the elements, and the
+	 *         failures and throughput of the batch
+	 */
+	public BatchRealisation realiseAll(List<? extends NLGElement> elements,
+			Executor executor) {
+		return BatchRealisation.realise(elements,
+				new BatchRealisation.SentenceRealiser() {
+					public String realiseSentence(NLGElement element) {
+						return Realiser.this.realiseSentence(
+								RealisationOverlay.overlay(element));
+					}
+				}, executor);
+	}
+
+	/**
+	 * @return the executor used by realiseAll(List), null if the elements
+	 *         are realised by the calling thread
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	/**
+	 * Sets the executor used by realiseAll(List). Its threads realise the
+	 * elements of a batch. If it is null (the default), the elements are
+	 * realised by the calling thread.
+	 * 
+	 * @param executor
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
 	@Override
 	public List<NLGElement> realise(List<NLGElement> elements) {
 		return null;
@@ -36,6 +36,7 @@ import simplenlg.framework.PhraseCategory;
 import simplenlg.framework.PhraseElement;
 import simplenlg.framework.StringElement;
 import simplenlg.framework.WordElement;
+import simplenlg.lexicon.english.FunctionWords;
 import simplenlg.phrasespec.VPPhraseSpec;
 import simplenlg.syntax.AbstractVerbPhraseHelper;
 
@@ -277,7 +278,8 @@ public class VerbPhraseHelper extends AbstractVerbPhraseHelper {
 				vgComponents.push(new InflectedWordElement(
 						"not", LexicalCategory.ADVERB)); //$NON-NLS-1$
 				// vaudrypl changed InflectedWordElement constructor call
-				WordElement auxiliary = (WordElement) phrase.getFactory().createWord("do", LexicalCategory.VERB);
+				WordElement auxiliary = (WordElement) phrase.getFactory().createWord(
+						FunctionWords.of(phrase.getLexicon()).getDo(), LexicalCategory.VERB);
 				newFront = new InflectedWordElement(auxiliary); //$NON-NLS-1$
 			}
 		}
@@ -336,7 +338,7 @@ public class VerbPhraseHelper extends AbstractVerbPhraseHelper {
 			vgComponents.push(frontVG);
 		}
 		// vaudrypl changed InflectedWordElement constructor call
-		WordElement auxiliary = frontVG.getLexicon().lookupWord("have", LexicalCategory.VERB);
+		WordElement auxiliary = FunctionWords.of(frontVG.getLexicon()).getHave();
 		newFront = new InflectedWordElement(auxiliary); //$NON-NLS-1$
 		newFront.setTense(tenseValue);
 		if (modal != null) {
@@ -364,7 +366,7 @@ public class VerbPhraseHelper extends AbstractVerbPhraseHelper {
 			vgComponents.push(frontVG);
 		}
 		// vaudrypl changed InflectedWordElement constructor call
-		WordElement auxiliary = frontVG.getLexicon().lookupWord("be", LexicalCategory.VERB);
+		WordElement auxiliary = FunctionWords.of(frontVG.getLexicon()).getBe();
 		return new InflectedWordElement(auxiliary); //$NON-NLS-1$
 	}
 
@@ -42,6 +42,7 @@ import simplenlg.framework.NLGFactory;
 import simplenlg.framework.PhraseElement;
 import simplenlg.framework.StringElement;
 import simplenlg.framework.WordElement;
+import simplenlg.lexicon.french.FunctionWords;
 import simplenlg.phrasespec.NPPhraseSpec;
 import simplenlg.phrasespec.PPPhraseSpec;
 import simplenlg.phrasespec.SPhraseSpec;
@@ -243,16 +244,22 @@ public class ClauseHelper extends simplenlg.syntax.english.nonstatic.ClauseHelpe
 	 * @author vaudrypl
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
 	protected void checkClausalSubjects(PhraseElement phrase) {
 		Object subjects = phrase.getFeature(InternalFeature.SUBJECTS);
 		List<NLGElement> subjectList = null;
+		// element and feature holding the list of subjects
+		NLGElement subjectsOwner = phrase;
+		String subjectsFeature = InternalFeature.SUBJECTS;
 		if (subjects instanceof CoordinatedPhraseElement) {
-			subjects = ((CoordinatedPhraseElement)subjects).getFeature(InternalFeature.COORDINATES);
+			subjectsOwner = (CoordinatedPhraseElement) subjects;
+			subjectsFeature = InternalFeature.COORDINATES;
+			subjects = subjectsOwner.getFeature(subjectsFeature);
 		}
-		if (subjects instanceof List) subjectList = (List<NLGElement>) subjects;
+		// the list of the feature may not be modifiable
+		if (subjects instanceof List) subjectList = subjectsOwner.getFeatureAsElementList(subjectsFeature);
 		
 		if (subjectList != null) {
+			boolean changed = false;
 			for (int index = 0; index < subjectList.size(); ++index) {
 				NLGElement currentSubject = subjectList.get(index);
 				
@@ -269,11 +276,13 @@ public class ClauseHelper extends simplenlg.syntax.english.nonstatic.ClauseHelpe
 						currentSubject.setFeature(Feature.SUPRESSED_COMPLEMENTISER, false);
 						
 						currentSubject = newSubject;
+						changed = true;
 					}
 				}
 				
 				subjectList.set(index, currentSubject);
 			}
+			if (changed) subjectsOwner.setFeature(subjectsFeature, subjectList);
 		}
 	}
 
@@ -297,7 +306,7 @@ public class ClauseHelper extends simplenlg.syntax.english.nonstatic.ClauseHelpe
 		Object clauseForm = phrase.getFeature(Feature.FORM);
 		Object clauseStatus = phrase.getFeature(InternalFeature.CLAUSE_STATUS);
 		Object complementiser = phrase.getFeature(Feature.COMPLEMENTISER);
-		WordElement que = phrase.getLexicon().lookupWord("que", LexicalCategory.COMPLEMENTISER);
+		WordElement que = FunctionWords.of(phrase.getLexicon()).getQueComplementiser();
 		if (clauseForm == Form.INFINITIVE && clauseStatus == ClauseStatus.SUBORDINATE) {
 			if (que.equals(complementiser)) phrase.setFeature(Feature.SUPRESSED_COMPLEMENTISER, true);
 			else phrase.setFeature(Feature.SUPRESSED_COMPLEMENTISER, false);
@@ -355,13 +364,14 @@ public class ClauseHelper extends simplenlg.syntax.english.nonstatic.ClauseHelpe
 			}			
 			// Decide which relative pronoun to use.
 			NLGFactory factory = phrase.getFactory();
+			FunctionWords words = FunctionWords.of(phrase.getLexicon());
 			NLGElement relativePronoun;
 			NLGElement preposition = null;
 			boolean passive = phrase.getFeatureAsBoolean(Feature.PASSIVE);
 			switch (function) {
 			case SUBJECT:
 				relativePronoun = factory.createNounPhrase(
-						factory.createWord("qui", LexicalCategory.PRONOUN) );
+						factory.createWord(words.getQui(), LexicalCategory.PRONOUN) );
 				if (passive) {
 					relativePronoun =factory.createPrepositionPhrase(
 							"par", relativePronoun);
@@ -370,14 +380,14 @@ public class ClauseHelper extends simplenlg.syntax.english.nonstatic.ClauseHelpe
 			case OBJECT:
 				if (passive) {
 					relativePronoun = factory.createNounPhrase(
-							factory.createWord("qui", LexicalCategory.PRONOUN) );
+							factory.createWord(words.getQui(), LexicalCategory.PRONOUN) );
 				} else {
 					relativePronoun = factory.createNounPhrase(
-							factory.createWord("que", LexicalCategory.PRONOUN) );
+							factory.createWord(words.getQue(), LexicalCategory.PRONOUN) );
 				}
 				break;
 			case INDIRECT_OBJECT:
-				preposition = factory.createWord("à", LexicalCategory.PREPOSITION);
+				preposition = factory.createWord(words.getA(), LexicalCategory.PREPOSITION);
 			default:
 				if (relativePhrase instanceof PPPhraseSpec) {
 					relativePhrase.setFeature(FrenchInternalFeature.RELATIVISED, true);
@@ -389,19 +399,19 @@ public class ClauseHelper extends simplenlg.syntax.english.nonstatic.ClauseHelpe
 					 * has preposition "de" and is not itself in a PP.
 					 * Also use "dont" when the relative phrase is the
 					 * pronoun "en" (which always replaces a PP with "de"). */
-					NLGElement de = factory.createWord("de", LexicalCategory.PREPOSITION);
-					NLGElement en = factory.createWord("en", LexicalCategory.PRONOUN);
+					WordElement de = words.getDe();
+					WordElement en = words.getEn();
 					NLGElement relativeParent = relativePhrase.getParent();
 					boolean dontNotException = relativeParent == null
 							|| (relativeParent.getFeature(InternalFeature.DISCOURSE_FUNCTION)
 									!= DiscourseFunction.INDIRECT_OBJECT
 								&& !(relativeParent.getParent() instanceof PPPhraseSpec));
 					
-					if ((preposition == de && dontNotException)
-							|| relativePhrase.getFeature(InternalFeature.HEAD) == en) {
+					if ((de.isSameEntry(preposition) && dontNotException)
+							|| en.isSameEntry(relativePhrase.getFeatureAsElement(InternalFeature.HEAD))) {
 						
 						relativePronoun = factory.createNounPhrase(
-								factory.createWord("dont", LexicalCategory.PRONOUN));
+								factory.createWord(words.getDont(), LexicalCategory.PRONOUN));
 					} else {
 						String relProString = "lequel";					
 						// Check antecedent for special cases.
@@ -437,7 +447,7 @@ public class ClauseHelper extends simplenlg.syntax.english.nonstatic.ClauseHelpe
 								grandParent.setFeature(FrenchInternalFeature.RELATIVISED, true);
 							} else {
 								parentPreposition = factory.createWord(
-									"à", LexicalCategory.PREPOSITION);
+									words.getA(), LexicalCategory.PREPOSITION);
 								relativeParent.setFeature(FrenchInternalFeature.RELATIVISED, true);
 							}
 							NPPhraseSpec nounPhraseCopy =
@@ -451,7 +461,7 @@ public class ClauseHelper extends simplenlg.syntax.english.nonstatic.ClauseHelpe
 					}
 				} else {
 					relativePronoun = factory.createNounPhrase(
-							factory.createWord("que", LexicalCategory.PRONOUN));
+							factory.createWord(words.getQue(), LexicalCategory.PRONOUN));
 				}					
 				break;
 			}			
@@ -18,9 +18,7 @@
  */
 package simplenlg.syntax.french;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import simplenlg.features.DiscourseFunction;
 import simplenlg.features.Feature;
@@ -40,6 +38,8 @@ import simplenlg.framework.PhraseElement;
 import simplenlg.framework.StringElement;
 import simplenlg.framework.WordElement;
 import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.french.FunctionWords;
+import simplenlg.lexicon.french.PronounParadigm;
 import simplenlg.phrasespec.AdjPhraseSpec;
 import simplenlg.phrasespec.NPPhraseSpec;
 import simplenlg.syntax.AbstractNounPhraseHelper;
@@ -62,56 +62,47 @@ public class NounPhraseHelper extends AbstractNounPhraseHelper
 	@Override
 	protected NLGElement createPronoun(PhraseElement phrase) {
 
-		// this will contain the features we want the pronoun to have
-		Map<String, Object> pronounFeatures = new HashMap<String, Object>();
-		
-		pronounFeatures.put(FrenchLexicalFeature.PRONOUN_TYPE, PronounType.PERSONAL);
-
 		Object personValue = phrase.getFeature(Feature.PERSON);
 		Person person;
 		if (personValue instanceof Person) {
-			pronounFeatures.put(Feature.PERSON, personValue);
 			person = (Person) personValue;
 		}
 		// default person is THIRD
 		else {
-			pronounFeatures.put(Feature.PERSON, Person.THIRD);
 			person = Person.THIRD;
 		}
 		
 		// only check gender feature for third person pronouns
+		Object gender = PronounParadigm.UNSPECIFIED;
 		if (person == Person.THIRD) {
 			Object genderValue = phrase.getFeature(LexicalFeature.GENDER);
 			if (genderValue instanceof Gender) {
-				pronounFeatures.put(LexicalFeature.GENDER, genderValue);
+				gender = genderValue;
 			}
 			// default gender is MASCULINE
 			else {
-				pronounFeatures.put(LexicalFeature.GENDER, Gender.MASCULINE);
+				gender = Gender.MASCULINE;
 			}
 		}
 		
-		Object numberValue = phrase.getFeature(Feature.NUMBER);
-		if (numberValue instanceof NumberAgreement) {
-			pronounFeatures.put(Feature.NUMBER, numberValue);
-		}
+		Object number = phrase.getFeature(Feature.NUMBER);
 		// default number is SINGULAR
-		else {
-			pronounFeatures.put(Feature.NUMBER, NumberAgreement.SINGULAR);
+		if (!(number instanceof NumberAgreement)) {
+			number = NumberAgreement.SINGULAR;
 		}
 		
-		pronounFeatures.put(Feature.POSSESSIVE,
-				phrase.getFeatureAsBoolean(Feature.POSSESSIVE));
-		
 		NLGFactory phraseFactory = phrase.getFactory();
 		Lexicon lexicon = phraseFactory.getLexicon();
-		// search the lexicon for the right pronoun
-		WordElement proElement =
-			lexicon.getWord(LexicalCategory.PRONOUN, pronounFeatures);
+		// look for the right pronoun in the pronoun paradigm of the lexicon
+		WordElement proElement = PronounParadigm.getPronoun(lexicon,
+				PronounType.PERSONAL, person, number, gender,
+				PronounParadigm.UNSPECIFIED, PronounParadigm.UNSPECIFIED,
+				PronounParadigm.UNSPECIFIED,
+				phrase.getFeatureAsBoolean(Feature.POSSESSIVE));
 		
 		// if the right pronoun is not found in the lexicon,
 		// take "il" as a last resort
-		if (proElement == null) proElement = lexicon.lookupWord("il", LexicalCategory.PRONOUN);
+		if (proElement == null) proElement = FunctionWords.of(lexicon).getIl();
 			
 		// AG: createWord now returns WordElement; so we embed it in an
 		// inflected word element here
@@ -261,13 +252,14 @@ public class NounPhraseHelper extends AbstractNounPhraseHelper
 			NLGElement specifierElement = 
 				phrase.getFeatureAsElement(InternalFeature.SPECIFIER);
 			Lexicon lexicon = specifierElement != null ? specifierElement.getLexicon() : null;
+			FunctionWords words = lexicon != null ? FunctionWords.of(lexicon) : null;
 
 			// if it is the "partitif" determiner "du"
 			if (lexicon != null
 					&& !phrase.getFeatureAsBoolean(InternalFeature.RAISED)
-					&& specifierElement.equals(lexicon.getWord("du", LexicalCategory.DETERMINER)) ) {
+					&& words.getDu().isSameEntry(specifierElement) ) {
 				
-				WordElement de = lexicon.getWord("de", LexicalCategory.PREPOSITION);
+				WordElement de = words.getDe();
 				NLGElement realisedDe = de.realiseSyntax();
 				if (realisedDe != null) {
 					realisedDe.setFeature(InternalFeature.DISCOURSE_FUNCTION,
@@ -275,7 +267,7 @@ public class NounPhraseHelper extends AbstractNounPhraseHelper
 					realisedElement.addComponent(realisedDe);
 				}
 				NPPhraseSpec subphrase = new NPPhraseSpec((NPPhraseSpec)phrase);
-				WordElement newDeterminer = lexicon.getWord("le", LexicalCategory.DETERMINER);
+				WordElement newDeterminer = words.getLe();
 				// if the noun phrase is the direct object of a negated verb,
 				// the determiner is reduced to "de" instead of "du"
 				if (checkNegatedObject(phrase)) newDeterminer = null;
@@ -285,10 +277,10 @@ public class NounPhraseHelper extends AbstractNounPhraseHelper
 			// changes "un" to "de" if the noun phrase is the direct object of a negated verb
 			} else if (lexicon != null
 					&& !phrase.getFeatureAsBoolean(InternalFeature.RAISED)
-					&& specifierElement.equals(lexicon.getWord("un", LexicalCategory.DETERMINER))
+					&& words.getUn().isSameEntry(specifierElement)
 					&& checkNegatedObject(phrase)) {
 				NPPhraseSpec newPhrase = new NPPhraseSpec((NPPhraseSpec)phrase);
-				WordElement de = lexicon.getWord("de", LexicalCategory.PREPOSITION);
+				WordElement de = words.getDe();
 				newPhrase.setSpecifier(de);
 				realisedElement = super.realise(newPhrase);
 			} else {
@@ -375,7 +367,7 @@ public class NounPhraseHelper extends AbstractNounPhraseHelper
 				&& specifierElement.isA(LexicalCategory.ADVERB)) {
 			
 			Lexicon lexicon = specifierElement.getLexicon();
-			WordElement de = lexicon.getWord("de", LexicalCategory.PREPOSITION);
+			WordElement de = FunctionWords.of(lexicon).getDe();
 			NLGElement realisedDe = de.realiseSyntax();
 			if (realisedDe != null) {
 				realisedDe.setFeature(InternalFeature.DISCOURSE_FUNCTION,
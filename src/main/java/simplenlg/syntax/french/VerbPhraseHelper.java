@@ -47,6 +47,7 @@ import simplenlg.framework.PhraseElement;
 import simplenlg.framework.StringElement;
 import simplenlg.framework.WordElement;
 import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.french.FunctionWords;
 import simplenlg.phrasespec.NPPhraseSpec;
 import simplenlg.phrasespec.PPPhraseSpec;
 import simplenlg.phrasespec.VPPhraseSpec;
@@ -221,8 +222,8 @@ public class VerbPhraseHelper extends simplenlg.syntax.english.nonstatic.VerbPhr
 
 			NLGElement complementiser = factory.createWord(
 					parent.getFeature(Feature.COMPLEMENTISER), LexicalCategory.COMPLEMENTISER);
-			NLGElement si = factory.createWord("si", LexicalCategory.COMPLEMENTISER);
-			if (complementiser == si) {
+			WordElement si = FunctionWords.of(phrase.getLexicon()).getSi();
+			if (si.isSameEntry(complementiser)) {
 				if (tenseValue == Tense.FUTURE) tenseValue = Tense.PRESENT;
 				else if (tenseValue == Tense.CONDITIONAL) {
 					tenseValue = Tense.PAST;
@@ -539,8 +540,7 @@ public class VerbPhraseHelper extends simplenlg.syntax.english.nonstatic.VerbPhr
 			vgComponents.push(frontVG);
 		}
 		// adds auxiliary "être"
-		WordElement passiveAuxiliary = (WordElement)
-			frontVG.getLexicon().lookupWord("être", LexicalCategory.VERB); //$NON-NLS-1$
+		WordElement passiveAuxiliary = FunctionWords.of(frontVG.getLexicon()).getEtre();
 		return new InflectedWordElement(passiveAuxiliary);
 	}
 
@@ -570,8 +570,7 @@ public class VerbPhraseHelper extends simplenlg.syntax.english.nonstatic.VerbPhr
 			vgComponents.push(enTrain);
 			
 			// adds auxiliary "être"
-			WordElement passiveAuxiliary = (WordElement)
-				frontVG.getLexicon().lookupWord("être", LexicalCategory.VERB); //$NON-NLS-1$
+			WordElement passiveAuxiliary = FunctionWords.of(frontVG.getLexicon()).getEtre();
 			frontVG = new InflectedWordElement(passiveAuxiliary);
 		}
 		return frontVG;
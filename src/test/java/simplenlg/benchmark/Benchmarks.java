@@ -0,0 +1,67 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+/**
+ * Helpers of the benchmarks of this package. The benchmarks are not part of
+ * the unit tests : each of them is a main class, run with the test classpath
+ * (for instance from the IDE, or with
+ * <code>java -cp target/classes:target/test-classes:lib/* simplenlg.benchmark.LexiconLoadingBenchmark</code>),
+ * which prints the times it measures.
+ */
+final class Benchmarks {
+
+	// runs of a task before it is timed, so that its code is compiled
+	static final int WARMUP_RUNS = 3;
+
+	// runs of a task timed, of which the best is kept
+	static final int RUNS = 5;
+
+	private Benchmarks() {
+	}
+
+	/**
+	 * Runs a task a few times, then times it.
+	 * 
+	 * @param task
+	 * @return the best time of the task, in milliseconds
+	 */
+	static double time(Runnable task) {
+		for (int run = 0; run < WARMUP_RUNS; run++) {
+			task.run();
+		}
+		long best = Long.MAX_VALUE;
+		for (int run = 0; run < RUNS; run++) {
+			long start = System.nanoTime();
+			task.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / 1e6;
+	}
+
+	/**
+	 * Prints a line of results.
+	 * 
+	 * @param format
+	 * @param args
+	 */
+	static void report(String format, Object... args) {
+		System.out.format(format + "%n", args);
+	}
+}
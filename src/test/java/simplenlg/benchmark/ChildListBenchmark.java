@@ -0,0 +1,73 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.util.List;
+
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.english.XMLLexicon;
+
+/**
+ * Times the building of a document of 100000 sentences and of a
+ * coordination of 10000 coordinates, and compares it with copying the list
+ * of children for each one, as adding them did before.
+ */
+public class ChildListBenchmark {
+
+	private static final int SENTENCES = 100000;
+	private static final int COORDINATES = 10000;
+	private static final int COPIED_SENTENCES = 10000;
+
+	public static void main(String[] args) {
+		final NLGFactory factory = new NLGFactory(new XMLLexicon());
+		double documentTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				DocumentElement paragraph = factory.createParagraph();
+				for (int i = 0; i < SENTENCES; i++) {
+					paragraph.addComponent(factory.createSentence("sentence " + i));
+				}
+			}
+		});
+		double coordinationTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				CoordinatedPhraseElement coordination = factory.createCoordinatedPhrase();
+				for (int i = 0; i < COORDINATES; i++) {
+					coordination.addCoordinate(factory.createNounPhrase("dog " + i));
+				}
+			}
+		});
+		double copyingTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				DocumentElement copied = factory.createParagraph();
+				for (int i = 0; i < COPIED_SENTENCES; i++) {
+					List<NLGElement> components = copied.getComponents();
+					components.add(factory.createSentence("sentence " + i));
+					copied.setComponents(components);
+				}
+			}
+		});
+		Benchmarks.report("Adding %d sentences to a document: %.1f ms, "
+				+ "%d coordinates to a coordination: %.1f ms, "
+				+ "%d sentences copying the list: %.1f ms", SENTENCES, documentTime,
+				COORDINATES, coordinationTime, COPIED_SENTENCES, copyingTime);
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.english.XMLLexicon;
+import simplenlg.test.english.ChildVisitorTest;
+
+/**
+ * Compares the time taken and the memory allocated by the searches in a
+ * large tree (leftmost and rightmost elements, number of words) with finding
+ * the same elements with getChildren, with the searches of ChildVisitorTest.
+ * The memory is only measured where the JVM can measure the memory allocated
+ * by a thread.
+ */
+public class ChildVisitorBenchmark {
+
+	private static final int SENTENCES = 100;
+	private static final int SEARCHES = 100;
+
+	public static void main(String[] args) {
+		NLGFactory factory = new NLGFactory(new XMLLexicon());
+		List<DocumentElement> sentences = new ArrayList<DocumentElement>();
+		for (int i = 0; i < SENTENCES; i++) {
+			sentences.add(factory.createSentence(ChildVisitorTest.createClause(factory)));
+		}
+		final NLGElement tree = factory.createParagraph(sentences).realiseSyntax();
+
+		double visitorTime = Benchmarks.time(search(tree, false));
+		double listTime = Benchmarks.time(search(tree, true));
+		Benchmarks.report("%d searches in %d sentences: %.1f ms visiting the children, "
+				+ "%.1f ms with getChildren", SEARCHES, SENTENCES, visitorTime, listTime);
+
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return;
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		long threadId = Thread.currentThread().getId();
+
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		search(tree, false).run();
+		long visitorBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+		before = threadBean.getThreadAllocatedBytes(threadId);
+		search(tree, true).run();
+		long listBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+		Benchmarks.report("Bytes allocated by a search in %d sentences: "
+				+ "%.1f KB visiting the children, %.1f KB with getChildren", SENTENCES,
+				visitorBytes / 1024.0 / SEARCHES, listBytes / 1024.0 / SEARCHES);
+	}
+
+	/**
+	 * @return a task doing the searches in the tree
+	 */
+	private static Runnable search(final NLGElement tree, final boolean withLists) {
+		return new Runnable() {
+			public void run() {
+				for (int i = 0; i < SEARCHES; i++) {
+					ChildVisitorTest.search(tree, withLists);
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.english.XMLLexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Times the realisation of a large English document, and compares the
+ * memory allocated by inflected words inheriting the features of their word
+ * with copying them (where the JVM can measure the memory allocated by a
+ * thread).
+ */
+public class FeatureInheritanceBenchmark {
+
+	private static final int SENTENCES = 1000;
+	private static final int INFLECTED_WORDS = 20000;
+
+	public static void main(String[] args) {
+		Lexicon lexicon = new XMLLexicon();
+		final NLGFactory factory = new NLGFactory(lexicon);
+		final Realiser realiser = new Realiser();
+		double time = Benchmarks.time(new Runnable() {
+			public void run() {
+				realiser.realise(createDocument(factory));
+			}
+		});
+		Benchmarks.report("Realising %d sentences: %.1f ms", SENTENCES, time);
+
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return;
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		long threadId = Thread.currentThread().getId();
+
+		WordElement word = lexicon.getWord("mouse", LexicalCategory.NOUN);
+		List<NLGElement> kept = new ArrayList<NLGElement>(INFLECTED_WORDS);
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < INFLECTED_WORDS; i++) {
+			kept.add(new InflectedWordElement(word));
+		}
+		long inheritBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+		kept.clear();
+		before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < INFLECTED_WORDS; i++) {
+			InflectedWordElement copy = new InflectedWordElement(word.getBaseForm(),
+					(LexicalCategory) word.getCategory());
+			for (String feature : word.getAllFeatureNames()) {
+				copy.setFeature(feature, word.getFeature(feature));
+			}
+			kept.add(copy);
+		}
+		long copyBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+		Benchmarks.report("Bytes allocated per inflected word: inherited %.1f, copied %.1f",
+				(double) inheritBytes / INFLECTED_WORDS, (double) copyBytes / INFLECTED_WORDS);
+	}
+
+	private static DocumentElement createDocument(NLGFactory factory) {
+		String[] subjects = { "the man", "the woman", "a dog", "some children", "the mouse" };
+		String[] verbs = { "chase", "see", "like", "kick", "carry" };
+		String[] objects = { "the ball", "a cat", "the rock", "the curtain", "some sheep" };
+
+		List<DocumentElement> sentences = new ArrayList<DocumentElement>();
+		for (int i = 0; i < SENTENCES; i++) {
+			SPhraseSpec clause = factory.createClause(subjects[i % 5],
+					verbs[(i / 5) % 5], objects[(i / 25) % 5]);
+			sentences.add(factory.createSentence(clause));
+		}
+		return factory.createDocument(null, factory.createParagraph(sentences));
+	}
+}
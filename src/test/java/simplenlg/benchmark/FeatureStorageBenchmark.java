@@ -0,0 +1,135 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.StringElement;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.french.XMLLexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+import simplenlg.test.french.FeatureStorageTest;
+
+/**
+ * Compares the memory taken and the lookup time of the features of the
+ * words of the French lexicon, copied into elements, with those of HashMaps,
+ * and times the realisation of French clauses. The memory is only measured
+ * where the JVM can measure the memory allocated by a thread.
+ */
+public class FeatureStorageBenchmark {
+
+	private static final int LOOKUPS = 100;
+	private static final int CLAUSES = 1000;
+
+	// features found by the lookups, so that they aren't optimised away
+	private static int found;
+
+	public static void main(String[] args) {
+		Lexicon lexicon = new XMLLexicon();
+		final List<WordElement> words = lexicon.getWords(LexicalCategory.ANY,
+				new HashMap<String, Object>());
+		final List<NLGElement> elements = new ArrayList<NLGElement>(words.size());
+		final List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>(words.size());
+		for (WordElement word : words) {
+			elements.add(FeatureStorageTest.copyFeatures(word));
+			maps.add(new HashMap<String, Object>(word.getAllFeatures()));
+		}
+
+		double elementTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				for (int i = 0; i < LOOKUPS; i++) {
+					for (NLGElement element : elements) {
+						for (String name : FeatureStorageTest.LOOKED_UP) {
+							if (element.getFeature(name) != null) found++;
+						}
+					}
+				}
+			}
+		});
+		double mapTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				for (int i = 0; i < LOOKUPS; i++) {
+					for (Map<String, Object> map : maps) {
+						for (String name : FeatureStorageTest.LOOKED_UP) {
+							if (map.get(name) != null) found++;
+						}
+					}
+				}
+			}
+		});
+		Benchmarks.report("%d feature lookups: %.1f ms in elements, %.1f ms in HashMaps",
+				LOOKUPS * words.size() * FeatureStorageTest.LOOKED_UP.length, elementTime,
+				mapTime);
+
+		final NLGFactory factory = new NLGFactory(lexicon);
+		final Realiser realiser = new Realiser();
+		double realisationTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				for (int i = 0; i < CLAUSES; i++) {
+					SPhraseSpec clause = factory.createClause("le cheval", "manger", "la pomme");
+					clause.setFeature(Feature.TENSE, i % 2 == 0 ? Tense.PAST : Tense.FUTURE);
+					realiser.realiseSentence(clause);
+				}
+			}
+		});
+		Benchmarks.report("Realising %d clauses: %.1f ms", CLAUSES, realisationTime);
+
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return;
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		long threadId = Thread.currentThread().getId();
+		List<Object> kept = new ArrayList<Object>(words.size());
+
+		// the elements without features, to count only their features
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		for (WordElement word : words) {
+			StringElement element = new StringElement(word.getBaseForm());
+			element.clearAllFeatures();
+			kept.add(element);
+		}
+		long emptyBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+		kept.clear();
+		before = threadBean.getThreadAllocatedBytes(threadId);
+		for (WordElement word : words) {
+			kept.add(FeatureStorageTest.copyFeatures(word));
+		}
+		long elementBytes = threadBean.getThreadAllocatedBytes(threadId) - before - emptyBytes;
+
+		kept.clear();
+		before = threadBean.getThreadAllocatedBytes(threadId);
+		for (WordElement word : words) {
+			kept.add(new HashMap<String, Object>(word.getAllFeatures()));
+		}
+		long mapBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+		Benchmarks.report("Features of %d French words: %.1f KB in elements, "
+				+ "%.1f KB in HashMaps", words.size(), elementBytes / 1024.0, mapBytes / 1024.0);
+	}
+}
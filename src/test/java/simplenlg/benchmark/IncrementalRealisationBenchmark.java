@@ -0,0 +1,82 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.util.Iterator;
+
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.english.XMLLexicon;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Compares the time taken to realise a long document incrementally with
+ * realising it as a whole, and times the first sentence given by the
+ * incremental realisation.
+ */
+public class IncrementalRealisationBenchmark {
+
+	private static final int SENTENCES = 5000;
+
+	public static void main(String[] args) {
+		final NLGFactory factory = new NLGFactory(new XMLLexicon());
+		final Realiser realiser = new Realiser();
+
+		double wholeTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				realiser.realise(createDocument(factory)).getRealisation();
+			}
+		});
+		double incrementalTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				Iterator<String> iterator = realiser.realiseIncrementally(createDocument(factory));
+				StringBuilder text = new StringBuilder();
+				while (iterator.hasNext()) {
+					text.append(iterator.next());
+				}
+			}
+		});
+		double firstTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				realiser.realiseIncrementally(createDocument(factory)).next();
+			}
+		});
+		Benchmarks.report("Realising %d sentences: whole document %.1f ms, "
+				+ "incrementally %.1f ms (first text after %.1f ms, with the document built)",
+				SENTENCES, wholeTime, incrementalTime, firstTime);
+	}
+
+	private static DocumentElement createDocument(NLGFactory factory) {
+		String[] subjects = { "the man", "the woman", "a dog", "some children", "the mouse" };
+		String[] verbs = { "chase", "see", "like", "kick", "carry" };
+		String[] objects = { "the ball", "a cat", "the rock", "the curtain", "some sheep" };
+
+		DocumentElement document = factory.createDocument("Title");
+		DocumentElement paragraph = null;
+		for (int i = 0; i < SENTENCES; i++) {
+			if (i % 10 == 0) {
+				paragraph = factory.createParagraph();
+				document.addComponent(paragraph);
+			}
+			paragraph.addComponent(factory.createSentence(factory.createClause(
+					subjects[i % 5], verbs[(i / 5) % 5], objects[(i / 25) % 5])));
+		}
+		return document;
+	}
+}
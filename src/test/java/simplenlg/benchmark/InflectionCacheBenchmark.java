@@ -0,0 +1,89 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import simplenlg.features.Feature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.french.XMLLexicon;
+import simplenlg.morphology.InflectionCache;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Compares the time taken to realise French clauses with and without the
+ * inflection cache of their lexicon.
+ */
+public class InflectionCacheBenchmark {
+
+	private static final String[] SUBJECTS = { "je", "tu", "il", "nous", "vous", "elles" };
+	private static final String[] VERBS = { "parler", "finir", "prendre", "venir", "partir" };
+	private static final Tense[] TENSES = { Tense.PRESENT, Tense.PAST, Tense.FUTURE,
+		Tense.CONDITIONAL };
+
+	public static void main(String[] args) {
+		Lexicon lexicon = new XMLLexicon();
+		NLGFactory factory = new NLGFactory(lexicon);
+		final Realiser realiser = new Realiser();
+		final List<NLGElement> clauses = new ArrayList<NLGElement>();
+		for (int i = 0; i < 5; i++) {
+			clauses.addAll(createClauses(factory));
+		}
+		Runnable task = new Runnable() {
+			public void run() {
+				for (NLGElement clause : clauses) {
+					realiser.realiseSentence(clause);
+				}
+			}
+		};
+
+		lexicon.setInflectionCache(null);
+		double uncachedTime = Benchmarks.time(task);
+		InflectionCache cache = new InflectionCache();
+		lexicon.setInflectionCache(cache);
+		double cachedTime = Benchmarks.time(task);
+		Benchmarks.report("Realising %d clauses: %.1f ms without the inflection cache, "
+				+ "%.1f ms with it (%s)", clauses.size(), uncachedTime, cachedTime, cache);
+	}
+
+	private static List<NLGElement> createClauses(NLGFactory factory) {
+		List<NLGElement> clauses = new ArrayList<NLGElement>();
+		for (Tense tense : TENSES) {
+			for (String verb : VERBS) {
+				for (String subject : SUBJECTS) {
+					SPhraseSpec clause = factory.createClause(subject, verb);
+					clause.setFeature(Feature.TENSE, tense);
+					NPPhraseSpec object = factory.createNounPhrase("le", "maison");
+					object.addModifier("beau");
+					object.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+					clause.addComplement(factory.createPrepositionPhrase("de", object));
+					clauses.add(clause);
+				}
+			}
+		}
+		return clauses;
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.net.URI;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.lexicon.LexiconRegistry;
+import simplenlg.lexicon.VariantIndexMode;
+import simplenlg.lexicon.french.XMLLexicon;
+
+/**
+ * Times the loading of the default French lexicon with each variant index
+ * mode, and the first lookup by variant with the lazy index (which indexes
+ * the verbs only).
+ */
+public class LexiconLoadingBenchmark {
+
+	public static void main(String[] args) {
+		final URI uri = LexiconRegistry.getDefaultLexiconURI(Language.FRENCH);
+		for (final VariantIndexMode mode : VariantIndexMode.values()) {
+			double time = Benchmarks.time(new Runnable() {
+				public void run() {
+					new XMLLexicon(uri, mode);
+				}
+			});
+			Benchmarks.report("Loading French lexicon with %s variant index: %.1f ms",
+					mode, time);
+		}
+
+		long best = Long.MAX_VALUE;
+		for (int run = 0; run < Benchmarks.RUNS; run++) {
+			XMLLexicon lexicon = new XMLLexicon(uri, VariantIndexMode.LAZY);
+			long start = System.nanoTime();
+			lexicon.getWordFromVariant("sommes", LexicalCategory.VERB);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		Benchmarks.report("First lookup of a verb by variant with LAZY index: %.1f ms",
+				best / 1e6);
+	}
+}
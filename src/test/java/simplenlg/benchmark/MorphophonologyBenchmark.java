@@ -0,0 +1,78 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.french.XMLLexicon;
+import simplenlg.test.french.MorphophonologyTest;
+
+/**
+ * Compares the time taken by the morphophonology of deep relative clauses
+ * and long coordinations in one pass with doing it recursively, with the
+ * sentences of MorphophonologyTest.
+ */
+public class MorphophonologyBenchmark {
+
+	private static final int SENTENCES = 50;
+
+	public static void main(String[] args) {
+		NLGFactory factory = new NLGFactory(new XMLLexicon());
+		long recursiveTime = Long.MAX_VALUE;
+		long flattenedTime = Long.MAX_VALUE;
+		int sentences = 0;
+		for (int run = 0; run < Benchmarks.WARMUP_RUNS + Benchmarks.RUNS; run++) {
+			// the sentences are realised up to the morphology stage before
+			// being timed, since the morphophonology changes them
+			List<NLGElement> recursive = createSentences(factory);
+			List<NLGElement> flattened = createSentences(factory);
+			sentences = recursive.size();
+
+			long start = System.nanoTime();
+			for (NLGElement element : recursive) {
+				MorphophonologyTest.realiseRecursively(element);
+			}
+			long time = System.nanoTime() - start;
+			if (run >= Benchmarks.WARMUP_RUNS) recursiveTime = Math.min(recursiveTime, time);
+
+			start = System.nanoTime();
+			for (NLGElement element : flattened) {
+				element.realiseMorphophonology();
+			}
+			time = System.nanoTime() - start;
+			if (run >= Benchmarks.WARMUP_RUNS) flattenedTime = Math.min(flattenedTime, time);
+		}
+		Benchmarks.report("Morphophonology of %d deep sentences: %.1f ms recursively, "
+				+ "%.1f ms in one pass", sentences, recursiveTime / 1e6, flattenedTime / 1e6);
+	}
+
+	private static List<NLGElement> createSentences(NLGFactory factory) {
+		List<NLGElement> sentences = new ArrayList<NLGElement>();
+		for (int i = 0; i < SENTENCES; i++) {
+			sentences.add(MorphophonologyTest.realiseMorphology(factory,
+					MorphophonologyTest.createRelativeClauses(factory, 30)));
+			sentences.add(MorphophonologyTest.realiseMorphology(factory,
+					MorphophonologyTest.createCoordination(factory, 200, false)));
+		}
+		return sentences;
+	}
+}
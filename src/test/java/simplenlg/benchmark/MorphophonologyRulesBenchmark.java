@@ -0,0 +1,67 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.StringElement;
+import simplenlg.lexicon.french.XMLLexicon;
+import simplenlg.morphophonology.MorphophonologyRulesInterface;
+import simplenlg.morphophonology.french.MorphophonologyRules;
+import simplenlg.test.french.MorphophonologyRulesTest;
+
+/**
+ * Compares the time taken by the French morphophonology rules and by the
+ * rules written with regular expressions (kept by MorphophonologyRulesTest)
+ * on pairs of words.
+ */
+public class MorphophonologyRulesBenchmark {
+
+	private static final int PAIRS = 200000;
+
+	public static void main(String[] args) {
+		NLGFactory factory = new NLGFactory(new XMLLexicon());
+		MorphophonologyRulesInterface reference =
+			new MorphophonologyRulesTest.RegexMorphophonologyRules();
+		MorphophonologyRulesInterface rules = new MorphophonologyRules();
+		long regexTime = Long.MAX_VALUE;
+		long tableTime = Long.MAX_VALUE;
+		for (int run = 0; run < Benchmarks.WARMUP_RUNS + Benchmarks.RUNS; run++) {
+			// new pairs for each run, since the rules change the words
+			long time = time(reference, MorphophonologyRulesTest.createPairs(factory, PAIRS));
+			if (run >= Benchmarks.WARMUP_RUNS) regexTime = Math.min(regexTime, time);
+			time = time(rules, MorphophonologyRulesTest.createPairs(factory, PAIRS));
+			if (run >= Benchmarks.WARMUP_RUNS) tableTime = Math.min(tableTime, time);
+		}
+		Benchmarks.report("French morphophonology of %d pairs: %.1f ms with regular "
+				+ "expressions, %.1f ms with the tables", PAIRS, regexTime / 1e6,
+				tableTime / 1e6);
+	}
+
+	/**
+	 * @return the time taken to apply the rules to every pair, in
+	 *         nanoseconds
+	 */
+	private static long time(MorphophonologyRulesInterface rules, StringElement[][] words) {
+		long start = System.nanoTime();
+		for (StringElement[] pair : words) {
+			MorphophonologyRulesTest.apply(rules, pair[0], pair[1]);
+		}
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+
+import simplenlg.lexicon.NIHDBLexicon;
+
+/**
+ * Times lookups in the NIH lexicon from several threads at the same time,
+ * without a cache so that every lookup goes to the DB, with pools of 1 to 4
+ * connections. The DB file is the first argument, by default the one used
+ * by the NIH tests.
+ */
+public class NIHLexiconPoolBenchmark {
+
+	private static final String[] BASE_FORMS = { "can", "tree", "good", "woman",
+			"sand", "dog", "cat", "be", "quickly", "UK" };
+	private static final String[] VARIANTS = { "women", "better", "is", "trees", "dogs" };
+
+	private static final int THREADS = 8;
+	private static final int ITERATIONS = 50;
+
+	public static void main(String[] args) throws Exception {
+		String filename = args.length > 0 ? args[0]
+				: "src/test/resources/NIHLexicon/lexAccess2013.data";
+		for (int poolSize = 1; poolSize <= 4; poolSize++) {
+			final NIHDBLexicon lexicon = new NIHDBLexicon(filename, poolSize);
+			lexicon.setCache(null);
+			try {
+				double time = Benchmarks.time(new Runnable() {
+					public void run() {
+						lookUp(lexicon);
+					}
+				});
+				Benchmarks.report("%d threads, %d lookups on %d connections: %.1f ms",
+						THREADS, THREADS * ITERATIONS * 2, poolSize, time);
+			} finally {
+				lexicon.close();
+			}
+		}
+	}
+
+	/**
+	 * Looks words up from all the threads, started together.
+	 */
+	private static void lookUp(final NIHDBLexicon lexicon) {
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			final int offset = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < ITERATIONS; i++) {
+						lexicon.getWords(BASE_FORMS[(i + offset) % BASE_FORMS.length]);
+						lexicon.getWordsFromVariant(VARIANTS[(i + offset) % VARIANTS.length]);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		start.countDown();
+		try {
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.english.XMLLexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.RealisationCache;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Compares the time taken to realise repeated specifications with and
+ * without a realisation cache.
+ */
+public class RealisationCacheBenchmark {
+
+	private static final int SENTENCES = 3000;
+
+	private static final String[] SUBJECTS = { "the man", "the woman", "a dog",
+			"some children", "the mouse" };
+	private static final Tense[] TENSES = { Tense.PAST, Tense.PRESENT, Tense.FUTURE };
+
+	public static void main(String[] args) {
+		final NLGFactory factory = new NLGFactory(new XMLLexicon());
+		final Realiser realiser = new Realiser();
+		final Realiser cachingRealiser = new Realiser();
+		RealisationCache cache = new RealisationCache();
+		cachingRealiser.setCache(cache);
+
+		double uncachedTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				realise(realiser, factory);
+			}
+		});
+		double cachedTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				realise(cachingRealiser, factory);
+			}
+		});
+		Benchmarks.report("Realising %d sentences: %.1f ms without cache, %.1f ms with cache "
+				+ "(hit rate %.3f)", SENTENCES, uncachedTime, cachedTime, cache.getHitRate());
+	}
+
+	private static void realise(Realiser realiser, NLGFactory factory) {
+		for (int i = 0; i < SENTENCES; i++) {
+			SPhraseSpec clause = factory.createClause(SUBJECTS[i % 5], "give", "the book");
+			clause.setIndirectObject(factory.createNounPhrase("the", "woman"));
+			clause.setFeature(Feature.TENSE, TENSES[(i / 5) % 3]);
+			realiser.realiseSentence(clause);
+		}
+	}
+}
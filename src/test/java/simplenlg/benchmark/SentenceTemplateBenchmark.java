@@ -0,0 +1,72 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.realiser.Realiser;
+import simplenlg.realiser.SentenceTemplate;
+import simplenlg.test.french.SentenceTemplateTest;
+
+/**
+ * Compares the time taken to realise sentences with a template and with the
+ * full realisation, in French and in English, with the sentences of
+ * SentenceTemplateTest.
+ */
+public class SentenceTemplateBenchmark {
+
+	private static final int SENTENCES = 2000;
+
+	public static void main(String[] args) {
+		benchmark("French", new NLGFactory(new simplenlg.lexicon.french.XMLLexicon()));
+		benchmark("English", new NLGFactory(Lexicon.getDefaultLexicon()));
+	}
+
+	private static void benchmark(String language, final NLGFactory factory) {
+		final Realiser realiser = new Realiser();
+		final List<NLGElement[]> fillers = new ArrayList<NLGElement[]>(SENTENCES);
+		for (int i = 0; i < SENTENCES; i++) {
+			fillers.add(SentenceTemplateTest.createFillers(factory, i));
+		}
+
+		double fullTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				for (NLGElement[] elements : fillers) {
+					realiser.realiseSentence(SentenceTemplateTest.createClause(factory,
+							elements[0], elements[1], elements[2]));
+				}
+			}
+		});
+		final SentenceTemplate template = SentenceTemplateTest.createTemplate(realiser, factory);
+		double templateTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				for (NLGElement[] elements : fillers) {
+					template.realise(SentenceTemplateTest.slots(elements));
+				}
+			}
+		});
+		Benchmarks.report("%s: %d sentences took %.1f ms with full realisation, "
+				+ "%.1f ms with a template (%d preparations)", language, SENTENCES,
+				fullTime, templateTime, template.getPreparationCount());
+	}
+}
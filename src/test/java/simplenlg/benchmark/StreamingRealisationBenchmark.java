@@ -0,0 +1,82 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.benchmark;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.english.XMLLexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Compares the time taken to realise a long document and get its text with
+ * writing it to an output.
+ */
+public class StreamingRealisationBenchmark {
+
+	private static final int SENTENCES = 2000;
+
+	public static void main(String[] args) {
+		final NLGFactory factory = new NLGFactory(new XMLLexicon());
+		final Realiser realiser = new Realiser();
+		final int length = realiser.realise(createDocument(factory)).getRealisation().length();
+
+		double realiseTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				realiser.realise(createDocument(factory)).getRealisation();
+			}
+		});
+		double streamTime = Benchmarks.time(new Runnable() {
+			public void run() {
+				try {
+					realiser.realise(createDocument(factory), new StringWriter(length));
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+		Benchmarks.report("Realising %d sentences (%d characters): realise %.1f ms, "
+				+ "written to output %.1f ms", SENTENCES, length, realiseTime, streamTime);
+	}
+
+	private static DocumentElement createDocument(NLGFactory factory) {
+		String[] subjects = { "the man", "the woman", "a dog", "some children", "the mouse" };
+		String[] verbs = { "chase", "see", "like", "kick", "carry" };
+		String[] objects = { "the ball", "a cat", "the rock", "the curtain", "some sheep" };
+
+		DocumentElement document = factory.createDocument("Title");
+		DocumentElement paragraph = null;
+		for (int i = 0; i < SENTENCES; i++) {
+			if (i % 10 == 0) {
+				paragraph = factory.createParagraph();
+				document.addComponent(paragraph);
+			}
+			CoordinatedPhraseElement object = factory.createCoordinatedPhrase(
+					objects[(i / 5) % 5], objects[(i + 1) % 5]);
+			SPhraseSpec clause = factory.createClause(subjects[i % 5],
+					verbs[(i / 5) % 5], object);
+			paragraph.addComponent(factory.createSentence(clause));
+		}
+		return document;
+	}
+}
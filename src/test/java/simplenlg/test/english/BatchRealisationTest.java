@@ -0,0 +1,232 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGElement;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.BatchRealisation;
+
+/**
+ * Tests for the batch realisation of elements (realiseAll).
+ */
+public class BatchRealisationTest extends SimpleNLG4TestBase {
+
+	/**
+	 * Instantiates a new batch realisation test.
+	 *
+	 * @param name
+	 *            the name
+	 */
+	public BatchRealisationTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @return clauses whose realisations are all different
+	 */
+	private List<NLGElement> createClauses(int count) {
+		String[] subjects = { "the man", "the woman", "a dog", "some children", "the mouse" };
+		String[] verbs = { "chase", "see", "like", "kick", "carry" };
+		String[] objects = { "the ball", "a cat", "the rock", "the curtain", "some sheep" };
+		Tense[] tenses = { Tense.PRESENT, Tense.PAST, Tense.FUTURE };
+
+		List<NLGElement> clauses = new ArrayList<NLGElement>();
+		for (int i = 0; i < count; i++) {
+			SPhraseSpec clause = this.phraseFactory.createClause(subjects[i % 5],
+					verbs[(i / 5) % 5], objects[(i / 25) % 5]);
+			clause.setFeature(Feature.TENSE, tenses[(i / 125) % 3]);
+			clause.setFeature(Feature.NEGATED, (i / 375) % 2 == 1);
+			clauses.add(clause);
+		}
+		return clauses;
+	}
+
+	/**
+	 * The realisations are in the order of the elements, whatever the
+	 * executor.
+	 */
+	@Test
+	public void testOrder() {
+		List<NLGElement> clauses = createClauses(750);
+		List<String> expected = new ArrayList<String>();
+		for (NLGElement clause : clauses) {
+			expected.add(this.realiser.realiseSentence(clause));
+		}
+		Assert.assertEquals("The man chases the ball.", expected.get(0)); //$NON-NLS-1$
+		Assert.assertEquals("The mouse will not carry some sheep.", expected.get(749)); //$NON-NLS-1$
+
+		BatchRealisation batch = this.realiser.realiseAll(clauses);
+		Assert.assertEquals(expected, batch.getRealisations());
+		Assert.assertEquals(0, batch.getFailureCount());
+
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			Assert.assertEquals(expected, this.realiser.realiseAll(clauses, pool).getRealisations());
+		} finally {
+			pool.shutdown();
+		}
+
+		ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+		this.realiser.setExecutor(forkJoinPool);
+		try {
+			Assert.assertEquals(expected, this.realiser.realiseAll(clauses).getRealisations());
+		} finally {
+			this.realiser.setExecutor(null);
+			forkJoinPool.shutdown();
+		}
+
+		// the processor-based realiser
+		simplenlg.realiser.english.Realiser processorRealiser =
+			new simplenlg.realiser.english.Realiser(lexicon);
+		pool = Executors.newFixedThreadPool(4);
+		try {
+			Assert.assertEquals(expected,
+					processorRealiser.realiseAll(clauses, pool).getRealisations());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * An element which fails doesn't stop the others.
+	 */
+	@Test
+	public void testFailures() {
+		List<NLGElement> elements = createClauses(20);
+		NLGElement failing = new NLGElement() {
+			@Override
+			public List<NLGElement> getChildren() {
+				return new ArrayList<NLGElement>();
+			}
+
+			@Override
+			public NLGElement realiseSyntax() {
+				throw new IllegalStateException("cannot be realised"); //$NON-NLS-1$
+			}
+		};
+		elements.set(3, failing);
+		elements.set(11, failing);
+
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		BatchRealisation batch;
+		try {
+			batch = this.realiser.realiseAll(elements, pool);
+		} finally {
+			pool.shutdown();
+		}
+		Assert.assertEquals(20, batch.size());
+		Assert.assertEquals(2, batch.getFailureCount());
+		Assert.assertEquals("[3, 11]", batch.getFailedIndexes().toString()); //$NON-NLS-1$
+		Assert.assertNull(batch.getRealisation(3));
+		Assert.assertTrue(batch.getError(11) instanceof IllegalStateException);
+		Assert.assertNull(batch.getError(12));
+		Assert.assertEquals(this.realiser.realiseSentence(elements.get(12)), batch.getRealisation(12));
+	}
+
+	/**
+	 * An element throwing an error (rather than an exception) fails alone
+	 * too.
+	 */
+	@Test
+	public void testErrors() {
+		List<NLGElement> elements = createClauses(10);
+		elements.set(5, new NLGElement() {
+			@Override
+			public List<NLGElement> getChildren() {
+				return new ArrayList<NLGElement>();
+			}
+
+			@Override
+			public NLGElement realiseSyntax() {
+				throw new StackOverflowError();
+			}
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			BatchRealisation batch = this.realiser.realiseAll(elements, pool);
+			Assert.assertEquals(1, batch.getFailureCount());
+			Assert.assertTrue(batch.getError(5) instanceof StackOverflowError);
+			Assert.assertNotNull(batch.getRealisation(9));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The batch is realised whatever the executor : without a maximum
+	 * number of threads, shut down, or whose threads realise batches
+	 * themselves.
+	 */
+	@Test
+	public void testExecutors() throws Exception {
+		final List<NLGElement> clauses = createClauses(100);
+		final List<String> expected = this.realiser.realiseAll(clauses).getRealisations();
+
+		ExecutorService cachedPool = Executors.newCachedThreadPool();
+		try {
+			Assert.assertEquals(expected, this.realiser.realiseAll(clauses, cachedPool)
+					.getRealisations());
+			Assert.assertTrue(((ThreadPoolExecutor) cachedPool).getLargestPoolSize()
+					<= Runtime.getRuntime().availableProcessors());
+		} finally {
+			cachedPool.shutdown();
+		}
+
+		ExecutorService shutDown = Executors.newFixedThreadPool(2);
+		shutDown.shutdown();
+		Assert.assertEquals(expected, this.realiser.realiseAll(clauses, shutDown)
+				.getRealisations());
+
+		// each thread of the pool realises a batch with the pool
+		final ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+			for (int i = 0; i < 2; i++) {
+				results.add(pool.submit(new Callable<List<String>>() {
+					public List<String> call() {
+						return realiser.realiseAll(clauses, pool)
+								.getRealisations();
+					}
+				}));
+			}
+			for (Future<List<String>> result : results) {
+				Assert.assertEquals(expected, result.get(30, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
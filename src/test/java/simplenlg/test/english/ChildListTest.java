@@ -0,0 +1,115 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.InternalFeature;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.StringElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+
+/**
+ * Tests for the lists of children of elements (components, coordinates,
+ * complements and modifiers), to which children are added without copying
+ * them.
+ */
+public class ChildListTest extends SimpleNLG4TestBase {
+
+	/**
+	 * Instantiates a new child list test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public ChildListTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * The lists returned by getChildren don't change when children are
+	 * added, and changing them doesn't change the element.
+	 */
+	@Test
+	public void testCopies() {
+		CoordinatedPhraseElement coordination = this.phraseFactory.createCoordinatedPhrase();
+		coordination.addCoordinate("apples");
+		coordination.addCoordinate("pears");
+		List<NLGElement> before = coordination.getChildren();
+		coordination.addCoordinate("plums");
+		Assert.assertEquals(2, before.size());
+		Assert.assertEquals(3, coordination.getChildren().size());
+
+		before.add(new StringElement("cherries"));
+		before.set(0, new StringElement("peaches"));
+		Assert.assertEquals(3, before.size());
+		Assert.assertEquals("peaches", before.get(0).getRealisation());
+		Assert.assertEquals("apples, pears and plums",
+				this.realiser.realise(coordination).getRealisation());
+
+		// two elements with the same list, which grows differently
+		CoordinatedPhraseElement other = this.phraseFactory.createCoordinatedPhrase();
+		other.setFeature(InternalFeature.COORDINATES,
+				coordination.getFeature(InternalFeature.COORDINATES));
+		other.addCoordinate("kiwis");
+		coordination.addCoordinate("figs");
+		Assert.assertEquals("apples, pears, plums and kiwis",
+				this.realiser.realise(other).getRealisation());
+		Assert.assertEquals("apples, pears, plums and figs",
+				this.realiser.realise(coordination).getRealisation());
+
+		NPPhraseSpec phrase = this.phraseFactory.createNounPhrase("the", "dog");
+		phrase.addPreModifier("small");
+		List<NLGElement> modifiers = phrase.getPreModifiers();
+		modifiers.clear();
+		phrase.addPreModifier("black");
+		Assert.assertEquals("the small, black dog",
+				this.realiser.realise(phrase).getRealisation());
+		Assert.assertTrue(modifiers.isEmpty());
+	}
+
+	/**
+	 * Builds a document of 100000 sentences and a coordination of 10000
+	 * coordinates, whose children all have their parent. (The time taken,
+	 * compared with copying the list of children for each one, is measured
+	 * by simplenlg.benchmark.ChildListBenchmark.)
+	 */
+	@Test
+	public void testLargeElements() {
+		DocumentElement paragraph = this.phraseFactory.createParagraph();
+		for (int i = 0; i < 100000; i++) {
+			paragraph.addComponent(this.phraseFactory.createSentence("sentence " + i));
+		}
+		Assert.assertEquals(100000, paragraph.getComponents().size());
+		Assert.assertEquals(paragraph, paragraph.getComponents().get(99999).getParent());
+
+		CoordinatedPhraseElement coordination = this.phraseFactory.createCoordinatedPhrase();
+		for (int i = 0; i < 10000; i++) {
+			coordination.addCoordinate(this.phraseFactory.createNounPhrase("dog " + i));
+		}
+		Assert.assertEquals(10000, coordination.getChildren().size());
+		Assert.assertEquals(coordination, coordination.getChildren().get(9999).getParent());
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.framework.ChildVisitor;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.StringElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests for NLGElement.visitChildren, and for the searches in the tree of
+ * an element which use it. The memory the searches save is measured by
+ * simplenlg.benchmark.ChildVisitorBenchmark.
+ */
+public class ChildVisitorTest extends SimpleNLG4TestBase {
+
+	/**
+	 * Instantiates a new child visitor test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public ChildVisitorTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @param factory
+	 * @return a clause with a coordinated subject, modifiers and complements
+	 */
+	public static SPhraseSpec createClause(NLGFactory factory) {
+		NPPhraseSpec dog = factory.createNounPhrase("the", "dog");
+		dog.addPreModifier("big");
+		dog.addComplement(factory.createPrepositionPhrase("of", "the farmer"));
+		CoordinatedPhraseElement subject = factory.createCoordinatedPhrase(dog,
+				factory.createNounPhrase("a", "cat"));
+		SPhraseSpec clause = factory.createClause(subject, "chase",
+				factory.createNounPhrase("the", "mouse"));
+		clause.addFrontModifier("yesterday");
+		clause.addComplement(factory.createPrepositionPhrase("in", "the garden"));
+		return clause;
+	}
+
+	/**
+	 * @param element
+	 * @param reverse
+	 * @return the children visited
+	 */
+	private static List<NLGElement> visit(NLGElement element, boolean reverse) {
+		final List<NLGElement> children = new ArrayList<NLGElement>();
+		element.visitChildren(new ChildVisitor() {
+			public boolean visit(NLGElement child) {
+				children.add(child);
+				return true;
+			}
+		}, reverse);
+		return children;
+	}
+
+	/**
+	 * Checks that visitChildren visits the children of getChildren, in both
+	 * orders, for every element of a tree.
+	 * 
+	 * @param element
+	 */
+	private static void checkTree(NLGElement element) {
+		List<NLGElement> children = element.getChildren();
+		if (children == null) children = new ArrayList<NLGElement>();
+		Assert.assertEquals(children, visit(element, false));
+		List<NLGElement> reversed = new ArrayList<NLGElement>(children);
+		java.util.Collections.reverse(reversed);
+		Assert.assertEquals(reversed, visit(element, true));
+		for (NLGElement child : children) {
+			checkTree(child);
+		}
+	}
+
+	/**
+	 * The children visited are those of getChildren, before and after the
+	 * syntax, and the visitor can stop.
+	 */
+	@Test
+	public void testVisit() {
+		SPhraseSpec clause = createClause(this.phraseFactory);
+		checkTree(clause);
+		NLGElement syntax = this.phraseFactory.createSentence(createClause(this.phraseFactory)).realiseSyntax();
+		checkTree(syntax);
+		checkTree(syntax.realiseMorphology());
+
+		final int[] visited = { 0 };
+		Assert.assertFalse(clause.visitChildren(new ChildVisitor() {
+			public boolean visit(NLGElement child) {
+				return ++visited[0] < 2;
+			}
+		}, false));
+		Assert.assertEquals(2, visited[0]);
+	}
+
+	/**
+	 * The leftmost and rightmost elements and the number of words are the
+	 * same as when they were found with getChildren.
+	 */
+	@Test
+	public void testSearches() {
+		NLGElement syntax = this.phraseFactory.createSentence(createClause(this.phraseFactory)).realiseSyntax();
+		NLGElement morphology = this.phraseFactory.createSentence(createClause(this.phraseFactory)).realiseSyntax()
+				.realiseMorphology();
+		for (NLGElement element : new NLGElement[] { syntax, morphology }) {
+			Assert.assertSame(leftMostString(element), element.getLeftMostStringElement());
+			Assert.assertSame(rightMostString(element), element.getRightMostStringElement());
+			Assert.assertSame(rightMostTerminal(element), element.getRightMostTerminalElement());
+			Assert.assertEquals(countWords(element), element.countWords());
+		}
+		Assert.assertEquals("yesterday", morphology.getLeftMostStringElement().getRealisation());
+		Assert.assertEquals("the garden", morphology.getRightMostStringElement().getRealisation());
+		Assert.assertEquals(16, syntax.countWords());
+	}
+
+	/**
+	 * Finds the leftmost and rightmost elements of each sentence of a tree
+	 * and counts its words.
+	 * 
+	 * @param tree
+	 * @param withLists
+	 *            true to find them with getChildren
+	 * @return the number of words
+	 */
+	public static int search(NLGElement tree, boolean withLists) {
+		int words = 0;
+		for (NLGElement sentence : tree.getChildren()) {
+			if (withLists) {
+				leftMostString(sentence);
+				rightMostString(sentence);
+				rightMostTerminal(sentence);
+				words += countWords(sentence);
+			} else {
+				sentence.getLeftMostStringElement();
+				sentence.getRightMostStringElement();
+				sentence.getRightMostTerminalElement();
+				words += sentence.countWords();
+			}
+		}
+		return words;
+	}
+
+	// the searches as they were done with getChildren
+
+	private static StringElement leftMostString(NLGElement element) {
+		if (element instanceof StringElement) return (StringElement) element;
+		List<NLGElement> children = element.getChildren();
+		if (children == null) return null;
+		StringElement leftmost = null;
+		for (int index = 0; leftmost == null && index < children.size(); index++) {
+			leftmost = leftMostString(children.get(index));
+		}
+		return leftmost;
+	}
+
+	private static StringElement rightMostString(NLGElement element) {
+		if (element instanceof StringElement) return (StringElement) element;
+		List<NLGElement> children = element.getChildren();
+		if (children == null) return null;
+		StringElement rightmost = null;
+		for (int index = children.size() - 1; rightmost == null && index >= 0; index--) {
+			rightmost = rightMostString(children.get(index));
+		}
+		return rightmost;
+	}
+
+	private static NLGElement rightMostTerminal(NLGElement element) {
+		if (element instanceof StringElement || element instanceof InflectedWordElement) {
+			return element;
+		}
+		List<NLGElement> children = element.getChildren();
+		if (children == null) return null;
+		NLGElement rightmost = null;
+		for (int index = children.size() - 1; rightmost == null && index >= 0; index--) {
+			rightmost = rightMostTerminal(children.get(index));
+		}
+		return rightmost;
+	}
+
+	private static int countWords(NLGElement element) {
+		if (element instanceof CoordinatedPhraseElement) {
+			CoordinatedPhraseElement coordination = (CoordinatedPhraseElement) element;
+			return NLGElement.countWords(coordination.getChildren())
+				+ NLGElement.countWords(coordination.getComplements())
+				+ NLGElement.countWords(coordination.getPreModifiers())
+				+ NLGElement.countWords(coordination.getPostModifiers());
+		}
+		if (element.getFeatureAsBoolean(simplenlg.features.Feature.ELIDED)) return 0;
+		if (element.getCategory() instanceof simplenlg.framework.LexicalCategory) return 1;
+		if (element.getCategory() == simplenlg.framework.PhraseCategory.CANNED_TEXT) {
+			String realisation = element.getRealisation();
+			return realisation == null ? 0 : realisation.split(" |'").length;
+		}
+		int words = 0;
+		for (NLGElement child : element.getChildren()) {
+			words += countWords(child);
+		}
+		return words;
+	}
+}
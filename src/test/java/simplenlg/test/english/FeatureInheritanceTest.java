@@ -0,0 +1,160 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests for the features InflectedWordElement and ListElement inherit from
+ * the element they are created from.
+ */
+public class FeatureInheritanceTest extends SimpleNLG4TestBase {
+
+	/**
+	 * Instantiates a new feature inheritance test.
+	 *
+	 * @param name
+	 *            the name
+	 */
+	public FeatureInheritanceTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * An inflected word has the features of its word when it was created,
+	 * and its own changes don't affect the word.
+	 */
+	@Test
+	public void testInflectedWordElement() {
+		WordElement word = new WordElement("mouse", LexicalCategory.NOUN, null);
+		word.setFeature(LexicalFeature.PLURAL, "mice");
+		word.setFeature(LexicalFeature.PROPER, false);
+		word.setFeature("testFeature", "value");
+
+		InflectedWordElement inflected = new InflectedWordElement(word);
+		Map<String, Object> expected = new HashMap<String, Object>(word.getAllFeatures());
+		expected.put(InternalFeature.BASE_WORD, word);
+		expected.put(LexicalFeature.BASE_FORM, "mouse");
+		Assert.assertEquals(expected, inflected.getAllFeatures());
+		Assert.assertEquals(expected.keySet(), inflected.getAllFeatureNames());
+		Assert.assertEquals("mice", inflected.getFeature(LexicalFeature.PLURAL));
+		Assert.assertTrue(inflected.hasFeature("testFeature"));
+
+		// changes to the inflected word
+		inflected.removeFeature("testFeature");
+		inflected.setFeature(LexicalFeature.PLURAL, "mouses");
+		inflected.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		Assert.assertFalse(inflected.hasFeature("testFeature"));
+		Assert.assertNull(inflected.getFeature("testFeature"));
+		Assert.assertFalse(inflected.getAllFeatureNames().contains("testFeature"));
+		Assert.assertEquals("mouses", inflected.getFeature(LexicalFeature.PLURAL));
+		Assert.assertEquals(expected.size(), inflected.getAllFeatureNames().size());
+		Assert.assertEquals("value", word.getFeature("testFeature"));
+		Assert.assertEquals("mice", word.getFeature(LexicalFeature.PLURAL));
+		Assert.assertFalse(word.hasFeature(Feature.NUMBER));
+
+		// changes to the word after the inflected word was created
+		word.setFeature(LexicalFeature.PROPER, true);
+		word.setFeature("otherFeature", "value");
+		Assert.assertEquals(Boolean.FALSE, inflected.getFeature(LexicalFeature.PROPER));
+		Assert.assertFalse(inflected.hasFeature("otherFeature"));
+		Assert.assertEquals(Boolean.TRUE,
+				new InflectedWordElement(word).getFeature(LexicalFeature.PROPER));
+
+		// removing a feature while iterating
+		inflected.setFeature("testFeature", "again");
+		Iterator<String> names = inflected.getAllFeatureNames().iterator();
+		while (names.hasNext()) {
+			String name = names.next();
+			if (!name.equals(LexicalFeature.BASE_FORM)) names.remove();
+		}
+		Assert.assertEquals(new HashSet<String>(Arrays.asList(LexicalFeature.BASE_FORM)),
+				inflected.getAllFeatureNames());
+		Assert.assertEquals("mice", word.getFeature(LexicalFeature.PLURAL));
+
+		inflected.clearAllFeatures();
+		Assert.assertTrue(inflected.getAllFeatures().isEmpty());
+		Assert.assertEquals("mice", word.getFeature(LexicalFeature.PLURAL));
+	}
+
+	/**
+	 * A list element has the features of its phrase when it was created.
+	 */
+	@Test
+	public void testListElement() {
+		NPPhraseSpec phrase = this.phraseFactory.createNounPhrase("the", "dog");
+		phrase.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		ListElement list = new ListElement(phrase);
+		Assert.assertEquals(phrase.getAllFeatures(), list.getAllFeatures());
+
+		phrase.setFeature(Feature.NUMBER, NumberAgreement.SINGULAR);
+		Assert.assertEquals(NumberAgreement.PLURAL, list.getFeature(Feature.NUMBER));
+		list.addComponent(this.phraseFactory.createWord("cat", LexicalCategory.NOUN));
+		Assert.assertFalse(list.getAllFeatures().equals(phrase.getAllFeatures()));
+		Assert.assertEquals(NumberAgreement.SINGULAR, phrase.getFeature(Feature.NUMBER));
+	}
+
+	/**
+	 * Realises a large document, whose inflected words all inherit the
+	 * features of the words of the lexicon. (The time taken, and the memory
+	 * saved by inheriting the features rather than copying them, are
+	 * measured by simplenlg.benchmark.FeatureInheritanceBenchmark.)
+	 */
+	@Test
+	public void testLargeDocument() {
+		String[] subjects = { "the man", "the woman", "a dog", "some children", "the mouse" };
+		String[] verbs = { "chase", "see", "like", "kick", "carry" };
+		String[] objects = { "the ball", "a cat", "the rock", "the curtain", "some sheep" };
+
+		List<DocumentElement> sentences = new ArrayList<DocumentElement>();
+		for (int i = 0; i < 1000; i++) {
+			SPhraseSpec clause = this.phraseFactory.createClause(subjects[i % 5],
+					verbs[(i / 5) % 5], objects[(i / 25) % 5]);
+			sentences.add(this.phraseFactory.createSentence(clause));
+		}
+		DocumentElement document = this.phraseFactory.createDocument(null,
+				this.phraseFactory.createParagraph(sentences));
+
+		String realisation = this.realiser.realise(document).getRealisation();
+		Assert.assertTrue(realisation.startsWith("The man chases the ball."));
+		Assert.assertTrue(realisation.contains("The woman sees a cat."));
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.Person;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.english.XMLLexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.PPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.english.Realiser;
+
+/**
+ * Tests for the frozen words of the lexicons and their overlays
+ */
+public class FrozenLexiconTest extends TestCase {
+
+	private Lexicon lexicon = frozenLexicon();
+
+	private NLGFactory factory = new NLGFactory(this.lexicon);
+
+	private static Lexicon frozenLexicon() {
+		Lexicon lexicon = new XMLLexicon();
+		lexicon.freeze();
+		return lexicon;
+	}
+
+	/**
+	 * The words of the lexicon can't be changed.
+	 */
+	@Test
+	public void testFrozenWords() {
+		WordElement dog = this.lexicon.getWord("dog", LexicalCategory.NOUN);
+		Assert.assertTrue(dog.isFrozen());
+		Assert.assertSame(dog, dog.getLexiconEntry());
+		try {
+			dog.setFeature(LexicalFeature.PROPER, true);
+			Assert.fail("the word of the lexicon was changed");
+		} catch (UnsupportedOperationException e) {
+			Assert.assertFalse(dog.hasFeature(LexicalFeature.PROPER));
+		}
+		try {
+			dog.getAllFeatures().put(LexicalFeature.PROPER, true);
+			Assert.fail("the word of the lexicon was changed");
+		} catch (UnsupportedOperationException e) {
+			Assert.assertFalse(dog.hasFeature(LexicalFeature.PROPER));
+		}
+
+		try {
+			dog.setParent(this.factory.createNounPhrase());
+			Assert.fail("the word of the lexicon was put in a phrase");
+		} catch (UnsupportedOperationException e) {
+			Assert.assertNull(dog.getParent());
+		}
+
+		// words created for unknown base forms are shared, so frozen too
+		Assert.assertTrue(this.lexicon.lookupWord("Fido", LexicalCategory.NOUN).isFrozen());
+
+		// the words of a lexicon which isn't frozen can be changed
+		WordElement cat = new XMLLexicon().getWord("cat", LexicalCategory.NOUN);
+		Assert.assertFalse(cat.isFrozen());
+		cat.setFeature(LexicalFeature.PROPER, true);
+		Assert.assertTrue(cat.getFeatureAsBoolean(LexicalFeature.PROPER));
+	}
+
+	/**
+	 * An overlay reads through to the features of the word, and can be
+	 * changed without changing it.
+	 */
+	@Test
+	public void testOverlays() {
+		WordElement dog = this.lexicon.getWord("dog", LexicalCategory.NOUN);
+		WordElement overlay = dog.createOverlay();
+		Assert.assertFalse(overlay.isFrozen());
+		Assert.assertSame(dog, overlay.getLexiconEntry());
+		Assert.assertSame(dog, overlay.createOverlay().getLexiconEntry());
+		Assert.assertTrue(dog.isSameEntry(overlay));
+		Assert.assertEquals(dog.getAllFeatures(), overlay.getAllFeatures());
+
+		overlay.setFeature(LexicalFeature.PROPER, true);
+		Assert.assertTrue(overlay.getFeatureAsBoolean(LexicalFeature.PROPER));
+		Assert.assertFalse(dog.hasFeature(LexicalFeature.PROPER));
+		Assert.assertTrue(dog.isSameEntry(overlay));
+		Assert.assertFalse(dog.isSameEntry(this.lexicon.getWord("cat", LexicalCategory.NOUN)));
+
+		// the overlays aren't in the lexicon
+		Map<String, Object> features = new HashMap<String, Object>();
+		features.put(LexicalFeature.PROPER, true);
+		Assert.assertFalse(this.lexicon.getWords(LexicalCategory.NOUN, features).contains(overlay));
+	}
+
+	/**
+	 * The factory sets the features of the pronouns and the phrases set the
+	 * features of their words on overlays, so the lexicon is unchanged by
+	 * realisation.
+	 */
+	@Test
+	public void testFactoryOverlays() {
+		WordElement he = this.lexicon.lookupWord("he", LexicalCategory.PRONOUN);
+		Map<String, Object> features = new HashMap<String, Object>(he.getAllFeatures());
+
+		NLGElement word = this.factory.createWord("he", LexicalCategory.PRONOUN);
+		Assert.assertNotSame(he, word);
+		Assert.assertSame(he, ((WordElement) word).getLexiconEntry());
+		Assert.assertEquals(Person.THIRD, word.getFeature(Feature.PERSON));
+
+		WordElement the = this.lexicon.getWord("the", LexicalCategory.DETERMINER);
+		NPPhraseSpec np = this.factory.createNounPhrase(the, "dog");
+		Assert.assertNotSame(the, np.getSpecifier());
+		Assert.assertFalse(the.hasFeature(InternalFeature.DISCOURSE_FUNCTION));
+
+		SPhraseSpec clause = this.factory.createClause("he", "chase", np);
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertEquals("He chased the dog.", new Realiser(this.lexicon).realiseSentence(clause));
+		Assert.assertEquals(features, he.getAllFeatures());
+		Assert.assertFalse(the.hasFeature(InternalFeature.DISCOURSE_FUNCTION));
+	}
+
+	/**
+	 * The words of the lexicon can be given as they are to the phrases,
+	 * which use overlays of them.
+	 */
+	@Test
+	public void testWordsInPhrases() {
+		WordElement dog = this.lexicon.getWord("dog", LexicalCategory.NOUN);
+		WordElement cat = this.lexicon.getWord("cat", LexicalCategory.NOUN);
+		WordElement big = this.lexicon.getWord("big", LexicalCategory.ADJECTIVE);
+		WordElement park = this.lexicon.getWord("park", LexicalCategory.NOUN);
+		WordElement in = this.lexicon.getWord("in", LexicalCategory.PREPOSITION);
+		Map<String, Object> features = new HashMap<String, Object>(dog.getAllFeatures());
+
+		CoordinatedPhraseElement coordination = this.factory.createCoordinatedPhrase(dog, cat);
+		SPhraseSpec clause = this.factory.createClause(coordination, "sleep");
+		Realiser realiser = new Realiser(this.lexicon);
+		Assert.assertEquals("Dog and cat sleep.", realiser.realiseSentence(clause));
+
+		NPPhraseSpec np = this.factory.createNounPhrase();
+		np.setHead(dog);
+		np.setSpecifier("the");
+		np.addPreModifier(big);
+		PPPhraseSpec pp = this.factory.createPrepositionPhrase();
+		pp.setHead(in);
+		pp.addComplement(this.factory.createNounPhrase("the", park));
+		np.addPostModifier(pp);
+		clause = this.factory.createClause();
+		clause.setSubject(np);
+		clause.setVerb("sleep");
+		clause.addComplement(cat);
+		Assert.assertEquals("The big dog in the park sleeps cat.",
+				realiser.realiseSentence(clause));
+
+		Assert.assertEquals(features, dog.getAllFeatures());
+		for (WordElement word : new WordElement[] { dog, cat, big, park, in }) {
+			Assert.assertNull(word.getParent());
+			Assert.assertFalse(word.hasFeature(InternalFeature.DISCOURSE_FUNCTION));
+		}
+	}
+
+	/**
+	 * The words of the lexicon can also be given as they are to the
+	 * documents and lists, and in the lists of children set as features of
+	 * the phrases.
+	 */
+	@Test
+	public void testWordsAsChildren() {
+		WordElement dog = this.lexicon.getWord("dog", LexicalCategory.NOUN);
+		WordElement cat = this.lexicon.getWord("cat", LexicalCategory.NOUN);
+		Map<String, Object> features = new HashMap<String, Object>(dog.getAllFeatures());
+		Realiser realiser = new Realiser(this.lexicon);
+		List<NLGElement> words = Arrays.<NLGElement> asList(dog, cat);
+
+		DocumentElement sentence = this.factory.createSentence(dog);
+		Assert.assertEquals("Dog.", realiser.realise(sentence).getRealisation());
+		sentence = this.factory.createSentence();
+		sentence.addComponents(words);
+		Assert.assertNotSame(dog, sentence.getComponents().get(0));
+		sentence.setComponents(words);
+		Assert.assertNotSame(cat, sentence.getComponents().get(1));
+
+		ListElement list = new ListElement(words);
+		Assert.assertNotSame(dog, list.getChildren().get(0));
+		list.setComponents(words);
+		Assert.assertEquals("dog cat", realiser.realise(list).getRealisation());
+
+		SPhraseSpec clause = this.factory.createClause();
+		clause.setVerb("sleep");
+		clause.setFeature(InternalFeature.SUBJECTS, Arrays.asList(dog));
+		Assert.assertEquals("Dog sleeps.", realiser.realiseSentence(clause));
+
+		clause = this.factory.createClause("he", "chase");
+		clause.getVerbPhrase().setFeature(InternalFeature.COMPLEMENTS, Arrays.asList(cat));
+		clause.setFeature(Feature.CUE_PHRASE, this.lexicon.getWord("however",
+				LexicalCategory.ADVERB));
+		Assert.assertEquals("However he chases cat.", realiser.realiseSentence(clause));
+
+		CoordinatedPhraseElement coordination = this.factory.createCoordinatedPhrase();
+		coordination.setFeature(InternalFeature.COORDINATES, words);
+		clause = this.factory.createClause(coordination, "sleep");
+		Assert.assertEquals("Dog and cat sleep.", realiser.realiseSentence(clause));
+
+		Assert.assertEquals(features, dog.getAllFeatures());
+		for (WordElement word : new WordElement[] { dog, cat }) {
+			Assert.assertNull(word.getParent());
+			Assert.assertFalse(word.hasFeature(InternalFeature.DISCOURSE_FUNCTION));
+		}
+	}
+}
@@ -0,0 +1,272 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Form;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Tests for Realiser.realiseIncrementally, which realises a document one
+ * component at a time.
+ */
+public class IncrementalRealisationTest extends SimpleNLG4TestBase {
+
+	/**
+	 * Instantiates a new incremental realisation test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public IncrementalRealisationTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Builds an English document with sections, paragraphs, a list, an
+	 * elided sentence, an empty paragraph and a phrase which isn't in a
+	 * sentence. A new document is built each time, as realisation changes
+	 * it.
+	 * 
+	 * @return the document
+	 */
+	private DocumentElement createEnglishDocument() {
+		DocumentElement document = this.phraseFactory.createDocument("Title");
+
+		DocumentElement section = this.phraseFactory.createSection("First section");
+		DocumentElement paragraph = this.phraseFactory.createParagraph();
+		paragraph.addComponent(this.phraseFactory.createSentence(
+				this.phraseFactory.createClause("the man", "chase", "the dog")));
+		DocumentElement elided = this.phraseFactory.createSentence(
+				this.phraseFactory.createClause("the woman", "see", "the cat"));
+		elided.setFeature(Feature.ELIDED, true);
+		paragraph.addComponent(elided);
+		SPhraseSpec question = this.phraseFactory.createClause("the boy", "kick", "the ball");
+		question.setFeature(Feature.TENSE, Tense.PAST);
+		question.setFeature(Feature.INTERROGATIVE_TYPE,
+				simplenlg.features.InterrogativeType.YES_NO);
+		paragraph.addComponent(this.phraseFactory.createSentence(question));
+		CoordinatedPhraseElement phrase = this.phraseFactory.createCoordinatedPhrase(
+				this.phraseFactory.createNounPhrase("a", "rock"),
+				this.phraseFactory.createNounPhrase("the", "curtain"));
+		paragraph.addComponent(phrase);
+		section.addComponent(paragraph);
+		section.addComponent(this.phraseFactory.createParagraph());
+
+		DocumentElement list = this.phraseFactory.createList();
+		list.addComponent(this.phraseFactory.createListItem(
+				this.phraseFactory.createNounPhrase("the", "table")));
+		list.addComponent(this.phraseFactory.createListItem(
+				this.phraseFactory.createClause("the mouse", "run")));
+		section.addComponent(list);
+		document.addComponent(section);
+
+		section = this.phraseFactory.createSection("Second section");
+		section.addComponent(this.phraseFactory.createParagraph(
+				this.phraseFactory.createSentence("the child", "sleep")));
+		document.addComponent(section);
+		return document;
+	}
+
+	/**
+	 * Builds a French document whose sentences affect each other in the
+	 * morphophonology stage.
+	 * 
+	 * @param factory
+	 * @return the document
+	 */
+	private static DocumentElement createFrenchDocument(NLGFactory factory) {
+		NPPhraseSpec object = factory.createNounPhrase("le", "livre");
+		object.setFeature(Feature.PRONOMINAL, true);
+		SPhraseSpec imperative = factory.createClause(null, "donner", object);
+		imperative.setFeature(Feature.FORM, Form.IMPERATIVE);
+
+		DocumentElement paragraph = factory.createParagraph();
+		paragraph.addComponent(factory.createSentence(
+				factory.createClause("le chien", "poursuivre", "le chat")));
+		paragraph.addComponent(factory.createSentence(imperative));
+		paragraph.addComponent(factory.createSentence(
+				factory.createClause("il", "arriver")));
+		return factory.createDocument("Titre", paragraph);
+	}
+
+	/**
+	 * Builds a document with a list whose first item contains another list,
+	 * and list items directly in a section.
+	 * 
+	 * @param factory
+	 * @param clauses
+	 *            subject and verb of the four sentences of the items
+	 * @return the document
+	 */
+	private static DocumentElement createListDocument(NLGFactory factory,
+			String... clauses) {
+		DocumentElement[] items = new DocumentElement[4];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = factory.createListItem(factory.createSentence(
+					factory.createClause(clauses[2 * i], clauses[2 * i + 1])));
+		}
+		items[0].addComponent(factory.createList(items[1]));
+		DocumentElement list = factory.createList();
+		list.addComponent(items[0]);
+		list.addComponent(items[2]);
+		DocumentElement section = factory.createSection("S", items[3]);
+		DocumentElement document = factory.createDocument("T", list);
+		document.addComponent(section);
+		return document;
+	}
+
+	/**
+	 * The marks and new lines of list items are kept, even if the document
+	 * was realised before (its list items are then ListElements).
+	 */
+	@Test
+	public void testLists() {
+		String[] english = { "it", "rain", "it", "pour", "it", "snow", "the sun", "shine" };
+		String expected = this.realiser.realise(
+				createListDocument(this.phraseFactory, english)).getRealisation();
+		Assert.assertEquals("T\n* It rains. * It pours. \n \n* It snows. \nS\n* The sun shines. \n",
+				expected);
+		Assert.assertEquals(expected, join(this.realiser.realiseIncrementally(
+				createListDocument(this.phraseFactory, english))));
+
+		DocumentElement document = createListDocument(this.phraseFactory, english);
+		Assert.assertEquals(expected, this.realiser.realise(document).getRealisation());
+		Assert.assertEquals(expected, join(this.realiser.realiseIncrementally(document)));
+
+		NLGFactory french = new NLGFactory(new simplenlg.lexicon.french.XMLLexicon());
+		String[] clauses = { "il", "pleuvoir", "il", "neiger", "le soleil", "briller",
+				"le vent", "souffler" };
+		expected = this.realiser.realise(createListDocument(french, clauses)).getRealisation();
+		Assert.assertTrue(expected.startsWith("T\n* Il pleut. * Il neige. \n"));
+		Assert.assertEquals(expected, join(this.realiser.realiseIncrementally(
+				createListDocument(french, clauses))));
+
+		document = createListDocument(french, clauses);
+		Assert.assertEquals(expected, this.realiser.realise(document).getRealisation());
+		Assert.assertEquals(expected, join(this.realiser.realiseIncrementally(document)));
+	}
+
+	/**
+	 * @param iterator
+	 * @return the strings of the iterator, joined
+	 */
+	private static String join(Iterator<String> iterator) {
+		StringBuilder text = new StringBuilder();
+		while (iterator.hasNext()) {
+			String piece = iterator.next();
+			Assert.assertFalse(piece.isEmpty());
+			text.append(piece);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * The text is the realisation of the document.
+	 */
+	@Test
+	public void testSameText() {
+		String expected = this.realiser.realise(createEnglishDocument()).getRealisation();
+		Assert.assertTrue(expected.startsWith("Title\nFirst section\nThe man chases the dog. "
+				+ "Did the boy kick the ball?"));
+		Assert.assertTrue(expected.endsWith("* the mouse runs \nSecond section\nThe child sleeps.\n\n"));
+		Assert.assertEquals(expected, join(this.realiser.realiseIncrementally(createEnglishDocument())));
+
+		Iterator<String> text = this.realiser.realiseIncrementally(createEnglishDocument());
+		Assert.assertEquals("Title\nFirst section\nThe man chases the dog.", text.next());
+		Assert.assertEquals(" Did the boy kick the ball?", text.next());
+
+		NLGFactory french = new NLGFactory(new simplenlg.lexicon.french.XMLLexicon());
+		expected = this.realiser.realise(createFrenchDocument(french)).getRealisation();
+		Assert.assertEquals(expected, join(this.realiser.realiseIncrementally(
+				createFrenchDocument(french))));
+
+		// other elements are realised as a whole
+		NLGElement sentence = this.phraseFactory.createSentence("the dog", "bark");
+		text = this.realiser.realiseIncrementally(sentence);
+		Assert.assertEquals("The dog barks.", text.next());
+		Assert.assertFalse(text.hasNext());
+
+		DocumentElement elided = createEnglishDocument();
+		elided.setFeature(Feature.ELIDED, true);
+		Assert.assertFalse(this.realiser.realiseIncrementally(elided).hasNext());
+	}
+
+	/**
+	 * In non-destructive mode, the document isn't changed.
+	 */
+	@Test
+	public void testNonDestructive() {
+		String expected = this.realiser.realise(createEnglishDocument()).getRealisation();
+		Realiser nonDestructive = new Realiser();
+		nonDestructive.setNonDestructive(true);
+		DocumentElement document = createEnglishDocument();
+		String tree = document.printTree(null);
+		Assert.assertEquals(expected, join(nonDestructive.realiseIncrementally(document)));
+		Assert.assertEquals(expected, join(nonDestructive.realiseIncrementally(document)));
+		Assert.assertEquals(tree, document.printTree(null));
+	}
+
+	/**
+	 * A long document realised incrementally gives the same text as
+	 * realised as a whole. (The time taken each way is measured by
+	 * simplenlg.benchmark.IncrementalRealisationBenchmark.)
+	 */
+	@Test
+	public void testLongDocument() {
+		String[] subjects = { "the man", "the woman", "a dog", "some children", "the mouse" };
+		String[] verbs = { "chase", "see", "like", "kick", "carry" };
+		String[] objects = { "the ball", "a cat", "the rock", "the curtain", "some sheep" };
+
+		List<DocumentElement> documents = new ArrayList<DocumentElement>();
+		int size = 5000;
+		for (int copy = 0; copy < 2; copy++) {
+			DocumentElement document = this.phraseFactory.createDocument("Title");
+			DocumentElement paragraph = null;
+			for (int i = 0; i < size; i++) {
+				if (i % 10 == 0) {
+					paragraph = this.phraseFactory.createParagraph();
+					document.addComponent(paragraph);
+				}
+				paragraph.addComponent(this.phraseFactory.createSentence(
+						this.phraseFactory.createClause(subjects[i % 5],
+								verbs[(i / 5) % 5], objects[(i / 25) % 5])));
+			}
+			documents.add(document);
+		}
+
+		String text = join(this.realiser.realiseIncrementally(documents.get(0)));
+		Assert.assertEquals(this.realiser.realise(documents.get(1)).getRealisation(), text);
+	}
+}
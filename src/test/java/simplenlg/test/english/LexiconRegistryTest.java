@@ -0,0 +1,193 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.LexiconRegistry;
+import simplenlg.lexicon.OverlayLexicon;
+import simplenlg.lexicon.english.FunctionWords;
+import simplenlg.lexicon.english.XMLLexicon;
+
+/**
+ * Tests for LexiconRegistry
+ */
+public class LexiconRegistryTest extends TestCase {
+
+	/**
+	 * The default lexicon is loaded only once, however many default
+	 * lexicons and factories without a lexicon are created. The default
+	 * lexicon is still an English XMLLexicon of its own, and each factory
+	 * gets its own view of the shared one.
+	 */
+	@Test
+	public void testDefaultLexiconShared() {
+		Lexicon shared = LexiconRegistry.getLexicon(Language.ENGLISH);
+		long loads = LexiconRegistry.getLoadCount();
+		Lexicon lexicon = Lexicon.getDefaultLexicon();
+		Lexicon other = Lexicon.getDefaultLexicon();
+		Assert.assertNotSame(lexicon, other);
+		Assert.assertTrue(lexicon instanceof XMLLexicon);
+		Assert.assertEquals(Language.ENGLISH, lexicon.getLanguage());
+
+		long avoided = LexiconRegistry.getAvoidedLoadCount();
+		for (int i = 0; i < 10; i++) {
+			new CoordinatedPhraseElement();
+			Lexicon factoryLexicon = new NLGFactory().getLexicon();
+			Assert.assertSame(shared, ((OverlayLexicon) factoryLexicon).getBaseLexicon());
+		}
+		Assert.assertEquals(loads, LexiconRegistry.getLoadCount());
+		Assert.assertTrue(LexiconRegistry.getAvoidedLoadCount() >= avoided + 20);
+
+		// a caller changes its own words, not the words of the others
+		WordElement dog = lexicon.getWord("dog", LexicalCategory.NOUN);
+		Assert.assertSame(dog, lexicon.getWord("dog", LexicalCategory.NOUN));
+		Assert.assertFalse(dog.isFrozen());
+		dog.setFeature("testFeature", true);
+		Assert.assertFalse(other.getWord("dog", LexicalCategory.NOUN).hasFeature("testFeature"));
+		Assert.assertFalse(shared.getWord("dog", LexicalCategory.NOUN).hasFeature("testFeature"));
+		Lexicon factoryLexicon = new NLGFactory().getLexicon();
+		dog = factoryLexicon.getWord("dog", LexicalCategory.NOUN);
+		dog.setFeature("testFeature", true);
+		Assert.assertFalse(shared.getWord("dog", LexicalCategory.NOUN).hasFeature("testFeature"));
+	}
+
+	/**
+	 * XMLLexicon() copies the words of the shared lexicon : changing a word
+	 * of the copy doesn't change the shared lexicon.
+	 */
+	@Test
+	public void testCopiedLexicon() {
+		Lexicon shared = LexiconRegistry.getLexicon(Language.ENGLISH);
+		long loads = LexiconRegistry.getLoadCount();
+		XMLLexicon lexicon = new XMLLexicon();
+		Assert.assertEquals(loads, LexiconRegistry.getLoadCount());
+
+		WordElement dog = lexicon.getWord("dog", LexicalCategory.NOUN);
+		WordElement sharedDog = shared.getWord("dog", LexicalCategory.NOUN);
+		Assert.assertNotSame(sharedDog, dog);
+		Assert.assertSame(lexicon, dog.getLexicon());
+		Assert.assertEquals(sharedDog.getAllFeatureNames(), dog.getAllFeatureNames());
+		Assert.assertSame(dog, lexicon.getWordByID(dog.getId()));
+
+		// special cases are copied too
+		Assert.assertSame(lexicon.getWord("be", LexicalCategory.VERB),
+				lexicon.getWordFromVariant("is", LexicalCategory.VERB));
+
+		// the shared lexicon is frozen, its copies are not
+		Assert.assertTrue(sharedDog.isFrozen());
+		Assert.assertFalse(dog.isFrozen());
+		dog.setFeature("testFeature", true);
+		Assert.assertFalse(sharedDog.hasFeature("testFeature"));
+	}
+
+	/**
+	 * Words created for unknown base forms are found again, but are not
+	 * added to the shared lexicon.
+	 */
+	@Test
+	public void testCreatedWords() {
+		Lexicon shared = LexiconRegistry.getLexicon(Language.ENGLISH);
+		XMLLexicon lexicon = new XMLLexicon();
+		WordElement word = lexicon.getWord("zorblax", LexicalCategory.NOUN);
+		Assert.assertSame(word, lexicon.getWord("zorblax", LexicalCategory.NOUN));
+		Assert.assertTrue(lexicon.hasWord("zorblax"));
+		Assert.assertFalse(shared.hasWord("zorblax"));
+
+		// a lexicon which isn't frozen keeps all the words it creates
+		for (int i = 0; i <= Lexicon.MAXIMUM_CREATED_WORDS; i++) {
+			lexicon.getWord("zorblax" + i, LexicalCategory.NOUN);
+		}
+		WordElement last = lexicon.getWord("zorblax" + Lexicon.MAXIMUM_CREATED_WORDS,
+				LexicalCategory.NOUN);
+		Assert.assertSame(last, lexicon.getWord("zorblax" + Lexicon.MAXIMUM_CREATED_WORDS,
+				LexicalCategory.NOUN));
+		Assert.assertSame(word, lexicon.getWord("zorblax", LexicalCategory.NOUN));
+
+		// a frozen lexicon, which is shared, keeps a bounded number of them
+		lexicon = new XMLLexicon();
+		lexicon.freeze();
+		for (int i = 0; i <= Lexicon.MAXIMUM_CREATED_WORDS; i++) {
+			lexicon.getWord("zorblax" + i, LexicalCategory.NOUN);
+		}
+		Assert.assertTrue(lexicon.hasWord("zorblax0"));
+		Assert.assertFalse(lexicon.hasWord("zorblax" + Lexicon.MAXIMUM_CREATED_WORDS));
+		Assert.assertNotNull(lexicon.getWord("zorblaxes", LexicalCategory.NOUN));
+	}
+
+	/**
+	 * The function words of a lexicon are looked up once, and a copied
+	 * lexicon has its own.
+	 */
+	@Test
+	public void testFunctionWords() {
+		Lexicon shared = LexiconRegistry.getLexicon(Language.ENGLISH);
+		FunctionWords words = FunctionWords.of(shared);
+		Assert.assertSame(words, shared.getFunctionWords());
+		Assert.assertSame(shared.getWord("have", LexicalCategory.VERB), words.getHave());
+		Assert.assertSame(shared.getWord("be", LexicalCategory.VERB), words.getBe());
+		Assert.assertSame(shared.getWord("do", LexicalCategory.VERB), words.getDo());
+		Assert.assertEquals("and", words.getAdditionCoordConjunction().getBaseForm());
+		Assert.assertEquals("by", shared.getPassivePreposition().getBaseForm());
+		Assert.assertEquals("that", shared.getDefaultComplementiser().getBaseForm());
+
+		XMLLexicon lexicon = new XMLLexicon();
+		Assert.assertNotSame(words, lexicon.getFunctionWords());
+		Assert.assertSame(lexicon.getWord("be", LexicalCategory.VERB),
+				FunctionWords.of(lexicon).getBe());
+	}
+
+	/**
+	 * A released lexicon is loaded again the next time it is asked for.
+	 */
+	@Test
+	public void testRelease() {
+		LexiconRegistry.preload(Language.ENGLISH);
+		Lexicon before = LexiconRegistry.getLexicon(Language.ENGLISH);
+		Assert.assertTrue(LexiconRegistry.isLoaded(Language.ENGLISH,
+				LexiconRegistry.getDefaultLexiconURI(Language.ENGLISH)));
+
+		long loads = LexiconRegistry.getLoadCount();
+		Assert.assertTrue(LexiconRegistry.release(Language.ENGLISH));
+		Assert.assertFalse(LexiconRegistry.isLoaded(Language.ENGLISH,
+				LexiconRegistry.getDefaultLexiconURI(Language.ENGLISH)));
+
+		Lexicon after = LexiconRegistry.getLexicon(Language.ENGLISH);
+		Assert.assertNotSame(before, after);
+		Assert.assertEquals(loads + 1, LexiconRegistry.getLoadCount());
+		Assert.assertNotNull(before.getWord("dog", LexicalCategory.NOUN));
+
+		try {
+			LexiconRegistry.release(null, LexiconRegistry.getDefaultLexiconURI(Language.ENGLISH));
+			Assert.fail("a lexicon was released without a language");
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(LexiconRegistry.isLoaded(Language.ENGLISH,
+					LexiconRegistry.getDefaultLexiconURI(Language.ENGLISH)));
+		}
+	}
+}
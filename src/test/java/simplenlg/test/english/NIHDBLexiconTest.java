@@ -19,7 +19,12 @@
 
 package simplenlg.test.english;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 import junit.framework.Assert;
 import junit.framework.TestCase;
@@ -34,6 +39,7 @@ import simplenlg.framework.NLGElement;
 import simplenlg.framework.NLGFactory;
 import simplenlg.framework.WordElement;
 import simplenlg.lexicon.NIHDBLexicon;
+import simplenlg.lexicon.WordCache;
 import simplenlg.phrasespec.NPPhraseSpec;
 import simplenlg.realiser.english.Realiser;
 
@@ -108,6 +114,103 @@ public class NIHDBLexiconTest extends TestCase {
 		lexicon.setKeepStandardInflections(keepInflectionsFlag);
 	}
 
+	/**
+	 * The find methods give the first word of the get methods, with or
+	 * without a cache, and null for an unknown word.
+	 */
+	@Test
+	public void testFindWords() {
+		WordCache cache = lexicon.getCache();
+		try {
+			for (WordCache wordCache : new WordCache[] { null, new WordCache() }) {
+				lexicon.setCache(wordCache);
+				Assert.assertEquals(lexicon.getWords("tree", LexicalCategory.NOUN).get(0)
+						.getId(), lexicon.findWord("tree", LexicalCategory.NOUN).getId());
+				Assert.assertEquals("be", lexicon.findWordFromVariant("is",
+						LexicalCategory.VERB).getBaseForm());
+				Assert.assertEquals("dog", lexicon.findWordByID("E0023681").getBaseForm());
+				Assert.assertNull(lexicon.findWord("akjmchsgk", LexicalCategory.ANY));
+				Assert.assertFalse(lexicon.hasWord("akjmchsgk"));
+			}
+		} finally {
+			lexicon.setCache(cache);
+		}
+	}
+
+	/**
+	 * Several threads query a pooled lexicon at the same time, without a
+	 * cache so that every lookup goes to the DB, and get the same words as a
+	 * single thread. (The time taken with pools of different sizes is
+	 * measured by simplenlg.benchmark.NIHLexiconPoolBenchmark.)
+	 */
+	@Test
+	public void testConcurrentLookups() throws Exception {
+		final String[] baseForms = { "can", "tree", "good", "woman", "sand",
+				"dog", "cat", "be", "quickly", "UK" };
+		final String[] variants = { "women", "better", "is", "trees", "dogs" };
+
+		final NIHDBLexicon pooled = new NIHDBLexicon(DB_FILENAME, 4);
+		pooled.setCache(null);
+		try {
+			Assert.assertEquals(4, pooled.getPoolSize());
+
+			// expected results, looked up by a single thread
+			final Map<String, List<String>> expected = new HashMap<String, List<String>>();
+			for (String baseForm : baseForms)
+				expected.put(baseForm, ids(pooled.getWords(baseForm)));
+			for (String variant : variants)
+				expected.put("variant " + variant, ids(pooled
+						.getWordsFromVariant(variant)));
+
+			int threadCount = 8;
+			final int iterations = 50;
+			final List<Throwable> errors = Collections
+					.synchronizedList(new ArrayList<Throwable>());
+			final CountDownLatch start = new CountDownLatch(1);
+			Thread[] threads = new Thread[threadCount];
+			for (int t = 0; t < threadCount; t++) {
+				final int offset = t;
+				threads[t] = new Thread() {
+					@Override
+					public void run() {
+						try {
+							start.await();
+							for (int i = 0; i < iterations; i++) {
+								String baseForm = baseForms[(i + offset) % baseForms.length];
+								Assert.assertEquals(baseForm, expected.get(baseForm),
+										ids(pooled.getWords(baseForm)));
+								String variant = variants[(i + offset) % variants.length];
+								Assert.assertEquals(variant, expected.get("variant " + variant),
+										ids(pooled.getWordsFromVariant(variant)));
+							}
+						} catch (Throwable ex) {
+							errors.add(ex);
+						}
+					}
+				};
+				threads[t].start();
+			}
+			start.countDown();
+			for (Thread thread : threads)
+				thread.join();
+
+			Assert.assertTrue(errors.toString(), errors.isEmpty());
+			Assert.assertEquals(0, pooled.getWaitTimeoutCount());
+		} finally {
+			pooled.close();
+		}
+	}
+
+	/**
+	 * @return the IDs of the words, in order
+	 */
+	private static List<String> ids(List<WordElement> words) {
+		List<String> ids = new ArrayList<String>();
+		for (WordElement word : words)
+			ids.add(word.getId());
+		return ids;
+	}
+
 	
 
 }
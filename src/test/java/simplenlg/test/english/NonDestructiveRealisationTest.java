@@ -0,0 +1,210 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Tests for the non-destructive mode of the realiser, which leaves the
+ * elements realised and the words of the lexicon unchanged.
+ */
+public class NonDestructiveRealisationTest extends SimpleNLG4TestBase {
+
+	/**
+	 * Instantiates a new non-destructive realisation test.
+	 *
+	 * @param name
+	 *            the name
+	 */
+	public NonDestructiveRealisationTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Describes an element, its features and the elements they contain, so
+	 * that any change in them can be seen.
+	 */
+	private static String describe(Object value, Map<Object, Object> seen) {
+		if (value instanceof NLGElement) {
+			NLGElement element = (NLGElement) value;
+			if (seen.containsKey(element)) return "<" + element.getCategory() + ">";
+			seen.put(element, element);
+			StringBuilder description = new StringBuilder();
+			description.append(element.getCategory()).append(" parent=")
+				.append(System.identityHashCode(element.getParent())).append(" {");
+			Map<String, Object> features = new TreeMap<String, Object>(element.getAllFeatures());
+			for (Map.Entry<String, Object> feature : features.entrySet()) {
+				description.append(feature.getKey()).append('=')
+					.append(describe(feature.getValue(), seen)).append(", ");
+			}
+			return description.append('}').toString();
+		} else if (value instanceof List<?>) {
+			List<String> items = new ArrayList<String>();
+			for (Object item : (List<?>) value) {
+				items.add(describe(item, seen));
+			}
+			return items.toString();
+		} else {
+			return String.valueOf(value);
+		}
+	}
+
+	private static String describe(NLGElement element) {
+		return describe(element, new IdentityHashMap<Object, Object>());
+	}
+
+	/**
+	 * A clause realised in non-destructive mode, and the words of its
+	 * lexicon, are the same after realisation, and give the same
+	 * realisation each time.
+	 */
+	@Test
+	public void testElementUnchanged() {
+		Realiser nonDestructive = new Realiser();
+		nonDestructive.setNonDestructive(true);
+
+		SPhraseSpec clause = this.phraseFactory.createClause(this.man, this.give, this.dog);
+		clause.setIndirectObject(this.woman);
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		clause.setFeature(Feature.PASSIVE, true);
+		clause.setFeature(Feature.NEGATED, true);
+		clause.addPostModifier(this.onTheRock);
+		WordElement be = lexicon.getWord("be", LexicalCategory.VERB);
+		WordElement not = lexicon.getWord("not", LexicalCategory.ADVERB);
+
+		String before = describe(clause);
+		String beBefore = describe(be);
+		String notBefore = describe(not);
+		String realisation = nonDestructive.realiseSentence(clause);
+		Assert.assertEquals("The dog was not given the woman on the rock by the man.", //$NON-NLS-1$
+				realisation);
+		Assert.assertEquals(realisation, nonDestructive.realiseSentence(clause));
+		Assert.assertEquals(before, describe(clause));
+		Assert.assertEquals(beBefore, describe(be));
+		Assert.assertEquals(notBefore, describe(not));
+
+		// the same as the destructive realisation
+		Assert.assertEquals(realisation, this.realiser.realiseSentence(clause));
+		Assert.assertFalse(before.equals(describe(clause)));
+	}
+
+	/**
+	 * An element realised in non-destructive mode doesn't keep what its
+	 * realisation changed, unlike in the default mode (see
+	 * NounPhraseTest.testCoordination2, where the specifier of a
+	 * coordinated phrase is kept by its coordinates).
+	 */
+	@Test
+	public void testNoSideEffects() {
+		Realiser nonDestructive = new Realiser();
+		nonDestructive.setNonDestructive(true);
+
+		this.dog.addComplement(this.onTheRock);
+		this.woman.addComplement(this.behindTheCurtain);
+		CoordinatedPhraseElement coordinated = this.phraseFactory.createCoordinatedPhrase(
+				this.dog, this.woman);
+		coordinated.setFeature(InternalFeature.SPECIFIER,
+				this.phraseFactory.createWord("every", LexicalCategory.DETERMINER)); //$NON-NLS-1$
+		Assert.assertEquals("every dog on the rock and every woman behind the curtain", //$NON-NLS-1$
+				nonDestructive.realise(coordinated).getRealisation());
+
+		coordinated.removeFeature(InternalFeature.SPECIFIER);
+		Assert.assertEquals("the dog on the rock and the woman behind the curtain", //$NON-NLS-1$
+				nonDestructive.realise(coordinated).getRealisation());
+	}
+
+	/**
+	 * Several threads realise the same clauses, with the same lexicon, at
+	 * the same time.
+	 */
+	@Test
+	public void testSharedElements() throws InterruptedException {
+		final Realiser nonDestructive = new Realiser();
+		nonDestructive.setNonDestructive(true);
+
+		final List<NLGElement> clauses = new ArrayList<NLGElement>();
+		SPhraseSpec clause = this.phraseFactory.createClause(this.man, this.kiss, this.woman);
+		clause.setFeature(Feature.TENSE, Tense.FUTURE);
+		clauses.add(clause);
+		clause = this.phraseFactory.createClause(this.boy, this.give, this.dog);
+		clause.setIndirectObject(this.proTest1);
+		clause.setFeature(Feature.INTERROGATIVE_TYPE, InterrogativeType.YES_NO);
+		clause.setFeature(Feature.PROGRESSIVE, true);
+		clauses.add(clause);
+		clause = this.phraseFactory.createClause(this.proTest2, this.walk);
+		clause.addComplement(this.underTheTable);
+		clause.setFeature(Feature.NEGATED, true);
+		clauses.add(clause);
+
+		final List<String> expected = new ArrayList<String>();
+		for (NLGElement each : clauses) {
+			expected.add(nonDestructive.realiseSentence(each));
+		}
+		Assert.assertEquals("The man will kiss the woman.", expected.get(0)); //$NON-NLS-1$
+
+		final List<String> errors = new ArrayList<String>();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int round = 0; round < 50; round++) {
+						for (int each = 0; each < clauses.size(); each++) {
+							String realisation;
+							try {
+								realisation = nonDestructive.realiseSentence(clauses.get(each));
+							} catch (RuntimeException e) {
+								realisation = e.toString();
+							}
+							if (!expected.get(each).equals(realisation)) {
+								synchronized (errors) {
+									errors.add(realisation);
+								}
+							}
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(new ArrayList<String>(), errors);
+	}
+}
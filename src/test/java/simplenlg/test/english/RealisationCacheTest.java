@@ -0,0 +1,240 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.ElementFingerprint;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.RealisationCache;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Tests for ElementFingerprint and RealisationCache.
+ */
+public class RealisationCacheTest extends SimpleNLG4TestBase {
+
+	/**
+	 * Instantiates a new realisation cache test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public RealisationCacheTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Builds a clause.
+	 * 
+	 * @param factory
+	 * @param subject
+	 * @param tense
+	 * @return the clause
+	 */
+	private static SPhraseSpec createClause(NLGFactory factory, String subject, Tense tense) {
+		SPhraseSpec clause = factory.createClause(subject, "give", "the book");
+		clause.setIndirectObject(factory.createNounPhrase("the", "woman"));
+		clause.setFeature(Feature.TENSE, tense);
+		return clause;
+	}
+
+	/**
+	 * Elements built in the same way have equal fingerprints, elements which
+	 * differ by a feature, a word or the lexicon don't.
+	 */
+	@Test
+	public void testFingerprint() {
+		ElementFingerprint fingerprint = ElementFingerprint.of(
+				createClause(this.phraseFactory, "the man", Tense.PAST));
+		Assert.assertEquals(fingerprint, ElementFingerprint.of(
+				createClause(this.phraseFactory, "the man", Tense.PAST)));
+		Assert.assertEquals(fingerprint.hashCode(), ElementFingerprint.of(
+				createClause(this.phraseFactory, "the man", Tense.PAST)).hashCode());
+		Assert.assertFalse(fingerprint.equals(ElementFingerprint.of(
+				createClause(this.phraseFactory, "the man", Tense.FUTURE))));
+		Assert.assertFalse(fingerprint.equals(ElementFingerprint.of(
+				createClause(this.phraseFactory, "the boy", Tense.PAST))));
+		NLGFactory otherFactory = new NLGFactory(new simplenlg.lexicon.english.XMLLexicon());
+		Assert.assertFalse(fingerprint.equals(ElementFingerprint.of(
+				createClause(otherFactory, "the man", Tense.PAST))));
+
+		// the order in which features are set doesn't matter
+		SPhraseSpec clause1 = createClause(this.phraseFactory, "the man", Tense.PAST);
+		clause1.setFeature(Feature.NEGATED, true);
+		clause1.setFeature(Feature.PASSIVE, true);
+		SPhraseSpec clause2 = createClause(this.phraseFactory, "the man", Tense.PAST);
+		clause2.setFeature(Feature.PASSIVE, true);
+		clause2.setFeature(Feature.NEGATED, true);
+		Assert.assertEquals(ElementFingerprint.of(clause1), ElementFingerprint.of(clause2));
+
+		// excluded elements
+		ElementFingerprint.Exclusion exclusion = new ElementFingerprint.Exclusion() {
+			public boolean isExcluded(NLGElement element) {
+				return element.hasFeature("random");
+			}
+		};
+		Assert.assertNotNull(ElementFingerprint.of(clause1, exclusion));
+		clause1.getObject().setFeature("random", true);
+		Assert.assertNull(ElementFingerprint.of(clause1, exclusion));
+	}
+
+	/**
+	 * The parent of an element and the inflectional variant of its words,
+	 * even when it is set on an overlay of the word of the lexicon, are part
+	 * of its fingerprint.
+	 */
+	@Test
+	public void testParentAndVariants() {
+		NPPhraseSpec men = this.phraseFactory.createNounPhrase("the", "man");
+		men.setPlural(true);
+		NPPhraseSpec overlaid = this.phraseFactory.createNounPhrase("the", "man");
+		overlaid.setPlural(true);
+		Assert.assertEquals(ElementFingerprint.of(men), ElementFingerprint.of(overlaid));
+
+		// an overlay with the same features as the word has the same fingerprint
+		WordElement man = ((WordElement) overlaid.getHead()).createOverlay();
+		overlaid.setHead(man);
+		overlaid.setPlural(true);
+		Assert.assertEquals(ElementFingerprint.of(men), ElementFingerprint.of(overlaid));
+		man.setDefaultInflectionalVariant("irreg");
+		Assert.assertFalse(ElementFingerprint.of(men).equals(ElementFingerprint.of(overlaid)));
+
+		NPPhraseSpec subject = this.phraseFactory.createNounPhrase("the", "man");
+		NPPhraseSpec object = this.phraseFactory.createNounPhrase("the", "man");
+		Assert.assertEquals(ElementFingerprint.of(subject), ElementFingerprint.of(object));
+		this.phraseFactory.createClause(subject, "see", "the dog");
+		Assert.assertFalse(ElementFingerprint.of(subject).equals(ElementFingerprint.of(object)));
+	}
+
+	/**
+	 * Sentences with the same structure are realised once.
+	 */
+	@Test
+	public void testCache() {
+		Realiser cachingRealiser = new Realiser();
+		RealisationCache cache = new RealisationCache();
+		cachingRealiser.setCache(cache);
+
+		String expected = this.realiser.realiseSentence(
+				createClause(this.phraseFactory, "the man", Tense.PAST));
+		Assert.assertEquals("The man gave the woman the book.", expected);
+
+		SPhraseSpec clause = createClause(this.phraseFactory, "the man", Tense.PAST);
+		Assert.assertEquals(expected, cachingRealiser.realiseSentence(clause));
+		Assert.assertEquals(0, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(1, cache.size());
+
+		SPhraseSpec other = createClause(this.phraseFactory, "the man", Tense.PAST);
+		String tree = other.printTree(null);
+		Assert.assertEquals(expected, cachingRealiser.realiseSentence(other));
+		Assert.assertEquals(1, cache.getHitCount());
+		// the element found in the cache isn't realised
+		Assert.assertEquals(tree, other.printTree(null));
+
+		Assert.assertEquals("The man will give the woman the book.",
+				cachingRealiser.realiseSentence(
+						createClause(this.phraseFactory, "the man", Tense.FUTURE)));
+		Assert.assertEquals(2, cache.getMissCount());
+		Assert.assertEquals(1.0 / 3, cache.getHitRate(), 1e-9);
+
+		// excluded elements are always realised
+		cache.setExclusion(new ElementFingerprint.Exclusion() {
+			public boolean isExcluded(NLGElement element) {
+				return element instanceof SPhraseSpec;
+			}
+		});
+		Assert.assertEquals(expected, cachingRealiser.realiseSentence(
+				createClause(this.phraseFactory, "the man", Tense.PAST)));
+		Assert.assertEquals(1, cache.getExcludedCount());
+		Assert.assertEquals(1, cache.getHitCount());
+
+		// batches use the cache too
+		cache.setExclusion(null);
+		cache.resetStats();
+		List<NLGElement> batch = new ArrayList<NLGElement>();
+		for (int i = 0; i < 4; i++)
+			batch.add(createClause(this.phraseFactory, "the man", Tense.PAST));
+		Assert.assertEquals(expected, cachingRealiser.realiseAll(batch).getRealisation(3));
+		Assert.assertEquals(4, cache.getHitCount());
+	}
+
+	/**
+	 * The least recently used entries are evicted.
+	 */
+	@Test
+	public void testEviction() {
+		RealisationCache cache = new RealisationCache(2);
+		ElementFingerprint past = ElementFingerprint.of(
+				createClause(this.phraseFactory, "the man", Tense.PAST));
+		ElementFingerprint present = ElementFingerprint.of(
+				createClause(this.phraseFactory, "the man", Tense.PRESENT));
+		ElementFingerprint future = ElementFingerprint.of(
+				createClause(this.phraseFactory, "the man", Tense.FUTURE));
+		cache.put(past, "past");
+		cache.put(present, "present");
+		Assert.assertEquals("past", cache.get(past));
+		cache.put(future, "future");
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, cache.getEvictionCount());
+		Assert.assertNull(cache.get(present));
+		Assert.assertEquals("future", cache.get(future));
+
+		cache.setMaximumSize(1);
+		Assert.assertEquals(1, cache.size());
+		Assert.assertNull(cache.get(past));
+	}
+
+	/**
+	 * Repeated specifications are realised once each, and give the same
+	 * text as without a cache. (The time saved is measured by
+	 * simplenlg.benchmark.RealisationCacheBenchmark.)
+	 */
+	@Test
+	public void testRepeatedSpecifications() {
+		String[] subjects = { "the man", "the woman", "a dog", "some children", "the mouse" };
+		Tense[] tenses = { Tense.PAST, Tense.PRESENT, Tense.FUTURE };
+		int size = 3000;
+
+		Realiser cachingRealiser = new Realiser();
+		RealisationCache cache = new RealisationCache();
+		cachingRealiser.setCache(cache);
+
+		for (int i = 0; i < size; i++) {
+			SPhraseSpec clause = createClause(this.phraseFactory, subjects[i % 5], tenses[(i / 5) % 3]);
+			String expected = this.realiser.realiseSentence(clause);
+			clause = createClause(this.phraseFactory, subjects[i % 5], tenses[(i / 5) % 3]);
+			Assert.assertEquals(expected, cachingRealiser.realiseSentence(clause));
+		}
+		Assert.assertEquals(15, cache.getMissCount());
+		Assert.assertEquals(size - 15, cache.getHitCount());
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.io.File;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.LexiconSnapshotCompiler;
+import simplenlg.lexicon.SnapshotLexicon;
+import simplenlg.lexicon.XMLLexicon;
+
+/**
+ * Tests for SnapshotLexicon, using a snapshot of the default lexicon. The
+ * French tests (simplenlg.test.french.SnapshotLexiconTest) run the same
+ * tests with the French lexicon.
+ */
+public class SnapshotLexiconTest extends TestCase {
+
+	protected XMLLexicon xmlLexicon = null;
+
+	protected SnapshotLexicon snapshotLexicon = null;
+
+	protected File snapshotFile = null;
+
+	/**
+	 * @return the XML lexicon compiled into the snapshot
+	 */
+	protected XMLLexicon createXMLLexicon() {
+		return new simplenlg.lexicon.english.XMLLexicon();
+	}
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		xmlLexicon = createXMLLexicon();
+		snapshotFile = File.createTempFile("default-lexicon", ".snapshot");
+		LexiconSnapshotCompiler.compile(xmlLexicon, snapshotFile);
+		snapshotLexicon = new SnapshotLexicon(snapshotFile);
+	}
+
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		super.tearDown();
+		if (snapshotLexicon != null)
+			snapshotLexicon.close();
+		if (snapshotFile != null)
+			snapshotFile.delete();
+	}
+
+	@Test
+	public void testBasics() {
+		SharedLexiconTests.doBasicTests(snapshotLexicon);
+	}
+
+	/**
+	 * Every word of the XML lexicon must be found in the snapshot
+	 * with the same features, by base form and by ID.
+	 */
+	@Test
+	public void testSameWords() {
+		Assert.assertEquals(xmlLexicon.getLanguage(), snapshotLexicon.getLanguage());
+		for (WordElement word : xmlLexicon.getWords(LexicalCategory.ANY, null)) {
+			LexicalCategory category = (LexicalCategory) word.getCategory();
+			Assert.assertEquals(xmlLexicon.getWords(word.getBaseForm(), category),
+					snapshotLexicon.getWords(word.getBaseForm(), category));
+			if (word.getId() != null) {
+				Assert.assertEquals(xmlLexicon.getWordsByID(word.getId()),
+						snapshotLexicon.getWordsByID(word.getId()));
+			}
+		}
+		Assert.assertEquals(xmlLexicon.getWords(LexicalCategory.ANY, null).size(),
+				snapshotLexicon.getWordCount());
+	}
+
+	/**
+	 * The same WordElement must be returned every time.
+	 */
+	@Test
+	public void testSameInstance() {
+		WordElement first = snapshotLexicon.getWordFromVariant(snapshotLexicon
+				.getWords(LexicalCategory.VERB, null).get(0).getBaseForm());
+		WordElement second = snapshotLexicon.getWordByID(first.getId());
+		Assert.assertSame(first, second);
+	}
+}
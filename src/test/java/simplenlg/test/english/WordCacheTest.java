@@ -0,0 +1,120 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.english;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.WordCache;
+import simplenlg.lexicon.WordCache.QueryKind;
+
+/**
+ * Tests for WordCache (the cache of NIHDBLexicon)
+ */
+public class WordCacheTest extends TestCase {
+
+	WordElement dog = new WordElement("dog", LexicalCategory.NOUN, null);
+	WordElement dogVerb = new WordElement("dog", LexicalCategory.VERB, null);
+
+	/**
+	 * Results are found by kind of query, key and category; misses are kept
+	 * as negative entries.
+	 */
+	@Test
+	public void testGetPut() {
+		WordCache cache = new WordCache();
+		Assert.assertNull(cache.get(QueryKind.BASE, "dog", LexicalCategory.NOUN));
+		cache.put(QueryKind.BASE, "dog", LexicalCategory.NOUN, Arrays.asList(dog));
+		cache.put(QueryKind.BASE, "dog", LexicalCategory.ANY, Arrays.asList(dog, dogVerb));
+		cache.put(QueryKind.BASE, "zorblax", LexicalCategory.ANY, new ArrayList<WordElement>());
+
+		Assert.assertEquals(Arrays.asList(dog),
+				cache.get(QueryKind.BASE, "dog", LexicalCategory.NOUN));
+		Assert.assertEquals(Arrays.asList(dog, dogVerb),
+				cache.get(QueryKind.BASE, "dog", LexicalCategory.ANY));
+		Assert.assertNull(cache.get(QueryKind.VARIANT, "dog", LexicalCategory.NOUN));
+		Assert.assertTrue(cache.get(QueryKind.BASE, "zorblax", LexicalCategory.ANY).isEmpty());
+
+		// the list returned is a copy
+		cache.get(QueryKind.BASE, "dog", LexicalCategory.NOUN).clear();
+		Assert.assertEquals(1, cache.get(QueryKind.BASE, "dog", LexicalCategory.NOUN).size());
+
+		Assert.assertEquals(5, cache.getHitCount());
+		Assert.assertEquals(1, cache.getNegativeHitCount());
+		Assert.assertEquals(2, cache.getMissCount());
+
+		// misses aren't kept when negative caching is off
+		cache.setCacheMisses(false);
+		cache.put(QueryKind.BASE, "blorf", LexicalCategory.ANY, new ArrayList<WordElement>());
+		Assert.assertNull(cache.get(QueryKind.BASE, "blorf", LexicalCategory.ANY));
+	}
+
+	/**
+	 * The least recently used entries are evicted, by number of entries or
+	 * by number of words.
+	 */
+	@Test
+	public void testEviction() {
+		WordCache cache = new WordCache(2);
+		cache.put(QueryKind.BASE, "a", LexicalCategory.ANY, Arrays.asList(dog));
+		cache.put(QueryKind.BASE, "b", LexicalCategory.ANY, Arrays.asList(dog));
+		cache.get(QueryKind.BASE, "a", LexicalCategory.ANY);
+		cache.put(QueryKind.BASE, "c", LexicalCategory.ANY, Arrays.asList(dog));
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, cache.getEvictionCount());
+		Assert.assertNotNull(cache.get(QueryKind.BASE, "a", LexicalCategory.ANY));
+		Assert.assertNull(cache.get(QueryKind.BASE, "b", LexicalCategory.ANY));
+
+		cache = new WordCache(3);
+		cache.setWeighByWords(true);
+		cache.put(QueryKind.BASE, "a", LexicalCategory.ANY, Arrays.asList(dog, dogVerb));
+		cache.put(QueryKind.BASE, "b", LexicalCategory.ANY, new ArrayList<WordElement>());
+		Assert.assertEquals(3, cache.getWeight());
+		cache.put(QueryKind.BASE, "c", LexicalCategory.ANY, Arrays.asList(dog, dogVerb));
+		Assert.assertEquals(1, cache.getEvictionCount());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(3, cache.getWeight());
+		Assert.assertNull(cache.get(QueryKind.BASE, "a", LexicalCategory.ANY));
+	}
+
+	/**
+	 * Entries expire after the expiry time.
+	 */
+	@Test
+	public void testExpiry() throws InterruptedException {
+		WordCache cache = new WordCache();
+		cache.setExpiryMillis(20);
+		cache.put(QueryKind.ID, "E0000001", LexicalCategory.ANY, Arrays.asList(dog));
+		List<WordElement> words = cache.get(QueryKind.ID, "E0000001", LexicalCategory.ANY);
+		Assert.assertEquals(Arrays.asList(dog), words);
+		Thread.sleep(40);
+		Assert.assertNull(cache.get(QueryKind.ID, "E0000001", LexicalCategory.ANY));
+		Assert.assertEquals(1, cache.getExpirationCount());
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.getWeight());
+	}
+}
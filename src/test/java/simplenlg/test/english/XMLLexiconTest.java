@@ -18,12 +18,19 @@
  */
 package simplenlg.test.english;
 
+import java.util.List;
+
+import junit.framework.Assert;
 import junit.framework.TestCase;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.WordLookup;
 import simplenlg.lexicon.english.XMLLexicon;
 
 /**
@@ -69,6 +76,90 @@ public class XMLLexiconTest extends TestCase {
 	public void testBasics() {
 		SharedLexiconTests.doBasicTests(lexicon);
 	}
+
+	/**
+	 * resolveWord finds the same word as the has/get pairs, and tells which
+	 * index it came from.
+	 */
+	@Test
+	public void testResolveWord() {
+		String[] strings = { "dog", "dogs", "is", "E0051632", "zorblax", "be", "better" };
+		LexicalCategory[] categories = { LexicalCategory.ANY, LexicalCategory.NOUN,
+				LexicalCategory.VERB, LexicalCategory.ADJECTIVE };
+		for (String string : strings) {
+			for (LexicalCategory category : categories) {
+				WordElement expected = hasGetLookup(string, category);
+				Assert.assertSame(string + " " + category, expected,
+						lexicon.lookupWord(string, category));
+				Assert.assertSame(expected, lexicon.resolveWord(string, category).getWord());
+			}
+		}
+
+		Assert.assertEquals(WordLookup.Source.BASE,
+				lexicon.resolveWord("dog", LexicalCategory.NOUN).getSource());
+		Assert.assertEquals(WordLookup.Source.VARIANT,
+				lexicon.resolveWord("is", LexicalCategory.VERB).getSource());
+		Assert.assertEquals(WordLookup.Source.ID,
+				lexicon.resolveWord("E0051632", LexicalCategory.ANY).getSource());
+		WordLookup created = lexicon.resolveWord("blorfle", LexicalCategory.NOUN);
+		Assert.assertEquals(WordLookup.Source.CREATED, created.getSource());
+		Assert.assertFalse(created.isFound());
+		// the created word is then found by its base form
+		Assert.assertEquals(WordLookup.Source.BASE,
+				lexicon.resolveWord("blorfle", LexicalCategory.NOUN).getSource());
+	}
+
+	/**
+	 * The find methods give the first word the get methods return, or null
+	 * without creating a word, and the factory creates the words lookupWord
+	 * finds.
+	 */
+	@Test
+	public void testFindWords() {
+		NLGFactory factory = new NLGFactory(lexicon);
+		String[] strings = { "dog", "dogs", "is", "quickly", "E0051632", "zorblax" };
+		LexicalCategory[] categories = { LexicalCategory.ANY, LexicalCategory.NOUN,
+				LexicalCategory.VERB, LexicalCategory.ADVERB };
+		for (String string : strings) {
+			for (LexicalCategory category : categories) {
+				String message = string + " " + category;
+				Assert.assertSame(message, first(lexicon.getWords(string, category)),
+						lexicon.findWord(string, category));
+				Assert.assertSame(message, first(lexicon.getWordsFromVariant(string, category)),
+						lexicon.findWordFromVariant(string, category));
+			}
+			Assert.assertSame(string, first(lexicon.getWordsByID(string)),
+					lexicon.findWordByID(string));
+		}
+		Assert.assertNull(lexicon.findWord("zorblax", LexicalCategory.ANY));
+		Assert.assertNull(lexicon.findWordFromVariant("zorblax", LexicalCategory.ANY));
+		Assert.assertNull(lexicon.findWordByID("zorblax"));
+		Assert.assertFalse(lexicon.hasWord("zorblax"));
+
+		for (String string : strings) {
+			WordElement word = lexicon.lookupWord(string, LexicalCategory.ANY);
+			Assert.assertSame(string, word, factory.createWord(string, LexicalCategory.ANY));
+		}
+		Assert.assertTrue(lexicon.hasWord("zorblax"));
+	}
+
+	/**
+	 * lookupWord as it was, with a has/get pair per index
+	 */
+	private WordElement hasGetLookup(String baseForm, LexicalCategory category) {
+		if (lexicon.hasWord(baseForm, category))
+			return first(lexicon.getWords(baseForm, category));
+		else if (lexicon.hasWordFromVariant(baseForm, category))
+			return first(lexicon.getWordsFromVariant(baseForm, category));
+		else if (lexicon.hasWordByID(baseForm))
+			return first(lexicon.getWordsByID(baseForm));
+		else
+			return lexicon.lookupWord(baseForm, category);
+	}
+
+	private static WordElement first(List<WordElement> words) {
+		return words.isEmpty() ? null : words.get(0);
+	}
 	
 
 
@@ -0,0 +1,215 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.LexiconRegistry;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Realises clauses and noun phrases of both languages from several threads
+ * at the same time. Each thread builds its own factory and realiser, on the
+ * lexicons of LexiconRegistry, which are frozen and shared.
+ */
+public class ConcurrentRealisationTest extends TestCase {
+
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 20;
+
+	/**
+	 * Builds French clauses and noun phrases with a new factory on the shared
+	 * lexicon. The words of the lexicon are given as they are to some of them.
+	 * 
+	 * @return the elements
+	 */
+	private static List<NLGElement> createFrenchElements() {
+		Lexicon lexicon = LexiconRegistry.getLexicon(Language.FRENCH);
+		NLGFactory factory = new NLGFactory(lexicon);
+		List<NLGElement> elements = new ArrayList<NLGElement>();
+
+		SPhraseSpec clause = factory.createClause();
+		clause.setFeature(Feature.CUE_PHRASE, lexicon.lookupWord("cependant"));
+		clause.addFrontModifier("demain");
+		clause.setSubject(factory.createCoordinatedPhrase(factory.createNounPhrase("Jane"),
+				factory.createNounPhrase("André")));
+		clause.setVerb("ramasser");
+		clause.setObject("les balles");
+		clause.addPostModifier("dans le magasin");
+		clause.setFeature(Feature.TENSE, Tense.FUTURE);
+		elements.add(clause);
+
+		clause = factory.createClause(factory.createNounPhrase("le", "femme"), "embrasser",
+				factory.createNounPhrase("le", "homme"));
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		clause.setFeature(Feature.NEGATED, true);
+		elements.add(clause);
+
+		clause = factory.createClause("il", "pourchasser", "je");
+		clause.setFeature(Feature.PASSIVE, true);
+		elements.add(clause);
+
+		clause = factory.createClause(factory.createNounPhrase("le",
+				lexicon.getWord("chien", LexicalCategory.NOUN)), "dormir");
+		clause.setFeature(Feature.INTERROGATIVE_TYPE, InterrogativeType.YES_NO);
+		elements.add(clause);
+
+		NPPhraseSpec np = factory.createNounPhrase("le", "cheval");
+		np.addPreModifier(lexicon.getWord("beau", LexicalCategory.ADJECTIVE));
+		np.setPlural(true);
+		elements.add(np);
+		return elements;
+	}
+
+	/**
+	 * Builds English clauses and noun phrases in the same way.
+	 * 
+	 * @return the elements
+	 */
+	private static List<NLGElement> createEnglishElements() {
+		Lexicon lexicon = LexiconRegistry.getLexicon(Language.ENGLISH);
+		NLGFactory factory = new NLGFactory(lexicon);
+		List<NLGElement> elements = new ArrayList<NLGElement>();
+
+		SPhraseSpec clause = factory.createClause();
+		clause.setFeature(Feature.CUE_PHRASE, lexicon.lookupWord("however",
+				LexicalCategory.ADVERB));
+		clause.addFrontModifier("tomorrow");
+		CoordinatedPhraseElement subject = factory.createCoordinatedPhrase(
+				factory.createNounPhrase("Jane"), factory.createNounPhrase("Andrew"));
+		clause.setSubject(subject);
+		clause.setVerb("pick up");
+		clause.setObject("the balls");
+		clause.addPostModifier("in the shop");
+		clause.setFeature(Feature.TENSE, Tense.FUTURE);
+		elements.add(clause);
+
+		clause = factory.createClause(factory.createNounPhrase("the", "woman"), "kiss",
+				factory.createNounPhrase("the", "man"));
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		clause.setFeature(Feature.PASSIVE, true);
+		elements.add(clause);
+
+		clause = factory.createClause(factory.createNounPhrase("the",
+				lexicon.getWord("dog", LexicalCategory.NOUN)), "sleep");
+		clause.setFeature(Feature.INTERROGATIVE_TYPE, InterrogativeType.YES_NO);
+		elements.add(clause);
+
+		NPPhraseSpec np = factory.createNounPhrase("the", "child");
+		np.addPreModifier(lexicon.getWord("big", LexicalCategory.ADJECTIVE));
+		np.setPlural(true);
+		elements.add(np);
+		return elements;
+	}
+
+	/**
+	 * @return the realisations of new elements of both languages, with a
+	 *         new realiser
+	 */
+	private static List<String> realiseElements() {
+		Realiser realiser = new Realiser();
+		List<String> realisations = new ArrayList<String>();
+		for (NLGElement element : createFrenchElements()) {
+			realisations.add(realiser.realiseSentence(element));
+		}
+		for (NLGElement element : createEnglishElements()) {
+			realisations.add(realiser.realiseSentence(element));
+		}
+		return realisations;
+	}
+
+	/**
+	 * The elements built on the shared lexicons are realised as with the
+	 * lexicons of the other tests.
+	 */
+	@Test
+	public void testSharedLexicons() {
+		List<String> realisations = realiseElements();
+		Assert.assertEquals("Cependant, demain, Jane et André ramasseront les balles "
+				+ "dans le magasin.", realisations.get(0));
+		Assert.assertEquals("La femme n'a pas embrassé l'homme.", realisations.get(1));
+		Assert.assertEquals("Je suis pourchassé par lui.", realisations.get(2));
+		Assert.assertEquals("Est-ce que le chien dort?", realisations.get(3));
+		Assert.assertEquals("Les beaux chevaux.", realisations.get(4));
+		Assert.assertEquals("However tomorrow Jane and Andrew will pick up the balls "
+				+ "in the shop.", realisations.get(5));
+		Assert.assertEquals("The man was kissed by the woman.", realisations.get(6));
+		Assert.assertEquals("Does the dog sleep?", realisations.get(7));
+		Assert.assertEquals("The big children.", realisations.get(8));
+	}
+
+	/**
+	 * Several threads realise the elements at the same time, starting
+	 * together so that they also look up the same words and initialise the
+	 * helpers of each language at the same time.
+	 */
+	@Test
+	public void testConcurrentRealisation() throws Throwable {
+		final List<String> expected = realiseElements();
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		Thread[] threads = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int round = 0; round < ROUNDS; round++) {
+							Assert.assertEquals(expected, realiseElements());
+						}
+					} catch (Throwable e) {
+						synchronized (errors) {
+							errors.add(e);
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		if (!errors.isEmpty()) {
+			throw errors.get(0);
+		}
+		Assert.assertTrue(LexiconRegistry.getLexicon(Language.FRENCH).isFrozen());
+		Assert.assertTrue(LexiconRegistry.getLexicon(Language.ENGLISH).isFrozen());
+	}
+}
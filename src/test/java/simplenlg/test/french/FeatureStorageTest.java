@@ -0,0 +1,201 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Gender;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.Tense;
+import simplenlg.features.french.FrenchLexicalFeature;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.StringElement;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests for the storage of the features of elements, which keeps the
+ * features of known names by slot, compared with a HashMap.
+ */
+public class FeatureStorageTest extends SimpleNLG4TestBase {
+
+	/** known feature names, and names which aren't constants */
+	private static final String[] NAMES = { Feature.NUMBER, Feature.TENSE, Feature.ELIDED,
+			LexicalFeature.GENDER, LexicalFeature.PLURAL, InternalFeature.DISCOURSE_FUNCTION,
+			InternalFeature.COMPONENTS, FrenchLexicalFeature.VOWEL_ELISION,
+			FrenchLexicalFeature.PRESENT1S, "testFeature", "otherFeature", "" };
+
+	/** feature names looked up in the features of the words of the lexicon */
+	public static final String[] LOOKED_UP = { LexicalFeature.GENDER, LexicalFeature.PLURAL,
+			Feature.ELIDED, FrenchLexicalFeature.VOWEL_ELISION, LexicalFeature.PROPER };
+
+	/**
+	 * Instantiates a new feature storage test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public FeatureStorageTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Random changes to the features of an element give the same features
+	 * as in a HashMap.
+	 */
+	@Test
+	public void testChanges() {
+		Random random = new Random(42);
+		for (int run = 0; run < 200; run++) {
+			NLGElement element = new StringElement("x");
+			element.clearAllFeatures();
+			Map<String, Object> expected = new HashMap<String, Object>();
+			for (int change = 0; change < 30; change++) {
+				// a copy of the name, which is equal to the constant
+				String name = new String(NAMES[random.nextInt(NAMES.length)]);
+				switch (random.nextInt(4)) {
+				case 0:
+				case 1:
+					Integer value = random.nextInt(5);
+					element.setFeature(name, value);
+					expected.put(name, value);
+					break;
+				case 2:
+					element.removeFeature(name);
+					expected.remove(name);
+					break;
+				default:
+					Iterator<String> names = element.getAllFeatureNames().iterator();
+					while (names.hasNext()) {
+						String next = names.next();
+						if (random.nextBoolean()) {
+							names.remove();
+							expected.remove(next);
+						}
+					}
+				}
+				Assert.assertEquals(expected, element.getAllFeatures());
+				Assert.assertEquals(expected.hashCode(), element.getAllFeatures().hashCode());
+				for (String known : NAMES) {
+					Assert.assertEquals(expected.get(known), element.getFeature(known));
+					Assert.assertEquals(expected.containsKey(known), element.hasFeature(known));
+				}
+			}
+		}
+	}
+
+	/**
+	 * The features can be changed through the entries of the map, and the
+	 * realisation with the words of the lexicon is unchanged.
+	 */
+	@Test
+	public void testEntries() {
+		WordElement word = lexicon.getWord("cheval", LexicalCategory.NOUN);
+		Assert.assertEquals("chevaux", word.getFeature(LexicalFeature.PLURAL));
+		NLGElement element = new StringElement("cheval");
+		element.setFeature(LexicalFeature.PLURAL, "chevaux");
+		element.setFeature("testFeature", "value");
+		for (Map.Entry<String, Object> feature : element.getAllFeatures().entrySet()) {
+			if (feature.getKey().equals(LexicalFeature.PLURAL)) feature.setValue("chevals");
+			if (feature.getKey().equals("testFeature")) feature.setValue("other");
+		}
+		Assert.assertEquals("chevals", element.getFeature(LexicalFeature.PLURAL));
+		Assert.assertEquals("other", element.getFeature("testFeature"));
+
+		SPhraseSpec clause = factory.createClause("le cheval", "manger", "la pomme");
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertEquals("Le cheval a mangé la pomme.", realiser.realiseSentence(clause));
+	}
+
+	/**
+	 * Setting a feature through an entry of the map drops the snapshot
+	 * shared with the elements created from the element, and setting an
+	 * inherited feature gives its inherited value back.
+	 */
+	@Test
+	public void testSnapshots() {
+		WordElement word = new WordElement("cheval", LexicalCategory.NOUN, lexicon);
+		word.setFeature("testFeature", "value");
+		word.setFeature(LexicalFeature.GENDER, Gender.MASCULINE);
+		InflectedWordElement before = new InflectedWordElement(word);
+		for (Map.Entry<String, Object> feature : word.getAllFeatures().entrySet()) {
+			if (feature.getKey().equals("testFeature")) feature.setValue("other");
+		}
+		InflectedWordElement after = new InflectedWordElement(word);
+		Assert.assertEquals("value", before.getFeature("testFeature"));
+		Assert.assertEquals("other", after.getFeature("testFeature"));
+
+		Map<String, Object> features = after.getAllFeatures();
+		int size = features.size();
+		Assert.assertEquals("other", features.put("testFeature", "third"));
+		Assert.assertEquals("third", features.put("testFeature", "fourth"));
+		after.removeFeature(LexicalFeature.GENDER);
+		Assert.assertNull(features.put(LexicalFeature.GENDER, null));
+		Assert.assertNull(features.put("otherFeature", "x"));
+		Assert.assertEquals("other", word.getFeature("testFeature"));
+		Assert.assertEquals(Gender.MASCULINE, word.getFeature(LexicalFeature.GENDER));
+		Assert.assertEquals(size + 1, features.size());
+	}
+
+	/**
+	 * The features of the words of the French lexicon, copied into elements,
+	 * are the same as in HashMaps. (The memory they take and their lookup
+	 * time are measured by simplenlg.benchmark.FeatureStorageBenchmark.)
+	 */
+	@Test
+	public void testLexiconFeatures() {
+		List<WordElement> words = lexicon.getWords(LexicalCategory.ANY,
+				new HashMap<String, Object>());
+		Assert.assertTrue(words.size() > 1000);
+
+		for (WordElement word : words) {
+			NLGElement element = copyFeatures(word);
+			Map<String, Object> map = new HashMap<String, Object>(word.getAllFeatures());
+			Assert.assertEquals(map, element.getAllFeatures());
+			for (String name : LOOKED_UP) {
+				Assert.assertEquals(map.get(name), element.getFeature(name));
+			}
+		}
+	}
+
+	/**
+	 * @param word
+	 * @return an element with only the features of the word
+	 */
+	public static NLGElement copyFeatures(WordElement word) {
+		StringElement element = new StringElement(word.getBaseForm());
+		element.clearAllFeatures();
+		for (Map.Entry<String, Object> feature : word.getAllFeatures().entrySet()) {
+			element.setFeature(feature.getKey(), feature.getValue());
+		}
+		return element;
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.LexiconRegistry;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.phrasespec.VPPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Tests for the words of the shared French lexicon, which are frozen
+ */
+public class FrozenLexiconTest extends TestCase {
+
+	private Lexicon lexicon = LexiconRegistry.getLexicon(Language.FRENCH);
+
+	private NLGFactory factory = new NLGFactory(this.lexicon);
+
+	/**
+	 * The words of the lexicon can be given as they are to the phrases,
+	 * which use overlays of them.
+	 */
+	@Test
+	public void testWordsInPhrases() {
+		WordElement chien = this.lexicon.getWord("chien", LexicalCategory.NOUN);
+		WordElement chat = this.lexicon.getWord("chat", LexicalCategory.NOUN);
+		WordElement noir = this.lexicon.getWord("noir", LexicalCategory.ADJECTIVE);
+		Assert.assertTrue(chien.isFrozen());
+		Map<String, Object> features = new HashMap<String, Object>(chien.getAllFeatures());
+
+		CoordinatedPhraseElement coordination = this.factory.createCoordinatedPhrase(chien, chat);
+		SPhraseSpec clause = this.factory.createClause(coordination, "dormir");
+		Assert.assertEquals("Chien et chat dorment.", new Realiser().realiseSentence(clause));
+
+		NPPhraseSpec np = this.factory.createNounPhrase();
+		np.setHead(chat);
+		np.setSpecifier("le");
+		np.addModifier(noir);
+		clause = this.factory.createClause();
+		clause.setSubject(np);
+		clause.setVerb("voir");
+		clause.setObject(chien);
+		Assert.assertEquals("Le chat noir voit chien.", new Realiser().realiseSentence(clause));
+
+		Assert.assertEquals(features, chien.getAllFeatures());
+		for (WordElement word : new WordElement[] { chien, chat, noir }) {
+			Assert.assertNull(word.getParent());
+			Assert.assertFalse(word.hasFeature(InternalFeature.DISCOURSE_FUNCTION));
+		}
+	}
+
+	/**
+	 * The words of the lexicon can also be given as they are to the
+	 * documents, and in the lists of children set as features of the
+	 * phrases.
+	 */
+	@Test
+	public void testWordsAsChildren() {
+		WordElement chien = this.lexicon.getWord("chien", LexicalCategory.NOUN);
+		WordElement chat = this.lexicon.getWord("chat", LexicalCategory.NOUN);
+		Map<String, Object> features = new HashMap<String, Object>(chien.getAllFeatures());
+		Realiser realiser = new Realiser();
+
+		Assert.assertEquals("Chien.", realiser.realise(this.factory.createSentence(chien))
+				.getRealisation());
+
+		SPhraseSpec clause = this.factory.createClause();
+		clause.setVerb("dormir");
+		clause.setFeature(InternalFeature.SUBJECTS, Arrays.asList(chien));
+		Assert.assertEquals("Chien dort.", realiser.realiseSentence(clause));
+
+		VPPhraseSpec vp = this.factory.createVerbPhrase("chasser");
+		vp.setFeature(InternalFeature.COMPLEMENTS, Arrays.asList(chat));
+		clause = this.factory.createClause();
+		clause.setSubject("il");
+		clause.setVerbPhrase(vp);
+		Assert.assertEquals("Il chasse chat.", realiser.realiseSentence(clause));
+
+		// the cue phrase is an overlay, which can be changed
+		WordElement cependant = this.lexicon.lookupWord("cependant");
+		clause.setFeature(Feature.CUE_PHRASE, cependant);
+		clause.getFeatureAsElement(Feature.CUE_PHRASE).setFeature(LexicalFeature.NO_COMMA, true);
+		Assert.assertEquals("Cependant il chasse chat.", realiser.realiseSentence(clause));
+		Assert.assertFalse(cependant.hasFeature(LexicalFeature.NO_COMMA));
+
+		Assert.assertEquals(features, chien.getAllFeatures());
+		for (WordElement word : new WordElement[] { chien, chat }) {
+			Assert.assertNull(word.getParent());
+			Assert.assertFalse(word.hasFeature(InternalFeature.DISCOURSE_FUNCTION));
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Tense;
+import simplenlg.features.french.FrenchFeature;
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.LexiconRegistry;
+import simplenlg.lexicon.MultipleLexicon;
+import simplenlg.lexicon.OverlayLexicon;
+import simplenlg.lexicon.french.FunctionWords;
+import simplenlg.lexicon.french.XMLLexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Tests for the function words looked up once per lexicon
+ */
+public class FunctionWordsTest extends TestCase {
+
+	private XMLLexicon lexicon = new XMLLexicon();
+
+	/**
+	 * The function words are looked up once, and are the words of the
+	 * lexicon.
+	 */
+	@Test
+	public void testLookedUpOnce() {
+		FunctionWords words = FunctionWords.of(this.lexicon);
+		Assert.assertSame(words, this.lexicon.getFunctionWords());
+		Assert.assertSame(words, FunctionWords.of(this.lexicon));
+		Assert.assertSame(this.lexicon, words.getLexicon());
+
+		Assert.assertSame(this.lexicon.getWord("de", LexicalCategory.PREPOSITION), words.getDe());
+		Assert.assertSame(this.lexicon.getWord("du", LexicalCategory.DETERMINER), words.getDu());
+		Assert.assertSame(this.lexicon.getWord("dont", LexicalCategory.PRONOUN), words.getDont());
+		Assert.assertSame(this.lexicon.getWord("être", LexicalCategory.VERB), words.getEtre());
+		Assert.assertFalse(words.getQui().isFrozen());
+		Assert.assertTrue(FunctionWords.of(LexiconRegistry.getLexicon(Language.FRENCH))
+				.getQui().isFrozen());
+
+		// the words common to all languages
+		Assert.assertEquals("et", this.lexicon.getAdditionCoordConjunction().getBaseForm());
+		Assert.assertEquals("par", this.lexicon.getPassivePreposition().getBaseForm());
+		Assert.assertSame(words.getQueComplementiser(), this.lexicon.getDefaultComplementiser());
+		Assert.assertSame(words.getAdditionCoordConjunction(), this.lexicon.getAdditionCoordConjunction());
+	}
+
+	/**
+	 * The shared lexicons have their function words when they are loaded,
+	 * and an overlay lexicon shares the function words of its lexicon.
+	 */
+	@Test
+	public void testSharedLexicons() {
+		Lexicon shared = LexiconRegistry.getLexicon(Language.FRENCH);
+		FunctionWords words = FunctionWords.of(shared);
+		Assert.assertSame(words, new OverlayLexicon(shared).getFunctionWords());
+		Assert.assertNotSame(words, this.lexicon.getFunctionWords());
+	}
+
+	/**
+	 * The French function words of a lexicon of another language are kept
+	 * by it like its own, and by the lexicon of an overlay.
+	 */
+	@Test
+	public void testOtherLanguage() {
+		Lexicon english = new simplenlg.lexicon.english.XMLLexicon();
+		FunctionWords words = FunctionWords.of(english);
+		Assert.assertSame(words, FunctionWords.of(english));
+		Assert.assertSame(words, english.getFunctionWords(Language.FRENCH));
+		Assert.assertNotSame(words, english.getFunctionWords());
+		Assert.assertSame(english, words.getLexicon());
+
+		Lexicon shared = LexiconRegistry.getLexicon(Language.ENGLISH);
+		Assert.assertSame(FunctionWords.of(shared), FunctionWords.of(new OverlayLexicon(shared)));
+	}
+
+	/**
+	 * The function words of a multiple lexicon are looked up again when a
+	 * lexicon is added to it.
+	 */
+	@Test
+	public void testMultipleLexicon() {
+		MultipleLexicon multiple = new MultipleLexicon(Language.FRENCH);
+		FunctionWords before = FunctionWords.of(multiple);
+		multiple.addInitialLexicon(this.lexicon);
+		FunctionWords after = FunctionWords.of(multiple);
+		Assert.assertNotSame(before, after);
+		Assert.assertSame(this.lexicon.getWord("de", LexicalCategory.PREPOSITION), after.getDe());
+	}
+
+	/**
+	 * The helpers realise the function words as before, without changing
+	 * the words of a frozen lexicon.
+	 */
+	@Test
+	public void testRealisation() {
+		Lexicon lexicon = LexiconRegistry.getLexicon(Language.FRENCH);
+		NLGFactory factory = new NLGFactory(lexicon);
+		Realiser realiser = new Realiser();
+
+		NPPhraseSpec vin = factory.createNounPhrase("du", "vin");
+		SPhraseSpec clause = factory.createClause("il", "boire", vin);
+		clause.setFeature(Feature.NEGATED, true);
+		Assert.assertEquals("Il ne boit pas de vin.", realiser.realiseSentence(clause));
+
+		// "les fleurs que l'homme a données à la femme"
+		SPhraseSpec donner = factory.createClause(
+				factory.createNounPhrase("le", "homme"), "donner");
+		donner.setFeature(Feature.TENSE, Tense.PAST);
+		donner.setObject(factory.createNounPhrase("un", "fleur"));
+		donner.setIndirectObject(factory.createNounPhrase("le", "femme"));
+		donner.setFeature(FrenchFeature.RELATIVE_PHRASE, donner.getObject());
+		NPPhraseSpec fleurs = factory.createNounPhrase("le", "fleur");
+		fleurs.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		fleurs.addModifier(donner);
+		Assert.assertEquals("les fleurs que l'homme a données à la femme",
+				realiser.realise(fleurs).getRealisation());
+
+		WordElement que = FunctionWords.of(lexicon).getQue();
+		Assert.assertFalse(que.hasFeature(InternalFeature.DISCOURSE_FUNCTION));
+		Assert.assertNull(que.getParent());
+	}
+}
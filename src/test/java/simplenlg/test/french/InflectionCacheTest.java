@@ -0,0 +1,260 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Gender;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Person;
+import simplenlg.features.Tense;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.LexiconRegistry;
+import simplenlg.morphology.InflectionCache;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests for InflectionCache (the cache of the forms computed by the
+ * morphology rules of a lexicon). The time it saves is measured by
+ * simplenlg.benchmark.InflectionCacheBenchmark.
+ */
+public class InflectionCacheTest extends SimpleNLG4TestBase {
+
+	private static final String[] SUBJECTS = { "je", "tu", "il", "nous", "vous", "elles" };
+	private static final String[] VERBS = { "parler", "finir", "prendre", "venir", "partir" };
+	private static final Tense[] TENSES = { Tense.PRESENT, Tense.PAST, Tense.FUTURE,
+		Tense.CONDITIONAL };
+
+	private InflectionCache savedCache;
+
+	/**
+	 * Instantiates a new inflection cache test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public InflectionCacheTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() {
+		super.setUp();
+		savedCache = lexicon.getInflectionCache();
+	}
+
+	@Override
+	protected void tearDown() {
+		lexicon.setInflectionCache(savedCache);
+	}
+
+	/**
+	 * Builds clauses with the subjects, verbs and tenses, in that order.
+	 * 
+	 * @return the clauses
+	 */
+	private List<NLGElement> createClauses() {
+		return createClauses(factory);
+	}
+
+	/**
+	 * Builds clauses with the subjects, verbs and tenses, in that order.
+	 * 
+	 * @param factory
+	 *            factory of the lexicon of the clauses
+	 * @return the clauses
+	 */
+	private List<NLGElement> createClauses(NLGFactory factory) {
+		List<NLGElement> clauses = new ArrayList<NLGElement>();
+		for (Tense tense : TENSES) {
+			for (String verb : VERBS) {
+				for (String subject : SUBJECTS) {
+					SPhraseSpec clause = factory.createClause(subject, verb);
+					clause.setFeature(Feature.TENSE, tense);
+					NPPhraseSpec object = factory.createNounPhrase("le", "maison");
+					object.addModifier("beau");
+					object.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+					clause.addComplement(factory.createPrepositionPhrase("de", object));
+					clauses.add(clause);
+				}
+			}
+		}
+		return clauses;
+	}
+
+	/**
+	 * @param clauses
+	 * @return the realisations of the clauses
+	 */
+	private List<String> realiseAll(List<NLGElement> clauses) {
+		List<String> realisations = new ArrayList<String>();
+		for (NLGElement clause : clauses) {
+			realisations.add(realiser.realiseSentence(clause));
+		}
+		return realisations;
+	}
+
+	/**
+	 * The forms found in the cache are the same as the forms computed by the
+	 * rules.
+	 */
+	@Test
+	public void testSameForms() {
+		lexicon.setInflectionCache(null);
+		List<String> expected = realiseAll(createClauses());
+		Assert.assertEquals("Je parle des belles maisons.", expected.get(0));
+		Assert.assertEquals("Elles partiront des belles maisons.",
+				expected.get(2 * SUBJECTS.length * VERBS.length + SUBJECTS.length * VERBS.length - 1));
+
+		InflectionCache cache = new InflectionCache();
+		lexicon.setInflectionCache(cache);
+		Assert.assertEquals(expected, realiseAll(createClauses()));
+		long misses = cache.getMissCount();
+		Assert.assertTrue(cache.getHitCount() > 0);
+		Assert.assertEquals(expected, realiseAll(createClauses()));
+		Assert.assertEquals(misses, cache.getMissCount());
+		Assert.assertTrue(cache.getHitRate() > 0.5);
+		// pronouns and determiners aren't cached
+		Assert.assertTrue(cache.getUncachedCount() > 0);
+	}
+
+	/**
+	 * The batches realised through views of the shared lexicon use its
+	 * cache.
+	 */
+	@Test
+	public void testBatchRealisation() {
+		Lexicon shared = LexiconRegistry.getLexicon(Language.FRENCH);
+		InflectionCache savedSharedCache = shared.getInflectionCache();
+		try {
+			NLGFactory sharedFactory = new NLGFactory(shared);
+			shared.setInflectionCache(null);
+			List<String> expected = realiser.realiseAll(createClauses(sharedFactory))
+					.getRealisations();
+
+			InflectionCache cache = new InflectionCache();
+			shared.setInflectionCache(cache);
+			Assert.assertEquals(expected, realiser.realiseAll(createClauses(sharedFactory))
+					.getRealisations());
+			long misses = cache.getMissCount();
+			Assert.assertTrue(cache.getHitCount() > 0);
+			Assert.assertEquals(expected, realiser.realiseAll(createClauses(sharedFactory))
+					.getRealisations());
+			Assert.assertEquals(misses, cache.getMissCount());
+		} finally {
+			shared.setInflectionCache(savedSharedCache);
+		}
+	}
+
+	/**
+	 * An adjective or participle agreeing with different elements has
+	 * different forms.
+	 */
+	@Test
+	public void testAgreement() {
+		InflectionCache cache = new InflectionCache();
+		lexicon.setInflectionCache(cache);
+
+		NPPhraseSpec homme = factory.createNounPhrase("le", "homme");
+		homme.addModifier("beau");
+		NPPhraseSpec femmes = factory.createNounPhrase("le", "femme");
+		femmes.addModifier("beau");
+		femmes.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		Assert.assertEquals("le bel homme", realise(homme));
+		Assert.assertEquals("les belles femmes", realise(femmes));
+
+		SPhraseSpec clause = factory.createClause("elle", "partir");
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertEquals("elle est partie", realise(clause));
+		clause = factory.createClause("il", "partir");
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertEquals("il est parti", realise(clause));
+		clause = factory.createClause("elle", "partir");
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertEquals("elle est partie", realise(clause));
+		Assert.assertTrue(cache.getHitCount() > 0);
+	}
+
+	/**
+	 * The forms of a word whose features change are computed again.
+	 */
+	@Test
+	public void testChangedWord() {
+		InflectionCache cache = new InflectionCache();
+		lexicon.setInflectionCache(cache);
+
+		WordElement word = new WordElement("bijou", LexicalCategory.NOUN, lexicon);
+		word.setFeature(LexicalFeature.GENDER, Gender.MASCULINE);
+		word.setFeature(LexicalFeature.PLURAL, "bijoux");
+		InflectedWordElement inflected = new InflectedWordElement(word);
+		inflected.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		Assert.assertEquals("bijoux", inflected.realiseMorphology().getRealisation());
+		inflected = new InflectedWordElement(word);
+		inflected.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		Assert.assertEquals("bijoux", inflected.realiseMorphology().getRealisation());
+		Assert.assertEquals(1, cache.getHitCount());
+
+		word.setFeature(LexicalFeature.PLURAL, "bijous");
+		inflected = new InflectedWordElement(word);
+		inflected.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		Assert.assertEquals("bijous", inflected.realiseMorphology().getRealisation());
+
+		// a form given to the inflected word itself
+		inflected = new InflectedWordElement(word);
+		inflected.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		inflected.setFeature(LexicalFeature.PLURAL, "bijoutz");
+		Assert.assertEquals("bijoutz", inflected.realiseMorphology().getRealisation());
+		Assert.assertEquals(1, cache.getHitCount());
+
+		// features which aren't values can't be cached
+		inflected = new InflectedWordElement(word);
+		inflected.setFeature(Feature.PERSON, Person.FIRST);
+		inflected.setFeature("otherWord", word);
+		Assert.assertEquals("bijou", inflected.realiseMorphology().getRealisation());
+		Assert.assertEquals(1, cache.getUncachedCount());
+	}
+
+	/**
+	 * The least recently used forms are evicted.
+	 */
+	@Test
+	public void testEviction() {
+		InflectionCache cache = new InflectionCache(10);
+		lexicon.setInflectionCache(cache);
+		realiseAll(createClauses());
+		Assert.assertEquals(10, cache.size());
+		Assert.assertTrue(cache.getEvictionCount() > 0);
+		cache.setMaximumSize(5);
+		Assert.assertEquals(5, cache.size());
+	}
+}
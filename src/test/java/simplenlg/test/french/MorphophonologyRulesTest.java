@@ -0,0 +1,365 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.*;
+import simplenlg.features.french.FrenchLexicalFeature;
+import simplenlg.features.french.PronounType;
+import simplenlg.framework.ElementCategory;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.StringElement;
+import simplenlg.framework.WordElement;
+import simplenlg.morphophonology.MorphophonologyRulesInterface;
+import simplenlg.morphophonology.french.MorphophonologyRules;
+import simplenlg.phrasespec.NPPhraseSpec;
+
+/**
+ * Tests that the French morphophonology rules give the same words as the
+ * rules written with regular expressions (contractions, elision and
+ * liaison forms). The time taken by both is measured by
+ * simplenlg.benchmark.MorphophonologyRulesBenchmark.
+ */
+public class MorphophonologyRulesTest extends SimpleNLG4TestBase {
+
+	private static final String[] LEFT = { "de", "à", "si", "que", "le", "la", "ce", "ma",
+		"beau", "vieux", "près de", "quant à", "même si", "parce que", "afin de", "mange",
+		" de", "x\nde", "dé", "à de", "", "lorsque" };
+	private static final String[] RIGHT = { "le", "lequel", "les", "lesquels", "lesquelles",
+		"la", "laquelle", "il", "ils", "elle", "homme", "hibou", "Hélène", "onzième", "été",
+		"Île", "arbre", "yeux", "ÿ", "chat", "de", "du", "d'", "que", "qu'", "", "a\nb", "lesquel" };
+	private static final LexicalCategory[] LEFT_CATEGORIES = { LexicalCategory.PREPOSITION,
+		LexicalCategory.DETERMINER, LexicalCategory.ADJECTIVE, LexicalCategory.CONJUNCTION,
+		LexicalCategory.VERB };
+	private static final LexicalCategory[] RIGHT_CATEGORIES = { LexicalCategory.DETERMINER,
+		LexicalCategory.NOUN, LexicalCategory.PRONOUN, LexicalCategory.VERB };
+
+	/**
+	 * The rules as they were written, with regular expressions.
+	 */
+	public static class RegexMorphophonologyRules implements MorphophonologyRulesInterface {
+
+		/**
+		 * This method performs the morphophonology on two
+		 * StringElements.
+		 * 
+		 */
+		public void doMorphophonology(StringElement leftWord, StringElement rightWord) {
+
+			ElementCategory leftCategory = leftWord.getCategory();
+			ElementCategory rightCategory = rightWord.getCategory();
+			NLGElement leftParent = leftWord.getParent();
+			String leftRealisation = leftWord.getRealisation();
+			String rightRealisation = rightWord.getRealisation();
+
+			if (leftRealisation != null && rightRealisation != null) {
+
+				if (LexicalCategory.PREPOSITION.equalTo(leftCategory)
+						&& (LexicalCategory.DETERMINER.equalTo(rightCategory)
+								|| rightWord.getFeature(FrenchLexicalFeature.PRONOUN_TYPE)
+									== PronounType.RELATIVE)) {
+					// if the preposition is "de" or endswith " de"
+					if (leftRealisation.matches("(.+ |)de\\z")) {
+						// "de" + "le" = "du"
+						if (rightRealisation.matches("le(quel)?")) {
+							String withoutDe = leftRealisation.substring(0,leftRealisation.length()-2);
+							leftWord.setRealisation(withoutDe + "du"
+									+ rightRealisation.substring(2));
+							rightWord.setRealisation(null);
+							// "de" + "les" = "des"
+						} else if (rightRealisation.matches("les(quel(le)?s)?")) {
+							String withoutDe = leftRealisation.substring(0,leftRealisation.length()-2);
+							leftWord.setRealisation(withoutDe + "des"
+									+ rightRealisation.substring(3));
+							rightWord.setRealisation(null);
+						}
+					}
+					// if the preposition is "à" or endswith " à"
+					if (leftRealisation.matches("(.+ |)à\\z")) {
+						// "à" + "le" = "au"
+						if (rightRealisation.matches("le(quel)?")) {
+							String withoutA = leftRealisation.substring(0,leftRealisation.length()-1);
+							leftWord.setRealisation(withoutA + "au"
+									+ rightRealisation.substring(2));
+							rightWord.setRealisation(null);
+							// "à" + "les" = "aux"
+						} else if (rightRealisation.matches("les(quel(le)?s)?")) {
+							String withoutA = leftRealisation.substring(0,leftRealisation.length()-1);
+							leftWord.setRealisation(withoutA + "aux"
+									+ rightRealisation.substring(3));
+							rightWord.setRealisation(null);
+						}
+					}
+				}
+
+				// special rule with "en" and "y" : the personal pronoun immediately preceding it
+				// takes non detached form even if it is attached to an imperative verb
+				Object person = leftWord.getFeature(Feature.PERSON);
+				Boolean person1or2 = (person == Person.FIRST || person == Person.SECOND);
+				if (LexicalCategory.PRONOUN.equalTo(leftCategory) && person1or2 &&
+						leftWord.getFeature(FrenchLexicalFeature.PRONOUN_TYPE) == PronounType.PERSONAL
+						&& leftWord.getFeature(Feature.NUMBER) == NumberAgreement.SINGULAR
+						&& leftWord.getFeatureAsBoolean(FrenchLexicalFeature.DETACHED)
+						&& LexicalCategory.PRONOUN.equalTo(rightCategory) &&
+						rightWord.getFeature(FrenchLexicalFeature.PRONOUN_TYPE) == PronounType.SPECIAL_PERSONAL)
+				{	
+					NLGElement baseWord = leftWord.getFeatureAsElement(InternalFeature.BASE_WORD);
+					if (baseWord instanceof WordElement) {
+						Map<String,Object> features = new HashMap<String,Object>( baseWord.getAllFeatures() );
+						features.put(FrenchLexicalFeature.DETACHED, false);
+						features.remove(LexicalFeature.DEFAULT_INFL);
+						features.remove(LexicalFeature.INFLECTIONS);
+						features.put(InternalFeature.DISCOURSE_FUNCTION, null);
+						WordElement newBaseWord = baseWord.getLexicon().getWord(LexicalCategory.PRONOUN, features);
+						if (newBaseWord != null) {
+							InflectedWordElement inflectedNewBaseWord = new InflectedWordElement(newBaseWord);
+							leftRealisation = newBaseWord.getBaseForm();
+
+							// change leftWord : creating a new StringElement wouldn't change the word, so we must
+							// modify the existing one mimicking the StringElement constructor
+							leftWord.clearAllFeatures();
+							for(String feature : inflectedNewBaseWord.getAllFeatureNames()) {
+								leftWord.setFeature(feature, inflectedNewBaseWord.getFeature(feature));
+							}
+							leftWord.setCategory(inflectedNewBaseWord.getCategory());
+							leftWord.setFeature(Feature.ELIDED, false);
+							leftWord.setRealisation(leftRealisation);
+						}
+
+					}
+				}
+
+				// words who have their last vowel elided
+				// and take an apostrophe when in front of a vowel
+				// (and singular for determiners)
+				if (( ((leftWord.getFeatureAsBoolean(FrenchLexicalFeature.VOWEL_ELISION)
+								&& leftRealisation != null && !leftRealisation.isEmpty()
+								&& !leftWord.isPlural())
+							|| leftRealisation.endsWith(" de") || leftRealisation.endsWith(" que"))
+						&& beginsWithVowel(rightWord))
+					|| ("si".equals(leftRealisation) || leftRealisation.endsWith(" si"))
+						&& rightRealisation.matches("il(s)?") ) {
+
+					// remove last letter (vowel) of left word and append an apostrophe
+					// the orthography processing will later assure that no space is put
+					// after the apostrophe
+					String newLeft =
+						leftRealisation.substring(0, leftRealisation.length()-1) + "'";
+					leftWord.setRealisation(newLeft);
+				}
+
+				if (leftParent != null) {
+					if ( LexicalCategory.DETERMINER.equalTo(leftCategory)
+						|| LexicalCategory.ADJECTIVE.equalTo(leftCategory) ) {
+						// Get gender from parent or "grand-parent" for adjectives
+						boolean feminine = false;
+						if (!leftParent.hasFeature(LexicalFeature.GENDER) && leftParent.getParent() != null) {
+							leftParent = leftParent.getParent();
+						}
+						feminine = Gender.FEMININE.equals( leftParent.getFeature(LexicalFeature.GENDER) );
+						// adjectives who have a different form in front of a vowel when masculine singular,
+						// possessive determiners when feminine singular
+						// and non possessive determiners when masculine singular
+						String liaisonForm = leftWord.getFeatureAsString(FrenchLexicalFeature.LIAISON);
+						boolean possessive = leftWord.getFeatureAsBoolean(Feature.POSSESSIVE);
+						if ( liaisonForm != null && beginsWithVowel(rightWord)
+							&& !leftParent.isPlural()
+							&& ((leftCategory == LexicalCategory.DETERMINER && possessive == feminine ) 
+								|| (leftCategory == LexicalCategory.ADJECTIVE && !feminine
+										&& rightCategory == LexicalCategory.NOUN))) {
+							leftWord.setRealisation(liaisonForm);
+						}
+					}
+				}
+
+				// remove duplicate "de" or "que"
+				if ("de".equals(leftRealisation) &&
+							("de".equals(rightRealisation) || "du".equals(rightRealisation)
+								|| "d'".equals(rightRealisation))
+						|| "que".equals(leftRealisation) &&
+							("que".equals(rightRealisation)	|| "qu'".equals(rightRealisation)) ) {
+					leftWord.setRealisation(null);
+				}
+			}
+		}
+
+		/**
+		 * Tells if a word begins with a vowel or an "aspired h"
+		 * 
+		 * @param word
+		 * @return true if the words begins with a vowel or an "aspired h"
+		 */
+		public boolean beginsWithVowel(StringElement word)
+		{
+			// A word can be marked as having a so-called "aspired h"
+			// even if it isn't written with an "h" at the beginning.
+			// Numerals are also considered to have this trait.
+			// ("le onzième jour", "le huit du mois")
+			String realisation = word.getRealisation();
+			return ( realisation.matches("\\A(" + MorphophonologyRules.vowels_regex + "|h|H).*") &&
+						!word.getFeatureAsBoolean(FrenchLexicalFeature.ASPIRED_H)
+						&& !realisation.endsWith("ième"));
+		}
+	}
+
+	/**
+	 * Instantiates a new morphophonology rules test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public MorphophonologyRulesTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @param realisation
+	 * @param category
+	 * @param variant
+	 *            the features of the word, by bit
+	 * @param parent
+	 * @return the word
+	 */
+	private static StringElement createWord(String realisation, LexicalCategory category,
+			int variant, NLGElement parent) {
+		StringElement word = new StringElement(realisation);
+		word.setCategory(category);
+		word.setFeature(FrenchLexicalFeature.VOWEL_ELISION, (variant & 1) != 0);
+		word.setFeature(FrenchLexicalFeature.ASPIRED_H, (variant & 2) != 0);
+		if ((variant & 4) != 0) word.setFeature(FrenchLexicalFeature.LIAISON, "bel");
+		word.setFeature(Feature.POSSESSIVE, (variant & 8) != 0);
+		if (category == LexicalCategory.PRONOUN) {
+			word.setFeature(FrenchLexicalFeature.PRONOUN_TYPE, PronounType.RELATIVE);
+		}
+		word.setParent(parent);
+		return word;
+	}
+
+	/**
+	 * @param rules
+	 * @param left
+	 * @param right
+	 * @return the realisations of the words after the rules, or the
+	 *         exception thrown
+	 */
+	public static String apply(MorphophonologyRulesInterface rules, StringElement left,
+			StringElement right) {
+		try {
+			rules.doMorphophonology(left, right);
+		} catch (RuntimeException e) {
+			return e.getClass().getName();
+		}
+		return left.getRealisation() + "|" + right.getRealisation();
+	}
+
+	/**
+	 * Compares the rules with the regular expressions on every pair of
+	 * words, categories, features and parents.
+	 */
+	@Test
+	public void testEquivalence() {
+		MorphophonologyRulesInterface rules = new MorphophonologyRules();
+		MorphophonologyRulesInterface reference = new RegexMorphophonologyRules();
+		List<NLGElement> parents = new ArrayList<NLGElement>();
+		for (int i = 0; i < 4; i++) {
+			NPPhraseSpec parent = factory.createNounPhrase("arbre");
+			parent.setFeature(LexicalFeature.GENDER, i % 2 == 0 ? Gender.MASCULINE
+				: Gender.FEMININE);
+			parent.setFeature(Feature.NUMBER, i < 2 ? NumberAgreement.SINGULAR
+				: NumberAgreement.PLURAL);
+			parents.add(parent);
+		}
+		parents.add(null);
+
+		int pairs = 0;
+		int changed = 0;
+		for (String left : LEFT) {
+			for (String right : RIGHT) {
+				for (LexicalCategory leftCategory : LEFT_CATEGORIES) {
+					for (LexicalCategory rightCategory : RIGHT_CATEGORIES) {
+						for (int variant = 0; variant < 16; variant++) {
+							for (NLGElement parent : parents) {
+								String expected = apply(reference,
+										createWord(left, leftCategory, variant, parent),
+										createWord(right, rightCategory, variant, null));
+								String actual = apply(rules,
+										createWord(left, leftCategory, variant, parent),
+										createWord(right, rightCategory, variant, null));
+								Assert.assertEquals(left + " " + right, expected, actual);
+								pairs++;
+								if (!expected.equals(left + "|" + right)) changed++;
+							}
+						}
+					}
+				}
+			}
+		}
+		Assert.assertTrue(changed > 0 && changed < pairs);
+	}
+
+	/**
+	 * Contractions and elision in sentences.
+	 */
+	@Test
+	public void testSentences() {
+		NPPhraseSpec tree = factory.createNounPhrase("le", "arbre");
+		NPPhraseSpec house = factory.createNounPhrase("le", "maison");
+		house.addComplement(factory.createPrepositionPhrase("à", factory.createNounPhrase(
+				"le", "homme")));
+		house.addComplement(factory.createPrepositionPhrase("de", factory.createNounPhrase(
+				"le", "jardin")));
+		tree.addComplement(factory.createPrepositionPhrase("près de", house));
+		Assert.assertEquals("L'arbre près de la maison à l'homme du jardin.",
+				realiser.realiseSentence(tree));
+		NPPhraseSpec children = factory.createNounPhrase("le", "enfant");
+		children.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		Assert.assertEquals("Aux enfants.", realiser.realiseSentence(
+				factory.createPrepositionPhrase("à", children)));
+	}
+
+	/**
+	 * Builds pairs of words, the left ones being of all the categories and
+	 * with a noun phrase as parent.
+	 * 
+	 * @param factory
+	 * @param count
+	 * @return the pairs of words
+	 */
+	public static StringElement[][] createPairs(NLGFactory factory, int count) {
+		NLGElement parent = factory.createNounPhrase("arbre");
+		StringElement[][] words = new StringElement[count][2];
+		for (int i = 0; i < count; i++) {
+			LexicalCategory category = LEFT_CATEGORIES[i % LEFT_CATEGORIES.length];
+			words[i][0] = createWord(LEFT[i % 12], category, 0, parent);
+			words[i][1] = createWord(RIGHT[i % 20], LexicalCategory.NOUN, 0, null);
+		}
+		return words;
+	}
+}
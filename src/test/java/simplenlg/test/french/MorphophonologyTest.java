@@ -0,0 +1,214 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Tense;
+import simplenlg.features.french.FrenchFeature;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.StringElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests for the morphophonology stage (elision, contractions, "a"/"an") on
+ * deep and long sentences, compared with doing each pair of adjacent
+ * children recursively. The sentences of these tests are also used by
+ * simplenlg.benchmark.MorphophonologyBenchmark, which times both ways.
+ */
+public class MorphophonologyTest extends SimpleNLG4TestBase {
+
+	private static final String[] NOUNS = { "homme", "enfant", "femme", "arbre", "patient" };
+
+	/**
+	 * Instantiates a new morphophonology test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public MorphophonologyTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Builds "le homme qui voit le enfant qui voit le femme..." with the
+	 * given number of relative clauses, each noun with a complement
+	 * "de le arbre".
+	 * 
+	 * @param factory
+	 * @param depth
+	 * @return the noun phrase
+	 */
+	public static NPPhraseSpec createRelativeClauses(NLGFactory factory, int depth) {
+		NPPhraseSpec noun = factory.createNounPhrase("le", NOUNS[depth % NOUNS.length]);
+		if (depth % 3 == 1) noun.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		noun.addComplement(factory.createPrepositionPhrase("de",
+				factory.createNounPhrase("le", "arbre")));
+		if (depth > 0) {
+			SPhraseSpec clause = factory.createClause(factory.createNounPhrase("le", "homme"),
+					"voir", createRelativeClauses(factory, depth - 1));
+			noun.addModifier(clause);
+			clause.setFeature(FrenchFeature.RELATIVE_PHRASE, clause.getSubject());
+		}
+		return noun;
+	}
+
+	/**
+	 * Builds "de le N de le N de le ..." with the given number of
+	 * prepositional phrases.
+	 * 
+	 * @param factory
+	 * @param depth
+	 * @return the noun phrase
+	 */
+	private static NPPhraseSpec createPrepositionalPhrases(NLGFactory factory, int depth) {
+		NPPhraseSpec noun = factory.createNounPhrase("le", NOUNS[depth % NOUNS.length]);
+		if (depth % 2 == 1) noun.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		if (depth > 0) {
+			noun.addComplement(factory.createPrepositionPhrase(depth % 4 == 0 ? "à" : "de",
+					createPrepositionalPhrases(factory, depth - 1)));
+		}
+		return noun;
+	}
+
+	/**
+	 * Builds a coordination of the given number of noun phrases.
+	 * 
+	 * @param factory
+	 * @param size
+	 * @param english
+	 * @return the coordination
+	 */
+	public static CoordinatedPhraseElement createCoordination(NLGFactory factory, int size,
+			boolean english) {
+		String[] nouns = english ? new String[] { "apple", "dog", "elephant", "hour", "unicorn" }
+			: NOUNS;
+		CoordinatedPhraseElement coordination = factory.createCoordinatedPhrase();
+		for (int i = 0; i < size; i++) {
+			NPPhraseSpec noun = factory.createNounPhrase(english ? "a" : "le",
+					nouns[i % nouns.length]);
+			if (i % 3 == 0) noun.addModifier(english ? "old" : "ancien");
+			coordination.addCoordinate(english ? noun
+				: factory.createPrepositionPhrase("de", noun));
+		}
+		return coordination;
+	}
+
+	/**
+	 * @param factory
+	 * @param element
+	 * @return the element realised up to the morphology stage
+	 */
+	public static NLGElement realiseMorphology(NLGFactory factory, NLGElement element) {
+		return factory.createSentence(element).realiseSyntax().realiseMorphology();
+	}
+
+	/**
+	 * Does the morphophonology of each child of an element, and of each
+	 * pair of adjacent children, recursively.
+	 * 
+	 * @param element
+	 */
+	public static void realiseRecursively(NLGElement element) {
+		if (element instanceof StringElement) return;
+		List<NLGElement> children = element.getChildren();
+		if (children == null) return;
+		for (int index = 0; index < children.size(); index++) {
+			realiseRecursively(children.get(index));
+			if (index > 0) children.get(index - 1).realiseMorphophonologyBefore(children.get(index));
+		}
+	}
+
+	/**
+	 * @param element
+	 * @param words
+	 *            the realisations of the StringElements of the element
+	 * @return the words
+	 */
+	private static List<String> getWords(NLGElement element, List<String> words) {
+		if (element instanceof StringElement) {
+			words.add(element.getRealisation());
+		} else if (element.getChildren() != null) {
+			for (NLGElement child : element.getChildren()) {
+				getWords(child, words);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Checks that the morphophonology gives the same words as doing it
+	 * recursively.
+	 * 
+	 * @param factory
+	 * @param first
+	 * @param second
+	 *            an element built the same way
+	 */
+	private static void compare(NLGFactory factory, NLGElement first, NLGElement second) {
+		NLGElement expected = realiseMorphology(factory, first);
+		realiseRecursively(expected);
+		NLGElement actual = realiseMorphology(factory, second);
+		actual.realiseMorphophonology();
+		Assert.assertEquals(getWords(expected, new ArrayList<String>()),
+				getWords(actual, new ArrayList<String>()));
+	}
+
+	/**
+	 * Relative clauses and prepositional phrases in French.
+	 */
+	@Test
+	public void testFrench() {
+		Assert.assertEquals("Les enfants de l'arbre qui voient l'homme de l'arbre.",
+				realiser.realiseSentence(createRelativeClauses(factory, 1)));
+		Assert.assertEquals("Les enfants de l'homme.",
+				realiser.realiseSentence(createPrepositionalPhrases(factory, 1)));
+		for (int depth = 0; depth < 12; depth++) {
+			compare(factory, createRelativeClauses(factory, depth),
+					createRelativeClauses(factory, depth));
+			compare(factory, createPrepositionalPhrases(factory, depth),
+					createPrepositionalPhrases(factory, depth));
+			compare(factory, createCoordination(factory, depth + 1, false),
+					createCoordination(factory, depth + 1, false));
+		}
+	}
+
+	/**
+	 * Coordinations in English.
+	 */
+	@Test
+	public void testEnglish() {
+		NLGFactory englishFactory = new NLGFactory(Lexicon.getDefaultLexicon());
+		for (int size = 1; size < 12; size++) {
+			compare(englishFactory, createCoordination(englishFactory, size, true),
+					createCoordination(englishFactory, size, true));
+		}
+	}
+}
@@ -0,0 +1,245 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+import simplenlg.realiser.SentenceTemplate;
+
+/**
+ * Tests for SentenceTemplate (clauses whose syntax is prepared once and
+ * realised with different elements in their slots). The sentences of these
+ * tests are also used by simplenlg.benchmark.SentenceTemplateBenchmark,
+ * which measures the time saved by the templates.
+ */
+public class SentenceTemplateTest extends SimpleNLG4TestBase {
+
+	private static final String[][] FRENCH_NOUNS = { { "le", "patient" }, { "un", "femme" },
+		{ "le", "enfant" }, { "ce", "homme" } };
+	private static final String[] FRENCH_DRUGS = { "médicament", "sirop", "vaccin" };
+	private static final String[] ENGLISH_NOUNS = { "patient", "woman", "child", "man" };
+	private static final String[] ENGLISH_DRUGS = { "aspirin", "syrup", "vaccine" };
+
+	/**
+	 * Instantiates a new sentence template test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public SentenceTemplateTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Builds the clause "patient prendre dose de drug" (or "patient take dose
+	 * of drug" in English) in the past tense.
+	 * 
+	 * @param factory
+	 * @param patient
+	 * @param dose
+	 * @param drug
+	 * @return the clause
+	 */
+	public static SPhraseSpec createClause(NLGFactory factory, NLGElement patient,
+			NLGElement dose, NLGElement drug) {
+		boolean french = factory.getLexicon().getLanguage() == simplenlg.framework.Language.FRENCH;
+		SPhraseSpec clause = factory.createClause(patient, french ? "prendre" : "take", dose);
+		clause.addComplement(factory.createPrepositionPhrase(french ? "de" : "of", drug));
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		return clause;
+	}
+
+	/**
+	 * Makes the elements of the slots of the i-th sentence.
+	 * 
+	 * @param factory
+	 * @param i
+	 * @return the patient, dose and drug
+	 */
+	public static NLGElement[] createFillers(NLGFactory factory, int i) {
+		boolean french = factory.getLexicon().getLanguage() == simplenlg.framework.Language.FRENCH;
+		NPPhraseSpec patient;
+		NPPhraseSpec dose;
+		NPPhraseSpec drug;
+		if (french) {
+			String[] noun = FRENCH_NOUNS[i % FRENCH_NOUNS.length];
+			patient = factory.createNounPhrase(noun[0], noun[1]);
+			dose = factory.createNounPhrase("un", "comprimé");
+			drug = factory.createNounPhrase("le", FRENCH_DRUGS[i % FRENCH_DRUGS.length]);
+		} else {
+			patient = factory.createNounPhrase("the", ENGLISH_NOUNS[i % ENGLISH_NOUNS.length]);
+			dose = factory.createNounPhrase("a", "tablet");
+			drug = factory.createNounPhrase("the", ENGLISH_DRUGS[i % ENGLISH_DRUGS.length]);
+		}
+		if (i % 2 == 1) patient.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		if (i % 3 == 2) {
+			dose.setSpecifier(french ? "deux" : "two");
+			dose.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		}
+		if (i % 5 == 4) patient.addModifier(french ? "vieux" : "old");
+		return new NLGElement[] { patient, dose, drug };
+	}
+
+	/**
+	 * Builds the template of the clause.
+	 * 
+	 * @param realiser
+	 * @param factory
+	 * @return the template, with the slots patient, dose and drug
+	 */
+	public static SentenceTemplate createTemplate(Realiser realiser, NLGFactory factory) {
+		NLGElement[] placeholders = createFillers(factory, 0);
+		SentenceTemplate template = new SentenceTemplate(realiser,
+				createClause(factory, placeholders[0], placeholders[1], placeholders[2]));
+		template.addSlot("patient", placeholders[0]);
+		template.addSlot("dose", placeholders[1]);
+		template.addSlot("drug", placeholders[2]);
+		return template;
+	}
+
+	/**
+	 * @param fillers
+	 * @return the fillers by name of slot
+	 */
+	public static Map<String, NLGElement> slots(NLGElement[] fillers) {
+		Map<String, NLGElement> slots = new HashMap<String, NLGElement>();
+		slots.put("patient", fillers[0]);
+		slots.put("dose", fillers[1]);
+		slots.put("drug", fillers[2]);
+		return slots;
+	}
+
+	/**
+	 * Realises sentences with the template and with the full realisation,
+	 * and checks that they are the same.
+	 * 
+	 * @param factory
+	 * @param count
+	 * @return the sentences
+	 */
+	private static List<String> compare(NLGFactory factory, int count) {
+		Realiser realiser = new Realiser();
+		SentenceTemplate template = createTemplate(realiser, factory);
+		List<String> sentences = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			NLGElement[] fillers = createFillers(factory, i);
+			String expected = realiser.realiseSentence(
+					createClause(factory, fillers[0], fillers[1], fillers[2]));
+			Assert.assertEquals(expected, template.realise(slots(createFillers(factory, i))));
+			sentences.add(expected);
+		}
+		Assert.assertEquals(count, template.getRealisationCount());
+		Assert.assertTrue(template.getPreparationCount() < count);
+		return sentences;
+	}
+
+	/**
+	 * A French template gives the same sentences as the full realisation,
+	 * with agreement of the verb and adjectives.
+	 */
+	@Test
+	public void testFrench() {
+		List<String> sentences = compare(factory, 30);
+		Assert.assertEquals("Le patient a pris un comprimé du médicament.", sentences.get(0));
+		Assert.assertEquals("Des femmes ont pris un comprimé du sirop.", sentences.get(1));
+		Assert.assertEquals("L'enfant a pris deux comprimés du vaccin.", sentences.get(2));
+		Assert.assertEquals("De vieilles femmes ont pris un comprimé du médicament.",
+				sentences.get(9));
+	}
+
+	/**
+	 * An English template gives the same sentences as the full realisation.
+	 */
+	@Test
+	public void testEnglish() {
+		List<String> sentences = compare(new NLGFactory(Lexicon.getDefaultLexicon()), 30);
+		Assert.assertEquals("The patient took a tablet of the aspirin.", sentences.get(0));
+		Assert.assertEquals("The women took a tablet of the syrup.", sentences.get(1));
+		Assert.assertEquals("The child took two tablets of the vaccine.", sentences.get(2));
+		Assert.assertEquals("The old women took a tablet of the aspirin.", sentences.get(9));
+	}
+
+	/**
+	 * The clause is prepared again for elements of another gender, number
+	 * or person, or pronouns, and the template doesn't change the clause nor
+	 * the elements in the slots.
+	 */
+	@Test
+	public void testPreparation() {
+		NLGElement[] placeholders = createFillers(factory, 0);
+		SPhraseSpec clause = createClause(factory, placeholders[0], placeholders[1],
+				placeholders[2]);
+		clause.setFeature(Feature.TENSE, Tense.PRESENT);
+		clause.setFeature(Feature.NEGATED, true);
+		SentenceTemplate template = new SentenceTemplate(realiser, clause);
+		template.addSlot("patient", placeholders[0]);
+		template.addSlot("dose", placeholders[1]);
+		template.addSlot("drug", placeholders[2]);
+
+		NLGElement[] fillers = createFillers(factory, 3);
+		Map<String, NLGElement> slots = slots(fillers);
+		Assert.assertEquals("Ces hommes ne prennent pas de comprimé du médicament.",
+				template.realise(slots));
+		Assert.assertEquals("Ces hommes ne prennent pas de comprimé du médicament.",
+				template.realise(slots));
+		Assert.assertEquals(1, template.getPreparationCount());
+
+		slots.put("patient", factory.createNounPhrase("personne"));
+		Assert.assertEquals("Personne ne prend de comprimé du médicament.",
+				template.realise(slots));
+		slots.put("patient", factory.createNounPhrase("je"));
+		slots.put("dose", factory.createNounPhrase("le"));
+		Assert.assertEquals("Je ne le prends pas du médicament.", template.realise(slots));
+		slots.put("patient", factory.createNounPhrase("le", "patient"));
+		Assert.assertEquals("Le patient ne le prend pas du médicament.", template.realise(slots));
+		Assert.assertEquals(4, template.getPreparationCount());
+
+		Assert.assertEquals("Le patient ne prend pas de comprimé du médicament.",
+				realiser.realiseSentence(clause));
+
+		try {
+			template.addSlot("other", factory.createNounPhrase("le", "chien"));
+			Assert.fail("a placeholder must be in the clause");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			template.realise(new HashMap<String, NLGElement>());
+			Assert.fail("every slot must have an element");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
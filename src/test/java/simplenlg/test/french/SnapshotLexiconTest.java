@@ -0,0 +1,71 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.XMLLexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Tests for SnapshotLexicon, using a snapshot of the default French lexicon
+ * (the tests of simplenlg.test.english.SnapshotLexiconTest, with the French
+ * basic tests and a realisation test)
+ */
+public class SnapshotLexiconTest extends simplenlg.test.english.SnapshotLexiconTest {
+
+	@Override
+	protected XMLLexicon createXMLLexicon() {
+		return new simplenlg.lexicon.french.XMLLexicon();
+	}
+
+	@Override
+	@Test
+	public void testBasics() {
+		SharedLexiconTests.doBasicTests(snapshotLexicon);
+	}
+
+	/**
+	 * Realisation with the snapshot must give the same text as with
+	 * the XML lexicon it was compiled from.
+	 */
+	@Test
+	public void testRealisation() {
+		Realiser realiser = new Realiser();
+		for (Lexicon lexicon : Arrays.<Lexicon>asList(xmlLexicon, snapshotLexicon)) {
+			NLGFactory factory = new NLGFactory(lexicon);
+			SPhraseSpec clause = factory.createClause(
+					factory.createNounPhrase("le", "femme"), "aller",
+					factory.createPrepositionPhrase("à", factory.createNounPhrase("le", "maison")));
+			clause.setFeature(Feature.TENSE, Tense.FUTURE);
+			clause.setFeature(Feature.NEGATED, true);
+			Assert.assertEquals("La femme n'ira pas à la maison.",
+					realiser.realiseSentence(clause));
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.test.french;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Form;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests for Realiser.realise(NLGElement, Appendable), which writes the text
+ * of a document to an output instead of returning it.
+ */
+public class StreamingRealisationTest extends SimpleNLG4TestBase {
+
+	/**
+	 * Instantiates a new streaming realisation test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public StreamingRealisationTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Builds a French document with a section, paragraphs, a list,
+	 * coordinated phrases, an imperative with a clitic and elided
+	 * determiners. A new document is built each time, as realisation changes
+	 * it.
+	 * 
+	 * @param factory
+	 * @return the document
+	 */
+	private static DocumentElement createFrenchDocument(NLGFactory factory) {
+		CoordinatedPhraseElement subject = factory.createCoordinatedPhrase();
+		subject.addCoordinate(factory.createNounPhrase("le", "homme"));
+		subject.addCoordinate(factory.createNounPhrase("le", "femme"));
+		subject.addCoordinate(factory.createNounPhrase("le", "garçon"));
+		SPhraseSpec clause1 = factory.createClause(subject, "lire", "le livre");
+		clause1.setFeature(Feature.TENSE, Tense.PAST);
+
+		NPPhraseSpec indirectObject = factory.createNounPhrase("le", "enfant");
+		indirectObject.setFeature(Feature.PRONOMINAL, true);
+		SPhraseSpec clause2 = factory.createClause(null, "donner", "le livre");
+		clause2.setIndirectObject(indirectObject);
+		clause2.setFeature(Feature.FORM, Form.IMPERATIVE);
+
+		SPhraseSpec clause3 = factory.createClause("le chien", "poursuivre", "le chat");
+		clause3.addFrontModifier("hier");
+		clause3.setFeature(Feature.NEGATED, true);
+
+		DocumentElement paragraph = factory.createParagraph();
+		paragraph.addComponent(factory.createSentence(clause1));
+		paragraph.addComponent(factory.createSentence(clause2));
+		paragraph.addComponent(factory.createSentence(clause3));
+
+		DocumentElement list = factory.createList();
+		list.addComponent(factory.createListItem(factory.createNounPhrase("le", "chien")));
+		list.addComponent(factory.createListItem(factory.createClause("le garçon", "marcher")));
+
+		DocumentElement section = factory.createSection("Section");
+		section.addComponent(paragraph);
+		section.addComponent(list);
+		section.addComponent(factory.createParagraph(factory.createSentence(
+				factory.createClause("le garçon", "tomber"))));
+
+		DocumentElement document = factory.createDocument("Titre");
+		document.addComponent(section);
+		return document;
+	}
+
+	/**
+	 * Builds a document of paragraphs of English sentences.
+	 * 
+	 * @param factory
+	 * @param size
+	 *            number of sentences
+	 * @return the document
+	 */
+	private static DocumentElement createEnglishDocument(NLGFactory factory, int size) {
+		String[] subjects = { "the man", "the woman", "a dog", "some children", "the mouse" };
+		String[] verbs = { "chase", "see", "like", "kick", "carry" };
+		String[] objects = { "the ball", "a cat", "the rock", "the curtain", "some sheep" };
+
+		DocumentElement document = factory.createDocument("Title");
+		DocumentElement paragraph = null;
+		for (int i = 0; i < size; i++) {
+			if (i % 10 == 0) {
+				paragraph = factory.createParagraph();
+				document.addComponent(paragraph);
+			}
+			CoordinatedPhraseElement object = factory.createCoordinatedPhrase(
+					objects[(i / 5) % 5], objects[(i + 1) % 5]);
+			SPhraseSpec clause = factory.createClause(subjects[i % 5],
+					verbs[(i / 5) % 5], object);
+			paragraph.addComponent(factory.createSentence(clause));
+		}
+		return document;
+	}
+
+	/**
+	 * The text written is the realisation of the document.
+	 */
+	@Test
+	public void testSameText() throws IOException {
+		String expected = realiser.realise(createFrenchDocument(factory)).getRealisation();
+		StringBuilder output = new StringBuilder();
+		realiser.realise(createFrenchDocument(factory), output);
+		Assert.assertEquals(expected, output.toString());
+		Assert.assertTrue(expected.startsWith("Titre\nSection\n"));
+		Assert.assertTrue(expected.contains("L'homme, la femme et le garçon ont lu le livre. Donne-lui le livre."));
+		Assert.assertTrue(expected.contains("\n* le chien \n* le garçon marche \n"));
+
+		NLGFactory english = new NLGFactory(new simplenlg.lexicon.english.XMLLexicon());
+		expected = realiser.realise(createEnglishDocument(english, 30)).getRealisation();
+		StringWriter writer = new StringWriter();
+		realiser.realise(createEnglishDocument(english, 30), writer);
+		Assert.assertEquals(expected, writer.toString());
+		Assert.assertTrue(expected.startsWith(
+				"Title\nThe man chases the ball and a cat. The woman chases"));
+
+		// the text is appended to the output
+		realiser.realise(english.createSentence("the dog", "bark"), writer);
+		Assert.assertEquals(expected + "The dog barks.", writer.toString());
+	}
+
+	/**
+	 * A long document written to an output is the same as its realisation.
+	 * (The time taken each way is measured by
+	 * simplenlg.benchmark.StreamingRealisationBenchmark.)
+	 */
+	@Test
+	public void testLongDocument() throws IOException {
+		NLGFactory english = new NLGFactory(new simplenlg.lexicon.english.XMLLexicon());
+		int size = 2000;
+		String expected = realiser.realise(createEnglishDocument(english, size)).getRealisation();
+		StringWriter writer = new StringWriter(expected.length());
+		realiser.realise(createEnglishDocument(english, size), writer);
+		Assert.assertEquals(expected, writer.toString());
+	}
+}
@@ -18,12 +18,45 @@
  */
 package simplenlg.test.french;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.Assert;
 import junit.framework.TestCase;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import simplenlg.features.DiscourseFunction;
+import simplenlg.features.Feature;
+import simplenlg.features.Gender;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Person;
+import simplenlg.features.french.FrenchLexicalFeature;
+import simplenlg.features.french.PronounType;
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.LexiconRegistry;
+import simplenlg.lexicon.VariantIndexMode;
+import simplenlg.lexicon.french.PronounParadigm;
 import simplenlg.lexicon.french.XMLLexicon;
 
 /**
@@ -69,6 +102,300 @@ public class XMLLexiconTest extends TestCase {
 	public void testBasics() {
 		SharedLexiconTests.doBasicTests(lexicon);
 	}
+
+	/**
+	 * Lexicon which also converts the words of a DOM, the way lexicons
+	 * were loaded before they were read as a stream.
+	 */
+	private static class DOMXMLLexicon extends XMLLexicon {
+		DOMXMLLexicon(URI lexiconURI) {
+			super(lexiconURI);
+		}
+
+		@SuppressWarnings("deprecation")
+		List<WordElement> convertDocument(Document doc) {
+			List<WordElement> result = new ArrayList<WordElement>();
+			NodeList wordNodes = doc.getDocumentElement().getChildNodes();
+			for (int i = 0; i < wordNodes.getLength(); i++) {
+				Node wordNode = wordNodes.item(i);
+				if (wordNode.getNodeType() == Node.ELEMENT_NODE) {
+					WordElement word = convertNodeToWord(wordNode);
+					if (word != null) result.add(word);
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Reading the lexicon as a stream must give the same words as
+	 * converting the nodes of a DOM.
+	 */
+	@Test
+	public void testStreamSameAsDOM() throws Exception {
+		URI uri = LexiconRegistry.getDefaultLexiconURI(Language.FRENCH);
+		DOMXMLLexicon streamLexicon = new DOMXMLLexicon(uri);
+		Document doc = DocumentBuilderFactory.newInstance()
+				.newDocumentBuilder().parse(uri.toString());
+		List<WordElement> domWords = streamLexicon.convertDocument(doc);
+
+		List<WordElement> streamWords = streamLexicon.getWords(LexicalCategory.ANY, null);
+		Assert.assertEquals(domWords.size(), streamWords.size());
+
+		Set<WordElement> matched = Collections.newSetFromMap(
+				new IdentityHashMap<WordElement, Boolean>());
+		for (WordElement domWord : domWords) {
+			WordElement match = null;
+			for (WordElement streamWord : streamLexicon.getWords(
+					domWord.getBaseForm(), (LexicalCategory) domWord.getCategory())) {
+				if (!matched.contains(streamWord)
+						&& equals(domWord.getId(), streamWord.getId())
+						&& domWord.getAllFeatures().equals(streamWord.getAllFeatures())) {
+					match = streamWord;
+					break;
+				}
+			}
+			Assert.assertNotNull("no match for " + domWord, match);
+			matched.add(match);
+		}
+
+		// conversions done by the French lexicon
+		WordElement elle = streamLexicon.getWord("elle", LexicalCategory.PRONOUN);
+		Assert.assertEquals(Gender.FEMININE, elle.getFeature(LexicalFeature.GENDER));
+		Assert.assertEquals(Person.THIRD, elle.getFeature(Feature.PERSON));
+	}
+
+	/**
+	 * Lexicon giving access to its index by variant.
+	 */
+	private static class IndexedXMLLexicon extends XMLLexicon {
+		IndexedXMLLexicon(URI lexiconURI, VariantIndexMode mode) {
+			super(lexiconURI, mode);
+		}
+
+		Map<String, List<WordElement>> getVariantIndex() {
+			buildVariantIndex(LexicalCategory.ANY);
+			return indexByVariant;
+		}
+	}
+
+	/**
+	 * The index by variant must be the same whether it is built as the
+	 * words are loaded, in parallel or lazily. (The time taken in each mode
+	 * is measured by simplenlg.benchmark.LexiconLoadingBenchmark.)
+	 */
+	@Test
+	public void testVariantIndexModes() {
+		URI uri = LexiconRegistry.getDefaultLexiconURI(Language.FRENCH);
+		Map<VariantIndexMode, IndexedXMLLexicon> lexicons =
+			new EnumMap<VariantIndexMode, IndexedXMLLexicon>(VariantIndexMode.class);
+		for (VariantIndexMode mode : VariantIndexMode.values()) {
+			IndexedXMLLexicon modeLexicon = new IndexedXMLLexicon(uri, mode);
+			Assert.assertEquals(mode, modeLexicon.getVariantIndexMode());
+			lexicons.put(mode, modeLexicon);
+		}
+
+		// lazy index : only the verbs are indexed for this lookup
+		IndexedXMLLexicon lazyLexicon = lexicons.get(VariantIndexMode.LAZY);
+		WordElement etre = lazyLexicon.getWordFromVariant("sommes", LexicalCategory.VERB);
+		Assert.assertEquals("être", etre.getBaseForm());
+
+		Map<String, List<WordElement>> eagerIndex =
+			lexicons.get(VariantIndexMode.EAGER).getVariantIndex();
+		for (VariantIndexMode mode : Arrays.asList(VariantIndexMode.PARALLEL, VariantIndexMode.LAZY)) {
+			Map<String, List<WordElement>> index = lexicons.get(mode).getVariantIndex();
+			Assert.assertEquals(eagerIndex.keySet(), index.keySet());
+			for (Map.Entry<String, List<WordElement>> entry : eagerIndex.entrySet()) {
+				List<WordElement> expected = entry.getValue();
+				List<WordElement> actual = index.get(entry.getKey());
+				Assert.assertEquals(expected.size(), actual.size());
+				for (int i = 0; i < expected.size(); i++) {
+					Assert.assertEquals(expected.get(i).getBaseForm(), actual.get(i).getBaseForm());
+					Assert.assertEquals(expected.get(i).getCategory(), actual.get(i).getCategory());
+					Assert.assertTrue(equals(expected.get(i).getId(), actual.get(i).getId()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Looking words up by features with the inverted index must give the
+	 * same words, in the same order, as comparing the features of every
+	 * word, including the rule that a null or FALSE value matches a word
+	 * who doesn't have the feature.
+	 */
+	@Test
+	public void testFeatureIndex() {
+		List<WordElement> pronouns = lexicon.getWords(LexicalCategory.PRONOUN, null);
+		Gender[] genders = {Gender.MASCULINE, Gender.FEMININE, null};
+		DiscourseFunction[] functions = {DiscourseFunction.SUBJECT,
+				DiscourseFunction.OBJECT, DiscourseFunction.INDIRECT_OBJECT, null};
+		int found = 0;
+		for (Person person : Person.values()) {
+			for (NumberAgreement number : Arrays.asList(NumberAgreement.SINGULAR, NumberAgreement.PLURAL)) {
+				for (Gender gender : genders) {
+					for (DiscourseFunction function : functions) {
+						for (boolean reflexive : new boolean[] {true, false}) {
+							for (boolean detached : new boolean[] {true, false}) {
+								Map<String, Object> features = new HashMap<String, Object>();
+								features.put(Feature.PERSON, person);
+								features.put(Feature.NUMBER, number);
+								features.put(LexicalFeature.GENDER, gender);
+								features.put(InternalFeature.DISCOURSE_FUNCTION, function);
+								features.put(LexicalFeature.REFLEXIVE, reflexive);
+								features.put(FrenchLexicalFeature.DETACHED, detached);
+
+								List<WordElement> expected = new ArrayList<WordElement>();
+								for (WordElement pronoun : pronouns) {
+									if (matches(pronoun, features)) expected.add(pronoun);
+								}
+								List<WordElement> actual =
+									lexicon.getWords(LexicalCategory.PRONOUN, features);
+								Assert.assertEquals(expected, actual);
+								found += actual.size();
+							}
+						}
+					}
+				}
+			}
+		}
+		Assert.assertTrue(found > 0);
+
+		// the index follows changes to the features of the words
+		Map<String, Object> features = new HashMap<String, Object>();
+		features.put(Feature.PERSON, Person.FIRST);
+		features.put(Feature.NUMBER, NumberAgreement.SINGULAR);
+		features.put("testFeature", "value");
+		Assert.assertTrue(lexicon.getWords(LexicalCategory.PRONOUN, features).isEmpty());
+		WordElement je = lexicon.getWord("je", LexicalCategory.PRONOUN);
+		je.setFeature("testFeature", "value");
+		Assert.assertEquals(Arrays.asList(je),
+				lexicon.getWords(LexicalCategory.PRONOUN, features));
+		je.removeFeature("testFeature");
+		Assert.assertTrue(lexicon.getWords(LexicalCategory.PRONOUN, features).isEmpty());
+		Assert.assertFalse(lexicon.isLoading());
+
+		// words created after loading are found with the words of their
+		// category only
+		features.remove(Feature.PERSON);
+		features.remove(Feature.NUMBER);
+		WordElement created = lexicon.getWord("zorglub", LexicalCategory.NOUN);
+		created.setFeature("testFeature", "value");
+		Assert.assertEquals(Arrays.asList(created),
+				lexicon.getWords(LexicalCategory.NOUN, features));
+		Assert.assertTrue(lexicon.getWords(LexicalCategory.VERB, features).isEmpty());
+		Assert.assertEquals(Arrays.asList(created),
+				lexicon.getWords(LexicalCategory.ANY, features));
+		created.removeFeature("testFeature");
+		Assert.assertTrue(lexicon.getWords(LexicalCategory.NOUN, features).isEmpty());
+	}
+
+	/**
+	 * The pronoun paradigm gives the same pronoun as comparing the features
+	 * of every pronoun, for every combination of the features of its key,
+	 * and is built again when a pronoun changes.
+	 */
+	@Test
+	public void testPronounParadigm() {
+		PronounParadigm paradigm = lexicon.getPronounParadigm();
+		Assert.assertSame(paradigm, lexicon.getPronounParadigm());
+		List<WordElement> pronouns = lexicon.getWords(LexicalCategory.PRONOUN, null);
+
+		Object u = PronounParadigm.UNSPECIFIED;
+		List<Object> persons = new ArrayList<Object>(Arrays.asList(u, null, false));
+		persons.addAll(Arrays.asList(Person.values()));
+		List<Object> numbers = new ArrayList<Object>(Arrays.asList(u, null, false));
+		numbers.addAll(Arrays.asList(NumberAgreement.values()));
+		List<Object> genders = new ArrayList<Object>(Arrays.asList(u, null, false));
+		genders.addAll(Arrays.asList(Gender.values()));
+		List<Object> functions = Arrays.asList(u, null, false, DiscourseFunction.SUBJECT,
+				DiscourseFunction.OBJECT, DiscourseFunction.INDIRECT_OBJECT,
+				DiscourseFunction.COMPLEMENT);
+		List<Object> booleans = Arrays.<Object>asList(u, null, false, true);
+
+		int found = 0;
+		for (PronounType type : PronounType.values()) {
+			// every combination for personal pronouns, only person and number
+			// for the other types
+			boolean personal = type == PronounType.PERSONAL;
+			for (Object person : persons)
+			for (Object number : numbers)
+			for (Object gender : personal ? genders : Arrays.asList(u))
+			for (Object function : personal ? functions : Arrays.asList(u))
+			for (Object reflexive : personal ? booleans : Arrays.asList(u))
+			for (Object detached : personal ? booleans : Arrays.asList(u))
+			for (Object possessive : booleans) {
+				Map<String, Object> features = new HashMap<String, Object>();
+				features.put(FrenchLexicalFeature.PRONOUN_TYPE, type);
+				Object[] values = {person, number, gender, function, reflexive, detached, possessive};
+				String[] names = {Feature.PERSON, Feature.NUMBER, LexicalFeature.GENDER,
+						InternalFeature.DISCOURSE_FUNCTION, LexicalFeature.REFLEXIVE,
+						FrenchLexicalFeature.DETACHED, Feature.POSSESSIVE};
+				for (int i = 0; i < values.length; i++) {
+					if (values[i] != u) features.put(names[i], values[i]);
+				}
+
+				WordElement expected = null;
+				for (WordElement pronoun : pronouns) {
+					if (matches(pronoun, features)) {
+						expected = pronoun;
+						break;
+					}
+				}
+				Assert.assertSame(features.toString(), expected, paradigm.getPronoun(type,
+						person, number, gender, function, reflexive, detached, possessive));
+				Assert.assertSame(features.toString(), expected, paradigm.getPronoun(features));
+				if (expected != null) found++;
+			}
+		}
+		Assert.assertTrue(found > 0);
+
+		// the table is built again when a pronoun changes
+		WordElement moi = paradigm.getPronoun(PronounType.PERSONAL, Person.FIRST,
+				NumberAgreement.SINGULAR, u, u, u, true, u);
+		Assert.assertEquals("moi", moi.getBaseForm());
+		moi.setFeature(FrenchLexicalFeature.DETACHED, false);
+		Assert.assertNotSame(paradigm, lexicon.getPronounParadigm());
+		Assert.assertNotSame(moi, lexicon.getPronounParadigm().getPronoun(
+				PronounType.PERSONAL, Person.FIRST, NumberAgreement.SINGULAR,
+				u, u, u, true, u));
+		moi.setFeature(FrenchLexicalFeature.DETACHED, true);
+	}
+
+	/**
+	 * A word created for an unknown base form is found again by its
+	 * variants, as the words loaded are.
+	 */
+	@Test
+	public void testCreatedWordVariants() {
+		WordElement blorfler = lexicon.lookupWord("blorfler", LexicalCategory.VERB);
+		Assert.assertSame(blorfler, lexicon.lookupWord("blorflons", LexicalCategory.VERB));
+		Assert.assertSame(blorfler, lexicon.getWordFromVariant("blorfleront",
+				LexicalCategory.VERB));
+		Assert.assertTrue(lexicon.getWordsFromVariant("blorflons", LexicalCategory.VERB)
+				.contains(blorfler));
+		Assert.assertTrue(lexicon.getWordsFromVariant("blorflons", LexicalCategory.NOUN)
+				.isEmpty());
+	}
+
+	/**
+	 * Compares the features of a word one by one.
+	 */
+	private static boolean matches(WordElement word, Map<String, Object> features) {
+		for (Map.Entry<String, Object> entry : features.entrySet()) {
+			Object value = word.getFeature(entry.getKey());
+			if (value == null) {
+				if (entry.getValue() != null && entry.getValue() != Boolean.FALSE) return false;
+			} else if (!value.equals(entry.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean equals(Object o1, Object o2) {
+		return o1 == null ? o2 == null : o1.equals(o2);
+	}
 	
 
 